@@ -0,0 +1,110 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.benchmarks.StringPool;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TableRowImpl.appendXMLToTable on a row of `columns` cells: strings, doubles, ints and dates.
+ *
+ * @author J. Férard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableRowBenchmark {
+    private static final int ROWS = 64;
+
+    @Param({"10", "100"})
+    public int columns;
+
+    @Param({"10", "100000"})
+    public int cardinality;
+
+    private TableRowImpl[] rows;
+    private XMLUtil xmlUtil;
+    private StringBuilder sb;
+    private int n;
+
+    @Setup
+    public void setUp() throws IOException {
+        final AnonymousOdsFileWriter writer = OdsFactory.create().createWriter();
+        final Table table = writer.document().addTable("bench");
+        final StringPool pool = StringPool.create(this.cardinality, 0);
+        final LocalDate date = LocalDate.of(2000, 1, 1);
+        this.rows = new TableRowImpl[ROWS];
+        int i = 0;
+        for (int r = 0; r < ROWS; r++) {
+            final TableRowImpl row = table.getRow(r);
+            for (int c = 0; c < this.columns; c++) {
+                final TableCell cell = row.getOrCreateCell(c);
+                switch (c % 4) {
+                    case 0:
+                        cell.setStringValue(pool.get(i));
+                        break;
+                    case 1:
+                        cell.setFloatValue(i / 100.0);
+                        break;
+                    case 2:
+                        cell.setFloatValue(i);
+                        break;
+                    default:
+                        cell.setDateValue(date.plusDays(i & 0xFFF));
+                        break;
+                }
+                i++;
+            }
+            this.rows[r] = row;
+        }
+        this.xmlUtil = XMLUtil.create();
+        this.sb = new StringBuilder();
+    }
+
+    @Benchmark
+    public int appendXMLToTable() throws IOException {
+        this.sb.setLength(0);
+        this.rows[this.n++ % ROWS].appendXMLToTable(this.xmlUtil, this.sb);
+        return this.sb.length();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.benchmarks.NullOutputStream;
+import com.github.jferard.fastods.benchmarks.StringPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * End to end generation of a document of `cells` cells: one column out of four is a string,
+ * the others are numbers. The anonymous writer saves to a discarding stream, the named writer
+ * flushes the rows to a temporary file.
+ *
+ * @author J. Férard
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class WriterBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int cells;
+
+    @Param({"10", "100"})
+    public int columns;
+
+    @Param({"100", "100000"})
+    public int cardinality;
+
+    private OdsFactory odsFactory;
+    private StringPool pool;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Logger logger = Logger.getLogger("bench");
+        logger.setLevel(Level.WARNING);
+        this.odsFactory = OdsFactory.create(logger, Locale.US);
+        this.pool = StringPool.create(this.cardinality, 0);
+        this.file = File.createTempFile("fastods-bench", ".ods");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (!this.file.delete()) {
+            this.file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public void anonymousWriter() throws IOException {
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+        this.fill(writer.document().addTable("bench"));
+        writer.save(new NullOutputStream());
+    }
+
+    @Benchmark
+    public void namedWriter() throws IOException {
+        final NamedOdsFileWriter writer = this.odsFactory.createWriter(this.file);
+        this.fill(writer.document().addTable("bench"));
+        writer.save();
+    }
+
+    private void fill(final Table table) throws IOException {
+        final TableCellWalker walker = table.getWalker();
+        final int rows = this.cells / this.columns;
+        int i = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < this.columns; c++) {
+                switch (c % 4) {
+                    case 0:
+                        walker.setStringValue(this.pool.get(i));
+                        break;
+                    case 1:
+                        walker.setFloatValue(i / 100.0);
+                        break;
+                    default:
+                        walker.setFloatValue(i);
+                        break;
+                }
+                walker.next();
+                i++;
+            }
+            walker.nextRow();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.benchmarks;
+
+import java.util.Random;
+
+/**
+ * A pool of strings with a given cardinality. Some of the strings contain characters that must
+ * be escaped in XML.
+ *
+ * @author J. Férard
+ */
+public final class StringPool {
+    private static final String[] PREFIXES = {"value", "R&D", "a < b", "\"quoted\"", "Café"};
+
+    /**
+     * @param cardinality the number of distinct strings
+     * @param seed        the seed of the random generator
+     * @return the pool
+     */
+    public static StringPool create(final int cardinality, final long seed) {
+        final Random random = new Random(seed);
+        final String[] strings = new String[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            strings[i] = PREFIXES[random.nextInt(PREFIXES.length)] + " " + i;
+        }
+        return new StringPool(strings);
+    }
+
+    private final String[] strings;
+
+    /**
+     * @param strings the distinct strings
+     */
+    StringPool(final String[] strings) {
+        this.strings = strings;
+    }
+
+    /**
+     * @param i any positive int
+     * @return a string of the pool
+     */
+    public String get(final int i) {
+        return this.strings[i % this.strings.length];
+    }
+}
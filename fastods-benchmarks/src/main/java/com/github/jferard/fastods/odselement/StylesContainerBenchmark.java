@@ -0,0 +1,86 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.odselement;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.style.TableCellStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * StylesContainerImpl.addChildCellStyle: the lookup of the anonymous style of a (style, data
+ * style) pair, as done for every cell that has a style and a data style.
+ *
+ * @author J. Férard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StylesContainerBenchmark {
+    @Param({"1", "10", "1000"})
+    public int styles;
+
+    private StylesContainerImpl container;
+    private TableCellStyle[] cellStyles;
+    private DataStyle[] dataStyles;
+    private int n;
+
+    @Setup
+    public void setUp() {
+        this.container = new StylesContainerImpl(Logger.getLogger("bench"));
+        this.cellStyles = new TableCellStyle[this.styles];
+        for (int i = 0; i < this.styles; i++) {
+            this.cellStyles[i] = TableCellStyle.builder("style" + i).build();
+        }
+        final DataStyles ds = DataStylesBuilder.create(Locale.US).build();
+        this.dataStyles = new DataStyle[]{ds.getDateDataStyle(), ds.getPercentageDataStyle(),
+                ds.getTimeDataStyle()};
+    }
+
+    @Benchmark
+    public TableCellStyle addChildCellStyle() {
+        final int i = this.n++;
+        return this.container.addChildCellStyle(this.cellStyles[i % this.styles],
+                this.dataStyles[i % this.dataStyles.length]);
+    }
+}
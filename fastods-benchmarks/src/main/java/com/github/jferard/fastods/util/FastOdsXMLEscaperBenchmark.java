@@ -0,0 +1,86 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import com.github.jferard.fastods.benchmarks.StringPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FastOdsXMLEscaper on a pool of strings: the cardinality drives the hit rate of the caches.
+ *
+ * @author J. Férard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FastOdsXMLEscaperBenchmark {
+    @Param({"10", "1000", "1000000"})
+    public int cardinality;
+
+    private FastOdsXMLEscaper escaper;
+    private StringPool pool;
+    private StringBuilder sb;
+    private int n;
+
+    @Setup
+    public void setUp() {
+        this.escaper = FastOdsXMLEscaper.create();
+        this.pool = StringPool.create(this.cardinality, 0);
+        this.sb = new StringBuilder();
+    }
+
+    @Benchmark
+    public String escapeXMLAttribute() {
+        return this.escaper.escapeXMLAttribute(this.pool.get(this.n++));
+    }
+
+    @Benchmark
+    public String escapeXMLContent() {
+        return this.escaper.escapeXMLContent(this.pool.get(this.n++));
+    }
+
+    @Benchmark
+    public int appendEscapedXMLAttribute() throws IOException {
+        this.sb.setLength(0);
+        this.escaper.appendEscapedXMLAttribute(this.sb, this.pool.get(this.n++));
+        return this.sb.length();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import com.github.jferard.fastods.benchmarks.NullOutputStream;
+import com.github.jferard.fastods.odselement.StandardOdsEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZipUTF8WriterImpl throughput: an operation writes a content.xml-like entry of `megabytes`
+ * MB. The output is discarded.
+ *
+ * @author J. Férard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZipUTF8WriterBenchmark {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Param({"16"})
+    public int megabytes;
+
+    @Param({"1", "6"})
+    public int level;
+
+    /**
+     * 0 for the default ZipOutputStream, else the number of deflate threads.
+     */
+    @Param({"0", "4"})
+    public int deflateThreads;
+
+    private String chunk;
+    private ZipUTF8WriterBuilderImpl builder;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        final StringBuilder sb = new StringBuilder(CHUNK_SIZE + 256);
+        while (sb.length() < CHUNK_SIZE) {
+            sb.append("<table:table-cell office:value-type=\"float\" office:value=\"")
+                    .append(random.nextInt(100000)).append("\"/>");
+        }
+        this.chunk = sb.toString();
+        this.builder = ZipUTF8WriterImpl.builder().level(this.level);
+        if (this.deflateThreads > 0) {
+            this.builder.parallelDeflate(this.deflateThreads);
+        }
+    }
+
+    @Benchmark
+    public void writeEntry() throws IOException {
+        final ZipUTF8Writer writer = this.builder.build(new NullOutputStream());
+        writer.putAndRegisterNextEntry(new StandardOdsEntry("content.xml", "text/xml", null));
+        final long chunks = (long) this.megabytes * 1024 * 1024 / this.chunk.length();
+        for (long i = 0; i < chunks; i++) {
+            writer.append(this.chunk);
+        }
+        writer.closeEntry();
+        writer.finish();
+        writer.close();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A byte buffer that keeps the data on the heap up to a threshold, then moves it to a temp
+ * file. The stored entries of a zip archive need the size and the CRC32 before the data:
+ * the encrypted data is spooled while those values are computed.
+ */
+class ByteSpool extends OutputStream {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * @param threshold the max number of bytes on the heap
+     * @return the spool
+     */
+    static ByteSpool create(final int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be > 0");
+        }
+        return new ByteSpool(threshold);
+    }
+
+    private final int threshold;
+    private byte[] buffer;
+    private int count;
+    private File file;
+    private OutputStream fileStream;
+    private long size;
+
+    /**
+     * @param threshold the max number of bytes on the heap
+     */
+    ByteSpool(final int threshold) {
+        this.threshold = threshold;
+        this.buffer = new byte[Math.min(threshold, INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.fileStream == null) {
+            if (this.count + len <= this.threshold) {
+                this.ensureCapacity(this.count + len);
+                System.arraycopy(b, off, this.buffer, this.count, len);
+                this.count += len;
+                this.size += len;
+                return;
+            }
+            this.spill();
+        }
+        this.fileStream.write(b, off, len);
+        this.size += len;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > this.buffer.length) {
+            final int newCapacity = Math.min(Math.max(capacity, 2 * this.buffer.length),
+                    this.threshold);
+            this.buffer = Arrays.copyOf(this.buffer, newCapacity);
+        }
+    }
+
+    private void spill() throws IOException {
+        this.file = File.createTempFile("fastods", ".spool");
+        this.fileStream = new BufferedOutputStream(new FileOutputStream(this.file), CHUNK_SIZE);
+        this.fileStream.write(this.buffer, 0, this.count);
+        this.buffer = null;
+        this.count = 0;
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * @return true if the data is in a temp file
+     */
+    boolean isSpilled() {
+        return this.file != null;
+    }
+
+    /**
+     * Write the data to a stream, by chunks.
+     *
+     * @param out the destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        if (this.fileStream == null) {
+            out.write(this.buffer, 0, this.count);
+            return;
+        }
+        this.fileStream.close();
+        final InputStream is = new FileInputStream(this.file);
+        try {
+            final byte[] chunk = new byte[CHUNK_SIZE];
+            int n = is.read(chunk);
+            while (n != -1) {
+                out.write(chunk, 0, n);
+                n = is.read(chunk);
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Write the data to a zip writer, by chunks.
+     *
+     * @param writer the destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final ZipUTF8Writer writer) throws IOException {
+        if (this.fileStream == null) {
+            writer.write(Arrays.copyOf(this.buffer, this.count));
+            return;
+        }
+        this.fileStream.close();
+        final InputStream is = new FileInputStream(this.file);
+        try {
+            final byte[] chunk = new byte[CHUNK_SIZE];
+            int n = is.read(chunk);
+            while (n != -1) {
+                if (n == CHUNK_SIZE) {
+                    writer.write(chunk);
+                } else {
+                    writer.write(Arrays.copyOf(chunk, n));
+                }
+                n = is.read(chunk);
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Release the buffer and delete the temp file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.buffer = null;
+        if (this.fileStream != null) {
+            this.fileStream.close();
+            if (!this.file.delete()) {
+                this.file.deleteOnExit();
+            }
+        }
+    }
+}
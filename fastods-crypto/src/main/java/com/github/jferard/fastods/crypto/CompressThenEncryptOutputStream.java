@@ -0,0 +1,184 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A stream that DEFLATEs the data, then encrypts the compressed data, chunk by chunk. The sizes,
+ * the checksum of the compressed data and the CRC32 of the encrypted data are computed on the
+ * fly, hence the memory does not depend on the size of the data.
+ */
+class CompressThenEncryptOutputStream extends OutputStream {
+    /**
+     * The checksum is computed on the 1024 first compressed bytes ("SHA256/1K").
+     */
+    private static final int CHECKSUM_SIZE = 1024;
+
+    private final Deflater deflater;
+    private final Cipher cipher;
+    private final MessageDigest digest;
+    private final OutputStream out;
+    private final CRC32 crc32;
+    private final byte[] compressed;
+    private byte[] encrypted;
+    private int checksumCount;
+    private long plainDataSize;
+    private long compressedThenEncryptedDataSize;
+    private byte[] compressedChecksum;
+
+    /**
+     * @param deflater the deflater (raw DEFLATE, see `StandardEncrypter.compress`)
+     * @param cipher   the initialized cipher
+     * @param digest   the digest for the checksum of the compressed data
+     * @param out      the destination of the encrypted data
+     */
+    CompressThenEncryptOutputStream(final Deflater deflater, final Cipher cipher,
+                                    final MessageDigest digest, final OutputStream out) {
+        this.deflater = deflater;
+        this.cipher = cipher;
+        this.digest = digest;
+        this.out = out;
+        this.crc32 = new CRC32();
+        this.compressed = new byte[StandardEncrypter.BUFFER_SIZE];
+        this.encrypted = new byte[cipher.getOutputSize(StandardEncrypter.BUFFER_SIZE)];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.compressedChecksum != null) {
+            throw new IOException("Stream finished");
+        }
+        this.deflater.setInput(b, off, len);
+        while (!this.deflater.needsInput()) {
+            this.deflate();
+        }
+    }
+
+    private void deflate() throws IOException {
+        final int count = this.deflater.deflate(this.compressed, 0, this.compressed.length);
+        if (count > 0) {
+            this.encrypt(count);
+        }
+    }
+
+    private void encrypt(final int count) throws IOException {
+        if (this.checksumCount < CHECKSUM_SIZE) {
+            final int n = Math.min(count, CHECKSUM_SIZE - this.checksumCount);
+            this.digest.update(this.compressed, 0, n);
+            this.checksumCount += n;
+        }
+        this.ensureEncryptedCapacity(count);
+        try {
+            this.output(this.cipher.update(this.compressed, 0, count, this.encrypted));
+        } catch (final ShortBufferException e) {
+            throw new IOException("Can't encrypt file", e);
+        }
+    }
+
+    private void ensureEncryptedCapacity(final int count) {
+        final int outputSize = this.cipher.getOutputSize(count);
+        if (outputSize > this.encrypted.length) {
+            this.encrypted = new byte[outputSize];
+        }
+    }
+
+    private void output(final int count) throws IOException {
+        this.crc32.update(this.encrypted, 0, count);
+        this.compressedThenEncryptedDataSize += count;
+        this.out.write(this.encrypted, 0, count);
+    }
+
+    /**
+     * Compress and encrypt the remaining data. The stream can't be written after this call.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void finish() throws IOException {
+        if (this.compressedChecksum != null) {
+            return;
+        }
+        this.deflater.finish();
+        while (!this.deflater.finished()) {
+            this.deflate();
+        }
+        this.plainDataSize = this.deflater.getBytesRead();
+        this.deflater.end();
+        this.ensureEncryptedCapacity(0);
+        try {
+            this.output(this.cipher.doFinal(this.encrypted, 0));
+        } catch (final ShortBufferException | IllegalBlockSizeException
+                | BadPaddingException e) {
+            throw new IOException("Can't encrypt file", e);
+        }
+        this.compressedChecksum = this.digest.digest();
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.finish();
+    }
+
+    /**
+     * @return the size of the plain data, once finished
+     */
+    long getPlainDataSize() {
+        return this.plainDataSize;
+    }
+
+    /**
+     * @return the size of the compressed then encrypted data, once finished
+     */
+    long getCompressedThenEncryptedDataSize() {
+        return this.compressedThenEncryptedDataSize;
+    }
+
+    /**
+     * @return the CRC32 of the compressed then encrypted data, once finished
+     */
+    long getCrc32() {
+        return this.crc32.getValue();
+    }
+
+    /**
+     * @return the checksum of the 1024 first compressed bytes, once finished
+     */
+    byte[] getCompressedChecksum() {
+        return this.compressedChecksum;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import com.github.jferard.fastods.odselement.OdsEntry;
+
+import java.io.IOException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Callable;
+
+/**
+ * A task that derives the key, then compresses and encrypts the plain data of an entry. The
+ * key derivation is the expensive part.
+ */
+class EncryptTask implements Callable<PendingEntry> {
+    private final StandardEncrypter encrypter;
+    private final byte[] hashedPassword;
+    private final OdsEntry entry;
+    private final boolean register;
+    private final ByteSpool plainData;
+    private final byte[] salt;
+    private final byte[] iv;
+    private final int spoolThreshold;
+
+    /**
+     * @param encrypter      the encrypter
+     * @param hashedPassword the hashed password
+     * @param entry          the entry
+     * @param register       true if the entry has to be registered in the manifest
+     * @param plainData      the plain data. Closed by the task
+     * @param salt           the salt
+     * @param iv             the initialisation vector
+     * @param spoolThreshold the max size of the encrypted data on the heap
+     */
+    EncryptTask(final StandardEncrypter encrypter, final byte[] hashedPassword,
+                final OdsEntry entry, final boolean register, final ByteSpool plainData,
+                final byte[] salt, final byte[] iv, final int spoolThreshold) {
+        this.encrypter = encrypter;
+        this.hashedPassword = hashedPassword;
+        this.entry = entry;
+        this.register = register;
+        this.plainData = plainData;
+        this.salt = salt;
+        this.iv = iv;
+        this.spoolThreshold = spoolThreshold;
+    }
+
+    @Override
+    public PendingEntry call() throws IOException {
+        final ByteSpool data = ByteSpool.create(this.spoolThreshold);
+        try {
+            final CompressThenEncryptOutputStream out =
+                    this.encrypter.createCompressThenEncryptStream(this.hashedPassword,
+                            this.salt, this.iv, data);
+            this.plainData.writeTo(out);
+            return EncryptedEntry.create(this.encrypter, this.entry, this.register, out, data,
+                    this.salt, this.iv);
+        } catch (final NoSuchAlgorithmException | InvalidKeyException
+                | InvalidAlgorithmParameterException e) {
+            data.close();
+            throw new IOException("Can't encrypt file", e);
+        } catch (final IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        } finally {
+            this.plainData.close();
+        }
+    }
+}
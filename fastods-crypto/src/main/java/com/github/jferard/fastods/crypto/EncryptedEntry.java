@@ -0,0 +1,99 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import com.github.jferard.fastods.odselement.OdsEntry;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.bouncycastle.util.encoders.Base64;
+
+import java.io.IOException;
+
+/**
+ * An encrypted entry, with its compressed then encrypted data.
+ */
+class EncryptedEntry implements PendingEntry {
+    /**
+     * Finish the stream and build the encrypted entry.
+     *
+     * @param encrypter  the encrypter
+     * @param plainEntry the entry
+     * @param register   true if the entry has to be registered in the manifest
+     * @param out        the stream that was used to compress then encrypt the data
+     * @param data       the destination of the stream
+     * @param salt       the salt
+     * @param iv         the initialisation vector
+     * @return the encrypted entry
+     * @throws IOException if an I/O error occurs
+     */
+    static EncryptedEntry create(final StandardEncrypter encrypter, final OdsEntry plainEntry,
+                                 final boolean register,
+                                 final CompressThenEncryptOutputStream out,
+                                 final ByteSpool data, final byte[] salt, final byte[] iv)
+            throws IOException {
+        out.finish();
+        final OdsEntry entry = plainEntry.encryptParameters(
+                encrypter.buildParameters(
+                        (int) out.getPlainDataSize(),
+                        (int) out.getCompressedThenEncryptedDataSize(),
+                        out.getCrc32(),
+                        Base64.toBase64String(out.getCompressedChecksum()),
+                        Base64.toBase64String(salt), Base64.toBase64String(iv)));
+        return new EncryptedEntry(entry, register, data);
+    }
+
+    private final OdsEntry entry;
+    private final boolean register;
+    private final ByteSpool data;
+
+    /**
+     * @param entry    the entry, with the encryption parameters
+     * @param register true if the entry has to be registered in the manifest
+     * @param data     the compressed then encrypted data
+     */
+    EncryptedEntry(final OdsEntry entry, final boolean register, final ByteSpool data) {
+        this.entry = entry;
+        this.register = register;
+        this.data = data;
+    }
+
+    @Override
+    public void writeTo(final ZipUTF8Writer writer) throws IOException {
+        try {
+            if (this.register) {
+                writer.registerEntry(this.entry);
+            }
+            writer.putNextEntry(this.entry);
+            this.data.writeTo(writer);
+            writer.flush();
+            writer.closeEntry();
+        } finally {
+            this.data.close();
+        }
+    }
+
+    @Override
+    public void discard() throws IOException {
+        this.data.close();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+
+/**
+ * An operation of the `ZipUTF8CryptoWriter` that is waiting for its turn: the entries are
+ * encrypted in parallel, but written to the zip, and registered in the manifest, in order.
+ */
+interface PendingEntry {
+    /**
+     * Write this entry to the underlying writer.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(ZipUTF8Writer writer) throws IOException;
+
+    /**
+     * Release the resources, without writing the entry.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void discard() throws IOException;
+}
@@ -42,6 +42,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
@@ -53,7 +54,8 @@ import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
 /**
- * A class that can encrypt data
+ * A class that can encrypt data. The entries may be encrypted by several threads at once: each
+ * thread has its own cipher and digest.
  */
 class StandardEncrypter {
     public static final int BUFFER_SIZE = 4096;
@@ -70,6 +72,8 @@ class StandardEncrypter {
     private final EncryptParametersBuilder parametersBuilder;
     private final SecureRandom randomSecureRandom;
     private final Cipher cipher;
+    private final ThreadLocal<Cipher> ciphers;
+    private final ThreadLocal<MessageDigest> digests;
     private final int iterationCount;
     private final int startKeySize;
     private final int keySize;
@@ -83,6 +87,27 @@ class StandardEncrypter {
         Security.addProvider(new BouncyCastleProvider());
         this.randomSecureRandom = randomSecureRandom;
         this.cipher = cipher;
+        final String transformation = cipher.getAlgorithm();
+        this.ciphers = new ThreadLocal<Cipher>() {
+            @Override
+            protected Cipher initialValue() {
+                try {
+                    return Cipher.getInstance(transformation);
+                } catch (final NoSuchAlgorithmException | NoSuchPaddingException e) {
+                    throw new IllegalStateException(e); // the cipher was created once
+                }
+            }
+        };
+        this.digests = new ThreadLocal<MessageDigest>() {
+            @Override
+            protected MessageDigest initialValue() {
+                try {
+                    return MessageDigest.getInstance("SHA-256");
+                } catch (final NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e); // SHA-256 is pretty common
+                }
+            }
+        };
         this.iterationCount = iterationCount;
         this.startKeySize = startKeySize;
         this.keySize = keySize;
@@ -108,11 +133,35 @@ class StandardEncrypter {
             NoSuchPaddingException, InvalidAlgorithmParameterException,
             InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
         final Key key = this.getKey(salt, hashedPassword);
-        final Cipher cipher = Cipher.getInstance("AES/CBC/ISO10126Padding"); // W3C padding
+        final Cipher cipher = this.ciphers.get();
         cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
         return cipher.doFinal(compressedTextBytes);
     }
 
+    /**
+     * Create a stream that compresses, then encrypts the data on the fly. The cipher and the
+     * digest of the current thread are reused: one stream at a time by thread.
+     *
+     * @param hashedPassword the hashed password
+     * @param salt           the salt
+     * @param iv             the initialisation vector
+     * @param out            the destination of the compressed then encrypted data
+     * @return the stream
+     * @throws NoSuchAlgorithmException           if something fails
+     * @throws InvalidAlgorithmParameterException if something fails
+     * @throws InvalidKeyException                if something fails
+     */
+    public CompressThenEncryptOutputStream createCompressThenEncryptStream(
+            final byte[] hashedPassword, final byte[] salt, final byte[] iv,
+            final OutputStream out) throws NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
+        final Key key = this.getKey(salt, hashedPassword);
+        final Cipher cipher = this.ciphers.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        return new CompressThenEncryptOutputStream(
+                new Deflater(Deflater.BEST_COMPRESSION, true), cipher, this.digests.get(), out);
+    }
+
     /**
      * @param salt           the salt
      * @param hashedPassword the hashed password
@@ -156,7 +205,7 @@ class StandardEncrypter {
      * @throws NoSuchAlgorithmException should not happen
      */
     public byte[] getDataChecksum(final byte[] data) throws NoSuchAlgorithmException {
-        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        final MessageDigest digest = this.digests.get();
         digest.update(data, 0, Math.min(data.length, 1024));
         return digest.digest();
     }
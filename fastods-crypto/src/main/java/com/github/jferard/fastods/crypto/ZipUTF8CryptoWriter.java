@@ -27,24 +27,28 @@ package com.github.jferard.fastods.crypto;
 import com.github.jferard.fastods.annotation.Beta;
 import com.github.jferard.fastods.odselement.OdsEntry;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
-import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
-import org.bouncycastle.util.encoders.Base64;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.util.zip.CRC32;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A writer that encypts data on the fly.
+ * <p>
+ * With an executor, the plain data of an entry is kept until the entry is closed, then the key
+ * derivation, the compression and the encryption are done by the executor while the next entry
+ * is generated. The entries are written to the zip, and registered in the manifest, in order.
  */
 @Beta
 public class ZipUTF8CryptoWriter implements ZipUTF8Writer {
@@ -55,24 +59,73 @@ public class ZipUTF8CryptoWriter implements ZipUTF8Writer {
      * @return a builder
      * @throws NoSuchAlgorithmException won't happen since SHA-256 is pretty common
      */
-    public static ZipUTF8WriterBuilder builder(final char[] password)
+    public static ZipUTF8CryptoWriterBuilder builder(final char[] password)
             throws NoSuchAlgorithmException {
         return ZipUTF8CryptoWriterBuilder.create(password);
     }
 
+    /**
+     * The max size of the data of an entry on the heap. Above, the data is spooled in a temp
+     * file.
+     */
+    static final int SPOOL_THRESHOLD = 1024 * 1024;
+
     private final ZipUTF8Writer zipUTF8Writer;
     private final StandardEncrypter encrypter;
     private final byte[] hashedPassword;
-    private ByteArrayOutputStream out;
+    private final int spoolThreshold;
+    private final ExecutorService executor;
+    private final boolean shutdownExecutor;
+    private final int maxPendingEntries;
+    private final Deque<Future<PendingEntry>> pendingEntries;
+    private ByteSpool spool;
+    private OutputStream out;
+    private CompressThenEncryptOutputStream encryptOut;
     private Writer writer;
     private OdsEntry curEntry;
+    private byte[] salt;
+    private byte[] iv;
     private boolean toRegister;
 
     public ZipUTF8CryptoWriter(final ZipUTF8Writer zipUTF8Writer,
                                final StandardEncrypter encrypter, final byte[] hashedPassword) {
+        this(zipUTF8Writer, encrypter, hashedPassword, SPOOL_THRESHOLD);
+    }
+
+    /**
+     * @param zipUTF8Writer  the underlying writer
+     * @param encrypter      the encrypter
+     * @param hashedPassword the hashed password
+     * @param spoolThreshold the max size of the data of an entry on the heap
+     */
+    ZipUTF8CryptoWriter(final ZipUTF8Writer zipUTF8Writer,
+                        final StandardEncrypter encrypter, final byte[] hashedPassword,
+                        final int spoolThreshold) {
+        this(zipUTF8Writer, encrypter, hashedPassword, spoolThreshold, null, false, 0);
+    }
+
+    /**
+     * @param zipUTF8Writer     the underlying writer
+     * @param encrypter         the encrypter
+     * @param hashedPassword    the hashed password
+     * @param spoolThreshold    the max size of the data of an entry on the heap
+     * @param executor          the executor that encrypts the entries, or null to encrypt the
+     *                          entries on the fly
+     * @param shutdownExecutor  true if the executor is owned by this writer
+     * @param maxPendingEntries the max number of entries in the executor
+     */
+    ZipUTF8CryptoWriter(final ZipUTF8Writer zipUTF8Writer,
+                        final StandardEncrypter encrypter, final byte[] hashedPassword,
+                        final int spoolThreshold, final ExecutorService executor,
+                        final boolean shutdownExecutor, final int maxPendingEntries) {
         this.zipUTF8Writer = zipUTF8Writer;
         this.encrypter = encrypter;
         this.hashedPassword = hashedPassword;
+        this.spoolThreshold = spoolThreshold;
+        this.executor = executor;
+        this.shutdownExecutor = shutdownExecutor;
+        this.maxPendingEntries = maxPendingEntries;
+        this.pendingEntries = new ArrayDeque<Future<PendingEntry>>();
     }
 
     @Override
@@ -81,7 +134,7 @@ public class ZipUTF8CryptoWriter implements ZipUTF8Writer {
     }
 
     @Override
-    public void putAndRegisterNextEntry(final OdsEntry entry) {
+    public void putAndRegisterNextEntry(final OdsEntry entry) throws IOException {
         this.toRegister = true;
         this.putNextEntry(entry);
     }
@@ -89,112 +142,207 @@ public class ZipUTF8CryptoWriter implements ZipUTF8Writer {
     @Override
     public void registerEntry(final OdsEntry entry) {
         this.toRegister = false;
-        this.zipUTF8Writer.registerEntry(entry);
+        if (this.pendingEntries.isEmpty()) {
+            this.zipUTF8Writer.registerEntry(entry);
+        } else {
+            this.pendingEntries.add(
+                    CompletableFuture.<PendingEntry>completedFuture(new RegisteredEntry(entry)));
+        }
     }
 
+    /**
+     * Entries that are never encrypted are written directly. Other entries are compressed,
+     * then encrypted, and the result is spooled until it is written, because the size and the
+     * CRC32 of a stored entry must be known before the data.
+     *
+     * @param entry the entry
+     * @throws IOException if the encryption can't be initialized
+     */
     @Override
-    public void putNextEntry(final OdsEntry entry) {
+    public void putNextEntry(final OdsEntry entry) throws IOException {
         this.curEntry = entry;
-        this.out = new ByteArrayOutputStream();
+        if (entry.neverEncrypt()) {
+            this.writePendingEntries();
+            this.zipUTF8Writer.putNextEntry(entry);
+            return;
+        }
+        this.salt = this.encrypter.generateSalt();
+        this.iv = this.encrypter.generateIV();
+        this.spool = ByteSpool.create(this.spoolThreshold);
+        if (this.executor == null) {
+            try {
+                this.encryptOut = this.encrypter.createCompressThenEncryptStream(
+                        this.hashedPassword, this.salt, this.iv, this.spool);
+            } catch (final NoSuchAlgorithmException | InvalidKeyException
+                    | InvalidAlgorithmParameterException e) {
+                this.spool.close();
+                throw new IOException("Can't encrypt file", e);
+            }
+            this.out = this.encryptOut;
+        } else {
+            this.out = this.spool;
+        }
         this.writer = new OutputStreamWriter(this.out, StandardCharsets.UTF_8);
     }
 
     @Override
     public void closeEntry() throws IOException {
-        this.writer.flush();
-        final byte[] plainTextBytes = this.out.toByteArray();
-        final EntryAndData entryAndData;
-        if (this.curEntry.neverEncrypt()) {
-            entryAndData = new EntryAndData(this.curEntry, plainTextBytes);
-        } else {
-            entryAndData = this.getEncryptedEntryAndData(plainTextBytes);
-            if (this.toRegister) {
-                this.zipUTF8Writer.registerEntry(entryAndData.getEntry());
-                this.toRegister = false;
+        final OdsEntry entry = this.curEntry;
+        this.curEntry = null;
+        if (entry.neverEncrypt()) {
+            this.zipUTF8Writer.closeEntry();
+            return;
+        }
+        final boolean register = this.toRegister;
+        final ByteSpool data = this.spool;
+        final CompressThenEncryptOutputStream encryptOut = this.encryptOut;
+        final Writer writer = this.writer;
+        this.toRegister = false;
+        this.spool = null;
+        this.out = null;
+        this.encryptOut = null;
+        this.writer = null;
+        try {
+            writer.flush();
+        } catch (final IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        }
+        if (this.executor == null) {
+            final EncryptedEntry encryptedEntry;
+            try {
+                encryptedEntry = EncryptedEntry.create(this.encrypter, entry, register,
+                        encryptOut, data, this.salt, this.iv);
+            } catch (final IOException | RuntimeException e) {
+                data.close();
+                throw e;
             }
+            encryptedEntry.writeTo(this.zipUTF8Writer);
+        } else {
+            // the task owns the data
+            this.pendingEntries.add(this.executor.submit(
+                    new EncryptTask(this.encrypter, this.hashedPassword, entry, register, data,
+                            this.salt, this.iv, this.spoolThreshold)));
+            this.writeDonePendingEntries();
         }
-        this.zipUTF8Writer.putNextEntry(entryAndData.getEntry());
-        this.zipUTF8Writer.write(entryAndData.getData());
-        this.zipUTF8Writer.flush();
-        this.zipUTF8Writer.closeEntry();
-        this.curEntry = null;
     }
 
-    private EntryAndData getEncryptedEntryAndData(final byte[] plainTextBytes) throws IOException {
-        final EntryAndData entryAndData;
+    /**
+     * Write the first pending entries that are done, and wait for the first one if there are
+     * too many pending entries.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeDonePendingEntries() throws IOException {
+        if (this.pendingEntries.size() > this.maxPendingEntries) {
+            this.writePendingEntry();
+        }
+        while (!this.pendingEntries.isEmpty() && this.pendingEntries.peek().isDone()) {
+            this.writePendingEntry();
+        }
+    }
+
+    private void writePendingEntries() throws IOException {
+        while (!this.pendingEntries.isEmpty()) {
+            this.writePendingEntry();
+        }
+    }
+
+    private void writePendingEntry() throws IOException {
+        final Future<PendingEntry> future = this.pendingEntries.remove();
+        final PendingEntry pendingEntry;
         try {
-            entryAndData = this.getEncryptedEntryAndDataUnchecked(plainTextBytes);
-        } catch (final NoSuchAlgorithmException | InvalidKeyException
-                | InvalidAlgorithmParameterException | NoSuchPaddingException
-                | BadPaddingException | IllegalBlockSizeException e) {
-            throw new IOException("Can't encrypt file", e);
+            pendingEntry = future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Can't encrypt file", cause);
+        }
+        pendingEntry.writeTo(this.zipUTF8Writer);
+    }
+
+    /**
+     * Wait for the remaining tasks and release their resources.
+     */
+    private void discardPendingEntries() {
+        while (!this.pendingEntries.isEmpty()) {
+            try {
+                this.pendingEntries.remove().get().discard();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ExecutionException | IOException e) {
+                // the writer has already failed
+            }
         }
-        return entryAndData;
-    }
-
-    private EntryAndData getEncryptedEntryAndDataUnchecked(final byte[] plainTextBytes)
-            throws IOException, NoSuchAlgorithmException, NoSuchPaddingException,
-            InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException,
-            IllegalBlockSizeException {
-        final byte[] salt = this.encrypter.generateSalt();
-        final byte[] iv = this.encrypter.generateIV();
-        final byte[] compressedData = this.encrypter.compress(plainTextBytes);
-        final byte[] compressedThenEncryptedData = this.encrypter.encrypt(
-                compressedData, this.hashedPassword, salt, iv);
-        final String compressedCheckSum = Base64.toBase64String(
-                this.encrypter.getDataChecksum(compressedData));
-        final long crc32 = this.getCrc32(compressedThenEncryptedData);
-        final OdsEntry entry = this.curEntry.encryptParameters(
-                this.encrypter.buildParameters(
-                        plainTextBytes.length, compressedThenEncryptedData.length, crc32,
-                        compressedCheckSum,
-                        Base64.toBase64String(salt), Base64.toBase64String(iv)));
-        return new EntryAndData(entry, compressedThenEncryptedData);
-    }
-
-    private long getCrc32(final byte[] encryptedCompressedTextBytes) {
-        final CRC32 crc32 = new CRC32();
-        crc32.update(encryptedCompressedTextBytes);
-        return crc32.getValue();
     }
 
     @Override
     public void finish() throws IOException {
+        this.writePendingEntries();
         this.zipUTF8Writer.finish();
     }
 
     @Override
     public void write(final byte[] bytes) throws IOException {
-        this.out.write(bytes);
+        if (this.writer == null) {
+            this.zipUTF8Writer.write(bytes);
+        } else {
+            this.writer.flush();
+            this.out.write(bytes);
+        }
     }
 
     @Override
     public void close() throws IOException {
-        this.zipUTF8Writer.close();
+        try {
+            this.writePendingEntries();
+            this.zipUTF8Writer.close();
+        } finally {
+            this.discardPendingEntries();
+            if (this.shutdownExecutor) {
+                this.executor.shutdown();
+            }
+        }
     }
 
     @Override
     public void flush() throws IOException {
-        this.writer.flush();
-        this.out.flush();
+        if (this.writer == null) {
+            this.zipUTF8Writer.flush();
+        } else {
+            this.writer.flush();
+        }
     }
 
     @Override
     public Appendable append(final CharSequence csq) throws IOException {
-        this.writer.append(csq);
+        this.getAppendable().append(csq);
         return this;
     }
 
     @Override
     public Appendable append(final CharSequence csq, final int start, final int end)
             throws IOException {
-        this.writer.append(csq, start, end);
+        this.getAppendable().append(csq, start, end);
         return this;
     }
 
     @Override
     public Appendable append(final char c) throws IOException {
-        this.writer.append(c);
+        this.getAppendable().append(c);
         return this;
     }
+
+    private Appendable getAppendable() {
+        if (this.writer == null) {
+            return this.zipUTF8Writer;
+        }
+        return this.writer;
+    }
 }
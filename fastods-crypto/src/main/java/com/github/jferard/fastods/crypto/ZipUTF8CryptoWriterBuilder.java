@@ -36,6 +36,9 @@ import java.io.OutputStream;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * A builder for `ZipUTF8CryptoWriter`.
@@ -51,7 +54,7 @@ public class ZipUTF8CryptoWriterBuilder implements ZipUTF8WriterBuilder {
      * @return a builder
      * @throws NoSuchAlgorithmException won't happen since SHA-256 is pretty common
      */
-    public static ZipUTF8WriterBuilder create(final char[] password)
+    public static ZipUTF8CryptoWriterBuilder create(final char[] password)
             throws NoSuchAlgorithmException {
         return new ZipUTF8CryptoWriterBuilder(new ZipUTF8WriterBuilderImpl(),
                 EncryptParameters.builder(), password);
@@ -61,6 +64,8 @@ public class ZipUTF8CryptoWriterBuilder implements ZipUTF8WriterBuilder {
     private final ZipUTF8WriterBuilderImpl writerBuilder;
     private final EncryptParametersBuilder parametersBuilder;
     private final byte[] hashedPassword;
+    private int encryptThreads;
+    private ExecutorService encryptExecutor;
 
     /**
      * **Beware: for security reasons, this fills the password array with 0's**
@@ -76,17 +81,78 @@ public class ZipUTF8CryptoWriterBuilder implements ZipUTF8WriterBuilder {
         this.parametersBuilder = parametersBuilder;
         // We hash password and void array as soon as possible
         this.hashedPassword = Util.getPasswordChecksum(password, "SHA-256");
+        this.encryptThreads = 0;
+        this.encryptExecutor = null;
+    }
+
+    /**
+     * Encrypt the entries in parallel, on a new pool of threads: the key derivation of an entry
+     * is slow. The pool is shut down when the writer is closed.
+     *
+     * @param threads the number of threads
+     * @return this for fluent style
+     */
+    public ZipUTF8CryptoWriterBuilder parallelEncrypt(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.encryptThreads = threads;
+        this.encryptExecutor = null;
+        return this;
+    }
+
+    /**
+     * Encrypt the entries in parallel, on a given executor. The executor is not shut down by
+     * the writer.
+     *
+     * @param executor    the executor
+     * @param parallelism the number of threads of the executor that may be used
+     * @return this for fluent style
+     */
+    public ZipUTF8CryptoWriterBuilder parallelEncrypt(final ExecutorService executor,
+                                                      final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.encryptThreads = parallelism;
+        this.encryptExecutor = executor;
+        return this;
     }
 
     @Override
     public ZipUTF8CryptoWriter build(final OutputStream outputStream) {
+        final StandardEncrypter encrypter;
         try {
-            return new ZipUTF8CryptoWriter(this.writerBuilder.build(outputStream),
-                    new StandardEncrypter(SecureRandom.getInstance(SHA_1_PRNG),
-                            Cipher.getInstance(AES_CBC_ISO_10126_PADDING), 100000, 32, 32, this.parametersBuilder
-                    ), this.hashedPassword);
+            encrypter = new StandardEncrypter(SecureRandom.getInstance(SHA_1_PRNG),
+                    Cipher.getInstance(AES_CBC_ISO_10126_PADDING), 100000, 32, 32,
+                    this.parametersBuilder);
         } catch (final NoSuchAlgorithmException | NoSuchPaddingException e) {
             throw new RuntimeException(e);
         }
+        final ZipUTF8Writer writer = this.writerBuilder.build(outputStream);
+        if (this.encryptThreads == 0) {
+            return new ZipUTF8CryptoWriter(writer, encrypter, this.hashedPassword);
+        }
+        final ExecutorService executor;
+        final boolean shutdownExecutor;
+        if (this.encryptExecutor == null) {
+            executor = Executors.newFixedThreadPool(this.encryptThreads, new ThreadFactory() {
+                private int count = 0;
+
+                @Override
+                public synchronized Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "fastods-encrypt-" + this.count++);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            shutdownExecutor = true;
+        } else {
+            executor = this.encryptExecutor;
+            shutdownExecutor = false;
+        }
+        return new ZipUTF8CryptoWriter(writer, encrypter, this.hashedPassword,
+                ZipUTF8CryptoWriter.SPOOL_THRESHOLD, executor, shutdownExecutor,
+                2 * this.encryptThreads);
     }
 }
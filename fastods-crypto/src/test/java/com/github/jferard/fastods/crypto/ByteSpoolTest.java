@@ -0,0 +1,93 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+
+public class ByteSpoolTest {
+    @Test
+    public void testBadThreshold() {
+        Assert.assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+            @Override
+            public void run() {
+                ByteSpool.create(0);
+            }
+        });
+    }
+
+    @Test
+    public void testHeap() throws IOException {
+        final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
+
+        PowerMock.resetAll();
+        writer.write(EasyMock.aryEq(new byte[]{1, 2, 3, 4}));
+
+        PowerMock.replayAll();
+        final ByteSpool spool = ByteSpool.create(10);
+        spool.write(new byte[]{0, 1, 2, 3}, 1, 3);
+        spool.write(4);
+        Assert.assertEquals(4, spool.size());
+        Assert.assertFalse(spool.isSpilled());
+        spool.writeTo(writer);
+        spool.close();
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testSpilled() throws IOException {
+        final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
+        final byte[] bytes = new byte[100000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        final byte[] first = new byte[65536];
+        System.arraycopy(bytes, 0, first, 0, first.length);
+        final byte[] second = new byte[bytes.length - first.length];
+        System.arraycopy(bytes, first.length, second, 0, second.length);
+
+        PowerMock.resetAll();
+        writer.write(EasyMock.aryEq(first));
+        writer.write(EasyMock.aryEq(second));
+
+        PowerMock.replayAll();
+        final ByteSpool spool = ByteSpool.create(1000);
+        spool.write(bytes, 0, 500);
+        Assert.assertFalse(spool.isSpilled());
+        spool.write(bytes, 500, bytes.length - 500);
+        Assert.assertTrue(spool.isSpilled());
+        Assert.assertEquals(bytes.length, spool.size());
+        spool.writeTo(writer);
+        spool.close();
+
+        PowerMock.verifyAll();
+    }
+}
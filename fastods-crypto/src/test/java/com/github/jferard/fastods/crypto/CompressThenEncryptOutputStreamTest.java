@@ -0,0 +1,110 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.crypto;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public class CompressThenEncryptOutputStreamTest {
+    @Test
+    public void testRoundTrip() throws IOException, GeneralSecurityException {
+        final StringBuilder sb = new StringBuilder();
+        final Random random = new Random(0);
+        for (int i = 0; i < 50000; i++) {
+            sb.append(random.nextInt(1000)).append(',');
+        }
+        final byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+        final SecretKeySpec key = new SecretKeySpec(new byte[32], "AES");
+        final IvParameterSpec iv = new IvParameterSpec(new byte[16]);
+        final Cipher cipher = Cipher.getInstance("AES/CBC/ISO10126Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final CompressThenEncryptOutputStream out = new CompressThenEncryptOutputStream(
+                new Deflater(Deflater.BEST_COMPRESSION, true), cipher,
+                MessageDigest.getInstance("SHA-256"), bos);
+        out.write(data, 0, 1000);
+        out.write(data[1000]);
+        out.write(data, 1001, data.length - 1001);
+        out.close();
+        final byte[] encrypted = bos.toByteArray();
+
+        Assert.assertEquals(data.length, out.getPlainDataSize());
+        Assert.assertEquals(encrypted.length, out.getCompressedThenEncryptedDataSize());
+        final CRC32 crc32 = new CRC32();
+        crc32.update(encrypted);
+        Assert.assertEquals(crc32.getValue(), out.getCrc32());
+
+        final Cipher decipher = Cipher.getInstance("AES/CBC/ISO10126Padding");
+        decipher.init(Cipher.DECRYPT_MODE, key, iv);
+        final byte[] compressed = decipher.doFinal(encrypted);
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(compressed, 0, 1024);
+        Assert.assertArrayEquals(digest.digest(), out.getCompressedChecksum());
+        Assert.assertArrayEquals(data, this.inflate(compressed));
+    }
+
+    @Test
+    public void testWriteAfterFinish() throws IOException, GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance("AES/CBC/ISO10126Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(new byte[32], "AES"),
+                new IvParameterSpec(new byte[16]));
+        final CompressThenEncryptOutputStream out = new CompressThenEncryptOutputStream(
+                new Deflater(Deflater.BEST_COMPRESSION, true), cipher,
+                MessageDigest.getInstance("SHA-256"), new ByteArrayOutputStream());
+        out.finish();
+        out.finish();
+        Assert.assertEquals(0, out.getPlainDataSize());
+        Assert.assertEquals(16, out.getCompressedThenEncryptedDataSize());
+        Assert.assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    private byte[] inflate(final byte[] compressed) throws IOException {
+        final InflaterInputStream is = new InflaterInputStream(
+                new ByteArrayInputStream(compressed), new Inflater(true));
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int n = is.read(buffer);
+        while (n != -1) {
+            bos.write(buffer, 0, n);
+            n = is.read(buffer);
+        }
+        return bos.toByteArray();
+    }
+}
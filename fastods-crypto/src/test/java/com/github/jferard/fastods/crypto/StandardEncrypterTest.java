@@ -39,6 +39,7 @@ import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
@@ -95,6 +96,39 @@ public class StandardEncrypterTest {
                 Arrays.copyOfRange(encrypted, 0, 224));
     }
 
+    @Test
+    public void testStream() throws NoSuchPaddingException, NoSuchAlgorithmException,
+            IOException, IllegalBlockSizeException, BadPaddingException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
+        final StandardEncrypter encrypter = new StandardEncrypter(
+                new SecureRandom(), Cipher.getInstance("AES/CBC/ISO10126Padding"),
+                1000, 32, 32, EncryptParameters.builder()
+        );
+        final byte[] hashedPassword = Util.getPasswordChecksum(new char[]{'1', '2', '3'},
+                "SHA-256");
+        final byte[] salt = encrypter.generateSalt();
+        final byte[] iv = encrypter.generateIV();
+        final byte[] source = "Hello, world! Hello, world! Hello, world!"
+                .getBytes(StandardCharsets.UTF_8);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final CompressThenEncryptOutputStream out =
+                encrypter.createCompressThenEncryptStream(hashedPassword, salt, iv, bos);
+        out.write(source);
+        out.close();
+
+        final byte[] compressed = encrypter.compress(source);
+        final byte[] expected = encrypter.encrypt(compressed, hashedPassword, salt, iv);
+        final byte[] actual = bos.toByteArray();
+        Assert.assertEquals(source.length, out.getPlainDataSize());
+        Assert.assertEquals(expected.length, actual.length);
+        Assert.assertArrayEquals(encrypter.getDataChecksum(compressed),
+                out.getCompressedChecksum());
+        // ISO10126 padding is random: skip the last block
+        Assert.assertArrayEquals(Arrays.copyOfRange(expected, 0, expected.length - 16),
+                Arrays.copyOfRange(actual, 0, actual.length - 16));
+    }
+
     @Test
     public void testIVandSalt() throws NoSuchPaddingException, NoSuchAlgorithmException {
         final SecureRandom sr = PowerMock.createMock(SecureRandom.class);
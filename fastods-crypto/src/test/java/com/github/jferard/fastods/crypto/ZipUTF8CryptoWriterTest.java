@@ -29,24 +29,41 @@ import com.github.jferard.fastods.odselement.EncryptParametersBuilder;
 import com.github.jferard.fastods.odselement.StandardOdsEntry;
 import com.github.jferard.fastods.odselement.UnregisteredOdsEntry;
 import com.github.jferard.fastods.odselement.UnregisteredStoredEntry;
-import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilderImpl;
+import org.bouncycastle.util.encoders.Base64;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.NullCipher;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 public class ZipUTF8CryptoWriterTest {
     @Test
@@ -80,28 +97,23 @@ public class ZipUTF8CryptoWriterTest {
     }
 
     @Test
-    public void testPutUnregistred()
-            throws IOException, NoSuchPaddingException, InvalidKeyException,
-            NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException,
-            InvalidAlgorithmParameterException {
+    public void testPutUnregistred() throws IOException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
         final StandardEncrypter encrypter = PowerMock.createMock(StandardEncrypter.class);
         final byte[] data = "foo".getBytes(StandardCharsets.UTF_8);
-        final char[] password = {65, 66, 67};
-        final byte[] hashedPassword = Util.getPasswordChecksum(password, "SHA-256");
+        final byte[] hashedPassword = Util.getPasswordChecksum(new char[]{65, 66, 67}, "SHA-256");
         final byte[] salt = new byte[16];
         final byte[] iv = new byte[16];
+        final byte[] cdata = this.deflate(data);
 
         PowerMock.resetAll();
         EasyMock.expect(encrypter.generateSalt()).andReturn(salt);
         EasyMock.expect(encrypter.generateIV()).andReturn(iv);
-        EasyMock.expect(encrypter.compress(data)).andReturn(data);
-        EasyMock.expect(encrypter.encrypt(data, hashedPassword, salt, iv
-                ))
-                .andReturn("bar".getBytes(StandardCharsets.UTF_8));
-        EasyMock.expect(encrypter.getDataChecksum(data))
-                .andReturn("baz".getBytes(StandardCharsets.UTF_8));
-        EasyMock.expect(encrypter.buildParameters(3, 3, 1996459178l,
-                "YmF6", "AAAAAAAAAAAAAAAAAAAAAA==", "AAAAAAAAAAAAAAAAAAAAAA==")).andReturn(null);
+        this.expectStream(encrypter, hashedPassword, salt, iv);
+        EasyMock.expect(encrypter.buildParameters(3, cdata.length, this.crc32(cdata),
+                        this.checksum(cdata), "AAAAAAAAAAAAAAAAAAAAAA==",
+                        "AAAAAAAAAAAAAAAAAAAAAA=="))
+                .andReturn(this.getParameters(3, cdata));
 
         PowerMock.replayAll();
         final ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -114,207 +126,186 @@ public class ZipUTF8CryptoWriterTest {
         writer.flush();
         writer.finish();
         writer.close();
-        final byte[] bytes = bos.toByteArray();
-        this.overrideLastMod(bytes, 10);
-        this.overrideLastMod(bytes, 65);
-        this.overrideLastMod(bytes, 244);
-        this.overrideLastMod(bytes, 294);
+
         PowerMock.verifyAll();
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals("path", zis.getNextEntry().getName());
+        Assert.assertArrayEquals(cdata, this.readAll(zis));
+        Assert.assertEquals("META-INF/manifest.xml", zis.getNextEntry().getName());
+        Assert.assertFalse(new String(this.readAll(zis), StandardCharsets.UTF_8).contains("path"));
+        Assert.assertNull(zis.getNextEntry());
+    }
 
-        Assert.assertArrayEquals(new byte[]{
-                // Local file header
-                'P', 'K', 3, 4, 20, 0, 8, 8, 8, 0, 127, 127, 127, 127, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-                0, 0, 4, 0, 0, 0, 'p', 'a', 't', 'h',
-                75, 74, 44, 2, 0,
-                // Data descriptor
-                'P', 'K', 7, 8, -86, -116, -1, 118, 5, 0, 0, 0, 3, 0, 0, 0,
-                // Local file header
-                'P', 'K', 3, 4, 20, 0, 8, 8, 8, 0, 127, 127, 127, 127, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-                0, 0, 21, 0, 0, 0, 'M', 'E', 'T', 'A', '-', 'I', 'N', 'F', '/', 'm', 'a', 'n', 'i',
-                'f', 'e', 's', 't', '.', 'x', 'm', 'l',
-                85, -115, 75, 10, 2, 49, 16, 68, -81, 18, 122, -17, 119, 37, 77, -110, -39, 121,
-                -126, -15, 0, 33, -45, 74, -64, 84, -53, 116, 70, 60, -66, 34, 100, -48, -35, 43,
-                -22, -25, -121, 87, -67, -69, -89, -52, 86, 20, -127, 14, -37, 61, 57, 65, -42, -87,
-                -32, 22, -24, 50, -98, 55, 39, 26, -94, -81, 9, -27, 42, -42, -72, -125, -5, -44,
-                96, -85, 12, -76, -52, 96, 77, 86, -116, -111, -86, 24, -73, -52, -6, 16, 76, -102,
-                -105, 42, 104, -4, -97, -25, -17, 81, 31, -29, -97, -1, 35, 69, -65, 91, -115, 14,
-                -15, 13,
-                // Data descriptor
-                'P', 'K', 7, 8, 80, 0, -56, 72, 110, 0, 0, 0, -88, 0, 0, 0,
-                // Central directory file header
-                'P', 'K', 1, 2, 20, 0, 20, 0, 8, 8, 8, 0, 127, 127, 127, 127, -86, -116, -1, 118, 5,
-                0, 0, 0, 3, 0, 0, 0, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 'p', 'a',
-                't', 'h',
-                // Central directory file header
-                'P', 'K', 1, 2, 20, 0, 20, 0, 8, 8, 8, 0, 127, 127, 127, 127, 80, 0, -56, 72, 110,
-                0, 0, 0, -88, 0, 0, 0, 21, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-                55, 0, 0, 0, 'M', 'E', 'T', 'A', '-', 'I', 'N', 'F', '/', 'm', 'a', 'n', 'i', 'f',
-                'e', 's', 't', '.', 'x', 'm', 'l',
-                // EOCD
-                'P', 'K', 5, 6, 0, 0, 0, 0, 2, 0, 2, 0, 117, 0, 0, 0, -24, 0, 0, 0, 0, 0}, bytes);
+    @Test
+    public void testPutAndRegister() throws IOException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
+        final byte[] data = "foobar".getBytes(StandardCharsets.UTF_8);
+        this.testRegistered(data, ZipUTF8CryptoWriter.SPOOL_THRESHOLD, new WriterFiller() {
+            @Override
+            public void fill(final ZipUTF8Writer writer) throws IOException {
+                writer.write(data);
+            }
+        });
     }
 
     @Test
-    public void testPutAndRegister()
-            throws IOException, NoSuchPaddingException, InvalidKeyException,
-            NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException,
-            InvalidAlgorithmParameterException {
-        final StandardEncrypter encrypter = PowerMock.createMock(StandardEncrypter.class);
-        final EncryptParameters parameters = PowerMock.createMock(EncryptParameters.class);
+    public void testAppend() throws IOException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
         final byte[] data = "foobar".getBytes(StandardCharsets.UTF_8);
-        final byte[] cdata = "foo".getBytes(StandardCharsets.UTF_8);
-        final byte[] cedata = "bar".getBytes(StandardCharsets.UTF_8);
-        final char[] password = {65, 66, 67};
-        final byte[] hashedPassword = Util.getPasswordChecksum(password, "SHA-256");
+        this.testRegistered(data, ZipUTF8CryptoWriter.SPOOL_THRESHOLD, new WriterFiller() {
+            @Override
+            public void fill(final ZipUTF8Writer writer) throws IOException {
+                writer.append("foo");
+                writer.append('b');
+                writer.append("bar", 1, 3);
+            }
+        });
+    }
+
+    @Test
+    public void testSpilled() throws IOException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
+        final StringBuilder sb = new StringBuilder();
+        final Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            sb.append(random.nextInt());
+        }
+        final String text = sb.toString();
+        final byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        this.testRegistered(data, 16, new WriterFiller() {
+            @Override
+            public void fill(final ZipUTF8Writer writer) throws IOException {
+                writer.append(text, 0, 10);
+                writer.write(text.substring(10, 20).getBytes(StandardCharsets.UTF_8));
+                writer.append(text.substring(20));
+            }
+        });
+    }
+
+    private void testRegistered(final byte[] data, final int threshold,
+                                final WriterFiller filler)
+            throws IOException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        final StandardEncrypter encrypter = PowerMock.createMock(StandardEncrypter.class);
+        final byte[] hashedPassword = Util.getPasswordChecksum(new char[]{65, 66, 67}, "SHA-256");
         final byte[] salt = new byte[16];
         final byte[] iv = new byte[16];
+        final byte[] cdata = this.deflate(data);
 
         PowerMock.resetAll();
         EasyMock.expect(encrypter.generateSalt()).andReturn(salt);
         EasyMock.expect(encrypter.generateIV()).andReturn(iv);
-        EasyMock.expect(encrypter.compress(data)).andReturn(cdata);
-        EasyMock.expect(encrypter.encrypt(cdata, hashedPassword, salt, iv
-        )).andReturn(cedata);
-        EasyMock.expect(encrypter.getDataChecksum(cdata))
-                .andReturn("baz".getBytes(StandardCharsets.UTF_8));
-        EasyMock.expect(encrypter.buildParameters(6, 3, 1996459178l,
-                        "YmF6", "AAAAAAAAAAAAAAAAAAAAAA==", "AAAAAAAAAAAAAAAAAAAAAA=="))
-                .andReturn(parameters);
-        EasyMock.expect(parameters.getCompressedThenEncryptedDataSize()).andReturn(3L).times(2);
-        EasyMock.expect(parameters.getPlainDataSize()).andReturn(5).times(2);
-        EasyMock.expect(parameters.getCrc32()).andReturn(0x76ff8caaL);
-        parameters.appendXMLContent(EasyMock.isA(XMLUtil.class), EasyMock.isA(Appendable.class));
-
+        this.expectStream(encrypter, hashedPassword, salt, iv);
+        EasyMock.expect(encrypter.buildParameters(data.length, cdata.length, this.crc32(cdata),
+                        this.checksum(cdata), "AAAAAAAAAAAAAAAAAAAAAA==",
+                        "AAAAAAAAAAAAAAAAAAAAAA=="))
+                .andReturn(this.getParameters(data.length, cdata));
 
         PowerMock.replayAll();
         final ByteArrayOutputStream bos = new ByteArrayOutputStream();
         final ZipUTF8Writer writer =
                 new ZipUTF8CryptoWriter(new ZipUTF8WriterBuilderImpl().build(bos), encrypter,
-                        hashedPassword);
+                        hashedPassword, threshold);
         writer.putAndRegisterNextEntry(new StandardOdsEntry("path", "", ""));
-        writer.write(data);
+        filler.fill(writer);
         writer.closeEntry();
         writer.flush();
         writer.finish();
         writer.close();
-        final byte[] bytes = bos.toByteArray();
-        this.overrideLastMod(bytes, 10);
-        this.overrideLastMod(bytes, 47);
-        this.overrideLastMod(bytes, 273);
-        this.overrideLastMod(bytes, 323);
-        Assert.assertArrayEquals(new byte[]{
-                // Local file header
-                'P', 'K', 3, 4, 10, 0, 0, 8, 0, 0, 127, 127, 127, 127, -86, -116, -1, 118, 3, 0, 0,
-                0, 3, 0, 0, 0, 4, 0, 0, 0, 'p', 'a', 't', 'h',
-                'b', 'a', 'r',
-                // Local file header
-                'P', 'K', 3, 4, 20, 0, 8, 8, 8, 0, 127, 127, 127, 127, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-                0, 0, 21, 0, 0, 0, 'M', 'E', 'T', 'A', '-', 'I', 'N', 'F', '/', 'm', 'a', 'n', 'i',
-                'f', 'e', 's', 't', '.', 'x', 'm', 'l', 85, -115, 93, 10, -62, 48, 16, -124, -81,
-                18, -10, 61, -2, -127, 32, 75, -45, -66, -11, 4, 122, -128, -48, 110, 53, -112, 108,
-                74, -109, -118, -11, -12, 70, -95, 105, 124, 89, 118, 103, 102, -25, -85, -102,
-                -105, -77, -30, 73, 83, 48, -98, 21, 28, 119, 7, 16, -60, -99, -17, 13, -33, 21,
-                -36, -82, -83, -68, 64, 83, 87, 78, -77, 25, 40, 68, 92, 23, -111, -34, 56, -28, 83,
-                -63, 60, 49, 122, 29, 76, 64, -42, -114, 2, -58, 14, -3, 72, -36, -5, 110, 118, -60,
-                17, -1, -13, -8, 3, -83, 101, 88, -16, 79, 80, -48, 6, 99, 73, -90, -17, 105, 17,
-                57, 59, -52, -42, -54, 81, -57, -121, -126, -17, -124, -51, 113, -44, 27, 45, -29,
-                50, -110, -126, 66, -50, -27, -123, 22, -52, 59, -123, -50, -119, -75, -33, -118,
-                51, -84, 84, 87, -69, -2, 0,
-                // Data descriptor
-                'P', 'K', 7, 8, 26, -9, 29, -1, -98, 0, 0, 0, 42, 1, 0, 0,
-                // Central directory file header
-                'P', 'K', 1, 2, 10, 0, 10, 0, 0, 8, 0, 127, 127, 127, 127, 88, -86, -116, -1, 118,
-                3, 0, 0, 0, 3, 0, 0, 0, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 'p',
-                'a', 't', 'h',
-                // Central directory file header
-                'P', 'K', 1, 2, 20, 0, 20, 0, 8, 8, 8, 127, 127, 127, 127, 88, 26, -9, 29, -1, -98,
-                0, 0, 0, 42, 1, 0, 0, 21, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 37, 0, 0, 0, 'M',
-                'E', 'T', 'A', '-', 'I', 'N', 'F', '/', 'm', 'a', 'n', 'i', 'f',
-                'e', 's', 't', '.', 'x', 'm', 'l',
-                // EOCD
-                'P', 'K', 5, 6, 0, 0, 0, 0, 2, 0, 2, 0, 117, 0, 0, 0, 6, 1, 0, 0, 0, 0}, bytes);
+
+        PowerMock.verifyAll();
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        final ZipEntry entry = zis.getNextEntry();
+        Assert.assertEquals("path", entry.getName());
+        Assert.assertEquals(ZipEntry.STORED, entry.getMethod());
+        Assert.assertEquals(this.crc32(cdata), entry.getCrc());
+        Assert.assertArrayEquals(cdata, this.readAll(zis));
+        Assert.assertEquals("META-INF/manifest.xml", zis.getNextEntry().getName());
+        final String manifest = new String(this.readAll(zis), StandardCharsets.UTF_8);
+        Assert.assertTrue(manifest.contains("manifest:full-path=\"path\""));
+        Assert.assertTrue(manifest.contains("manifest:size=\"" + data.length + "\""));
+        Assert.assertTrue(manifest.contains(this.checksum(cdata)));
+        Assert.assertNull(zis.getNextEntry());
     }
 
     @Test
-    public void testAppend() throws IOException, NoSuchPaddingException, InvalidKeyException,
-            NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException,
-            InvalidAlgorithmParameterException {
+    public void testExc()
+            throws IOException, InvalidAlgorithmParameterException, NoSuchAlgorithmException,
+            InvalidKeyException {
         final StandardEncrypter encrypter = PowerMock.createMock(StandardEncrypter.class);
-        final EncryptParameters parameters = PowerMock.createMock(EncryptParameters.class);
-        final byte[] data = "foobar".getBytes(StandardCharsets.UTF_8);
-        final byte[] cdata = "foo".getBytes(StandardCharsets.UTF_8);
-        final byte[] cedata = "bar".getBytes(StandardCharsets.UTF_8);
-        final char[] password = {65, 66, 67};
-        final byte[] hashedPassword = Util.getPasswordChecksum(password, "SHA-256");
-        final byte[] salt = new byte[16];
-        final byte[] iv = new byte[16];
+        final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
+        final byte[] salt = "foo".getBytes(StandardCharsets.UTF_8);
+        final byte[] iv = "bar".getBytes(StandardCharsets.UTF_8);
+        final byte[] password = "passwd".getBytes(StandardCharsets.UTF_8);
 
         PowerMock.resetAll();
         EasyMock.expect(encrypter.generateSalt()).andReturn(salt);
         EasyMock.expect(encrypter.generateIV()).andReturn(iv);
-        EasyMock.expect(encrypter.compress(data)).andReturn(cdata);
-        EasyMock.expect(encrypter.encrypt(cdata, hashedPassword, salt, iv
-        )).andReturn(cedata);
-        EasyMock.expect(encrypter.getDataChecksum(cdata))
-                .andReturn("baz".getBytes(StandardCharsets.UTF_8));
-        EasyMock.expect(encrypter.buildParameters(6, 3, 1996459178l,
-                        "YmF6", "AAAAAAAAAAAAAAAAAAAAAA==", "AAAAAAAAAAAAAAAAAAAAAA=="))
-                .andReturn(parameters);
-        EasyMock.expect(parameters.getCompressedThenEncryptedDataSize()).andReturn(3L).times(2);
-        EasyMock.expect(parameters.getPlainDataSize()).andReturn(6).times(2);
-        EasyMock.expect(parameters.getCrc32()).andReturn(0x76ff8caaL);
-        parameters.appendXMLContent(EasyMock.isA(XMLUtil.class), EasyMock.isA(Appendable.class));
+        EasyMock.expect(encrypter.createCompressThenEncryptStream(EasyMock.same(password),
+                        EasyMock.same(salt), EasyMock.same(iv), EasyMock.isA(OutputStream.class)))
+                .andThrow(new NoSuchAlgorithmException());
 
         PowerMock.replayAll();
+        final ZipUTF8CryptoWriter cryptoWriter =
+                new ZipUTF8CryptoWriter(writer, encrypter, password);
+        Assert.assertThrows(IOException.class,
+                () -> cryptoWriter.putNextEntry(new UnregisteredOdsEntry("path")));
+
+        PowerMock.verifyAll();
+    }
+
+    private void expectStream(final StandardEncrypter encrypter, final byte[] hashedPassword,
+                              final byte[] salt, final byte[] iv)
+            throws NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        EasyMock.expect(encrypter.createCompressThenEncryptStream(EasyMock.same(hashedPassword),
+                        EasyMock.same(salt), EasyMock.same(iv), EasyMock.isA(OutputStream.class)))
+                .andAnswer(() -> new CompressThenEncryptOutputStream(
+                        new Deflater(Deflater.BEST_COMPRESSION, true), new NullCipher(),
+                        MessageDigest.getInstance("SHA-256"),
+                        (OutputStream) EasyMock.getCurrentArguments()[3]));
+    }
+
+    private EncryptParameters getParameters(final int plainDataSize, final byte[] cdata)
+            throws NoSuchAlgorithmException {
+        return EncryptParameters.builder().build(plainDataSize, cdata.length, this.crc32(cdata),
+                this.checksum(cdata), "AAAAAAAAAAAAAAAAAAAAAA==", "AAAAAAAAAAAAAAAAAAAAAA==");
+    }
+
+    private byte[] deflate(final byte[] data) throws IOException {
         final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        final ZipUTF8Writer writer =
-                new ZipUTF8CryptoWriter(new ZipUTF8WriterBuilderImpl().build(bos), encrypter,
-                        hashedPassword);
-        writer.putAndRegisterNextEntry(new StandardOdsEntry("path", "", ""));
-        writer.append("foo");
-        writer.append('b');
-        writer.append("bar", 1, 3);
-        writer.closeEntry();
-        writer.flush();
-        writer.finish();
-        writer.close();
-        final byte[] bytes = bos.toByteArray();
-        this.overrideLastMod(bytes, 10);
-        this.overrideLastMod(bytes, 47);
-        this.overrideLastMod(bytes, 273);
-        this.overrideLastMod(bytes, 323);
-        Assert.assertArrayEquals(new byte[]{
-                // Local file header
-                'P', 'K', 3, 4, 10, 0, 0, 8, 0, 0, 127, 127, 127, 127, -86, -116, -1, 118, 3, 0, 0,
-                0,
-                3, 0, 0, 0, 4, 0, 0, 0, 'p', 'a', 't', 'h', 'b', 'a', 'r',
-                // Local file header
-                'P', 'K', 3, 4, 20, 0, 8, 8, 8, 0, 127, 127, 127, 127, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-                0,
-                0, 21, 0, 0, 0, 'M', 'E', 'T', 'A', '-', 'I', 'N', 'F', '/', 'm', 'a', 'n', 'i',
-                'f', 'e', 's', 't', '.', 'x', 'm', 'l', 85, -115, 75, 14, -62, 48, 12, 68, -81, 18,
-                121, 31, 126, 11, -124, -84, -90, -35, -11, 4, 112, -128, -88, 117, 33, 82, -30, 84,
-                77, -118, 40, -89, 39, 32, 53, 13, 27, -53, -98, 25, -49, -85, -102, -105, -77, -30,
-                73, 83, 48, -98, 21, 28, 119, 7, 16, -60, -99, -17, 13, -33, 21, -36, -82, -83, -68,
-                64, 83, 87, 78, -77, 25, 40, 68, 92, 23, -111, -34, 56, -28, 83, -63, 60, 49, 122,
-                29, 76, 64, -42, -114, 2, -58, 14, -3, 72, -36, -5, 110, 118, -60, 17, -1, -13, -8,
-                3, -83, 101, 88, -16, 79, 80, -48, 6, 99, 73, -90, -17, 105, 17, 57, 59, -52, -42,
-                -54, 81, -57, -121, -126, -17, -124, -51, 113, -44, 27, 45, -29, 50, -110, -126, 66,
-                -50, -27, -123, 22, -52, 59, -123, -50, -119, -75, -33, -118, 51, -84, 84, 87, -69,
-                -2, 0,
-                // Data descriptor
-                'P', 'K', 7, 8, -113, -119, -42, -64, -98, 0, 0, 0, 42, 1, 0, 0,
-                // Central directory file header
-                'P', 'K', 1, 2, 10, 0, 10, 0, 0, 8, 0, 127, 127, 127, 127, 88, -86, -116, -1, 118,
-                3, 0, 0, 0, 3, 0, 0, 0, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 'p',
-                'a', 't', 'h',
-                // Central directory file header
-                'P', 'K', 1, 2, 20, 0, 20, 0, 8, 8, 8, 127, 127, 127, 127, 88, -113, -119, -42, -64,
-                -98, 0, 0, 0, 42, 1, 0, 0, 21, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 37, 0, 0, 0,
-                'M', 'E', 'T', 'A', '-', 'I', 'N', 'F', '/', 'm', 'a', 'n', 'i', 'f', 'e', 's', 't',
-                '.', 'x', 'm', 'l',
-                // EOCD
-                'P', 'K', 5, 6, 0, 0, 0, 0, 2, 0, 2, 0, 117, 0, 0, 0, 6, 1, 0, 0, 0, 0}, bytes);
+        final DeflaterOutputStream dos = new DeflaterOutputStream(bos,
+                new Deflater(Deflater.BEST_COMPRESSION, true));
+        dos.write(data);
+        dos.close();
+        return bos.toByteArray();
+    }
+
+    private long crc32(final byte[] bytes) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return crc32.getValue();
+    }
+
+    private String checksum(final byte[] bytes) throws NoSuchAlgorithmException {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(bytes, 0, Math.min(bytes.length, 1024));
+        return Base64.toBase64String(digest.digest());
+    }
+
+    private byte[] readAll(final InputStream is) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int n = is.read(buffer);
+        while (n != -1) {
+            bos.write(buffer, 0, n);
+            n = is.read(buffer);
+        }
+        return bos.toByteArray();
+    }
+
+    private interface WriterFiller {
+        void fill(ZipUTF8Writer writer) throws IOException;
     }
 
     @Test
@@ -339,32 +330,133 @@ public class ZipUTF8CryptoWriterTest {
     }
 
     @Test
-    public void testExc()
-            throws IOException, InvalidAlgorithmParameterException, NoSuchPaddingException,
-            IllegalBlockSizeException, NoSuchAlgorithmException, BadPaddingException,
-            InvalidKeyException {
-        final StandardEncrypter encrypter = PowerMock.createMock(StandardEncrypter.class);
+    public void testParallel() throws IOException, GeneralSecurityException {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final byte[] sequential = this.writeDocument(null);
+            final byte[] parallel = this.writeDocument(executor);
+            Assert.assertEquals(this.getNames(sequential), this.getNames(parallel));
+            Assert.assertEquals(this.getManifestPaths(sequential),
+                    this.getManifestPaths(parallel));
+            Assert.assertEquals(Arrays.asList("mimetype", "a.xml", "b.xml", "c.xml", "d.xml",
+                    "META-INF/manifest.xml"), this.getNames(parallel));
+            Assert.assertEquals(Arrays.asList("a.xml", "b.xml", "c.xml", "d.xml", "dir/"),
+                    this.getManifestPaths(parallel));
+            Assert.assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] writeDocument(final ExecutorService executor)
+            throws IOException, GeneralSecurityException {
+        final StandardEncrypter encrypter = new StandardEncrypter(new SecureRandom(),
+                Cipher.getInstance("AES/CBC/ISO10126Padding"), 1000, 32, 32,
+                EncryptParameters.builder());
+        final byte[] hashedPassword = Util.getPasswordChecksum(new char[]{65, 66, 67}, "SHA-256");
         final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ZipUTF8CryptoWriter writer = new ZipUTF8CryptoWriter(
+                new ZipUTF8WriterBuilderImpl().build(bos), encrypter, hashedPassword, 16,
+                executor, false, 2);
+        writer.putNextEntry(new UnregisteredStoredEntry("mimetype", 0L, 0L));
+        writer.closeEntry();
+        for (final String name : Arrays.asList("a.xml", "b.xml", "c.xml", "d.xml")) {
+            writer.putAndRegisterNextEntry(new StandardOdsEntry(name, "text/xml", null));
+            for (int i = 0; i < 100; i++) {
+                writer.append("<").append(name).append("/>");
+            }
+            writer.closeEntry();
+            if (name.equals("a.xml")) {
+                writer.registerEntry(new StandardOdsEntry("dir/", "", null));
+            }
+        }
+        writer.finish();
+        writer.close();
+        return bos.toByteArray();
+    }
+
+    private List<String> getNames(final byte[] bytes) throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes));
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            names.add(entry.getName());
+            entry = zis.getNextEntry();
+        }
+        return names;
+    }
+
+    private List<String> getManifestPaths(final byte[] bytes) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes));
+        ZipEntry entry = zis.getNextEntry();
+        while (!entry.getName().equals("META-INF/manifest.xml")) {
+            entry = zis.getNextEntry();
+        }
+        final String manifest = new String(this.readAll(zis), StandardCharsets.UTF_8);
+        final List<String> paths = new ArrayList<String>();
+        final Matcher matcher = Pattern.compile("manifest:full-path=\"([^\"]+)\"")
+                .matcher(manifest);
+        while (matcher.find()) {
+            if (!matcher.group(1).equals("/")) {
+                paths.add(matcher.group(1));
+            }
+        }
+        return paths;
+    }
+
+    @Test
+    public void testParallelExc() throws IOException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
+        final StandardEncrypter encrypter = PowerMock.createMock(StandardEncrypter.class);
         final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
         final byte[] salt = "foo".getBytes(StandardCharsets.UTF_8);
         final byte[] iv = "bar".getBytes(StandardCharsets.UTF_8);
-        final byte[] data = "baz".getBytes(StandardCharsets.UTF_8);
         final byte[] password = "passwd".getBytes(StandardCharsets.UTF_8);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
 
         PowerMock.resetAll();
         EasyMock.expect(encrypter.generateSalt()).andReturn(salt);
         EasyMock.expect(encrypter.generateIV()).andReturn(iv);
-        EasyMock.expect(encrypter.compress(new byte[0])).andReturn(data);
-        EasyMock.expect(encrypter.encrypt(data, password, salt, iv))
-                .andThrow(new NoSuchAlgorithmException());
+        EasyMock.expect(encrypter.createCompressThenEncryptStream(EasyMock.same(password),
+                        EasyMock.same(salt), EasyMock.same(iv), EasyMock.isA(OutputStream.class)))
+                .andThrow(new InvalidKeyException());
+        writer.close();
 
         PowerMock.replayAll();
         final ZipUTF8CryptoWriter cryptoWriter =
-                new ZipUTF8CryptoWriter(writer, encrypter, password);
+                new ZipUTF8CryptoWriter(writer, encrypter, password, 16, executor, true, 2);
         cryptoWriter.putNextEntry(new UnregisteredOdsEntry("path"));
-        Assert.assertThrows(IOException.class, () -> cryptoWriter.closeEntry());
+        cryptoWriter.append("foo");
+        final IOException e = Assert.assertThrows(IOException.class, () -> {
+            cryptoWriter.closeEntry(); // may throw if the task is done
+            cryptoWriter.finish();
+        });
+        Assert.assertTrue(e.getCause() instanceof InvalidKeyException);
+        cryptoWriter.close();
 
         PowerMock.verifyAll();
+        Assert.assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    public void testBadParallelEncrypt() throws NoSuchAlgorithmException {
+        final ZipUTF8CryptoWriterBuilder builder = ZipUTF8CryptoWriter.builder(new char[]{65});
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.parallelEncrypt(0));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> builder.parallelEncrypt(Executors.newSingleThreadExecutor(), 0));
+    }
+
+    @Test
+    public void testBuilderParallelEncrypt() throws IOException, NoSuchAlgorithmException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer =
+                ZipUTF8CryptoWriter.builder(new char[]{65}).parallelEncrypt(2).build(bos);
+        writer.putNextEntry(new UnregisteredStoredEntry("path", 0L, 0L));
+        writer.closeEntry();
+        writer.finish();
+        writer.close();
+        Assert.assertEquals(Arrays.asList("path", "META-INF/manifest.xml"),
+                this.getNames(bos.toByteArray()));
     }
 
     @Test
@@ -40,7 +40,9 @@ import com.github.jferard.javamcsv.description.ObjectFieldDescription;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Logger;
@@ -60,23 +62,41 @@ public class CSVDataWrapper implements DataWrapper {
     private final ObjectProcessorFactory objectProcessorFactory;
     private final TableCellStyle headCellStyle;
     private final int max;
+    private final int workers;
 
     public CSVDataWrapper(final Logger logger, final ObjectProcessorFactory objectProcessorFactory,
                           final String rangeName, final MetaCSVReader metaCSVReader,
                           final TableCellStyle headCellStyle,
                           final int max) {
+        this(logger, objectProcessorFactory, rangeName, metaCSVReader, headCellStyle, max, 0);
+    }
+
+    /**
+     * @param logger                 the logger
+     * @param objectProcessorFactory the factory for OBJECT values
+     * @param rangeName              the name of the auto filter range, or null
+     * @param metaCSVReader          the reader
+     * @param headCellStyle          the style of the header, or null
+     * @param max                    the max number of records, -1 for no limit
+     * @param workers                the number of threads that parse the values, 0 to read,
+     *                               parse and write on the caller thread
+     */
+    public CSVDataWrapper(final Logger logger, final ObjectProcessorFactory objectProcessorFactory,
+                          final String rangeName, final MetaCSVReader metaCSVReader,
+                          final TableCellStyle headCellStyle,
+                          final int max, final int workers) {
         this.logger = logger;
         this.rangeName = rangeName;
         this.metaCSVReader = metaCSVReader;
         this.objectProcessorFactory = objectProcessorFactory;
         this.headCellStyle = headCellStyle;
         this.max = max;
+        this.workers = workers;
     }
 
     @Override
     public boolean addToTable(final TableCellWalker walker) throws IOException {
         try {
-        int rowCount = 0; // at least
         final int r1 = walker.rowIndex();
         final int c1 = walker.colIndex();
         final MetaCSVMetaData metaData = this.metaCSVReader.getMetaData();
@@ -89,6 +109,29 @@ public class CSVDataWrapper implements DataWrapper {
         final List<ValueProcessor> processors =
                 this.createProcessors(metaData, columnCount);
             this.writeFirstLineTo(header, columnCount, walker, c1);
+        if (this.workers > 0) {
+            this.writeParsedRecordsTo(iterator, processors, walker, c1);
+        } else {
+            this.writeRecordsTo(iterator, processors, walker, c1);
+        }
+        if (this.rangeName != null) {
+            final int r2 = walker.rowIndex();
+            final int c2 = c1 + columnCount - 1;
+            walker.getTable().addAutoFilter(this.rangeName, r1, c1, r2, c2);
+        }
+        walker.nextRow();
+        this.metaCSVReader.close();
+        return true;
+        } catch (final MetaCSVReadException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void writeRecordsTo(final Iterator<MetaCSVRecord> iterator,
+                                final List<ValueProcessor> processors,
+                                final TableCellWalker walker, final int c1)
+            throws IOException, MetaCSVReadException {
+        int rowCount = 0; // at least
         while (iterator.hasNext()) {
             if (this.max >= 0 && ++rowCount > this.max) {
                 break;
@@ -101,19 +144,36 @@ public class CSVDataWrapper implements DataWrapper {
             }
             walker.nextRow();
         }
-        if (this.rangeName != null) {
-            final int r2 = walker.rowIndex();
-            final int c2 = c1 + columnCount - 1;
-            walker.getTable().addAutoFilter(this.rangeName, r1, c1, r2, c2);
-        }
-        walker.nextRow();
-        this.metaCSVReader.close();
-        return true;
-        } catch (final MetaCSVReadException e) {
-            throw new IOException(e);
+    }
+
+    private void writeParsedRecordsTo(final Iterator<MetaCSVRecord> iterator,
+                                      final List<ValueProcessor> processors,
+                                      final TableCellWalker walker, final int c1)
+            throws IOException, MetaCSVReadException {
+        final CSVPipeline pipeline =
+                CSVPipeline.start(iterator, processors, this.workers, this.max);
+        try {
+            List<CSVPipeline.ParsedRecord> batch = pipeline.takeBatch();
+            while (batch != null) {
+                for (final CSVPipeline.ParsedRecord parsedRecord : batch) {
+                    walker.to(c1);
+                    parsedRecord.writeTo(processors, walker);
+                    walker.nextRow();
+                }
+                batch = pipeline.takeBatch();
+            }
+        } finally {
+            pipeline.close();
         }
     }
 
+    /**
+     * @return the style of the header, or null
+     */
+    TableCellStyle getHeadCellStyle() {
+        return this.headCellStyle;
+    }
+
     private void writeFirstLineTo(final MetaCSVRecord header, final int columnCount,
                                   final TableCellWalker walker, final int c1)
             throws IOException, MetaCSVReadException {
@@ -136,12 +196,16 @@ public class CSVDataWrapper implements DataWrapper {
             final ValueProcessor processor;
             switch (dataType) {
                 case BOOLEAN:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setBooleanValue(record.getBoolean(i));
+                            return record.getBoolean(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setBooleanValue((Boolean) value);
                         }
                     };
                     break;
@@ -149,12 +213,16 @@ public class CSVDataWrapper implements DataWrapper {
                     final String currencyDecimalSymbol =
                             metaData.getDescription(i, CurrencyDecimalFieldDescription.class)
                                     .getCurrencySymbol();
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setCurrencyValue(record.getDecimal(i), currencyDecimalSymbol);
+                            return record.getDecimal(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setCurrencyValue((BigDecimal) value, currencyDecimalSymbol);
                         }
                     };
                     break;
@@ -162,93 +230,130 @@ public class CSVDataWrapper implements DataWrapper {
                     final String currencyIntegerSymbol =
                             metaData.getDescription(i, CurrencyIntegerFieldDescription.class)
                                     .getCurrencySymbol();
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setCurrencyValue(record.getInteger(i),
-                                    currencyIntegerSymbol);
+                            return record.getInteger(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setCurrencyValue((Long) value, currencyIntegerSymbol);
                         }
                     };
                     break;
                 case DECIMAL:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setFloatValue(record.getDecimal(i));
+                            return record.getDecimal(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setFloatValue((BigDecimal) value);
                         }
                     };
                     break;
                 case DATE:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
+                        // the date format of the field processor is not thread-safe
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        synchronized Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setDateValue(record.getDate(i));
+                            return record.getDate(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setDateValue((Date) value);
                         }
                     };
                     break;
                 case DATETIME:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
+                        // the date format of the field processor is not thread-safe
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        synchronized Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setDateValue(record.getDatetime(i));
+                            return record.getDatetime(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setDateValue((Date) value);
                         }
                     };
                     break;
                 case FLOAT:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setFloatValue(record.getFloat(i));
+                            return record.getFloat(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setFloatValue((Double) value);
                         }
                     };
                     break;
                 case INTEGER:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setFloatValue(record.getInteger(i));
+                            return record.getInteger(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setFloatValue((Long) value);
                         }
                     };
                     break;
                 case PERCENTAGE_DECIMAL:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setPercentageValue(record.getDecimal(i));
+                            return record.getDecimal(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setPercentageValue((BigDecimal) value);
                         }
                     };
                     break;
                 case PERCENTAGE_FLOAT:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setPercentageValue(record.getFloat(i));
+                            return record.getFloat(i);
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setPercentageValue((Double) value);
                         }
                     };
                     break;
                 case TEXT:
-                    processor = new ValueProcessor() {
+                    processor = new TypedValueProcessor() {
                         @Override
-                        public void processValue(final MetaCSVRecord record, final int i,
-                                                 final TableCellWalker walker)
+                        Object parse(final MetaCSVRecord record, final int i)
                                 throws MetaCSVReadException {
-                            walker.setStringValue(record.getText(i).toString());
+                            return record.getText(i).toString();
+                        }
+
+                        @Override
+                        void setValue(final Object value, final TableCellWalker walker) {
+                            walker.setStringValue((String) value);
                         }
                     };
                     break;
@@ -53,6 +53,7 @@ public class CSVDataWrapperBuilder {
     private int max;
     private TableCellStyle headerStyle;
     private String rangeName;
+    private int workers;
 
     public CSVDataWrapperBuilder(final File csvFile) {
         this.csvFile = csvFile;
@@ -98,7 +99,7 @@ public class CSVDataWrapperBuilder {
             }
         }
         return new CSVDataWrapper(this.logger, this.objectProcessorFactory, this.rangeName, reader,
-                this.headerStyle, this.max);
+                this.headerStyle, this.max, this.workers);
     }
 
     public CSVDataWrapperBuilder metaCSVFile(final File metaCSVFile) {
@@ -171,6 +172,22 @@ public class CSVDataWrapperBuilder {
         return this;
     }
 
+    /**
+     * Parse the records in a pipeline: a thread reads the records, the workers parse the values
+     * and the caller thread fills the cells, in the order of the file. The number of records
+     * waiting in the pipeline is bounded.
+     *
+     * @param workers the number of threads that parse the values
+     * @return this for fluent style
+     */
+    public CSVDataWrapperBuilder parallel(final int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be > 0");
+        }
+        this.workers = workers;
+        return this;
+    }
+
     /**
      * Set the auto filter
      *
@@ -0,0 +1,251 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.extra;
+
+import com.github.jferard.fastods.TableCellWalker;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A pipeline to read a CSV file: a reader thread reads the records and groups them in batches,
+ * the workers parse the values of the batches, and the caller takes the parsed batches in the
+ * order of the file to fill the cells.
+ * <p>
+ * The queue between the reader and the caller is bounded: the reader waits when the caller
+ * is late. Hence the memory is bounded, whatever the size of the file.
+ *
+ * @author J. Férard
+ */
+class CSVPipeline {
+    /**
+     * The number of records in a batch
+     */
+    static final int BATCH_SIZE = 1024;
+
+    private static final Future<List<ParsedRecord>> END =
+            CompletableFuture.completedFuture(null);
+
+    /**
+     * @param iterator   the records, without the header
+     * @param processors the processors
+     * @param workers    the number of workers
+     * @param max        the max number of records, -1 for no limit
+     * @return the started pipeline
+     */
+    static CSVPipeline start(final Iterator<MetaCSVRecord> iterator,
+                             final List<ValueProcessor> processors, final int workers,
+                             final int max) {
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(workers, new ThreadFactory() {
+                    private int count = 0;
+
+                    @Override
+                    public synchronized Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "fastods-csv-" + this.count++);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        final CSVPipeline pipeline = new CSVPipeline(iterator, processors, executor,
+                new ArrayBlockingQueue<Future<List<ParsedRecord>>>(2 * workers), max);
+        final Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pipeline.read();
+            }
+        }, "fastods-csv-reader");
+        reader.setDaemon(true);
+        pipeline.reader = reader;
+        reader.start();
+        return pipeline;
+    }
+
+    private final Iterator<MetaCSVRecord> iterator;
+    private final List<ValueProcessor> processors;
+    private final ExecutorService executor;
+    private final BlockingQueue<Future<List<ParsedRecord>>> batches;
+    private final int max;
+    private Thread reader;
+    private RuntimeException exception;
+
+    /**
+     * @param iterator   the records, without the header
+     * @param processors the processors
+     * @param executor   the executor for the workers
+     * @param batches    the queue of batches
+     * @param max        the max number of records, -1 for no limit
+     */
+    CSVPipeline(final Iterator<MetaCSVRecord> iterator, final List<ValueProcessor> processors,
+                final ExecutorService executor,
+                final BlockingQueue<Future<List<ParsedRecord>>> batches, final int max) {
+        this.iterator = iterator;
+        this.processors = processors;
+        this.executor = executor;
+        this.batches = batches;
+        this.max = max;
+    }
+
+    /**
+     * The reader loop.
+     */
+    void read() {
+        try {
+            try {
+                int count = 0;
+                List<MetaCSVRecord> records = new ArrayList<MetaCSVRecord>(BATCH_SIZE);
+                while ((this.max < 0 || count < this.max) && this.iterator.hasNext()) {
+                    records.add(this.iterator.next());
+                    count++;
+                    if (records.size() == BATCH_SIZE) {
+                        this.batches.put(this.executor.submit(this.parseTask(records)));
+                        records = new ArrayList<MetaCSVRecord>(BATCH_SIZE);
+                    }
+                }
+                if (!records.isEmpty()) {
+                    this.batches.put(this.executor.submit(this.parseTask(records)));
+                }
+            } catch (final RuntimeException e) {
+                this.exception = e;
+            }
+            this.batches.put(END);
+        } catch (final InterruptedException e) {
+            // the pipeline was closed
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Callable<List<ParsedRecord>> parseTask(final List<MetaCSVRecord> records) {
+        return new Callable<List<ParsedRecord>>() {
+            @Override
+            public List<ParsedRecord> call() throws MetaCSVReadException {
+                return CSVPipeline.this.parse(records);
+            }
+        };
+    }
+
+    /**
+     * @param records the records
+     * @return the parsed records
+     * @throws MetaCSVReadException if a value can't be parsed
+     */
+    List<ParsedRecord> parse(final List<MetaCSVRecord> records) throws MetaCSVReadException {
+        final List<ParsedRecord> parsedRecords = new ArrayList<ParsedRecord>(records.size());
+        for (final MetaCSVRecord record : records) {
+            final int size = record.size();
+            final Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                final ValueProcessor processor = this.processors.get(i);
+                if (processor instanceof TypedValueProcessor) {
+                    values[i] = ((TypedValueProcessor) processor).parse(record, i);
+                }
+            }
+            parsedRecords.add(new ParsedRecord(record, values));
+        }
+        return parsedRecords;
+    }
+
+    /**
+     * @return the next batch, in the order of the file, or null at the end
+     * @throws IOException if a record can't be read or parsed
+     */
+    List<ParsedRecord> takeBatch() throws IOException {
+        try {
+            final Future<List<ParsedRecord>> batch = this.batches.take();
+            if (batch == END) {
+                if (this.exception != null) {
+                    throw new IOException(this.exception);
+                }
+                return null;
+            }
+            return batch.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (final ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Stop the threads.
+     */
+    void close() {
+        this.reader.interrupt();
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * A record and its parsed values.
+     */
+    static class ParsedRecord {
+        private final MetaCSVRecord record;
+        private final Object[] values;
+
+        /**
+         * @param record the record
+         * @param values the parsed values, null for the values that are not parsed by a
+         *               TypedValueProcessor
+         */
+        ParsedRecord(final MetaCSVRecord record, final Object[] values) {
+            this.record = record;
+            this.values = values;
+        }
+
+        /**
+         * Write the values of the record and move the walker to the next cell after each
+         * value.
+         *
+         * @param processors the processors
+         * @param walker     the walker
+         * @throws MetaCSVReadException if a value that was not parsed by a worker can't be read
+         */
+        void writeTo(final List<ValueProcessor> processors, final TableCellWalker walker)
+                throws MetaCSVReadException {
+            for (int i = 0; i < this.values.length; i++) {
+                final ValueProcessor processor = processors.get(i);
+                if (processor instanceof TypedValueProcessor) {
+                    ((TypedValueProcessor) processor).setValue(this.values[i], walker);
+                } else {
+                    processor.processValue(this.record, i, walker);
+                }
+                walker.next();
+            }
+        }
+    }
+}
@@ -25,11 +25,14 @@
 package com.github.jferard.fastods.extra;
 
 import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.NamedOdsDocument;
+import com.github.jferard.fastods.NamedOdsFileWriter;
 import com.github.jferard.fastods.OdsDocument;
 import com.github.jferard.fastods.OdsFactory;
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.TableCellWalker;
-import com.github.jferard.fastods.ref.TableNameUtil;
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.javamcsv.MetaCSVDataException;
 import com.github.jferard.javamcsv.MetaCSVParseException;
 import com.github.jferard.javamcsv.MetaCSVReadException;
@@ -55,7 +58,7 @@ public class CSVUtil {
             throws MetaCSVReadException, MetaCSVDataException, MetaCSVParseException, IOException {
         final CSVDataWrapper dataWrapper =
                 CSVDataWrapper.builder(csvFile).autoFilterRangeName("csv-import").build();
-        final String tableName = new TableNameUtil().escapeTableName(csvFile.getName());
+        final String tableName = getTableName(csvFile);
         csvToOds(dataWrapper, odsFile, tableName);
     }
 
@@ -78,4 +81,68 @@ public class CSVUtil {
         dataWrapper.addToTable(walker);
         writer.saveAs(odsFile);
     }
+
+    /**
+     * Export the content of a CSV file to an ODS file, with bounded memory: the records are
+     * parsed in a pipeline and the rows are flushed to the file while the table is filled.
+     * The CSV file must have a MetaCSV file that describes its content.
+     * See https://github.com/jferard/MetaCSV
+     *
+     * @param csvFile the source CSV File. The MetaCSV file must have the same path but a .mcsv extension
+     * @param odsFile the destination ODS File
+     * @throws MetaCSVReadException  if the CSV file can't be read
+     * @throws MetaCSVDataException  if the MetaCSV file is inconsistent
+     * @throws MetaCSVParseException if the MetaCSV file can't be parser
+     * @throws IOException           if an I/O error occurs
+     */
+    public static void csvToOdsStreaming(final File csvFile, final File odsFile)
+            throws MetaCSVReadException, MetaCSVDataException, MetaCSVParseException, IOException {
+        final CSVDataWrapper dataWrapper =
+                CSVDataWrapper.builder(csvFile).autoFilterRangeName("csv-import")
+                        .parallel(Runtime.getRuntime().availableProcessors()).build();
+        final String tableName = getTableName(csvFile);
+        csvToOdsStreaming(dataWrapper, odsFile, tableName);
+    }
+
+    /**
+     * Copy the wrapped data to an ODS file, with a named writer: the rows are flushed to the
+     * file while the table is filled. The styles are registered before the first flush, hence an
+     * {@code ObjectProcessorFactory} must not use other styles.
+     *
+     * @param dataWrapper the data wrapper
+     * @param tableName the table name
+     * @param odsFile the destination ODS File
+     * @throws IOException           if an I/O error occurs
+     */
+    public static void csvToOdsStreaming(final CSVDataWrapper dataWrapper, final File odsFile,
+                                         final String tableName)
+            throws IOException {
+        final OdsFactory odsFactory = OdsFactory.create(Logger.getLogger("csv-import"), Locale.US);
+        final NamedOdsFileWriter writer = odsFactory.createWriter(odsFile);
+        final NamedOdsDocument document = writer.document();
+        final TableCellStyle headCellStyle = dataWrapper.getHeadCellStyle();
+        if (headCellStyle != null) {
+            document.addCellStyle(headCellStyle);
+        }
+        document.addCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, CellType.BOOLEAN,
+                CellType.CURRENCY, CellType.FLOAT, CellType.DATE, CellType.PERCENTAGE);
+        document.freezeStyles();
+        final Table table = document.addTable(tableName);
+        final TableCellWalker walker = table.getWalker();
+        dataWrapper.addToTable(walker);
+        document.save();
+    }
+
+    /**
+     * @param csvFile the CSV file
+     * @return the name of the file, without the extension
+     */
+    static String getTableName(final File csvFile) {
+        final String name = csvFile.getName();
+        final int index = name.lastIndexOf('.');
+        if (index <= 0) {
+            return name;
+        }
+        return name.substring(0, index);
+    }
 }
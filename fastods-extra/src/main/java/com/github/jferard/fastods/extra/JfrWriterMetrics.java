@@ -0,0 +1,227 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.extra;
+
+import com.github.jferard.fastods.util.WriterMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A WriterMetrics that emits JFR events. The events are recorded only if a recording is
+ * running and the events are enabled (e.g. <code>-XX:StartFlightRecording</code> with the
+ * default settings), hence the listener may be left in production code:
+ *
+ * <pre>
+ * final OdsFactory odsFactory = OdsFactory.builder(logger, Locale.US)
+ *         .writerMetrics(JfrWriterMetrics.create()).build();
+ * </pre>
+ * <p>
+ * Requires a JVM that ships the jdk.jfr module (OpenJDK 8u262+ or 11+).
+ *
+ * @author J. Férard
+ */
+public class JfrWriterMetrics implements WriterMetrics {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * @return a new listener
+     */
+    public static JfrWriterMetrics create() {
+        return new JfrWriterMetrics();
+    }
+
+    /**
+     * A zip entry was written
+     */
+    @Name("fastods.ZipEntry")
+    @Label("Zip Entry")
+    @Category({"FastODS", "Writer"})
+    @StackTrace(false)
+    public static class ZipEntryEvent extends Event {
+        @Label("Name")
+        String name;
+
+        @Label("Size")
+        @DataAmount
+        long size;
+
+        @Label("Compressed Size")
+        @DataAmount
+        long compressedSize;
+
+        @Label("Write Time")
+        @Timespan
+        long time;
+    }
+
+    /**
+     * A flusher was executed
+     */
+    @Name("fastods.Flusher")
+    @Label("Flusher")
+    @Category({"FastODS", "Writer"})
+    @StackTrace(false)
+    public static class FlusherEvent extends Event {
+        @Label("Flusher Type")
+        String flusherType;
+
+        @Label("Flush Time")
+        @Timespan
+        long time;
+    }
+
+    /**
+     * A table was written
+     */
+    @Name("fastods.Table")
+    @Label("Table")
+    @Category({"FastODS", "Writer"})
+    @StackTrace(false)
+    public static class TableEvent extends Event {
+        @Label("Name")
+        String name;
+
+        @Label("Rows")
+        int rowCount;
+
+        @Label("Cells")
+        long cellCount;
+
+        @Label("Write Time")
+        @Timespan
+        long time;
+
+        @Label("Rows per Second")
+        double rowsPerSecond;
+
+        @Label("Cells per Second")
+        double cellsPerSecond;
+    }
+
+    /**
+     * A flusher was added to the queue of a writer adapter
+     */
+    @Name("fastods.QueueDepth")
+    @Label("Writer Adapter Queue Depth")
+    @Category({"FastODS", "Writer"})
+    @StackTrace(false)
+    public static class QueueDepthEvent extends Event {
+        @Label("Depth")
+        int depth;
+
+        @Label("Capacity")
+        int capacity;
+    }
+
+    /**
+     * The counters of the caches of the escapers: lookups of the style names and of the short
+     * cell values that contain special chars
+     */
+    @Name("fastods.EscaperCache")
+    @Label("Escaper Cache")
+    @Category({"FastODS", "Writer"})
+    @StackTrace(false)
+    public static class EscaperCacheEvent extends Event {
+        @Label("Hits")
+        long hitCount;
+
+        @Label("Misses")
+        long missCount;
+
+        @Label("Hit Ratio")
+        @Percentage
+        double hitRatio;
+    }
+
+    @Override
+    public void entryWritten(final String name, final long size, final long compressedSize,
+                             final long nanos) {
+        final ZipEntryEvent event = new ZipEntryEvent();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.size = size;
+            event.compressedSize = compressedSize;
+            event.time = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void flusherExecuted(final String flusherType, final long nanos) {
+        final FlusherEvent event = new FlusherEvent();
+        if (event.shouldCommit()) {
+            event.flusherType = flusherType;
+            event.time = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void tableWritten(final String name, final int rowCount, final long cellCount,
+                             final long nanos) {
+        final TableEvent event = new TableEvent();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.rowCount = rowCount;
+            event.cellCount = cellCount;
+            event.time = nanos;
+            if (nanos > 0) {
+                event.rowsPerSecond = rowCount * NANOS_PER_SECOND / nanos;
+                event.cellsPerSecond = cellCount * NANOS_PER_SECOND / nanos;
+            }
+            event.commit();
+        }
+    }
+
+    @Override
+    public void queueDepth(final int depth, final int capacity) {
+        final QueueDepthEvent event = new QueueDepthEvent();
+        if (event.shouldCommit()) {
+            event.depth = depth;
+            event.capacity = capacity;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void escaperCacheStats(final long hitCount, final long missCount) {
+        final EscaperCacheEvent event = new EscaperCacheEvent();
+        if (event.shouldCommit()) {
+            event.hitCount = hitCount;
+            event.missCount = missCount;
+            final long count = hitCount + missCount;
+            if (count > 0) {
+                event.hitRatio = (double) hitCount / count;
+            }
+            event.commit();
+        }
+    }
+}
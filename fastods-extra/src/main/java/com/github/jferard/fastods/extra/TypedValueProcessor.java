@@ -0,0 +1,57 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.extra;
+
+import com.github.jferard.fastods.TableCellWalker;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+
+/**
+ * A value processor in two steps: the parsing of the value, that may happen on a worker thread,
+ * and the setting of the cell value, on the thread that owns the walker.
+ *
+ * @author J. Férard
+ */
+abstract class TypedValueProcessor implements ValueProcessor {
+    @Override
+    public void processValue(final MetaCSVRecord record, final int i,
+                             final TableCellWalker walker) throws MetaCSVReadException {
+        this.setValue(this.parse(record, i), walker);
+    }
+
+    /**
+     * @param record the record
+     * @param i      the index of the value
+     * @return the typed value
+     * @throws MetaCSVReadException if the value can't be parsed
+     */
+    abstract Object parse(MetaCSVRecord record, int i) throws MetaCSVReadException;
+
+    /**
+     * @param value  the value returned by parse
+     * @param walker the walker
+     */
+    abstract void setValue(Object value, TableCellWalker walker);
+}
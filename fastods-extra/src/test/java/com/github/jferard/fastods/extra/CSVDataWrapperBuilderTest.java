@@ -32,6 +32,7 @@ import com.github.jferard.javamcsv.MetaCSVDataException;
 import com.github.jferard.javamcsv.MetaCSVParseException;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import org.easymock.EasyMock;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
@@ -67,6 +68,13 @@ public class CSVDataWrapperBuilderTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testBadParallel() {
+        final CSVDataWrapperBuilder builder =
+                new CSVDataWrapperBuilder(new ByteArrayInputStream(new byte[0]));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.parallel(0));
+    }
+
     @Test
     public void testInputStream()
             throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
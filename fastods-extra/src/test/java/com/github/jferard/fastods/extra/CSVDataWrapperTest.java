@@ -32,6 +32,7 @@ import com.github.jferard.javamcsv.MetaCSVDataException;
 import com.github.jferard.javamcsv.MetaCSVParseException;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import org.easymock.EasyMock;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
@@ -249,6 +250,91 @@ public class CSVDataWrapperTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testParallel()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        final int count = 2 * CSVPipeline.BATCH_SIZE + 10;
+        final StringBuilder sb = new StringBuilder("VALUE,DATE");
+        for (int i = 0; i < count; i++) {
+            sb.append("\r\n").append(i).append(",2021-02-08Z");
+        }
+        final Calendar cal = GregorianCalendar.getInstance(TimeZone.getTimeZone("UTC"));
+        cal.set(2021, Calendar.FEBRUARY, 8, 0, 0, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        final Date d = cal.getTime();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.walker.rowIndex()).andReturn(0);
+        EasyMock.expect(this.walker.colIndex()).andReturn(0);
+        this.walker.to(0);
+        this.walker.setStringValue("VALUE");
+        this.walker.setStyle(EasyMock.isA(TableCellStyle.class));
+        this.walker.next();
+        this.walker.setStringValue("DATE");
+        this.walker.setStyle(EasyMock.isA(TableCellStyle.class));
+        this.walker.next();
+        this.walker.nextRow();
+        for (int i = 0; i < count; i++) {
+            this.walker.to(0);
+            this.walker.setFloatValue((Number) (long) i);
+            this.walker.next();
+            this.walker.setDateValue(d);
+            this.walker.next();
+            this.walker.nextRow();
+        }
+        this.walker.nextRow();
+
+        PowerMock.replayAll();
+        final CSVDataWrapper dataWrapper =
+                new CSVDataWrapperBuilder(
+                        new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)))
+                        .metaCSVDirectives("data,col/0/type,integer",
+                                "data,col/1/type,date/yyyy-MM-ddX").parallel(3).build();
+        dataWrapper.addToTable(this.walker);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testParallelMax()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        PowerMock.resetAll();
+        this.prepareWalker();
+        this.walker.setStringValue("foo");
+        this.finalizeWalker();
+
+        PowerMock.replayAll();
+        final byte[] bytes = ("VALUE\r\nfoo\r\nbar").getBytes(StandardCharsets.UTF_8);
+        final CSVDataWrapper dataWrapper =
+                new CSVDataWrapperBuilder(new ByteArrayInputStream(bytes))
+                        .metaCSVDirectives("data,col/0/type,object").max(1).parallel(2).build();
+        dataWrapper.addToTable(this.walker);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testParallelError()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.walker.rowIndex()).andReturn(0);
+        EasyMock.expect(this.walker.colIndex()).andReturn(0);
+        this.walker.to(0);
+        this.walker.setStringValue("VALUE");
+        this.walker.setStyle(EasyMock.isA(TableCellStyle.class));
+        this.walker.next();
+        this.walker.nextRow();
+
+        PowerMock.replayAll();
+        final byte[] bytes = ("VALUE\r\nfoo").getBytes(StandardCharsets.UTF_8);
+        final CSVDataWrapper dataWrapper =
+                new CSVDataWrapperBuilder(new ByteArrayInputStream(bytes))
+                        .metaCSVDirectives("data,col/0/type,integer").parallel(2).build();
+        Assert.assertThrows(IOException.class, () -> dataWrapper.addToTable(this.walker));
+
+        PowerMock.verifyAll();
+    }
+
     private TableCellWalker prepareWalker() throws IOException {
         EasyMock.expect(this.walker.rowIndex()).andReturn(0);
         EasyMock.expect(this.walker.colIndex()).andReturn(0);
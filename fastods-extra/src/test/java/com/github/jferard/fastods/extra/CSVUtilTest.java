@@ -0,0 +1,112 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.extra;
+
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class CSVUtilTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCsvToOdsStreaming()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        final StringBuilder sb = new StringBuilder("number,text,flag\r\n");
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i).append(",t").append(i).append(",T\r\n");
+        }
+        final File csvFile = this.folder.newFile("data.csv");
+        this.write(csvFile, sb.toString());
+        this.write(this.folder.newFile("data.mcsv"),
+                "domain,key,value\r\ndata,col/0/type,integer\r\ndata,col/2/type,boolean/T/F\r\n");
+        final File odsFile = new File(this.folder.getRoot(), "data.ods");
+
+        CSVUtil.csvToOdsStreaming(csvFile, odsFile);
+
+        final String content = this.getContent(odsFile);
+        Assert.assertTrue(content.contains("table:name=\"data\""));
+        Assert.assertTrue(content.contains("office:value=\"9999\""));
+        Assert.assertTrue(content.contains("office:string-value=\"t9999\""));
+        Assert.assertTrue(content.contains("office:boolean-value=\"true\""));
+        Assert.assertTrue(content.contains("table:database-range"));
+        Assert.assertTrue(content.indexOf("office:value=\"1233\"") <
+                content.indexOf("office:value=\"1234\""));
+    }
+
+    @Test
+    public void testGetTableName() {
+        Assert.assertEquals("data", CSVUtil.getTableName(new File("dir", "data.csv")));
+        Assert.assertEquals("data", CSVUtil.getTableName(new File("dir", "data")));
+        Assert.assertEquals(".data", CSVUtil.getTableName(new File("dir", ".data")));
+    }
+
+    private void write(final File file, final String text) throws IOException {
+        final OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(text.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            os.close();
+        }
+    }
+
+    private String getContent(final File odsFile) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(new FileInputStream(odsFile));
+        try {
+            ZipEntry entry = zis.getNextEntry();
+            while (entry != null) {
+                if (entry.getName().equals("content.xml")) {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    final byte[] buffer = new byte[8192];
+                    int n = zis.read(buffer);
+                    while (n != -1) {
+                        out.write(buffer, 0, n);
+                        n = zis.read(buffer);
+                    }
+                    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+                }
+                entry = zis.getNextEntry();
+            }
+            throw new AssertionError("No content.xml");
+        } finally {
+            zis.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.extra;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JfrWriterMetricsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEvents() throws IOException {
+        final JfrWriterMetrics metrics = JfrWriterMetrics.create();
+        final Recording recording = new Recording();
+        try {
+            recording.enable(JfrWriterMetrics.ZipEntryEvent.class);
+            recording.enable(JfrWriterMetrics.FlusherEvent.class);
+            recording.enable(JfrWriterMetrics.TableEvent.class);
+            recording.enable(JfrWriterMetrics.QueueDepthEvent.class);
+            recording.enable(JfrWriterMetrics.EscaperCacheEvent.class);
+            recording.start();
+            metrics.entryWritten("content.xml", 1000, 100, 10);
+            metrics.flusherExecuted("EndTableFlusher", 20);
+            metrics.tableWritten("t", 1000, 5000, 500000000);
+            metrics.queueDepth(3, 32);
+            metrics.escaperCacheStats(3, 1);
+            recording.stop();
+            final File file = this.folder.newFile("metrics.jfr");
+            recording.dump(file.toPath());
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            final Map<String, RecordedEvent> eventByName = new HashMap<String, RecordedEvent>();
+            for (final RecordedEvent event : events) {
+                eventByName.put(event.getEventType().getName(), event);
+            }
+            final RecordedEvent zipEntryEvent = eventByName.get("fastods.ZipEntry");
+            Assert.assertEquals("content.xml", zipEntryEvent.getString("name"));
+            Assert.assertEquals(100, zipEntryEvent.getLong("compressedSize"));
+            Assert.assertEquals("EndTableFlusher",
+                    eventByName.get("fastods.Flusher").getString("flusherType"));
+            final RecordedEvent tableEvent = eventByName.get("fastods.Table");
+            Assert.assertEquals(2000.0, tableEvent.getDouble("rowsPerSecond"), 0.001);
+            Assert.assertEquals(10000.0, tableEvent.getDouble("cellsPerSecond"), 0.001);
+            Assert.assertEquals(3, eventByName.get("fastods.QueueDepth").getInt("depth"));
+            Assert.assertEquals(0.75,
+                    eventByName.get("fastods.EscaperCache").getDouble("hitRatio"), 0.001);
+        } finally {
+            recording.close();
+        }
+    }
+
+    @Test
+    public void testNoRecording() {
+        final JfrWriterMetrics metrics = JfrWriterMetrics.create();
+        metrics.entryWritten("content.xml", 1000, 100, 10);
+        metrics.tableWritten("t", 0, 0, 0);
+        metrics.escaperCacheStats(0, 0);
+    }
+}
@@ -24,6 +24,7 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilderImpl;
@@ -51,6 +52,7 @@ import java.util.logging.Logger;
 public class AnonymousOdsFileWriter {
     private final AnonymousOdsDocument document;
     private final Logger logger;
+    private final WriterMetrics metrics;
 
     /**
      * Create a new ODS file.
@@ -59,8 +61,21 @@ public class AnonymousOdsFileWriter {
      * @param document the document to write
      */
     AnonymousOdsFileWriter(final Logger logger, final AnonymousOdsDocument document) {
+        this(logger, document, null);
+    }
+
+    /**
+     * Create a new ODS file.
+     *
+     * @param logger   the logger
+     * @param document the document to write
+     * @param metrics  the listener for the metrics of the zip entries, or null
+     */
+    AnonymousOdsFileWriter(final Logger logger, final AnonymousOdsDocument document,
+                           final WriterMetrics metrics) {
         this.logger = logger;
         this.document = document;
+        this.metrics = metrics;
     }
 
     /**
@@ -78,7 +93,7 @@ public class AnonymousOdsFileWriter {
      * @throws IOException The file can't be saved.
      */
     public void save(final OutputStream out) throws IOException {
-        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().build(out);
+        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().metrics(this.metrics).build(out);
         this.save(writer);
         writer.finish();
         writer.flush();
@@ -0,0 +1,154 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A registry of the cell styles of a table. Each style gets a dense int id (0 is "no style"),
+ * that the cell stores keep instead of a reference, and a pre-escaped
+ * ` table:style-name="..."` fragment that is copied verbatim when a cell is written.
+ * <p>
+ * Styles are registered by the thread that fills the table. The fragments are built lazily by
+ * this thread, either when it writes a row or when it calls {@link #buildFragments(XMLUtil)}
+ * before it hands a block of rows off to another thread (an async writer or a RowsRenderer).
+ * The fragments array is volatile and written after the fragments: the other threads only read
+ * complete fragments.
+ *
+ * @author J. Férard
+ */
+class CellStyleRegistry {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<TableCellStyle, Integer> idByStyle;
+    private TableCellStyle[] styles;
+    private volatile String[] fragments;
+    private int size;
+    private int builtSize;
+
+    /**
+     * @param util  the util to escape the name
+     * @param style the style
+     * @return the escaped ` table:style-name="..."` attribute
+     */
+    static String createStyleNameFragment(final XMLUtil util, final TableCellStyle style) {
+        return " table:style-name=\"" + util.escapeXMLAttribute(style.getName()) + "\"";
+    }
+
+    /**
+     * Create an empty registry
+     */
+    CellStyleRegistry() {
+        this.idByStyle = new IdentityHashMap<TableCellStyle, Integer>();
+        this.styles = new TableCellStyle[DEFAULT_CAPACITY];
+        this.fragments = new String[DEFAULT_CAPACITY];
+        this.size = 0;
+        this.builtSize = 0;
+    }
+
+    /**
+     * @param style the style, may be null
+     * @return the id of the style, 0 if style is null. The style is registered if necessary.
+     */
+    public int getId(final TableCellStyle style) {
+        if (style == null) {
+            return 0;
+        }
+        final Integer id = this.idByStyle.get(style);
+        if (id != null) {
+            return id;
+        }
+        if (this.size + 1 == this.styles.length) {
+            this.styles = Arrays.copyOf(this.styles, this.styles.length * 2);
+            this.fragments = Arrays.copyOf(this.fragments, this.fragments.length * 2);
+        }
+        this.size++;
+        this.styles[this.size] = style;
+        this.idByStyle.put(style, this.size);
+        return this.size;
+    }
+
+    /**
+     * @param id the id
+     * @return the style or null if id is 0
+     */
+    public TableCellStyle getStyle(final int id) {
+        return this.styles[id];
+    }
+
+    /**
+     * Build the fragments of the styles registered since the last call and publish them. To be
+     * called by the thread that fills the table, before it hands rows off to another thread.
+     *
+     * @param util the util to escape the names
+     */
+    public void buildFragments(final XMLUtil util) {
+        if (this.builtSize == this.size) {
+            return;
+        }
+        final String[] curFragments = this.fragments;
+        for (int id = this.builtSize + 1; id <= this.size; id++) {
+            if (curFragments[id] == null) {
+                curFragments[id] = createStyleNameFragment(util, this.styles[id]);
+            }
+        }
+        this.builtSize = this.size;
+        this.fragments = curFragments; // publish the fragments
+    }
+
+    /**
+     * Append the escaped ` table:style-name="..."` attribute of a registered style. The fragment
+     * is built if necessary: this happens only on the thread that fills the table, since the
+     * fragments of the rows handed off were built by {@link #buildFragments(XMLUtil)}.
+     *
+     * @param util       the util to escape the name
+     * @param appendable the destination
+     * @param id         the id of the style, not 0
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendStyleNameAttribute(final XMLUtil util, final Appendable appendable,
+                                         final int id) throws IOException {
+        final String[] curFragments = this.fragments;
+        String fragment = curFragments[id];
+        if (fragment == null) {
+            fragment = createStyleNameFragment(util, this.styles[id]);
+            curFragments[id] = fragment;
+        }
+        appendable.append(fragment);
+    }
+
+    /**
+     * @return the number of registered styles
+     */
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import java.util.Arrays;
+
+/**
+ * A memo of the implicit child styles of a table: (column, cell type, base style, data style)
+ * -&gt; child style. There is one slot per (column, cell type), hence a typed setter in a
+ * column where the base style does not change costs an array lookup instead of a
+ * StylesContainer.addChildCellStyle call (key allocation, hashing, map probe).
+ *
+ * @author J. Férard
+ */
+class ChildCellStyleMemo {
+    private static final int TYPE_COUNT = CellType.values().length;
+    private static final int DEFAULT_COLUMN_CAPACITY = 16;
+
+    private TableCellStyle[] baseStyles;
+    private DataStyle[] dataStyles;
+    private TableCellStyle[] childStyles;
+
+    /**
+     * Create an empty memo
+     */
+    ChildCellStyleMemo() {
+        this.baseStyles = new TableCellStyle[DEFAULT_COLUMN_CAPACITY * TYPE_COUNT];
+        this.dataStyles = new DataStyle[DEFAULT_COLUMN_CAPACITY * TYPE_COUNT];
+        this.childStyles = new TableCellStyle[DEFAULT_COLUMN_CAPACITY * TYPE_COUNT];
+    }
+
+    /**
+     * @param columnIndex the column index
+     * @param type        the type of the cell
+     * @param baseStyle   the current style of the cell
+     * @param dataStyle   the implicit data style
+     * @return the child style, or null if the memo does not know this base and data style
+     */
+    public TableCellStyle get(final int columnIndex, final CellType type,
+                              final TableCellStyle baseStyle, final DataStyle dataStyle) {
+        final int i = columnIndex * TYPE_COUNT + type.ordinal();
+        if (i < this.baseStyles.length && this.baseStyles[i] == baseStyle &&
+                this.dataStyles[i] == dataStyle) {
+            return this.childStyles[i];
+        }
+        return null;
+    }
+
+    /**
+     * Replace the slot of (column, type)
+     *
+     * @param columnIndex the column index
+     * @param type        the type of the cell
+     * @param baseStyle   the current style of the cell
+     * @param dataStyle   the implicit data style
+     * @param childStyle  the resolved child style
+     */
+    public void put(final int columnIndex, final CellType type, final TableCellStyle baseStyle,
+                    final DataStyle dataStyle, final TableCellStyle childStyle) {
+        final int i = columnIndex * TYPE_COUNT + type.ordinal();
+        if (i >= this.baseStyles.length) {
+            final int newLength =
+                    Math.max(this.baseStyles.length * 2, (columnIndex + 1) * TYPE_COUNT);
+            this.baseStyles = Arrays.copyOf(this.baseStyles, newLength);
+            this.dataStyles = Arrays.copyOf(this.dataStyles, newLength);
+            this.childStyles = Arrays.copyOf(this.childStyles, newLength);
+        }
+        this.baseStyles[i] = baseStyle;
+        this.dataStyles[i] = dataStyle;
+        this.childStyles[i] = childStyle;
+    }
+}
@@ -62,7 +62,11 @@ public class CurrencyValue implements CellValue {
 
     @Override
     public void setToCell(final TableCell tableCell) {
-        tableCell.setCurrencyValue(this.value, this.currency);
+        if (this.value instanceof Double) {
+            tableCell.setCurrencyValue(this.value.doubleValue(), this.currency);
+        } else {
+            tableCell.setCurrencyValue(this.value, this.currency);
+        }
     }
 
     @Override
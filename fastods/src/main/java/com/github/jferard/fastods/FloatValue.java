@@ -79,7 +79,13 @@ public class FloatValue implements CellValue {
 
     @Override
     public void setToCell(final TableCell tableCell) {
-        tableCell.setFloatValue(this.value);
+        if (this.value instanceof Double) {
+            tableCell.setFloatValue(this.value.doubleValue());
+        } else if (this.value instanceof Long) {
+            tableCell.setFloatValue(this.value.longValue());
+        } else {
+            tableCell.setFloatValue(this.value);
+        }
     }
 
     @Override
@@ -28,8 +28,11 @@ import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.odselement.MetaElement;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.ref.PositionUtil;
+import com.github.jferard.fastods.util.HeapBudget;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilderImpl;
 import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
 
@@ -54,6 +57,13 @@ public class OdsFactory {
     private DataStyles format;
     private boolean libreOfficeMode;
     private MetaElement metaElement;
+    private final RowsRenderer rowsRenderer;
+    private final long spillBudget;
+    private final File spillDirectory;
+    private final XMLUtilFactory xmlUtilFactory;
+    private final WriterMetrics writerMetrics;
+    private final long tableMemoryBudget;
+
     /**
      * Create a new OdsFactory
      *
@@ -65,11 +75,23 @@ public class OdsFactory {
      * @param format                      the data styles
      * @param libreOfficeMode             try to get full compatibility with LO if true
      * @param metaElement                 the meta element
+     * @param rowsRenderer                the renderer for the rows, or null
+     * @param spillBudget                 the heap budget of the spools of an anonymous
+     *                                    document, or 0 to keep the rows in the model
+     * @param spillDirectory              the directory of the temp files, or null
+     * @param xmlUtilFactory              the factory of the XMLUtils of the other threads,
+     *                                    with the escaper settings of xmlUtil
+     * @param writerMetrics               the listener for the metrics, or null
+     * @param tableMemoryBudget           the max number of bytes retained by the rows of a
+     *                                    table, or 0 to flush the rows by blocks of fixed size
      */
     OdsFactory(final Logger logger, final PositionUtil positionUtil, final IntegerRepresentationCache cache,
                final XMLUtil xmlUtil, final Map<String, String> additionalNamespaceByPrefix,
                final DataStyles format, final boolean libreOfficeMode,
-               final MetaElement metaElement) {
+               final MetaElement metaElement, final RowsRenderer rowsRenderer,
+               final long spillBudget, final File spillDirectory,
+               final XMLUtilFactory xmlUtilFactory, final WriterMetrics writerMetrics,
+               final long tableMemoryBudget) {
         this.logger = logger;
         this.positionUtil = positionUtil;
         this.cache = cache;
@@ -78,6 +100,12 @@ public class OdsFactory {
         this.format = format;
         this.libreOfficeMode = libreOfficeMode;
         this.metaElement = metaElement;
+        this.rowsRenderer = rowsRenderer;
+        this.spillBudget = spillBudget;
+        this.spillDirectory = spillDirectory;
+        this.xmlUtilFactory = xmlUtilFactory;
+        this.writerMetrics = writerMetrics;
+        this.tableMemoryBudget = tableMemoryBudget;
     }
 
     /**
@@ -171,6 +199,12 @@ public class OdsFactory {
         final OdsElements odsElements = OdsElements
                 .create(this.positionUtil, this.xmlUtil, this.cache, this.format,
                         this.libreOfficeMode, this.metaElement, this.additionalNamespaceByPrefix);
+        odsElements.setXMLUtilFactory(this.xmlUtilFactory);
+        if (this.spillBudget > 0) {
+            odsElements.setSpillBudget(HeapBudget.create(this.spillBudget), this.spillDirectory);
+        }
+        this.setWriterMetricsIfNeeded(odsElements);
+        odsElements.setTableMemoryBudget(this.tableMemoryBudget);
         return AnonymousOdsDocument.create(this.logger, this.xmlUtil, odsElements);
     }
 
@@ -183,15 +217,25 @@ public class OdsFactory {
         final OdsElements odsElements = OdsElements
                 .create(this.positionUtil, this.xmlUtil, this.cache, this.format,
                         this.libreOfficeMode, this.metaElement, this.additionalNamespaceByPrefix);
+        odsElements.setRowsRenderer(this.rowsRenderer);
+        odsElements.setXMLUtilFactory(this.xmlUtilFactory);
+        this.setWriterMetricsIfNeeded(odsElements);
+        odsElements.setTableMemoryBudget(this.tableMemoryBudget);
         return NamedOdsDocument.create(this.logger, this.xmlUtil, odsElements);
     }
 
+    private void setWriterMetricsIfNeeded(final OdsElements odsElements) {
+        if (this.writerMetrics != null) {
+            odsElements.setWriterMetrics(this.writerMetrics);
+        }
+    }
+
     /**
      * @return a new writer, but with no actual name
      */
     public AnonymousOdsFileWriter createWriter() {
         final AnonymousOdsDocument document = this.createAnonymousDocument();
-        return new AnonymousOdsFileWriter(this.logger, document);
+        return new AnonymousOdsFileWriter(this.logger, document, this.writerMetrics);
     }
 
     /**
@@ -205,7 +249,7 @@ public class OdsFactory {
     public NamedOdsFileWriter createWriter(final String filename) throws IOException {
         final NamedOdsDocument document = this.createNamedDocument();
         final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
-                .file(filename).build();
+                .file(filename).metrics(this.writerMetrics).build();
         document.addObserver(writer);
         document.prepare();
         return writer;
@@ -223,7 +267,7 @@ public class OdsFactory {
         final NamedOdsDocument document = this.createNamedDocument();
         final NamedOdsFileWriter writer =
                 OdsFileDirectWriter.builder(this.logger, document).file(file)
-                        .build();
+                        .metrics(this.writerMetrics).build();
         document.addObserver(writer);
         document.prepare();
         return writer;
@@ -237,11 +281,26 @@ public class OdsFactory {
      * @throws IOException if an I/O error occurs
      */
     public OdsFileWriterAdapter createWriterAdapter(final File file) throws IOException {
+        return this.createWriterAdapter(file, OdsFileWriterAdapter.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an adapter for a writer.
+     *
+     * @param file     the file
+     * @param capacity the max number of flushers waiting for the consumer thread. When this
+     *                 number is reached, the producer thread waits.
+     * @return the adapter
+     * @throws IOException if an I/O error occurs
+     */
+    public OdsFileWriterAdapter createWriterAdapter(final File file, final int capacity)
+            throws IOException {
         final NamedOdsDocument document = this.createNamedDocument();
         final ZipUTF8WriterBuilderImpl zipUTF8Writer = ZipUTF8WriterImpl.builder().noWriterBuffer();
         final OdsFileWriterAdapter writerAdapter = OdsFileWriterAdapter.create(this.logger,
                 OdsFileDirectWriter.builder(this.logger, document).file(file)
-                        .zipBuilder(zipUTF8Writer).build());
+                        .zipBuilder(zipUTF8Writer).metrics(this.writerMetrics).build(), capacity,
+                this.writerMetrics);
         document.addObserver(writerAdapter);
         document.prepare();
         return writerAdapter;
@@ -29,9 +29,13 @@ import com.github.jferard.fastods.datastyle.DataStylesBuilder;
 import com.github.jferard.fastods.odselement.MetaElement;
 import com.github.jferard.fastods.ref.PositionUtil;
 import com.github.jferard.fastods.ref.TableNameUtil;
+import com.github.jferard.fastods.util.FastOdsXMLEscaper;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -41,28 +45,46 @@ public class OdsFactoryBuilder {
     private final Logger logger;
     private final PositionUtil positionUtil;
     private final IntegerRepresentationCache cache;
-    private final XMLUtil xmlUtil;
     private final Map<String, String> additionalNamespaceByPrefix;
     private DataStyles format;
     private boolean libreOfficeMode;
     private MetaElement metaElement;
+    private FastOdsXMLEscaper escaper;
+    private RowsRenderer rowsRenderer;
+    private long spillBudget;
+    private File spillDirectory;
+    private WriterMetrics writerMetrics;
+    private long tableMemoryBudget;
 
     public OdsFactoryBuilder(final Logger logger, final Locale locale) {
         this.logger = logger;
         this.positionUtil = new PositionUtil(new TableNameUtil());
         this.cache = IntegerRepresentationCache.create();
-        this.xmlUtil = XMLUtil.create();
         this.additionalNamespaceByPrefix = new HashMap<String, String>();
 
         this.format = DataStylesBuilder.create(locale).build();
         this.libreOfficeMode = true;
         this.metaElement = MetaElement.create();
+        this.escaper = null;
+        this.rowsRenderer = null;
+        this.spillBudget = 0;
+        this.spillDirectory = null;
+        this.writerMetrics = null;
+        this.tableMemoryBudget = 0;
     }
 
     public OdsFactory build() {
-        return new OdsFactory(this.logger, this.positionUtil, this.cache, this.xmlUtil,
-                this.additionalNamespaceByPrefix, this.format, this.libreOfficeMode, this.metaElement
-        );
+        final FastOdsXMLEscaper escaper;
+        if (this.escaper == null) {
+            escaper = FastOdsXMLEscaper.create();
+        } else {
+            escaper = this.escaper;
+        }
+        final XMLUtil xmlUtil = XMLUtil.create(escaper);
+        return new OdsFactory(this.logger, this.positionUtil, this.cache, xmlUtil,
+                this.additionalNamespaceByPrefix, this.format, this.libreOfficeMode,
+                this.metaElement, this.rowsRenderer, this.spillBudget, this.spillDirectory,
+                XMLUtilFactory.create(escaper), this.writerMetrics, this.tableMemoryBudget);
     }
 
     /**
@@ -99,6 +121,137 @@ public class OdsFactoryBuilder {
         return this;
     }
 
+    /**
+     * Render the blocks of rows to XML on a pool of daemon threads, while the current thread
+     * fills the cells. The rendered blocks are written in order. Works for the writers that
+     * flush the rows (named writers and writer adapters).
+     *
+     * @param threads the number of threads
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder parallelRowsRendering(final int threads) {
+        this.rowsRenderer = RowsRenderer.create(threads);
+        return this;
+    }
+
+    /**
+     * Render the blocks of rows to XML with a custom renderer.
+     *
+     * @param rowsRenderer the renderer, or null to render the rows on the current thread
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder rowsRenderer(final RowsRenderer rowsRenderer) {
+        this.rowsRenderer = rowsRenderer;
+        return this;
+    }
+
+    /**
+     * Bound the memory of the anonymous writers. The rows of the tables are serialized to
+     * spools by blocks, and the spools are spilled to temp files when the heap budget is
+     * exceeded. The budget is shared by the spools and the rows that are not spooled yet: a
+     * table spools its rows early when the budget is exceeded. The styles are still collected
+     * until the document is saved: then the styles and the content preamble are written and the
+     * spools are streamed.
+     * <p>
+     * Since the rows are serialized by blocks, the columns of a table must be set before the
+     * first block is serialized, and a serialized row can't be accessed anymore (like with a
+     * named writer).
+     *
+     * @param heapBudget the max number of bytes held by the spools and the rows of a document
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder spillToDisk(final long heapBudget) {
+        return this.spillToDisk(heapBudget, null);
+    }
+
+    /**
+     * Bound the memory of the anonymous writers. See {@link #spillToDisk(long)}.
+     *
+     * @param heapBudget     the max number of bytes held by the spools of a document
+     * @param spillDirectory the directory of the temp files
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder spillToDisk(final long heapBudget, final File spillDirectory) {
+        if (heapBudget <= 0) {
+            throw new IllegalArgumentException("Budget must be > 0");
+        }
+        this.spillBudget = heapBudget;
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+
+    /**
+     * Flush the rows of a table when their estimated size exceeds a budget, and not only by
+     * blocks of a fixed number of rows: a table with many columns is flushed more often than a
+     * narrow one, and the memory used by a table is bounded. Use
+     * {@link Table#estimatedRetainedBytes()} to read the estimate.
+     * <p>
+     * Works for the writers that flush the rows (named writers and writer adapters) and for
+     * the anonymous writers that spill to disk (see {@link #spillToDisk(long)}). A named writer
+     * fills one table at a time, hence this is also the budget of the rows of a document.
+     *
+     * @param memoryBudget the max number of bytes retained by the rows of a table
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder tableMemoryBudget(final long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Budget must be > 0");
+        }
+        this.tableMemoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * Set the max number of escaped strings kept in the caches of the XML escaper. The caches
+     * hold the style names and the short cell values (at most
+     * {@link FastOdsXMLEscaper#CACHED_VALUE_MAX_LENGTH} chars) that contain special chars. The
+     * least recently used strings are evicted. The escapers of the threads that render, spool or
+     * partition the rows have the same cache size.
+     *
+     * @param cacheSize the max number of entries of each cache, 0 to disable the caches
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder escapeCacheSize(final int cacheSize) {
+        this.escaper = FastOdsXMLEscaper.create(cacheSize);
+        return this;
+    }
+
+    /**
+     * Disable the caches of the XML escaper: every string is escaped again. Use this if the
+     * short values that contain special chars ({@code &}, {@code <}...) are mostly distinct: the
+     * cache would only retain memory.
+     *
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder noEscapeCache() {
+        return this.escapeCacheSize(0);
+    }
+
+    /**
+     * Use a custom XML escaper. Keep a reference to the escaper to read the hit/miss/eviction
+     * counters of its caches. The threads that render, spool or partition the rows use new
+     * escapers with the same buffer size and cache size.
+     *
+     * @param escaper the escaper
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder xmlEscaper(final FastOdsXMLEscaper escaper) {
+        this.escaper = escaper;
+        return this;
+    }
+
+    /**
+     * Report the metrics of the write pipeline of the documents: zip entries, flushers,
+     * tables, queue of the writer adapters and caches of the XML escaper.
+     *
+     * @param writerMetrics the listener, or null to disable the metrics
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder writerMetrics(final WriterMetrics writerMetrics) {
+        this.writerMetrics = writerMetrics;
+        return this;
+    }
+
     /**
      * Use custom namespace prefixes in content element.
      *
@@ -24,6 +24,7 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
@@ -55,6 +56,7 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
     private final Logger logger;
     private final ZipUTF8Writer writer;
     private final XMLUtil xmlUtil;
+    private final WriterMetrics metrics;
 
     /**
      * Create a new ODS file.
@@ -66,10 +68,25 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
      */
     OdsFileDirectWriter(final Logger logger, final XMLUtil xmlUtil, final NamedOdsDocument document,
                         final ZipUTF8Writer writer) {
+        this(logger, xmlUtil, document, writer, null);
+    }
+
+    /**
+     * Create a new ODS file.
+     *
+     * @param logger   the logger
+     * @param xmlUtil  an util
+     * @param document the document to write
+     * @param writer   The writer for this file
+     * @param metrics  the listener for the latency of the flushers, or null
+     */
+    OdsFileDirectWriter(final Logger logger, final XMLUtil xmlUtil, final NamedOdsDocument document,
+                        final ZipUTF8Writer writer, final WriterMetrics metrics) {
         this.logger = logger;
         this.document = document;
         this.xmlUtil = xmlUtil;
         this.writer = writer;
+        this.metrics = metrics;
     }
 
     @Override
@@ -90,6 +107,13 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
 
     @Override
     public void update(final OdsAsyncFlusher flusher) throws IOException {
-        flusher.flushInto(this.xmlUtil, this.writer);
+        if (this.metrics == null) {
+            flusher.flushInto(this.xmlUtil, this.writer);
+        } else {
+            final long start = System.nanoTime();
+            flusher.flushInto(this.xmlUtil, this.writer);
+            this.metrics.flusherExecuted(flusher.getClass().getSimpleName(),
+                    System.nanoTime() - start);
+        }
     }
 }
\ No newline at end of file
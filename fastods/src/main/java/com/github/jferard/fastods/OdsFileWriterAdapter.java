@@ -24,13 +24,14 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.BoundedHandoffQueue;
+import com.github.jferard.fastods.util.WriterMetrics;
+
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.logging.Logger;
 
 /**
- * The OdsFileWriterAdapter class represents an adapter to a writer. It stores a queue of
+ * The OdsFileWriterAdapter class represents an adapter to a writer. It stores a bounded queue of
  * flushers. Usage:
  * <ul>
  * <li>A producer thread that writes on a OdsFileWriterAdapter.document()</li>
@@ -44,11 +45,20 @@ import java.util.logging.Logger;
  * }
  * this.writerAdapter.flushAdaptee();
  * </pre>
+ * <p>
+ * The queue is a single-producer/single-consumer ring buffer: no lock is held while the
+ * adaptee writes the data. When the queue is full, the producer waits for the consumer: the
+ * consumer thread must be started before the producer fills the document.
  *
  * @author Julien Férard
  * @author Martin Schulz
  */
 public class OdsFileWriterAdapter implements NamedOdsFileWriter {
+    /**
+     * The default capacity of the queue of flushers
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+
     /**
      * @param logger  the logger
      * @param adaptee the adaptee writer
@@ -56,13 +66,52 @@ public class OdsFileWriterAdapter implements NamedOdsFileWriter {
      */
     public static OdsFileWriterAdapter create(final Logger logger,
                                               final NamedOdsFileWriter adaptee) {
-        return new OdsFileWriterAdapter(logger, adaptee, new LinkedList<OdsAsyncFlusher>());
+        return OdsFileWriterAdapter.create(logger, adaptee, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param logger   the logger
+     * @param adaptee  the adaptee writer
+     * @param capacity the max number of flushers waiting for the consumer
+     * @return the new adapter
+     */
+    public static OdsFileWriterAdapter create(final Logger logger,
+                                              final NamedOdsFileWriter adaptee,
+                                              final int capacity) {
+        return OdsFileWriterAdapter.create(logger, adaptee, capacity, null);
+    }
+
+    /**
+     * @param logger   the logger
+     * @param adaptee  the adaptee writer
+     * @param capacity the max number of flushers waiting for the consumer
+     * @param metrics  the listener for the depth of the queue, or null
+     * @return the new adapter
+     */
+    public static OdsFileWriterAdapter create(final Logger logger,
+                                              final NamedOdsFileWriter adaptee,
+                                              final int capacity, final WriterMetrics metrics) {
+        return new OdsFileWriterAdapter(logger, adaptee,
+                BoundedHandoffQueue.<OdsAsyncFlusher>create(capacity), metrics);
     }
 
     private final Logger logger;
     private final NamedOdsFileWriter adaptee;
-    private final Queue<OdsAsyncFlusher> flushers;
-    private boolean stopped;
+    private final BoundedHandoffQueue<OdsAsyncFlusher> flushers;
+    private final WriterMetrics metrics;
+    private volatile boolean stopped;
+
+    /**
+     * Create an new adapter
+     *
+     * @param logger   the logger
+     * @param adaptee  the adaptee writer
+     * @param flushers the queue of flushers
+     */
+    OdsFileWriterAdapter(final Logger logger, final NamedOdsFileWriter adaptee,
+                         final BoundedHandoffQueue<OdsAsyncFlusher> flushers) {
+        this(logger, adaptee, flushers, null);
+    }
 
     /**
      * Create an new adapter
@@ -70,12 +119,15 @@ public class OdsFileWriterAdapter implements NamedOdsFileWriter {
      * @param logger   the logger
      * @param adaptee  the adaptee writer
      * @param flushers the queue of flushers
+     * @param metrics  the listener for the depth of the queue, or null
      */
     OdsFileWriterAdapter(final Logger logger, final NamedOdsFileWriter adaptee,
-                         final Queue<OdsAsyncFlusher> flushers) {
+                         final BoundedHandoffQueue<OdsAsyncFlusher> flushers,
+                         final WriterMetrics metrics) {
         this.logger = logger;
         this.adaptee = adaptee;
         this.flushers = flushers;
+        this.metrics = metrics;
     }
 
     @Override
@@ -88,14 +140,26 @@ public class OdsFileWriterAdapter implements NamedOdsFileWriter {
     }
 
     @Override
-    public synchronized void save() {
+    public void save() {
     }
 
+    /**
+     * Add a flusher to the queue. If the queue is full, wait for the consumer.
+     *
+     * @param flusher the chosen flusher
+     */
     @Override
-    public synchronized void update(final OdsAsyncFlusher flusher) {
-        this.flushers.add(flusher);
+    public void update(final OdsAsyncFlusher flusher) {
+        try {
+            this.flushers.put(flusher);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (this.metrics != null) {
+            this.metrics.queueDepth(this.flushers.size(), this.flushers.capacity());
+        }
         this.logger.fine("Add new flusher: " + flusher);
-        this.notifyAll();
     }
 
     /**
@@ -104,46 +168,39 @@ public class OdsFileWriterAdapter implements NamedOdsFileWriter {
      *
      * @throws IOException if the adaptee throws an IOException
      */
-    public synchronized void flushAdaptee() throws IOException {
+    public void flushAdaptee() throws IOException {
         OdsAsyncFlusher flusher = this.flushers.poll();
         this.logger.fine("Retrieve first flusher: " + flusher);
-        if (flusher == null) {
-            this.notifyAll(); // wakes up other threads: no flusher available
-            return;
-        }
-
         while (flusher != null) {
             this.adaptee.update(flusher);
             if (flusher.isEnd()) {
                 this.stopped = true;
-                this.notifyAll(); // wakes up other threads: end of game
                 return;
             }
             flusher = this.flushers.poll();
             this.logger.fine("Retrieve next flusher: " + flusher);
         }
-        this.notifyAll(); // wakes up other threads: no flusher left
     }
 
     /**
      * @return true if the adapter is stopped
      */
-    public synchronized boolean isNotStopped() {
+    public boolean isNotStopped() {
         return !this.stopped;
     }
 
     /**
      * wait for the data
      */
-    public synchronized void waitForData() {
-        while (this.flushers.isEmpty() && this.isNotStopped()) {
-            try {
-                this.wait();
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
-            }
+    public void waitForData() {
+        if (this.stopped) {
+            return;
+        }
+        try {
+            this.flushers.awaitNotEmpty();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
     }
-
 }
@@ -26,6 +26,7 @@ package com.github.jferard.fastods;
 
 import com.github.jferard.fastods.util.FileOpen;
 import com.github.jferard.fastods.util.FileOpenResult;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilderImpl;
@@ -45,6 +46,7 @@ public class OdsFileWriterBuilder {
     private final NamedOdsDocument document;
     private OutputStream out;
     private ZipUTF8WriterBuilderImpl builder;
+    private WriterMetrics metrics;
 
     /**
      * Create a new ODS file.
@@ -56,14 +58,19 @@ public class OdsFileWriterBuilder {
         this.logger = logger;
         this.document = document;
         this.builder = ZipUTF8WriterImpl.builder();
+        this.metrics = null;
     }
 
     /**
      * @return the writer for the ods file
      */
     public NamedOdsFileWriter build() {
+        if (this.metrics != null) {
+            this.builder.metrics(this.metrics);
+        }
         final ZipUTF8Writer writer = this.builder.build(this.out);
-        return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer);
+        return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer,
+                this.metrics);
     }
 
     /**
@@ -112,6 +119,17 @@ public class OdsFileWriterBuilder {
         return this;
     }
 
+    /**
+     * Report the metrics of the zip entries and of the flushers.
+     *
+     * @param metrics the listener, or null to disable the metrics
+     * @return this for fluent style
+     */
+    public OdsFileWriterBuilder metrics(final WriterMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * @param builder a builder for the ZipOutputStream and the Writer (buffers,
      *                level, ...)
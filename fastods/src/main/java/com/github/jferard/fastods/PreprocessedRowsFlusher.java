@@ -55,9 +55,7 @@ class PreprocessedRowsFlusher implements OdsAsyncFlusher {
             throws IOException {
         // create a char sequence
         final StringBuilder sb = new StringBuilder(STRING_BUILDER_SIZE);
-        for (final TableRowImpl row : tableRows) {
-            TableRowImpl.appendXMLToTable(row, xmlUtil, sb);
-        }
+        RepeatedRowsAppender.appendRows(xmlUtil, sb, tableRows);
         // free rows
         Collections.fill(tableRows, null);
 
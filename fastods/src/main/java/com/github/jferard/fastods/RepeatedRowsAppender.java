@@ -0,0 +1,106 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Appends rows, and collapses identical consecutive rows into one row with a
+ * table:number-rows-repeated attribute. The last row is held until the next row is different
+ * or until {@link #flush(XMLUtil, Appendable)} is called.
+ *
+ * @author J. Férard
+ */
+class RepeatedRowsAppender {
+    /**
+     * Append a block of rows, then flush. A null row is written as by
+     * {@link TableRowImpl#appendXMLToTable(TableRowImpl, XMLUtil, Appendable)}.
+     *
+     * @param util       an util
+     * @param appendable where to append the rows XML
+     * @param rows       the rows
+     * @throws IOException if an error occurs
+     */
+    static void appendRows(final XMLUtil util, final Appendable appendable,
+                           final List<TableRowImpl> rows) throws IOException {
+        final RepeatedRowsAppender rowsAppender = new RepeatedRowsAppender();
+        for (final TableRowImpl row : rows) {
+            if (row == null) {
+                rowsAppender.flush(util, appendable);
+                TableRowImpl.appendXMLToTable(null, util, appendable);
+            } else {
+                rowsAppender.append(util, appendable, row);
+            }
+        }
+        rowsAppender.flush(util, appendable);
+    }
+
+    private TableRowImpl pendingRow;
+    private int rowsRepeated;
+
+    /**
+     * Append a row, or count it if it repeats the pending row.
+     *
+     * @param util       an util
+     * @param appendable where to append the rows XML
+     * @param row        the row, not null
+     * @throws IOException if an error occurs
+     */
+    public void append(final XMLUtil util, final Appendable appendable, final TableRowImpl row)
+            throws IOException {
+        if (this.pendingRow != null) {
+            if (row.isRepetitionOf(this.pendingRow)) {
+                this.rowsRepeated++;
+                return;
+            }
+            this.flush(util, appendable);
+        }
+        this.pendingRow = row;
+        this.rowsRepeated = 1;
+    }
+
+    /**
+     * Write the pending row, if any.
+     *
+     * @param util       an util
+     * @param appendable where to append the rows XML
+     * @throws IOException if an error occurs
+     */
+    public void flush(final XMLUtil util, final Appendable appendable) throws IOException {
+        if (this.pendingRow == null) {
+            return;
+        }
+        if (this.rowsRepeated == 1) {
+            this.pendingRow.appendXMLToTable(util, appendable);
+        } else {
+            this.pendingRow.appendXMLToTable(util, appendable, this.rowsRepeated);
+        }
+        this.pendingRow = null;
+        this.rowsRepeated = 0;
+    }
+}
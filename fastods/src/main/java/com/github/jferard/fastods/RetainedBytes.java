@@ -0,0 +1,101 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+/**
+ * An estimate of the heap bytes retained by the rows of a table, updated by the cell stores
+ * when they allocate slots, strings, cold cells or custom cells, and by the table model when the
+ * rows are flushed.
+ * <p>
+ * The estimate is based on the shallow size of the objects on a 64 bits JVM with compressed
+ * oops. The content of the cold cells (text, tooltip, ...) and of the custom cells is not
+ * measured. It is not thread safe: a table is filled by one thread.
+ *
+ * @author J. Férard
+ */
+class RetainedBytes {
+    /**
+     * A row: TableRowImpl, TableCellStore, the headers of the arrays and the slot of the page
+     */
+    static final int ROW_BYTES = 160;
+    /**
+     * A cell slot: the tag, the number and the style id
+     */
+    static final int SLOT_BYTES = 13;
+    /**
+     * A slot of a side table (strings, cold cells or custom cells)
+     */
+    static final int REFERENCE_BYTES = 4;
+    /**
+     * The header of an array
+     */
+    static final int ARRAY_BYTES = 16;
+    /**
+     * The String object and the header of its array, without the chars
+     */
+    static final int STRING_BYTES = 40;
+    /**
+     * A cold cell, without its content
+     */
+    static final int COLD_CELL_BYTES = 64;
+    /**
+     * A custom cell
+     */
+    static final int CUSTOM_CELL_BYTES = 64;
+
+    /**
+     * @param s the string
+     * @return the estimated size of the string, 0 if it's null
+     */
+    static long stringBytes(final String s) {
+        if (s == null) {
+            return 0;
+        }
+        return STRING_BYTES + 2L * s.length();
+    }
+
+    private long bytes;
+
+    /**
+     * A new estimate
+     */
+    RetainedBytes() {
+        this.bytes = 0;
+    }
+
+    /**
+     * @param delta the number of bytes allocated (or released if &lt; 0)
+     */
+    void add(final long delta) {
+        this.bytes += delta;
+    }
+
+    /**
+     * @return the estimated number of bytes
+     */
+    long get() {
+        return this.bytes;
+    }
+}
@@ -30,6 +30,10 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.util.Validation;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -91,6 +95,21 @@ public class RowCellWalkerImpl implements RowCellWalker {
         this.row.getOrCreateCell(this.c).setDateValue(value);
     }
 
+    @Override
+    public void setDateValue(final LocalDate value) {
+        this.row.getOrCreateCell(this.c).setDateValue(value);
+    }
+
+    @Override
+    public void setDateValue(final LocalDateTime value) {
+        this.row.getOrCreateCell(this.c).setDateValue(value);
+    }
+
+    @Override
+    public void setDateValue(final Instant value) {
+        this.row.getOrCreateCell(this.c).setDateValue(value);
+    }
+
     @Override
     public void setFloatValue(final Number value) {
         this.row.getOrCreateCell(this.c).setFloatValue(value);
@@ -133,6 +152,11 @@ public class RowCellWalkerImpl implements RowCellWalker {
         this.row.getOrCreateCell(this.c).setTimeValue(timeInMillis);
     }
 
+    @Override
+    public void setTimeValue(final Duration value) {
+        this.row.getOrCreateCell(this.c).setTimeValue(value);
+    }
+
     @Override
     public void setTimeValue(final long years, final long months, final long days, final long hours,
                              final long minutes, final double seconds) {
@@ -231,6 +255,11 @@ public class RowCellWalkerImpl implements RowCellWalker {
         this.row.getOrCreateCell(this.c).setCurrencyValue(value, currency);
     }
 
+    @Override
+    public void setCurrencyValue(final double value, final String currency) {
+        this.row.getOrCreateCell(this.c).setCurrencyValue(value, currency);
+    }
+
     @Override
     public void setCurrencyValue(final Number value, final String currency) {
         this.row.getOrCreateCell(this.c).setCurrencyValue(value, currency);
@@ -251,11 +280,26 @@ public class RowCellWalkerImpl implements RowCellWalker {
         this.row.getOrCreateCell(this.c).setFloatValue(value);
     }
 
+    @Override
+    public void setFloatValue(final double value) {
+        this.row.getOrCreateCell(this.c).setFloatValue(value);
+    }
+
+    @Override
+    public void setFloatValue(final long value) {
+        this.row.getOrCreateCell(this.c).setFloatValue(value);
+    }
+
     @Override
     public void setPercentageValue(final float value) {
         this.row.getOrCreateCell(this.c).setPercentageValue(value);
     }
 
+    @Override
+    public void setPercentageValue(final double value) {
+        this.row.getOrCreateCell(this.c).setPercentageValue(value);
+    }
+
     @Override
     public void setPercentageValue(final int value) {
         this.row.getOrCreateCell(this.c).setPercentageValue(value);
@@ -0,0 +1,175 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A pool that renders the blocks of rows to XML, in parallel with the thread that fills the
+ * cells. The rendered blocks are handed to the writer in order (see {@link TableModel}).
+ * <p>
+ * Every worker has its own XMLUtil, since the escaper is not thread safe. The XMLUtil is
+ * created by the XMLUtil factory of the table, to get the escaper settings of the document. The
+ * rendering
+ * only reads the rows and the styles: the styles are registered by the thread that fills the
+ * cells, before the block is submitted. Hence, the column styles should be set before the
+ * rows are filled (this is the usual way of filling a table).
+ *
+ * @author J. Férard
+ */
+public class RowsRenderer {
+    private static final int STRING_BUILDER_SIZE = 1024 * 32;
+
+    /**
+     * Create a new renderer with its own pool of daemon threads.
+     *
+     * @param threads the number of threads
+     * @return the renderer
+     */
+    public static RowsRenderer create(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                    private int count = 0;
+
+                    @Override
+                    public synchronized Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "fastods-rows-" + this.count++);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        return new RowsRenderer(executor, true, 2 * threads);
+    }
+
+    /**
+     * Create a new renderer on an executor. The executor won't be shut down by the renderer.
+     *
+     * @param executor          the executor
+     * @param maxBlocksInFlight the max number of blocks submitted and not given to the writer
+     * @return the renderer
+     */
+    public static RowsRenderer create(final ExecutorService executor,
+                                      final int maxBlocksInFlight) {
+        if (maxBlocksInFlight <= 0) {
+            throw new IllegalArgumentException("Number of blocks in flight must be > 0");
+        }
+        return new RowsRenderer(executor, false, maxBlocksInFlight);
+    }
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int maxBlocksInFlight;
+    private final ThreadLocal<WorkerXMLUtil> workerXMLUtil;
+
+    /**
+     * @param executor          the executor
+     * @param ownExecutor       true if close shuts down the executor
+     * @param maxBlocksInFlight the max number of blocks submitted and not given to the writer
+     */
+    RowsRenderer(final ExecutorService executor, final boolean ownExecutor,
+                 final int maxBlocksInFlight) {
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.workerXMLUtil = new ThreadLocal<WorkerXMLUtil>();
+    }
+
+    /**
+     * Submit a block of rows.
+     *
+     * @param tableRows      the rows. The list must not be modified after the call.
+     * @param xmlUtilFactory the factory of the XMLUtils of the workers
+     * @return a flusher that will append the rendered rows
+     */
+    RenderedRowsFlusher submit(final List<TableRowImpl> tableRows,
+                               final XMLUtilFactory xmlUtilFactory) {
+        final Future<CharSequence> future = this.executor.submit(new Callable<CharSequence>() {
+            @Override
+            public CharSequence call() throws Exception {
+                final XMLUtil xmlUtil = RowsRenderer.this.getWorkerXMLUtil(xmlUtilFactory);
+                final StringBuilder sb = new StringBuilder(STRING_BUILDER_SIZE);
+                RepeatedRowsAppender.appendRows(xmlUtil, sb, tableRows);
+                return sb;
+            }
+        });
+        return new RenderedRowsFlusher(future);
+    }
+
+    /**
+     * Return the XMLUtil of the current worker. A renderer may be shared by several factories:
+     * the XMLUtil is replaced if the factory changes.
+     */
+    private XMLUtil getWorkerXMLUtil(final XMLUtilFactory xmlUtilFactory) {
+        WorkerXMLUtil workerXMLUtil = this.workerXMLUtil.get();
+        if (workerXMLUtil == null || workerXMLUtil.factory != xmlUtilFactory) {
+            if (workerXMLUtil != null) {
+                workerXMLUtil.factory.release(workerXMLUtil.xmlUtil);
+            }
+            workerXMLUtil = new WorkerXMLUtil(xmlUtilFactory, xmlUtilFactory.newXMLUtil());
+            this.workerXMLUtil.set(workerXMLUtil);
+        }
+        return workerXMLUtil.xmlUtil;
+    }
+
+    /**
+     * @return the max number of blocks submitted and not given to the writer
+     */
+    public int getMaxBlocksInFlight() {
+        return this.maxBlocksInFlight;
+    }
+
+    /**
+     * Shut down the pool if it was created by this renderer.
+     */
+    public void close() {
+        if (this.ownExecutor) {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * The XMLUtil of a worker and the factory that created it.
+     */
+    private static class WorkerXMLUtil {
+        private final XMLUtilFactory factory;
+        private final XMLUtil xmlUtil;
+
+        WorkerXMLUtil(final XMLUtilFactory factory, final XMLUtil xmlUtil) {
+            this.factory = factory;
+            this.xmlUtil = xmlUtil;
+        }
+    }
+}
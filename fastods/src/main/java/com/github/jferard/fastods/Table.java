@@ -34,10 +34,14 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableStyle;
 import com.github.jferard.fastods.util.AutoFilter;
+import com.github.jferard.fastods.util.HeapBudget;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
 import com.github.jferard.fastods.util.NamedObject;
 import com.github.jferard.fastods.util.Protection;
+import com.github.jferard.fastods.util.Spool;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
@@ -80,6 +84,38 @@ public class Table implements NamedObject, FrameContent {
         return new Table(name, contentElement, model, new TableAppender(model));
     }
 
+    /**
+     * Create a new table whose blocks of rows are rendered on a pool.
+     *
+     * @param contentElement       the content element
+     * @param positionUtil         an util
+     * @param cache                an util
+     * @param xmlUtil              an util
+     * @param name                 the name of the table
+     * @param rowCapacity          the row capacity of the table
+     * @param columnCapacity       the column capacity of the table
+     * @param stylesContainer      the container
+     * @param format               the available data styles
+     * @param libreOfficeMode      try to get full compatibility with LO if true
+     * @param validationsContainer a container for validations
+     * @param rowsRenderer         the renderer, or null to render the rows on the current thread
+     * @return the table
+     */
+    public static Table create(final ContentElement contentElement, final PositionUtil positionUtil,
+                               final IntegerRepresentationCache cache, final XMLUtil xmlUtil,
+                               final String name,
+                               final int rowCapacity, final int columnCapacity,
+                               final StylesContainer stylesContainer, final DataStyles format,
+                               final boolean libreOfficeMode,
+                               final ValidationsContainer validationsContainer,
+                               final RowsRenderer rowsRenderer) {
+        final Table table = Table.create(contentElement, positionUtil, cache, xmlUtil, name,
+                rowCapacity, columnCapacity, stylesContainer, format, libreOfficeMode,
+                validationsContainer);
+        table.model.setRowsRenderer(rowsRenderer);
+        return table;
+    }
+
     private final ContentElement contentElement;
     private final TableModel model;
     private final TableAppender appender;
@@ -111,6 +147,73 @@ public class Table implements NamedObject, FrameContent {
         this.model.addObserver(observer);
     }
 
+    /**
+     * Write the rows of this table to a private spool, in the heap or in a temp file. A spooled
+     * table of an anonymous writer may be filled by its own thread, concurrently with the other
+     * spooled tables: the style registration is thread safe. The spools are concatenated in
+     * table order when the document is saved, hence the threads must be joined before the save.
+     * <p>
+     * The columns must be set before the first block of rows is spooled. The other document
+     * operations (add a table, a named range, an autofilter, ...) are not thread safe.
+     *
+     * @param spool the spool
+     * @throws IllegalStateException if the table belongs to a named writer or has rows
+     */
+    public void setSpool(final Spool spool) {
+        this.model.setSpool(spool);
+    }
+
+    /**
+     * Report the estimated bytes of the rows of this spooled table to a budget shared with the
+     * spools of the document, and spool the rows when the budget is exceeded.
+     *
+     * @param heapBudget the budget, or null
+     */
+    public void setHeapBudget(final HeapBudget heapBudget) {
+        this.model.setHeapBudget(heapBudget);
+    }
+
+    /**
+     * Report the number of rows and cells of this table and the time to write it.
+     *
+     * @param writerMetrics the listener, or null to disable the metrics
+     */
+    public void setWriterMetrics(final WriterMetrics writerMetrics) {
+        this.model.setWriterMetrics(writerMetrics);
+    }
+
+    /**
+     * Set the factory of the XMLUtils of the threads that write the rows of this table beside
+     * the thread of the document (renderer, spool, partitions), to use the escaper settings of
+     * the document. Must be called before setSpool.
+     *
+     * @param xmlUtilFactory the factory
+     */
+    public void setXMLUtilFactory(final XMLUtilFactory xmlUtilFactory) {
+        this.model.setXMLUtilFactory(xmlUtilFactory);
+    }
+
+    /**
+     * Flush (or spool) the rows when their estimated size exceeds a budget, even if the block of
+     * rows is not full: a wide table is flushed more often than a narrow one.
+     *
+     * @param memoryBudget the max number of bytes retained by the rows, or 0 to flush the rows
+     *                     by blocks of fixed size only
+     */
+    public void setMemoryBudget(final long memoryBudget) {
+        this.model.setMemoryBudget(memoryBudget);
+    }
+
+    /**
+     * The estimate is updated when the cells, the strings and the cold cells are created, and
+     * when the rows are flushed. The content of the cold cells is not measured.
+     *
+     * @return the estimated number of bytes retained by the rows that were not flushed
+     */
+    public long estimatedRetainedBytes() {
+        return this.model.getEstimatedRetainedBytes();
+    }
+
     /**
      * Add XML to content.xml
      *
@@ -121,7 +224,7 @@ public class Table implements NamedObject, FrameContent {
     @Override
     public void appendXMLContent(final XMLUtil util, final Appendable appendable)
             throws IOException {
-        this.appender.appendXMLToContentEntry(util, appendable);
+        this.model.appendXMLContent(this.appender, util, appendable);
     }
 
     /**
@@ -254,6 +357,37 @@ public class Table implements NamedObject, FrameContent {
         return new TableCellWalker(this);
     }
 
+    /**
+     * Return an append-only writer for the next rows of this table. The table must belong to a
+     * named document. The rows that were created before are flushed, and the rows of the table
+     * can't be accessed after this call.
+     *
+     * @return the stream writer of this table
+     * @throws IOException if the table does not belong to a named document or if the rows can't
+     *                     be flushed
+     */
+    public TableStreamWriter getStreamWriter() throws IOException {
+        return this.model.getStreamWriter(this, this.appender);
+    }
+
+    /**
+     * Reserve the next rows of this table for a partition. Each partition may be filled by its
+     * own thread, and the rows are written in order. The table must belong to a named document,
+     * or be spooled. The rows that were created before are flushed, and the rows of the table
+     * can't be accessed after this call.
+     * <p>
+     * The partitions are reserved by the thread that owns the table. The columns must be set
+     * before. Every partition must be closed before the end of the table.
+     *
+     * @param rowCount the number of rows of the partition
+     * @return the partition
+     * @throws IOException if the table does not belong to a named document and is not spooled,
+     *                     or if the rows can't be flushed
+     */
+    public TablePartition reservePartition(final int rowCount) throws IOException {
+        return this.model.reservePartition(this, this.appender, rowCount);
+    }
+
     /**
      * Set a span over cells
      *
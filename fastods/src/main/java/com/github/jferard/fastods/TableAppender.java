@@ -47,6 +47,7 @@ import java.util.Map;
  */
 class TableAppender {
     private final TableModel model;
+    private final RepeatedRowsAppender rowsAppender;
     private boolean preambleWritten;
     private int nullFieldCounter;
     private boolean atLeastOneRow;
@@ -60,6 +61,7 @@ class TableAppender {
         this.preambleWritten = false;
         this.model = model;
         this.atLeastOneRow = false;
+        this.rowsAppender = new RepeatedRowsAppender();
     }
 
     /**
@@ -123,27 +125,35 @@ class TableAppender {
 
     private void appendRows(final XMLUtil util, final Appendable appendable,
                             final int firstRowIndex) throws IOException {
+        this.appendRows(util, appendable, firstRowIndex, this.model.getTableRowsUsedSize());
+    }
+
+    private void appendRows(final XMLUtil util, final Appendable appendable,
+                            final int firstRowIndex, final int size) throws IOException {
         final int headerRowsCount = this.model.getHeaderRowsCount();
         if (headerRowsCount == 0) {
-            this.appendRowsWithoutHeaderRows(util, appendable, firstRowIndex);
+            this.appendRowsWithoutHeaderRows(util, appendable, firstRowIndex, size);
         } else {
             if (firstRowIndex == 0) {
                 appendable.append("<table:table-header-rows>");
             }
             if (firstRowIndex < headerRowsCount) {
-                this.appendRowsWithHeaderRows(util, appendable, firstRowIndex, headerRowsCount);
+                this.appendRowsWithHeaderRows(util, appendable, firstRowIndex, size,
+                        headerRowsCount);
             } else if (firstRowIndex == headerRowsCount) {
                 appendable.append("</table:table-header-rows>");
-                this.appendRowsWithoutHeaderRows(util, appendable, firstRowIndex);
+                this.appendRowsWithoutHeaderRows(util, appendable, firstRowIndex, size);
             } else {
-                this.appendRowsWithoutHeaderRows(util, appendable, firstRowIndex);
+                this.appendRowsWithoutHeaderRows(util, appendable, firstRowIndex, size);
             }
         }
+        // the next rows may be appended later
+        this.rowsAppender.flush(util, appendable);
     }
 
     private void appendRowsWithoutHeaderRows(final XMLUtil util, final Appendable appendable,
-                                             final int firstRowIndex) throws IOException {
-        final int size = this.model.getTableRowsUsedSize();
+                                             final int firstRowIndex, final int size)
+            throws IOException {
         if (firstRowIndex == 0) {
             this.nullFieldCounter = 0;
         }
@@ -154,7 +164,7 @@ class TableAppender {
                 this.nullFieldCounter++;
             } else {
                 this.flushNullRows(util, appendable); // but wait for a non null row
-                tr.appendXMLToTable(util, appendable);
+                this.rowsAppender.append(util, appendable, tr);
                 this.atLeastOneRow = true;
                 this.nullFieldCounter = 0;
             }
@@ -163,8 +173,8 @@ class TableAppender {
     }
 
     private void appendRowsWithHeaderRows(final XMLUtil util, final Appendable appendable,
-                                          final int firstRowIndex, final int headerRowsCount) throws IOException {
-        final int size = this.model.getTableRowsUsedSize();
+                                          final int firstRowIndex, final int size,
+                                          final int headerRowsCount) throws IOException {
         if (firstRowIndex == 0) {
             this.nullFieldCounter = 0;
         }
@@ -173,11 +183,12 @@ class TableAppender {
             final TableRowImpl tr = this.model.getTableRow(r);
             if (r == headerRowsCount) {
                 this.flushNullRows(util, appendable);
+                this.rowsAppender.flush(util, appendable);
                 appendable.append("</table:table-header-rows>");
                 if (tr == null) {
                     this.nullFieldCounter = 1;
                 } else {
-                    tr.appendXMLToTable(util, appendable);
+                    this.rowsAppender.append(util, appendable, tr);
                     this.nullFieldCounter = 0;
                 }
                 this.atLeastOneRow = true;
@@ -185,7 +196,7 @@ class TableAppender {
                 this.nullFieldCounter++;
             } else {
                 this.flushNullRows(util, appendable);
-                tr.appendXMLToTable(util, appendable);
+                this.rowsAppender.append(util, appendable, tr);
                 this.atLeastOneRow = true;
                 this.nullFieldCounter = 0;
             }
@@ -198,6 +209,7 @@ class TableAppender {
             return;
         }
 
+        this.rowsAppender.flush(util, appendable);
         appendable.append("<table:table-row");
         if (this.nullFieldCounter > 1) {
             util.appendAttribute(appendable, "table:number-rows-repeated", this.nullFieldCounter);
@@ -275,6 +287,24 @@ class TableAppender {
         this.appendRows(util, appendable, rowIndex);
     }
 
+    /**
+     * Flush the rows of a block, but do not freeze the table
+     *
+     * @param util          a XMLUtil instance for writing XML
+     * @param appendable    where to write
+     * @param firstRowIndex the index of the first row of the block
+     * @param endRowIndex   the index of the first row after the block
+     * @throws IOException if an I/O error occurs during the flush
+     */
+    public void appendRowsBlock(final XMLUtil util, final Appendable appendable,
+                                final int firstRowIndex, final int endRowIndex)
+            throws IOException {
+        if (firstRowIndex == 0) {
+            this.appendOpenTagAndPreamble(util, appendable);
+        }
+        this.appendRows(util, appendable, firstRowIndex, endRowIndex);
+    }
+
     /**
      * Open the table, flush all rows from start, but do not freeze the table
      *
@@ -288,6 +318,22 @@ class TableAppender {
         this.appendRows(util, appendable, 0);
     }
 
+    /**
+     * Append a block of rows that was written by a stream writer
+     *
+     * @param appendable the destination
+     * @param rows       the XML of the rows
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendStreamedRows(final Appendable appendable, final CharSequence rows)
+            throws IOException {
+        if (rows.length() == 0) {
+            return;
+        }
+        appendable.append(rows);
+        this.atLeastOneRow = true;
+    }
+
     /**
      * Flush a bunch of rows
      *
@@ -296,8 +342,8 @@ class TableAppender {
      */
     public void flushRows(final XMLUtil xmlUtil, final ZipUTF8Writer writer,
                           final List<TableRowImpl> rows) throws IOException {
-        for (final TableRowImpl row : rows) {
-            TableRowImpl.appendXMLToTable(row, xmlUtil, writer);
+        RepeatedRowsAppender.appendRows(xmlUtil, writer, rows);
+        if (!rows.isEmpty()) {
             this.atLeastOneRow = true;
         }
         // free rows
@@ -30,8 +30,14 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.util.Validation;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A TableCell represents a cell in a spreadsheet sheet.
@@ -88,6 +94,19 @@ public interface TableCell {
      */
     void setCurrencyValue(int value, String currency);
 
+    /**
+     * Set the currency value of the cell. Type will be CellType.CURRENCY and data style the
+     * default data style for currency. The value is stored as a double until the cell is written.
+     *
+     * The default implementation uses {@link #setCurrencyValue(Number, String)}.
+     *
+     * @param value    the value as a double
+     * @param currency The currency value
+     */
+    default void setCurrencyValue(final double value, final String currency) {
+        this.setCurrencyValue(Double.valueOf(value), currency);
+    }
+
     /**
      * Set the currency value of the cell. Type will be CellType.CURRENCY and data style the
      * default data style for currency.
@@ -114,6 +133,46 @@ public interface TableCell {
      */
     void setDateValue(Date date);
 
+    /**
+     * Set the date value of the cell. Type will be CellType.DATE and data style the
+     * default data style for date. The value is written as a date without time and time zone.
+     *
+     * The default implementation writes the UTC midnight of the date, with
+     * {@link #setDateValue(Date)}.
+     *
+     * @param date a LocalDate object
+     */
+    default void setDateValue(final LocalDate date) {
+        this.setDateValue(new Date(TimeUnit.DAYS.toMillis(date.toEpochDay())));
+    }
+
+    /**
+     * Set the date value of the cell. Type will be CellType.DATE and data style the
+     * default data style for date. The value is written without time zone, with a millisecond
+     * precision.
+     *
+     * The default implementation writes the date time as an UTC date time, with
+     * {@link #setDateValue(Date)}.
+     *
+     * @param dateTime a LocalDateTime object
+     */
+    default void setDateValue(final LocalDateTime dateTime) {
+        this.setDateValue(Date.from(dateTime.toInstant(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Set the date value of the cell. Type will be CellType.DATE and data style the
+     * default data style for date. The value is written as an UTC date, with a millisecond
+     * precision (as a Date).
+     *
+     * The default implementation uses {@link #setDateValue(Date)}.
+     *
+     * @param instant an Instant object
+     */
+    default void setDateValue(final Instant instant) {
+        this.setDateValue(Date.from(instant));
+    }
+
     /**
      * Set the float value of the cell. Type will be CellType.FLOAT and data style the
      * default data style for float.
@@ -130,6 +189,30 @@ public interface TableCell {
      */
     void setFloatValue(int value);
 
+    /**
+     * Set the float value of the cell. Type will be CellType.FLOAT and data style the
+     * default data style for float. The value is stored as a double until the cell is written.
+     *
+     * The default implementation uses {@link #setFloatValue(Number)}.
+     *
+     * @param value the value to be used
+     */
+    default void setFloatValue(final double value) {
+        this.setFloatValue(Double.valueOf(value));
+    }
+
+    /**
+     * Set the float value of the cell. Type will be CellType.FLOAT and data style the
+     * default data style for float. The value is stored as a long until the cell is written.
+     *
+     * The default implementation uses {@link #setFloatValue(Number)}.
+     *
+     * @param value the value to be used
+     */
+    default void setFloatValue(final long value) {
+        this.setFloatValue(Long.valueOf(value));
+    }
+
     /**
      * Set the float value of the cell. Type will be CellType.FLOAT and data style the
      * default data style for float.
@@ -149,6 +232,21 @@ public interface TableCell {
      */
     void setPercentageValue(float value);
 
+    /**
+     * Set the percentage value of the cell. Type will be CellType.PERCENTAGE and data style the
+     * default data style for percentage.
+     *
+     * <b>Beware: 0.75 means 75 %, 75.0 means 7500 %.</b> This is consistent with OpenDocument
+     * specification.
+     *
+     * The default implementation uses {@link #setPercentageValue(Number)}.
+     *
+     * @param value the value to be used
+     */
+    default void setPercentageValue(final double value) {
+        this.setPercentageValue(Double.valueOf(value));
+    }
+
     /**
      * Set the percentage value of the cell. Type will be CellType.PERCENTAGE and data style the
      * default data style for percentage.
@@ -202,6 +300,21 @@ public interface TableCell {
      */
     void setTimeValue(long timeInMillis);
 
+    /**
+     * Set the time value of the cell. Type will be CellType.TIME and data style the
+     * default data style for time.
+     *
+     * Set the time value as in 19.382 office:time-value. The xml datatype is "duration"
+     * (https://www.w3.org/TR/xmlschema-2/#duration)
+     *
+     * The default implementation uses {@link #setTimeValue(long)}.
+     *
+     * @param duration the duration, with a millisecond precision
+     */
+    default void setTimeValue(final Duration duration) {
+        this.setTimeValue(duration.toMillis());
+    }
+
     /**
      * Set the time value of the cell. Type will be CellType.TIME and data style the
      * default data style for time.
@@ -35,10 +35,13 @@ import com.github.jferard.fastods.util.Validation;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.TimeZone;
 
 /**
  * WHERE ? content.xml/office:document-content/office:body/office:spreadsheet/
@@ -48,20 +51,8 @@ import java.util.TimeZone;
  * @author Martin Schulz
  */
 public class TableCellImpl implements WritableTableCell {
-    /**
-     * The default date format
-     */
-    final static SimpleDateFormat DATE_VALUE_FORMAT;
-
-    static {
-        /*
-         * XML Schema Part 2, 3.2.7 dateTime
-         * Z and UTC time zone for universal time.
-         */
-        DATE_VALUE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        DATE_VALUE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
-
+    private final TableCellStore store;
+    private final int slot;
     private final TableRowImpl parentRow;
     private final IntegerRepresentationCache cache;
     private final XMLUtil xmlUtil;
@@ -69,10 +60,7 @@ public class TableCellImpl implements WritableTableCell {
     private final DataStyles dataStyles;
     private final boolean libreOfficeMode;
     private final int columnIndex;
-    private TableCellStyle style;
-    private CellType type;
-    private TableColdCell coldCell;
-    private String value;
+    private final ChildCellStyleMemo childCellStyleMemo;
 
     /**
      * Create the table cell implementation
@@ -90,6 +78,33 @@ public class TableCellImpl implements WritableTableCell {
                          final StylesContainer stylesContainer, final DataStyles dataStyles,
                          final boolean libreOfficeMode, final TableRowImpl parentRow,
                          final int columnIndex) {
+        this(cache, xmlUtil, stylesContainer, dataStyles, libreOfficeMode, parentRow,
+                columnIndex, new TableCellStore(1), 0, new ChildCellStyleMemo());
+    }
+
+    /**
+     * Create a view on a slot of the columnar storage of a row
+     *
+     * @param cache              an util
+     * @param xmlUtil            an util
+     * @param stylesContainer    the styles containers that will dispatch styles to document.xml
+     *                           and styles.xml
+     * @param dataStyles         the styles
+     * @param libreOfficeMode    try to get full compatibility with LO if true
+     * @param parentRow          the parent row
+     * @param columnIndex        index in parent row
+     * @param store              the storage
+     * @param slot               the index in the storage
+     * @param childCellStyleMemo the memo of the implicit child styles of the table
+     */
+    TableCellImpl(final IntegerRepresentationCache cache, final XMLUtil xmlUtil,
+                  final StylesContainer stylesContainer, final DataStyles dataStyles,
+                  final boolean libreOfficeMode, final TableRowImpl parentRow,
+                  final int columnIndex, final TableCellStore store, final int slot,
+                  final ChildCellStyleMemo childCellStyleMemo) {
+        this.store = store;
+        this.slot = slot;
+        this.store.create(slot);
         this.cache = cache;
         this.stylesContainer = stylesContainer;
         this.xmlUtil = xmlUtil;
@@ -97,48 +112,33 @@ public class TableCellImpl implements WritableTableCell {
         this.libreOfficeMode = libreOfficeMode;
         this.parentRow = parentRow;
         this.columnIndex = columnIndex;
+        this.childCellStyleMemo = childCellStyleMemo;
     }
 
     @Override
     public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable)
             throws IOException {
-        final boolean covered = this.isCovered();
-        if (covered) {
-            appendable.append("<table:covered-table-cell");
-        } else {
-            appendable.append("<table:table-cell");
-        }
-
-        if (this.style != null) {
-            util.appendEAttribute(appendable, "table:style-name", this.style.getName());
-        } else if (this.libreOfficeMode) {
+        final TableCellStyle defaultStyle;
+        if (this.libreOfficeMode && this.getStyle() == null) {
             // looks for a parent style to set
-            util.appendEAttribute(appendable, "table:style-name", this.getCurCellStyle().getName());
-        }
-
-        if (this.type != null && this.type != CellType.VOID) {
-            util.appendAttribute(appendable, "office:value-type", this.type);
-            util.appendEAttribute(appendable, this.type.getValueAttribute(), this.value);
-            if (this.type == CellType.CURRENCY) {
-                final String currency = this.getCurrency();
-                util.appendEAttribute(appendable, "office:currency", currency);
-            }
-        }
-
-        if (this.hasColdCell()) {
-            this.coldCell.appendXMLToTable(util, appendable);
+            defaultStyle = this.getCurCellStyle();
         } else {
-            appendable.append("/>");
+            defaultStyle = null;
         }
+        this.store.appendXMLToTableRow(util, appendable, this.slot, this.cache, defaultStyle);
     }
 
     @Override
     public boolean isCovered() {
-        return this.hasColdCell() && this.coldCell.isCovered();
+        return this.store.isCovered(this.slot);
     }
 
-    private boolean hasColdCell() {
-        return this.coldCell != null;
+    private TableCellStyle getStyle() {
+        return this.store.getStyle(this.slot);
+    }
+
+    private void setStyleInStore(final TableCellStyle style) {
+        this.store.setStyle(this.slot, style);
     }
 
     @Override
@@ -178,16 +178,11 @@ public class TableCellImpl implements WritableTableCell {
         this.secureColdCell().setRowsSpanned(n);
     }
 
-    private String getCurrency() {
-        assert this.coldCell != null;
-        return this.coldCell.getCurrency();
-    }
-
     @Override
     public void setBooleanValue(final boolean value) {
-        this.value = value ? "true" : "false";
-        this.type = CellType.BOOLEAN;
-        this.setImplicitDataStyle(this.dataStyles.getBooleanDataStyle());
+        this.store.setNumericValue(this.slot, CellType.BOOLEAN, TableCellStore.BOOLEAN,
+                value ? 1 : 0);
+        this.setImplicitDataStyle(CellType.BOOLEAN, this.dataStyles.getBooleanDataStyle());
     }
 
     /*
@@ -202,32 +197,47 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setCurrencyValue(final float value, final String currency) {
-        this.setCurrencyValue(Float.toString(value), currency);
+        this.store.setNumericValue(this.slot, CellType.CURRENCY, TableCellStore.FLOAT,
+                Float.floatToRawIntBits(value));
+        this.setCurrencyDataStyleAndCurrency(currency);
     }
 
-    private void setCurrencyValue(final String valueAsString, final String currency) {
-        this.value = valueAsString;
-        this.type = CellType.CURRENCY;
-        this.setImplicitDataStyle(this.dataStyles.getCurrencyDataStyle());
+    private void setCurrencyDataStyleAndCurrency(final String currency) {
+        this.setImplicitDataStyle(CellType.CURRENCY, this.dataStyles.getCurrencyDataStyle());
 
         this.secureColdCell().setCurrency(currency); // escape here
     }
 
     @Override
     public void setCurrencyValue(final int value, final String currency) {
-        this.setCurrencyValue(Integer.toString(value), currency);
+        this.store.setNumericValue(this.slot, CellType.CURRENCY, TableCellStore.INT, value);
+        this.setCurrencyDataStyleAndCurrency(currency);
+    }
+
+    @Override
+    public void setCurrencyValue(final double value, final String currency) {
+        this.store.setNumericValue(this.slot, CellType.CURRENCY, TableCellStore.DOUBLE,
+                Double.doubleToRawLongBits(value));
+        this.setCurrencyDataStyleAndCurrency(currency);
     }
 
     @Override
     public void setCurrencyValue(final Number value, final String currency) {
-        this.setCurrencyValue(value.toString(), currency);
+        if (value instanceof Double) {
+            this.setCurrencyValue(value.doubleValue(), currency);
+            return;
+        }
+        this.store.setStringValue(this.slot, CellType.CURRENCY, value.toString());
+        this.setCurrencyDataStyleAndCurrency(currency);
     }
 
     private TableColdCell secureColdCell() {
-        if (this.coldCell == null) {
-            this.coldCell = TableColdCell.create(this.xmlUtil);
+        TableColdCell coldCell = this.store.getColdCell(this.slot);
+        if (coldCell == null) {
+            coldCell = TableColdCell.create(this.xmlUtil);
+            this.store.setColdCell(this.slot, coldCell);
         }
-        return this.coldCell;
+        return coldCell;
     }
 
     @Override
@@ -240,10 +250,10 @@ public class TableCellImpl implements WritableTableCell {
         final TableCellStyle curStyle = this.getCurCellStyle();
         final DataStyle curDataStyle = curStyle.getDataStyle();
         if (curDataStyle == null) { // no data style yet: create a custom child style
-            this.style = this.stylesContainer.addChildCellStyle(curStyle, dataStyle);
+            this.setStyleInStore(this.stylesContainer.addChildCellStyle(curStyle, dataStyle));
         } else { // a style and a data style => create a custom sibling cell style
-            this.style = this.stylesContainer
-                    .addChildCellStyle(curStyle.getParentCellStyle(), dataStyle);
+            this.setStyleInStore(this.stylesContainer
+                    .addChildCellStyle(curStyle.getParentCellStyle(), dataStyle));
         }
     }
 
@@ -261,34 +271,45 @@ public class TableCellImpl implements WritableTableCell {
     /**
      * For implicit data style, e.g. will set an implicit data style if the data style is not set
      */
-    private void setImplicitDataStyle(final DataStyle dataStyle) {
+    private void setImplicitDataStyle(final CellType type, final DataStyle dataStyle) {
         if (dataStyle == null) {
             return;
         }
 
         final TableCellStyle curStyle = this.getCurCellStyle();
+        TableCellStyle childStyle =
+                this.childCellStyleMemo.get(this.columnIndex, type, curStyle, dataStyle);
+        if (childStyle == null) {
+            childStyle = this.resolveChildCellStyle(curStyle, dataStyle);
+            this.childCellStyleMemo.put(this.columnIndex, type, curStyle, dataStyle, childStyle);
+        }
+        this.setStyleInStore(childStyle);
+    }
+
+    private TableCellStyle resolveChildCellStyle(final TableCellStyle curStyle,
+                                                 final DataStyle dataStyle) {
         final DataStyle curDataStyle = curStyle.getDataStyle();
         if (curDataStyle == null) { // no data style yet: create a custom child style
             this.stylesContainer.addDataStyle(dataStyle);
-            this.style = this.stylesContainer.addChildCellStyle(curStyle, dataStyle);
+            return this.stylesContainer.addChildCellStyle(curStyle, dataStyle);
         } else {
             // TODO: Can't we add this on first style use, once for all?
             this.stylesContainer.addDataStyle(curDataStyle);
-            this.style = this.stylesContainer
+            return this.stylesContainer
                     .addChildCellStyle(curStyle.getParentCellStyle(), curDataStyle);
         }
     }
 
-
     /**
      * @return the current cell style, eventually found in parent (row, column, table).
      * Never null
      */
     private TableCellStyle getCurCellStyle() {
-        if (this.style == null) {
+        final TableCellStyle style = this.getStyle();
+        if (style == null) {
             return this.parentRow.findDefaultCellStyle(this.columnIndex);
         } else {
-            return this.style;
+            return style;
         }
     }
 
@@ -299,57 +320,104 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setDateValue(final Date value) {
-        this.value = TableCellImpl.DATE_VALUE_FORMAT.format(value);
-        this.type = CellType.DATE;
-        this.setImplicitDataStyle(this.dataStyles.getDateDataStyle());
+        this.store.setNumericValue(this.slot, CellType.DATE, TableCellStore.DATE,
+                value.getTime());
+        this.setImplicitDataStyle(CellType.DATE, this.dataStyles.getDateDataStyle());
+    }
+
+    @Override
+    public void setDateValue(final LocalDate value) {
+        this.store.setNumericValue(this.slot, CellType.DATE, TableCellStore.LOCAL_DATE,
+                value.toEpochDay());
+        this.setImplicitDataStyle(CellType.DATE, this.dataStyles.getDateDataStyle());
     }
 
-    private void setFloatValue(final String valueAsString) {
-        this.value = valueAsString;
-        this.type = CellType.FLOAT;
-        this.setImplicitDataStyle(this.dataStyles.getFloatDataStyle());
+    @Override
+    public void setDateValue(final LocalDateTime value) {
+        this.store.setNumericValue(this.slot, CellType.DATE, TableCellStore.LOCAL_DATE_TIME,
+                value.toEpochSecond(ZoneOffset.UTC) * 1000 + value.getNano() / 1000000);
+        this.setImplicitDataStyle(CellType.DATE, this.dataStyles.getDateDataStyle());
+    }
+
+    @Override
+    public void setDateValue(final Instant value) {
+        this.store.setNumericValue(this.slot, CellType.DATE, TableCellStore.DATE,
+                value.toEpochMilli());
+        this.setImplicitDataStyle(CellType.DATE, this.dataStyles.getDateDataStyle());
     }
 
     @Override
     public void setFloatValue(final float value) {
-        this.setFloatValue(Float.toString(value));
+        this.store.setNumericValue(this.slot, CellType.FLOAT, TableCellStore.FLOAT,
+                Float.floatToRawIntBits(value));
+        this.setImplicitDataStyle(CellType.FLOAT, this.dataStyles.getFloatDataStyle());
     }
 
     @Override
     public void setFloatValue(final int value) {
-        this.setFloatValue(this.cache.toString(value));
+        this.store.setNumericValue(this.slot, CellType.FLOAT, TableCellStore.INT, value);
+        this.setImplicitDataStyle(CellType.FLOAT, this.dataStyles.getFloatDataStyle());
+    }
+
+    @Override
+    public void setFloatValue(final double value) {
+        this.store.setNumericValue(this.slot, CellType.FLOAT, TableCellStore.DOUBLE,
+                Double.doubleToRawLongBits(value));
+        this.setImplicitDataStyle(CellType.FLOAT, this.dataStyles.getFloatDataStyle());
+    }
+
+    @Override
+    public void setFloatValue(final long value) {
+        this.store.setNumericValue(this.slot, CellType.FLOAT, TableCellStore.LONG, value);
+        this.setImplicitDataStyle(CellType.FLOAT, this.dataStyles.getFloatDataStyle());
     }
 
     @Override
     public void setFloatValue(final Number value) {
-        this.setFloatValue(value.toString());
+        if (value instanceof Double) {
+            this.setFloatValue(value.doubleValue());
+            return;
+        } else if (value instanceof Long) {
+            this.setFloatValue(value.longValue());
+            return;
+        }
+        this.store.setStringValue(this.slot, CellType.FLOAT, value.toString());
+        this.setImplicitDataStyle(CellType.FLOAT, this.dataStyles.getFloatDataStyle());
     }
 
     @Override
     public void setPercentageValue(final int value) {
-        this.setPercentageValue(Integer.toString(value));
+        this.store.setNumericValue(this.slot, CellType.PERCENTAGE, TableCellStore.INT, value);
+        this.setImplicitDataStyle(CellType.PERCENTAGE, this.dataStyles.getPercentageDataStyle());
     }
 
-    private void setPercentageValue(final String valueAsString) {
-        this.value = valueAsString;
-        this.type = CellType.PERCENTAGE;
-        this.setImplicitDataStyle(this.dataStyles.getPercentageDataStyle());
+    @Override
+    public void setPercentageValue(final float value) {
+        this.store.setNumericValue(this.slot, CellType.PERCENTAGE, TableCellStore.FLOAT,
+                Float.floatToRawIntBits(value));
+        this.setImplicitDataStyle(CellType.PERCENTAGE, this.dataStyles.getPercentageDataStyle());
     }
 
     @Override
-    public void setPercentageValue(final float value) {
-        this.setPercentageValue(Float.toString(value));
+    public void setPercentageValue(final double value) {
+        this.store.setNumericValue(this.slot, CellType.PERCENTAGE, TableCellStore.DOUBLE,
+                Double.doubleToRawLongBits(value));
+        this.setImplicitDataStyle(CellType.PERCENTAGE, this.dataStyles.getPercentageDataStyle());
     }
 
     @Override
     public void setPercentageValue(final Number value) {
-        this.setPercentageValue(value.toString());
+        if (value instanceof Double) {
+            this.setPercentageValue(value.doubleValue());
+            return;
+        }
+        this.store.setStringValue(this.slot, CellType.PERCENTAGE, value.toString());
+        this.setImplicitDataStyle(CellType.PERCENTAGE, this.dataStyles.getPercentageDataStyle());
     }
 
     @Override
     public void setStringValue(final String value) {
-        this.value = value;
-        this.type = CellType.STRING;
+        this.store.setStringValue(this.slot, CellType.STRING, value);
     }
 
     @Override
@@ -364,32 +432,31 @@ public class TableCellImpl implements WritableTableCell {
         // we need the datastyle
         DataStyle dataStyle = style.getDataStyle();
         if (dataStyle == null) {                // we don't have it! Let's try something else
-            final TableCellStyle previousStyle = this.style;
+            final TableCellStyle previousStyle = this.getStyle();
 
             if (previousStyle == null) {        // there was NO previous style, so no data style at all
-                this.style = style;
+                this.setStyleInStore(style);
             } else {                            // there was a previous style
                 dataStyle = previousStyle.getDataStyle(); // may be null, but why not try?
                 if (dataStyle == null) {
-                    this.style = style;         // just set the new style as current style
+                    this.setStyleInStore(style); // just set the new style as current style
                 } else {
                     // the previous was necessarily... a child (see below),
                     // so we take the initial previous style (the parent).
-                    this.style = this.stylesContainer.addChildCellStyle(
-                            style, dataStyle);
+                    this.setStyleInStore(this.stylesContainer.addChildCellStyle(
+                            style, dataStyle));
                 }
             }
         } else {                                // we have a datastyle embedded
             this.stylesContainer.addDataStyle(dataStyle);
-            this.style = style;
+            this.setStyleInStore(style);
         }
     }
 
     @Override
     public void setText(final Text text) {
         this.secureColdCell().setText(text);
-        this.value = "";
-        this.type = CellType.STRING;
+        this.store.setStringValue(this.slot, CellType.STRING, "");
         text.addEmbeddedStylesFromCell(this.stylesContainer);
     }
 
@@ -405,32 +472,30 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setTimeValue(final long timeInMillis) {
-        if (timeInMillis < 0) {
-            this.value = this.xmlUtil
-                    .formatNegTimeInterval(0, 0, 0, 0, 0, (double) -timeInMillis / 1000);
-        } else {
-            this.value =
-                    this.xmlUtil.formatTimeInterval(0, 0, 0, 0, 0, (double) timeInMillis / 1000);
-        }
-        this.type = CellType.TIME;
-        this.setImplicitDataStyle(this.dataStyles.getTimeDataStyle());
+        this.store.setNumericValue(this.slot, CellType.TIME, TableCellStore.DURATION,
+                timeInMillis);
+        this.setImplicitDataStyle(CellType.TIME, this.dataStyles.getTimeDataStyle());
+    }
+
+    @Override
+    public void setTimeValue(final Duration value) {
+        this.setTimeValue(value.toMillis());
     }
 
     @Override
     public void setTimeValue(final long years, final long months, final long days, final long hours,
                              final long minutes, final double seconds) {
-        this.value = this.xmlUtil.formatTimeInterval(years, months, days, hours, minutes, seconds);
-        this.type = CellType.TIME;
-        this.setImplicitDataStyle(this.dataStyles.getTimeDataStyle());
+        this.store.setStringValue(this.slot, CellType.TIME,
+                this.xmlUtil.formatTimeInterval(years, months, days, hours, minutes, seconds));
+        this.setImplicitDataStyle(CellType.TIME, this.dataStyles.getTimeDataStyle());
     }
 
     @Override
     public void setNegTimeValue(final long years, final long months, final long days,
                                 final long hours, final long minutes, final double seconds) {
-        this.value =
-                this.xmlUtil.formatNegTimeInterval(years, months, days, hours, minutes, seconds);
-        this.type = CellType.TIME;
-        this.setImplicitDataStyle(this.dataStyles.getTimeDataStyle());
+        this.store.setStringValue(this.slot, CellType.TIME,
+                this.xmlUtil.formatNegTimeInterval(years, months, days, hours, minutes, seconds));
+        this.setImplicitDataStyle(CellType.TIME, this.dataStyles.getTimeDataStyle());
     }
 
     @Override
@@ -452,8 +517,7 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setVoidValue() {
-        this.value = "";
-        this.type = CellType.VOID;
+        this.store.setStringValue(this.slot, CellType.VOID, "");
     }
 
     @Override
@@ -463,23 +527,23 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setMatrixFormula(final String formula) {
-        this.secureColdCell();
-        this.coldCell.setFormula(formula);
-        this.coldCell.setMatrixRowsSpanned(1);
-        this.coldCell.setMatrixColumnsSpanned(1);
+        final TableColdCell coldCell = this.secureColdCell();
+        coldCell.setFormula(formula);
+        coldCell.setMatrixRowsSpanned(1);
+        coldCell.setMatrixColumnsSpanned(1);
     }
 
     @Override
     public void setMatrixFormula(final String formula, final int matrixRowsSpanned,
                                  final int matrixColumnsSpanned) {
-        this.secureColdCell();
-        this.coldCell.setFormula(formula);
-        this.coldCell.setMatrixRowsSpanned(matrixRowsSpanned);
-        this.coldCell.setMatrixColumnsSpanned(matrixColumnsSpanned);
+        final TableColdCell coldCell = this.secureColdCell();
+        coldCell.setFormula(formula);
+        coldCell.setMatrixRowsSpanned(matrixRowsSpanned);
+        coldCell.setMatrixColumnsSpanned(matrixColumnsSpanned);
     }
 
     @Override
     public boolean hasValue() {
-        return this.value != null || this.hasColdCell();
+        return this.store.hasValue(this.slot);
     }
 }
\ No newline at end of file
@@ -0,0 +1,697 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.ISO8601Encoder;
+import com.github.jferard.fastods.util.IntegerRepresentationCache;
+import com.github.jferard.fastods.util.NumberEncoder;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A compact, columnar storage for the cells of a row.
+ * <p>
+ * A cell is not an object: it's a slot in a few parallel arrays (a type tag, a numeric value and
+ * a style id). String values, cold cells and custom cells are stored in side tables that are
+ * allocated only when needed. {@code TableCellImpl} is a flyweight view on a slot.
+ * <p>
+ * A new view is created for each {@code getOrCreateCell} call: the caller may keep several cells
+ * of a row, and a cached view per column would add back an object per cell. The view is short
+ * lived and may be scalar-replaced by the JIT.
+ *
+ * @author J. Férard
+ */
+class TableCellStore {
+    /**
+     * No cell was created at this index
+     */
+    static final int ABSENT = 0;
+    /**
+     * The cell was created, but has no value
+     */
+    static final int NO_VALUE = 1;
+    /**
+     * The value is the empty string
+     */
+    static final int EMPTY = 2;
+    /**
+     * The value is in the strings side table
+     */
+    static final int STRING = 3;
+    /**
+     * The value is an int in the numeric slot
+     */
+    static final int INT = 4;
+    /**
+     * The value is the bits of a float in the numeric slot
+     */
+    static final int FLOAT = 5;
+    /**
+     * The value is a boolean (0 or 1) in the numeric slot
+     */
+    static final int BOOLEAN = 6;
+    /**
+     * The value is a number of milliseconds since the epoch in the numeric slot
+     */
+    static final int DATE = 7;
+    /**
+     * The value is a number of days since 1970-01-01 in the numeric slot
+     */
+    static final int LOCAL_DATE = 8;
+    /**
+     * The value is a number of milliseconds since 1970-01-01T00:00:00 (local time) in the
+     * numeric slot
+     */
+    static final int LOCAL_DATE_TIME = 9;
+    /**
+     * The value is a duration in milliseconds in the numeric slot
+     */
+    static final int DURATION = 10;
+    /**
+     * The value is the bits of a double in the numeric slot
+     */
+    static final int DOUBLE = 11;
+    /**
+     * The value is a long in the numeric slot
+     */
+    static final int LONG = 12;
+
+    private static final int KIND_MASK = 0x0F;
+    private static final int TYPE_SHIFT = 4;
+    private static final CellType[] CELL_TYPES = CellType.values();
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private final int initialCapacity;
+    /**
+     * (CellType.ordinal() + 1) &lt;&lt; 4 | kind
+     */
+    private byte[] tags;
+    private long[] numbers;
+    /**
+     * 0 for no style, else the id of the style in the registry
+     */
+    private int[] styleIds;
+    private String[] strings;
+    private TableColdCell[] coldCells;
+    private WritableTableCell[] customCells;
+    private final CellStyleRegistry styleRegistry;
+    private int usedSize;
+    private TableCellStyle lastDefaultStyle;
+    private String lastDefaultFragment;
+    private final RetainedBytes retainedBytes;
+    private long estimatedBytes;
+
+    /**
+     * @param initialCapacity the number of slots allocated with the first cell.
+     */
+    TableCellStore(final int initialCapacity) {
+        this(initialCapacity, new CellStyleRegistry());
+    }
+
+    /**
+     * @param initialCapacity the number of slots allocated with the first cell.
+     * @param styleRegistry   the registry of the cell styles of the table
+     */
+    TableCellStore(final int initialCapacity, final CellStyleRegistry styleRegistry) {
+        this(initialCapacity, styleRegistry, new RetainedBytes());
+    }
+
+    /**
+     * @param initialCapacity the number of slots allocated with the first cell.
+     * @param styleRegistry   the registry of the cell styles of the table
+     * @param retainedBytes   the estimate of the bytes retained by the rows of the table
+     */
+    TableCellStore(final int initialCapacity, final CellStyleRegistry styleRegistry,
+                   final RetainedBytes retainedBytes) {
+        this.initialCapacity = initialCapacity > 0 ? initialCapacity : DEFAULT_CAPACITY;
+        this.styleRegistry = styleRegistry;
+        this.usedSize = 0;
+        this.retainedBytes = retainedBytes;
+        this.estimatedBytes = 0;
+        this.addBytes(RetainedBytes.ROW_BYTES);
+    }
+
+    /**
+     * @return the estimated number of bytes retained by the row and its cells
+     */
+    public long getEstimatedBytes() {
+        return this.estimatedBytes;
+    }
+
+    private void addBytes(final long delta) {
+        this.estimatedBytes += delta;
+        this.retainedBytes.add(delta);
+    }
+
+    /**
+     * @return the size really used, that is the index of the last created cell + 1.
+     */
+    public int usedSize() {
+        return this.usedSize;
+    }
+
+    /**
+     * Create the cell at a given index if it doesn't exist.
+     *
+     * @param index the index
+     */
+    public void create(final int index) {
+        if (index < this.usedSize) {
+            if (this.tags[index] == ABSENT) {
+                this.tags[index] = NO_VALUE;
+            }
+        } else {
+            this.ensureCapacity(index + 1);
+            this.tags[index] = NO_VALUE;
+            this.usedSize = index + 1;
+        }
+    }
+
+    /**
+     * Remove all the cells. The arrays are kept for a future use.
+     */
+    public void clear() {
+        if (this.tags == null) {
+            return;
+        }
+        final int size = this.usedSize;
+        for (int i = 0; i < size; i++) {
+            this.releaseSideTables(i);
+        }
+        Arrays.fill(this.tags, 0, size, (byte) ABSENT);
+        Arrays.fill(this.numbers, 0, size, 0);
+        Arrays.fill(this.styleIds, 0, size, 0);
+        if (this.strings != null) {
+            Arrays.fill(this.strings, 0, size, null);
+        }
+        if (this.coldCells != null) {
+            Arrays.fill(this.coldCells, 0, size, null);
+        }
+        if (this.customCells != null) {
+            Arrays.fill(this.customCells, 0, size, null);
+        }
+        this.usedSize = 0;
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (this.tags == null) {
+            final int capacity = Math.max(this.initialCapacity, minCapacity);
+            this.tags = new byte[capacity];
+            this.numbers = new long[capacity];
+            this.styleIds = new int[capacity];
+            this.addBytes(3 * RetainedBytes.ARRAY_BYTES +
+                    (long) capacity * RetainedBytes.SLOT_BYTES);
+        } else if (this.tags.length < minCapacity) {
+            final int capacity = Math.max(this.tags.length * 2, minCapacity);
+            this.addBytes((long) (capacity - this.tags.length) * this.getSlotBytes());
+            this.tags = Arrays.copyOf(this.tags, capacity);
+            this.numbers = Arrays.copyOf(this.numbers, capacity);
+            this.styleIds = Arrays.copyOf(this.styleIds, capacity);
+            if (this.strings != null) {
+                this.strings = Arrays.copyOf(this.strings, capacity);
+            }
+            if (this.coldCells != null) {
+                this.coldCells = Arrays.copyOf(this.coldCells, capacity);
+            }
+            if (this.customCells != null) {
+                this.customCells = Arrays.copyOf(this.customCells, capacity);
+            }
+        }
+    }
+
+    private int getSlotBytes() {
+        int slotBytes = RetainedBytes.SLOT_BYTES;
+        if (this.strings != null) {
+            slotBytes += RetainedBytes.REFERENCE_BYTES;
+        }
+        if (this.coldCells != null) {
+            slotBytes += RetainedBytes.REFERENCE_BYTES;
+        }
+        if (this.customCells != null) {
+            slotBytes += RetainedBytes.REFERENCE_BYTES;
+        }
+        return slotBytes;
+    }
+
+    private long getSideTableBytes() {
+        return RetainedBytes.ARRAY_BYTES + (long) this.tags.length * RetainedBytes.REFERENCE_BYTES;
+    }
+
+    /**
+     * Update the estimate before the string, the cold cell and the custom cell of a slot are
+     * removed.
+     */
+    private void releaseSideTables(final int index) {
+        if (this.strings != null) {
+            this.addBytes(-RetainedBytes.stringBytes(this.strings[index]));
+        }
+        if (this.coldCells != null && this.coldCells[index] != null) {
+            this.addBytes(-RetainedBytes.COLD_CELL_BYTES);
+        }
+        if (this.customCells != null && this.customCells[index] != null) {
+            this.addBytes(-RetainedBytes.CUSTOM_CELL_BYTES);
+        }
+    }
+
+    private void setString(final int index, final String value) {
+        final String previous = this.strings[index];
+        this.strings[index] = value;
+        this.addBytes(RetainedBytes.stringBytes(value) - RetainedBytes.stringBytes(previous));
+    }
+
+    /**
+     * @param index the index
+     * @return the kind of value
+     */
+    public int getKind(final int index) {
+        if (index >= this.usedSize) {
+            return ABSENT;
+        }
+        return this.tags[index] & KIND_MASK;
+    }
+
+    /**
+     * @param index the index
+     * @return the cell type or null
+     */
+    public CellType getType(final int index) {
+        if (index >= this.usedSize) {
+            return null;
+        }
+        final int t = (this.tags[index] & 0xFF) >>> TYPE_SHIFT;
+        if (t == 0) {
+            return null;
+        }
+        return CELL_TYPES[t - 1];
+    }
+
+    /**
+     * @param index the index
+     * @return true if the cell has a value or a cold part
+     */
+    public boolean hasValue(final int index) {
+        return this.getKind(index) > NO_VALUE || this.getColdCell(index) != null;
+    }
+
+    /**
+     * @param index the index
+     * @return true if the cell is covered
+     */
+    public boolean isCovered(final int index) {
+        final TableColdCell coldCell = this.getColdCell(index);
+        return coldCell != null && coldCell.isCovered();
+    }
+
+    /**
+     * Set a string value.
+     *
+     * @param index the index
+     * @param type  the type of the cell
+     * @param value the string value, may be null
+     */
+    public void setStringValue(final int index, final CellType type, final String value) {
+        this.create(index);
+        if (value == null) {
+            this.setTag(index, type, NO_VALUE);
+            if (this.strings != null) {
+                this.setString(index, null);
+            }
+        } else if (value.isEmpty()) {
+            this.setTag(index, type, EMPTY);
+            if (this.strings != null) {
+                this.setString(index, null);
+            }
+        } else {
+            if (this.strings == null) {
+                this.strings = new String[this.tags.length];
+                this.addBytes(this.getSideTableBytes());
+            }
+            this.setTag(index, type, STRING);
+            this.setString(index, value);
+        }
+    }
+
+    /**
+     * Set a numeric value.
+     *
+     * @param index  the index
+     * @param type   the type of the cell
+     * @param kind   INT, FLOAT, BOOLEAN, DATE, LOCAL_DATE, LOCAL_DATE_TIME, DURATION, DOUBLE or
+     *               LONG
+     * @param number the value
+     */
+    public void setNumericValue(final int index, final CellType type, final int kind,
+                                final long number) {
+        this.create(index);
+        this.setTag(index, type, kind);
+        this.numbers[index] = number;
+        if (this.strings != null) {
+            this.setString(index, null);
+        }
+    }
+
+    private void setTag(final int index, final CellType type, final int kind) {
+        this.tags[index] = (byte) ((type.ordinal() + 1) << TYPE_SHIFT | kind);
+    }
+
+    /**
+     * @param index the index
+     * @return the style or null
+     */
+    public TableCellStyle getStyle(final int index) {
+        if (index >= this.usedSize) {
+            return null;
+        }
+        return this.styleRegistry.getStyle(this.styleIds[index]);
+    }
+
+    /**
+     * @param index the index
+     * @param style the new style
+     */
+    public void setStyle(final int index, final TableCellStyle style) {
+        this.create(index);
+        this.styleIds[index] = this.styleRegistry.getId(style);
+    }
+
+    /**
+     * @param index the index
+     * @return the cold cell or null
+     */
+    public TableColdCell getColdCell(final int index) {
+        if (this.coldCells == null || index >= this.usedSize) {
+            return null;
+        }
+        return this.coldCells[index];
+    }
+
+    /**
+     * @param index    the index
+     * @param coldCell the cold cell
+     */
+    public void setColdCell(final int index, final TableColdCell coldCell) {
+        this.create(index);
+        if (this.coldCells == null) {
+            this.coldCells = new TableColdCell[this.tags.length];
+            this.addBytes(this.getSideTableBytes());
+        }
+        if (this.coldCells[index] == null) {
+            if (coldCell != null) {
+                this.addBytes(RetainedBytes.COLD_CELL_BYTES);
+            }
+        } else if (coldCell == null) {
+            this.addBytes(-RetainedBytes.COLD_CELL_BYTES);
+        }
+        this.coldCells[index] = coldCell;
+    }
+
+    /**
+     * @param index the index
+     * @return the custom cell or null
+     */
+    public WritableTableCell getCustomCell(final int index) {
+        if (this.customCells == null || index >= this.usedSize) {
+            return null;
+        }
+        return this.customCells[index];
+    }
+
+    /**
+     * Set or remove a custom cell. A custom cell replaces the slot.
+     *
+     * @param index the index
+     * @param cell  the cell, or null to remove the cell
+     */
+    public void setCustomCell(final int index, final WritableTableCell cell) {
+        if (cell == null) {
+            this.remove(index);
+            return;
+        }
+        this.create(index);
+        if (this.customCells == null) {
+            this.customCells = new WritableTableCell[this.tags.length];
+            this.addBytes(this.getSideTableBytes());
+        }
+        if (this.customCells[index] == null) {
+            this.addBytes(RetainedBytes.CUSTOM_CELL_BYTES);
+        }
+        this.customCells[index] = cell;
+    }
+
+    /**
+     * @param index1 the first index
+     * @param index2 the second index
+     * @return true if the two slots have the same type, value and style, and no cold cell nor
+     * custom cell. They can be written as one repeated cell.
+     */
+    public boolean isRepetition(final int index1, final int index2) {
+        return index1 < this.usedSize && index2 < this.usedSize &&
+                this.tags[index1] == this.tags[index2] &&
+                this.numbers[index1] == this.numbers[index2] &&
+                this.styleIds[index1] == this.styleIds[index2] &&
+                Objects.equals(this.getString(index1), this.getString(index2)) &&
+                (this.coldCells == null ||
+                        this.coldCells[index1] == null && this.coldCells[index2] == null) &&
+                (this.customCells == null ||
+                        this.customCells[index1] == null && this.customCells[index2] == null);
+    }
+
+    /**
+     * @param other another store, that shares the style registry of this store
+     * @return true if the two stores have the same cells, without cold cells nor custom cells
+     */
+    public boolean isRepetitionOf(final TableCellStore other) {
+        final int size = this.usedSize;
+        if (size != other.usedSize || this.styleRegistry != other.styleRegistry) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (this.tags[i] != other.tags[i] || this.numbers[i] != other.numbers[i] ||
+                    this.styleIds[i] != other.styleIds[i] ||
+                    !Objects.equals(this.getString(i), other.getString(i))) {
+                return false;
+            }
+        }
+        return !this.hasColdOrCustomCells() && !other.hasColdOrCustomCells();
+    }
+
+    private String getString(final int index) {
+        if (this.strings == null) {
+            return null;
+        }
+        return this.strings[index];
+    }
+
+    private boolean hasColdOrCustomCells() {
+        if (this.coldCells == null && this.customCells == null) {
+            return false;
+        }
+        for (int i = 0; i < this.usedSize; i++) {
+            if (this.coldCells != null && this.coldCells[i] != null ||
+                    this.customCells != null && this.customCells[i] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remove(final int index) {
+        if (index >= this.usedSize) {
+            return;
+        }
+        this.releaseSideTables(index);
+        this.tags[index] = ABSENT;
+        this.numbers[index] = 0;
+        this.styleIds[index] = 0;
+        if (this.strings != null) {
+            this.strings[index] = null;
+        }
+        if (this.coldCells != null) {
+            this.coldCells[index] = null;
+        }
+        if (this.customCells != null) {
+            this.customCells[index] = null;
+        }
+        if (index == this.usedSize - 1) {
+            int last = index - 1;
+            while (last >= 0 && this.tags[last] == ABSENT) {
+                last--;
+            }
+            this.usedSize = last + 1;
+        }
+    }
+
+    /**
+     * Generate the XML for a slot.
+     *
+     * @param util         an util.
+     * @param appendable   the appendable to fill
+     * @param index        the index
+     * @param cache        the cache for int values
+     * @param defaultStyle the style to use if this cell has no style, may be null.
+     * @throws IOException if an error occurs
+     */
+    public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable,
+                                    final int index, final IntegerRepresentationCache cache,
+                                    final TableCellStyle defaultStyle)
+            throws IOException {
+        this.appendXMLToTableRow(util, appendable, index, cache, defaultStyle, 1);
+    }
+
+    /**
+     * Generate the XML for a slot that is repeated.
+     *
+     * @param util            an util.
+     * @param appendable      the appendable to fill
+     * @param index           the index
+     * @param cache           the cache for int values
+     * @param defaultStyle    the style to use if this cell has no style, may be null.
+     * @param columnsRepeated the number of times this cell is repeated. The cell must not have a
+     *                        cold cell if this number is greater than 1.
+     * @throws IOException if an error occurs
+     */
+    public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable,
+                                    final int index, final IntegerRepresentationCache cache,
+                                    final TableCellStyle defaultStyle, final int columnsRepeated)
+            throws IOException {
+        final TableColdCell coldCell = this.getColdCell(index);
+        final boolean covered = coldCell != null && coldCell.isCovered();
+        if (covered) {
+            appendable.append("<table:covered-table-cell");
+        } else {
+            appendable.append("<table:table-cell");
+        }
+
+        final int styleId = index < this.usedSize ? this.styleIds[index] : 0;
+        if (styleId != 0) {
+            this.styleRegistry.appendStyleNameAttribute(util, appendable, styleId);
+        } else if (defaultStyle != null) {
+            // the default style is not registered: the rows may be written by another thread
+            if (defaultStyle != this.lastDefaultStyle) {
+                this.lastDefaultStyle = defaultStyle;
+                this.lastDefaultFragment =
+                        CellStyleRegistry.createStyleNameFragment(util, defaultStyle);
+            }
+            appendable.append(this.lastDefaultFragment);
+        }
+
+        final CellType type = this.getType(index);
+        if (type != null && type != CellType.VOID) {
+            util.appendAttribute(appendable, "office:value-type", type);
+            this.appendValueAttribute(util, appendable, index, type, cache);
+            if (type == CellType.CURRENCY) {
+                assert coldCell != null;
+                util.appendEAttribute(appendable, "office:currency", coldCell.getCurrency());
+            }
+        }
+
+        if (coldCell == null) {
+            if (columnsRepeated > 1) {
+                util.appendAttribute(appendable, "table:number-columns-repeated",
+                        columnsRepeated);
+            }
+            appendable.append("/>");
+        } else {
+            coldCell.appendXMLToTable(util, appendable);
+        }
+    }
+
+    private void appendValueAttribute(final XMLUtil util, final Appendable appendable,
+                                      final int index, final CellType type,
+                                      final IntegerRepresentationCache cache)
+            throws IOException {
+        final String value;
+        final long number = this.numbers[index];
+        switch (this.getKind(index)) {
+            case EMPTY:
+                value = "";
+                break;
+            case STRING:
+                value = this.strings[index];
+                break;
+            case INT:
+                if (!cache.contains((int) number)) {
+                    this.appendDigitsAttribute(appendable, type);
+                    NumberEncoder.appendLong(appendable, number);
+                    appendable.append('"');
+                    return;
+                }
+                value = cache.toString((int) number);
+                break;
+            case LONG:
+                this.appendDigitsAttribute(appendable, type);
+                NumberEncoder.appendLong(appendable, number);
+                appendable.append('"');
+                return;
+            case DOUBLE:
+                this.appendDigitsAttribute(appendable, type);
+                NumberEncoder.appendDouble(appendable, Double.longBitsToDouble(number));
+                appendable.append('"');
+                return;
+            case FLOAT:
+                value = Float.toString(Float.intBitsToFloat((int) number));
+                break;
+            case BOOLEAN:
+                value = number == 0 ? "false" : "true";
+                break;
+            case DATE:
+                this.appendDigitsAttribute(appendable, type);
+                ISO8601Encoder.appendDateTime(appendable, number);
+                appendable.append('"');
+                return;
+            case LOCAL_DATE:
+                this.appendDigitsAttribute(appendable, type);
+                ISO8601Encoder.appendLocalDate(appendable, number);
+                appendable.append('"');
+                return;
+            case LOCAL_DATE_TIME:
+                this.appendDigitsAttribute(appendable, type);
+                ISO8601Encoder.appendLocalDateTime(appendable, number);
+                appendable.append('"');
+                return;
+            case DURATION:
+                this.appendDigitsAttribute(appendable, type);
+                ISO8601Encoder.appendDuration(appendable, number);
+                appendable.append('"');
+                return;
+            default: // a type without value, e.g. setStringValue(null)
+                return;
+        }
+        util.appendEAttribute(appendable, type.getValueAttribute(), value);
+    }
+
+    /**
+     * Open a value attribute whose value needs no escaping.
+     */
+    private void appendDigitsAttribute(final Appendable appendable, final CellType type)
+            throws IOException {
+        appendable.append(' ').append(type.getValueAttribute()).append("=\"");
+    }
+}
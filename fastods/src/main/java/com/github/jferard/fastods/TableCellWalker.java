@@ -34,6 +34,10 @@ import com.github.jferard.fastods.annotation.Beta;
 import com.github.jferard.fastods.util.Validation;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -105,6 +109,21 @@ public class TableCellWalker implements RowCellWalker, TableRowWalker, TableColu
         this.cell.setDateValue(value);
     }
 
+    @Override
+    public void setDateValue(final LocalDate value) {
+        this.cell.setDateValue(value);
+    }
+
+    @Override
+    public void setDateValue(final LocalDateTime value) {
+        this.cell.setDateValue(value);
+    }
+
+    @Override
+    public void setDateValue(final Instant value) {
+        this.cell.setDateValue(value);
+    }
+
     @Override
     public void setFloatValue(final Number value) {
         this.cell.setFloatValue(value);
@@ -146,6 +165,11 @@ public class TableCellWalker implements RowCellWalker, TableRowWalker, TableColu
         this.cell.setTimeValue(timeInMillis);
     }
 
+    @Override
+    public void setTimeValue(final Duration value) {
+        this.cell.setTimeValue(value);
+    }
+
     @Override
     public void setTimeValue(final long years, final long months, final long days, final long hours,
                              final long minutes, final double seconds) {
@@ -210,6 +234,11 @@ public class TableCellWalker implements RowCellWalker, TableRowWalker, TableColu
         this.cell.setCurrencyValue(value, currency);
     }
 
+    @Override
+    public void setCurrencyValue(final double value, final String currency) {
+        this.cell.setCurrencyValue(value, currency);
+    }
+
     @Override
     public void setCurrencyValue(final Number value, final String currency) {
         this.cell.setCurrencyValue(value, currency);
@@ -230,11 +259,26 @@ public class TableCellWalker implements RowCellWalker, TableRowWalker, TableColu
         this.cell.setFloatValue(value);
     }
 
+    @Override
+    public void setFloatValue(final double value) {
+        this.cell.setFloatValue(value);
+    }
+
+    @Override
+    public void setFloatValue(final long value) {
+        this.cell.setFloatValue(value);
+    }
+
     @Override
     public void setPercentageValue(final float value) {
         this.cell.setPercentageValue(value);
     }
 
+    @Override
+    public void setPercentageValue(final double value) {
+        this.cell.setPercentageValue(value);
+    }
+
     @Override
     public void setPercentageValue(final int value) {
         this.cell.setPercentageValue(value);
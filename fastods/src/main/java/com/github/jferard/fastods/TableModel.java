@@ -37,13 +37,20 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableStyle;
 import com.github.jferard.fastods.util.FastFullList;
+import com.github.jferard.fastods.util.HeapBudget;
+import com.github.jferard.fastods.util.PagedFullList;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
 import com.github.jferard.fastods.util.Protection;
+import com.github.jferard.fastods.util.Spool;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,6 +66,10 @@ class TableModel {
      * The size of the buffer
      */
     private static final int BUFFER_SIZE = 8 * 1024;
+    /**
+     * The min number of bytes of rows reported at once to the heap budget
+     */
+    private static final int HEAP_BUDGET_REPORT_BYTES = 8 * 1024;
 
     private static void checkCol(final int col) {
         if (col < 0) {
@@ -131,10 +142,10 @@ class TableModel {
     private final DataStyles format;
     private final PositionUtil positionUtil;
     private final StylesContainer stylesContainer;
-    private final FastFullList<TableRowImpl> tableRows;
+    private final PagedFullList<TableRowImpl> tableRows;
     private final FastFullList<TableColumnImpl> tableColumns;
     private final IntegerRepresentationCache cache;
-    private final XMLUtil xmlUtil;
+    private XMLUtil xmlUtil;
     private final boolean libreOfficeMode;
     private List<XMLConvertible> forms;
     private boolean tablePreambleWritten;
@@ -151,6 +162,22 @@ class TableModel {
     private final List<String> printRanges;
     private int headerRowsCount;
     private int headerColumnsCount;
+    private RowsRenderer rowsRenderer;
+    private XMLUtilFactory xmlUtilFactory;
+    private final Deque<RenderedRowsFlusher> renderedRowsFlushers;
+    private final ChildCellStyleMemo childCellStyleMemo;
+    private final CellStyleRegistry styleRegistry;
+    private XMLUtil fragmentsXMLUtil;
+    private TableStreamWriter streamWriter;
+    private TablePartitions partitions;
+    private Spool spool;
+    private WriterMetrics writerMetrics;
+    private long writeStart;
+    private long cellCount;
+    private final RetainedBytes retainedBytes;
+    private long memoryBudget;
+    private HeapBudget heapBudget;
+    private long reportedBytes;
 
     /**
      * Create a new table builder
@@ -184,9 +211,11 @@ class TableModel {
         this.columnCapacity = columnCapacity;
         this.configEntry = configEntry;
         this.validationsContainer = validationsContainer;
+        this.childCellStyleMemo = new ChildCellStyleMemo();
+        this.styleRegistry = new CellStyleRegistry();
         this.style = TableStyle.DEFAULT_TABLE_STYLE;
         this.tableColumns = FastFullList.newListWithCapacity(this.columnCapacity);
-        this.tableRows = FastFullList.newListWithCapacity(rowCapacity);
+        this.tableRows = new PagedFullList<TableRowImpl>(bufferSize, rowCapacity);
         this.curRowIndex = -1;
         this.lastFlushedRowIndex = 0;
         this.lastRowIndex = -1;
@@ -195,6 +224,101 @@ class TableModel {
         this.printRanges = new ArrayList<String>();
         this.headerRowsCount = 0;
         this.headerColumnsCount = 0;
+        this.rowsRenderer = null;
+        this.xmlUtilFactory = XMLUtilFactory.create();
+        this.fragmentsXMLUtil = null;
+        this.renderedRowsFlushers = new ArrayDeque<RenderedRowsFlusher>();
+        this.streamWriter = null;
+        this.partitions = null;
+        this.spool = null;
+        this.writerMetrics = null;
+        this.retainedBytes = new RetainedBytes();
+        this.memoryBudget = 0;
+        this.heapBudget = null;
+        this.reportedBytes = 0;
+    }
+
+    /**
+     * Write the blocks of rows to a private spool. The table may then be filled by its own
+     * thread, concurrently with the other tables of the document. The table gets its own
+     * XMLUtil from the XMLUtil factory, because the escaper of the document is not thread safe.
+     *
+     * @param spool the spool
+     * @throws IllegalStateException if the table belongs to a named writer or has rows
+     */
+    public void setSpool(final Spool spool) {
+        if (this.observer != null) {
+            throw new IllegalStateException(
+                    "Can't spool a table from a named writer (the table is flushed to the file)");
+        }
+        if (this.tableRows.usedSize() > 0) {
+            throw new IllegalStateException("Can't spool a table that has rows");
+        }
+        this.spool = spool;
+        this.xmlUtil = this.xmlUtilFactory.newXMLUtil();
+    }
+
+    /**
+     * Set the factory of the XMLUtils of the threads that write the rows beside the thread of the
+     * document (renderer, spool, partitions). Must be called before setSpool.
+     *
+     * @param xmlUtilFactory the factory
+     */
+    public void setXMLUtilFactory(final XMLUtilFactory xmlUtilFactory) {
+        this.xmlUtilFactory = xmlUtilFactory;
+    }
+
+    /**
+     * Render the blocks of rows on a pool instead of the current thread.
+     *
+     * @param rowsRenderer the renderer, or null to render the rows on the current thread
+     */
+    public void setRowsRenderer(final RowsRenderer rowsRenderer) {
+        this.rowsRenderer = rowsRenderer;
+    }
+
+    /**
+     * Flush (or spool) the rows when their estimated size exceeds a budget, even if the block of
+     * rows is not full. Has no effect on the tables of an anonymous writer that are not spooled,
+     * since their rows are kept until the document is saved.
+     *
+     * @param memoryBudget the max number of bytes retained by the rows, or 0 to flush the rows
+     *                     by blocks of fixed size only
+     */
+    public void setMemoryBudget(final long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Budget must be >= 0");
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Report the estimated bytes of the rows to a budget shared with the spools of the
+     * document, and spool the rows when the budget is exceeded. For spooled tables.
+     *
+     * @param heapBudget the budget, or null
+     */
+    public void setHeapBudget(final HeapBudget heapBudget) {
+        this.heapBudget = heapBudget;
+    }
+
+    /**
+     * @return the estimated number of bytes retained by the rows that were not flushed
+     */
+    public long getEstimatedRetainedBytes() {
+        return this.retainedBytes.get();
+    }
+
+    /**
+     * Report the number of rows and cells and the time between this call and the end of the
+     * write of the table. The cells written by a stream writer or a partition are not counted.
+     *
+     * @param writerMetrics the listener, or null to disable the metrics
+     */
+    public void setWriterMetrics(final WriterMetrics writerMetrics) {
+        this.writerMetrics = writerMetrics;
+        this.writeStart = System.nanoTime();
+        this.cellCount = 0;
     }
 
     /**
@@ -228,11 +352,26 @@ class TableModel {
      * @throws IOException if an error occurs
      */
     public void asyncFlushEndTable(final TableAppender appender) throws IOException {
+        if (this.partitions != null) {
+            this.partitions.checkClosed();
+        }
         if (!this.tablePreambleWritten) {
             this.observer.update(new BeginTableFlusher(appender));
         }
+        if (this.streamWriter != null) {
+            this.streamWriter.flush();
+        }
+        this.updateRenderedRows(true);
+        final int rowCount = this.tableRows.usedSize();
+        this.buildStyleFragments();
         this.observer.update(new EndTableFlusher(appender,
-                this.tableRows.subList(this.lastFlushedRowIndex, this.tableRows.usedSize())));
+                this.tableRows.subList(this.lastFlushedRowIndex, rowCount)));
+        this.releaseRows(rowCount);
+        if (this.fragmentsXMLUtil != null) {
+            this.xmlUtilFactory.release(this.fragmentsXMLUtil);
+            this.fragmentsXMLUtil = null;
+        }
+        this.reportTableWritten();
     }
 
     /**
@@ -253,7 +392,11 @@ class TableModel {
      * @return the number of rows
      */
     public int getRowCount() {
-        return this.tableRows.usedSize();
+        if (this.partitions == null) {
+            return this.tableRows.usedSize();
+        } else {
+            return this.partitions.getEndRowIndex();
+        }
     }
 
     /**
@@ -292,11 +435,18 @@ class TableModel {
     private TableRowImpl getRowSecure(final Table table, final TableAppender appender,
                                       final int rowIndex, final boolean updateRowIndex)
             throws IOException {
+        if (this.streamWriter != null) {
+            throw new IOException("The rows of the table are written by a stream writer");
+        }
+        if (this.partitions != null) {
+            throw new IOException("The rows of the table are written by partitions");
+        }
+        if (rowIndex < this.lastFlushedRowIndex) {
+            throw new IOException("Row " + rowIndex + " was already flushed");
+        }
         TableRowImpl tr = this.tableRows.get(rowIndex);
         if (tr == null) {
-            tr = new TableRowImpl(this.cache, this.xmlUtil, this.stylesContainer, this.format,
-                    this.libreOfficeMode, table, rowIndex, this.columnCapacity,
-                    this.validationsContainer);
+            tr = this.createRow(table, rowIndex);
             this.tableRows.set(rowIndex, tr);
             if (rowIndex > this.lastRowIndex) {
                 this.lastRowIndex = rowIndex;
@@ -304,6 +454,8 @@ class TableModel {
 
             if (this.observer != null) {
                 this.asyncTryToFlush(appender, rowIndex);
+            } else if (this.spool != null) {
+                this.tryToSpool(appender, rowIndex);
             }
         }
         if (updateRowIndex && this.curRowIndex < rowIndex) {
@@ -312,19 +464,161 @@ class TableModel {
         return tr;
     }
 
+    private TableRowImpl createRow(final Table table, final int rowIndex) {
+        return new TableRowImpl(this.cache, this.xmlUtil, this.stylesContainer, this.format,
+                this.libreOfficeMode, table, rowIndex, this.columnCapacity,
+                this.validationsContainer, this.childCellStyleMemo, this.styleRegistry,
+                this.retainedBytes);
+    }
+
+    /**
+     * Create a row for a partition. The memos are not thread safe: they belong to the partition.
+     */
+    private TableRowImpl createPartitionRow(final Table table, final int rowIndex,
+                                            final XMLUtil partitionXMLUtil,
+                                            final ChildCellStyleMemo partitionMemo,
+                                            final CellStyleRegistry partitionRegistry) {
+        return new TableRowImpl(this.cache, partitionXMLUtil, this.stylesContainer, this.format,
+                this.libreOfficeMode, table, rowIndex, this.columnCapacity,
+                this.validationsContainer, partitionMemo, partitionRegistry,
+                new RetainedBytes());
+    }
+
+    /**
+     * Return the stream writer of this table. On the first call, the begin of the table and the
+     * existing rows are async flushed. After that, the rows of the model can't be accessed.
+     *
+     * @param table    the table
+     * @param appender the appender
+     * @return the stream writer
+     * @throws IOException if the table does not belong to a named writer or if an I/O error
+     *                     occurs
+     */
+    public TableStreamWriter getStreamWriter(final Table table, final TableAppender appender)
+            throws IOException {
+        if (this.streamWriter == null) {
+            if (this.partitions != null) {
+                throw new IOException("The rows of the table are written by partitions");
+            }
+            if (this.observer == null) {
+                throw new IOException(
+                        "Can't stream a table from an anonymous writer (there is no file)");
+            }
+            this.asyncFlushRowsAsStreamed(appender);
+            final int rowCount = this.tableRows.usedSize();
+            this.streamWriter = new TableStreamWriter(this.observer, appender, this.xmlUtil,
+                    this.createRow(table, rowCount), this.createRow(table, rowCount));
+        }
+        return this.streamWriter;
+    }
+
+    /**
+     * Reserve the next rowCount rows of the table for a partition. On the first call, the
+     * existing rows are flushed (or spooled). After that, the rows of the model can't be
+     * accessed: the rows are written by the partitions, in row order.
+     * <p>
+     * The partitions are reserved by the thread that owns the table, then each partition may be
+     * filled by its own thread. The table can be ended once every partition is closed.
+     *
+     * @param table    the table
+     * @param appender the appender
+     * @param rowCount the number of rows of the partition
+     * @return the partition
+     * @throws IllegalArgumentException if rowCount &lt;= 0
+     * @throws IllegalStateException    if the table is spooled and the header rows were not
+     *                                  written
+     * @throws IOException              if the table has a stream writer, or belongs to an
+     *                                  anonymous writer and is not spooled, or if an I/O error
+     *                                  occurs
+     */
+    public TablePartition reservePartition(final Table table, final TableAppender appender,
+                                           final int rowCount) throws IOException {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("A partition has at least one row");
+        }
+        if (this.partitions == null) {
+            this.partitions = this.createPartitions(appender);
+        }
+        final int firstRowIndex = this.partitions.getEndRowIndex();
+        final XMLUtil partitionXMLUtil = this.xmlUtilFactory.newXMLUtil();
+        final ChildCellStyleMemo partitionMemo = new ChildCellStyleMemo();
+        final CellStyleRegistry partitionRegistry = new CellStyleRegistry();
+        final TablePartition partition = new TablePartition(this.partitions, appender,
+                partitionXMLUtil,
+                this.createPartitionRow(table, firstRowIndex, partitionXMLUtil, partitionMemo,
+                        partitionRegistry),
+                this.createPartitionRow(table, firstRowIndex, partitionXMLUtil, partitionMemo,
+                        partitionRegistry), firstRowIndex, firstRowIndex + rowCount);
+        this.partitions.add(partition);
+        return partition;
+    }
+
+    private TablePartitions createPartitions(final TableAppender appender) throws IOException {
+        if (this.streamWriter != null) {
+            throw new IOException("The rows of the table are written by a stream writer");
+        }
+        final int rowCount = this.tableRows.usedSize();
+        if (this.observer != null) {
+            this.asyncFlushRowsAsStreamed(appender);
+        } else if (this.spool != null) {
+            if (this.headerRowsCount > 0 && rowCount <= this.headerRowsCount) {
+                throw new IllegalStateException(
+                        "Can't partition a spooled table before the end of the header rows");
+            }
+            appender.appendRowsBlock(this.xmlUtil, this.spool, this.lastFlushedRowIndex,
+                    rowCount);
+            this.releaseRows(rowCount);
+        } else {
+            throw new IOException(
+                    "Can't partition a table from an anonymous writer if the table is not " +
+                            "spooled");
+        }
+        return new TablePartitions(this.observer, this.spool, appender, this.xmlUtilFactory,
+                rowCount);
+    }
+
+    /**
+     * Async flush the begin of the table and the rows of the model, before the rows are written
+     * by a stream writer or by partitions.
+     */
+    private void asyncFlushRowsAsStreamed(final TableAppender appender) throws IOException {
+        if (!this.tablePreambleWritten) {
+            this.asyncFlushBeginTable(appender);
+        }
+        this.updateRenderedRows(true);
+        final int rowCount = this.tableRows.usedSize();
+        if (rowCount > this.lastFlushedRowIndex) {
+            final StringBuilder sb = new StringBuilder();
+            final List<TableRowImpl> rows =
+                    this.tableRows.subList(this.lastFlushedRowIndex, rowCount);
+            RepeatedRowsAppender.appendRows(this.xmlUtil, sb, rows);
+            this.observer.update(new StreamedRowsFlusher(appender, sb));
+            this.releaseRows(rowCount);
+        }
+    }
+
     /**
      * async flush if rowIndex % this.bufferSize == 0. If 0, async flush the begin of the table
-     * else if rowIndex is a multiple of this.bufferSize, flush the preprocessed rows
+     * else if rowIndex is a multiple of this.bufferSize or the rows exceed the memory budget,
+     * flush the preprocessed rows
      */
     private void asyncTryToFlush(final TableAppender appender, final int rowIndex)
             throws IOException {
         if (this.tablePreambleWritten) {
-            if (rowIndex > 0 && rowIndex % this.bufferSize == 0) {
-                final OdsAsyncFlusher preprocessedRowsFlusher = PreprocessedRowsFlusher
-                        .create(this.xmlUtil, new ArrayList<TableRowImpl>(
-                                this.tableRows.subList(this.lastFlushedRowIndex, rowIndex)));
-                this.observer.update(preprocessedRowsFlusher); // (0..1023), (1024..2047)
-                this.lastFlushedRowIndex = rowIndex;
+            if (rowIndex > this.lastFlushedRowIndex && this.isBlockComplete(rowIndex)) {
+                final List<TableRowImpl> rows =
+                        this.tableRows.subList(this.lastFlushedRowIndex, rowIndex);
+                this.buildStyleFragments();
+                if (this.rowsRenderer == null) {
+                    final OdsAsyncFlusher preprocessedRowsFlusher =
+                            PreprocessedRowsFlusher.create(this.xmlUtil, rows);
+                    this.observer.update(preprocessedRowsFlusher); // (0..1023), (1024..2047)
+                } else {
+                    this.renderedRowsFlushers.add(this.rowsRenderer.submit(rows,
+                            this.xmlUtilFactory));
+                    this.updateRenderedRows(false);
+                }
+                this.releaseRows(rowIndex);
             }
         } else {
             this.asyncFlushBeginTable(appender);
@@ -332,6 +626,154 @@ class TableModel {
         }
     }
 
+    /**
+     * Spool the previous rows if rowIndex is a multiple of this.bufferSize or the rows exceed
+     * the memory budget or the heap budget.
+     */
+    private void tryToSpool(final TableAppender appender, final int rowIndex)
+            throws IOException {
+        if (rowIndex > this.lastFlushedRowIndex &&
+                (this.isBlockComplete(rowIndex) || this.takeHeapBudget())) {
+            appender.appendRowsBlock(this.xmlUtil, this.spool, this.lastFlushedRowIndex,
+                    rowIndex);
+            this.releaseRows(rowIndex);
+        }
+    }
+
+    /**
+     * Report the bytes retained since the last report, every few kilobytes.
+     *
+     * @return true if the heap budget is exceeded
+     */
+    private boolean takeHeapBudget() {
+        if (this.heapBudget == null) {
+            return false;
+        }
+        final long delta = this.retainedBytes.get() - this.reportedBytes;
+        if (delta < HEAP_BUDGET_REPORT_BYTES) {
+            return false;
+        }
+        this.reportedBytes += delta;
+        return this.heapBudget.take(delta);
+    }
+
+    private boolean isBlockComplete(final int rowIndex) {
+        return rowIndex % this.bufferSize == 0 ||
+                this.memoryBudget > 0 && this.retainedBytes.get() > this.memoryBudget;
+    }
+
+    /**
+     * Build the style-name fragments of the rows before they are handed off to the writer
+     * thread or to the renderer. The table has its own util, since the util of the document may
+     * be used by the writer thread.
+     */
+    private void buildStyleFragments() {
+        if (this.fragmentsXMLUtil == null) {
+            this.fragmentsXMLUtil = this.xmlUtilFactory.newXMLUtil();
+        }
+        this.styleRegistry.buildFragments(this.fragmentsXMLUtil);
+    }
+
+    /**
+     * Release the rows from the last flushed row to toIndex (excluded), once they are handed
+     * off: the references are dropped, and the estimate of the retained bytes is updated.
+     *
+     * @param toIndex the end of the block
+     */
+    private void releaseRows(final int toIndex) {
+        this.countCells(toIndex);
+        for (int r = this.lastFlushedRowIndex; r < toIndex; r++) {
+            final TableRowImpl row = this.tableRows.get(r);
+            if (row != null) {
+                this.retainedBytes.add(-row.getEstimatedRetainedBytes());
+            }
+        }
+        this.lastFlushedRowIndex = toIndex;
+        this.tableRows.releaseAndClearUntil(toIndex);
+        if (this.heapBudget != null) {
+            final long retained = Math.max(0, this.retainedBytes.get());
+            if (retained < this.reportedBytes) {
+                this.heapBudget.release(this.reportedBytes - retained);
+                this.reportedBytes = retained;
+            }
+        }
+    }
+
+    /**
+     * Append the XML of the table. If the table is spooled, the remaining rows are spooled,
+     * and the spool is transferred to the appendable then closed.
+     *
+     * @param appender   the appender
+     * @param util       an util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendXMLContent(final TableAppender appender, final XMLUtil util,
+                                 final Appendable appendable) throws IOException {
+        if (this.spool == null) {
+            this.countCells(this.tableRows.usedSize());
+            appender.appendXMLToContentEntry(util, appendable);
+        } else {
+            if (this.partitions == null) {
+                final int rowCount = this.tableRows.usedSize();
+                appender.appendRemainingRowsFrom(this.xmlUtil, this.spool,
+                        this.lastFlushedRowIndex);
+                this.releaseRows(rowCount);
+            } else {
+                this.partitions.checkClosed();
+                appender.appendPostamble(this.spool);
+            }
+            this.spool.transferTo(appendable);
+            this.spool.close();
+            this.xmlUtilFactory.release(this.xmlUtil);
+        }
+        this.reportTableWritten();
+    }
+
+    /**
+     * Count the cells of the rows from the last flushed row to toIndex (excluded), before
+     * they are released.
+     *
+     * @param toIndex the end of the block
+     */
+    private void countCells(final int toIndex) {
+        if (this.writerMetrics == null) {
+            return;
+        }
+        for (int r = this.lastFlushedRowIndex; r < toIndex; r++) {
+            final TableRowImpl row = this.tableRows.get(r);
+            if (row != null) {
+                this.cellCount += row.getCurRowSize();
+            }
+        }
+    }
+
+    private void reportTableWritten() {
+        if (this.writerMetrics != null) {
+            this.writerMetrics.tableWritten(this.name, this.getRowCount(), this.cellCount,
+                    System.nanoTime() - this.writeStart);
+        }
+    }
+
+    /**
+     * Give the rendered blocks of rows to the observer, in order. A block is given when it is
+     * rendered, or if there are too many blocks in flight, or if all is true.
+     *
+     * @param all true if every block should be given
+     * @throws IOException if an I/O error occurs
+     */
+    private void updateRenderedRows(final boolean all) throws IOException {
+        while (!this.renderedRowsFlushers.isEmpty()) {
+            final RenderedRowsFlusher flusher = this.renderedRowsFlushers.peekFirst();
+            if (all || flusher.isDone() ||
+                    this.renderedRowsFlushers.size() > this.rowsRenderer.getMaxBlocksInFlight()) {
+                this.observer.update(this.renderedRowsFlushers.removeFirst());
+            } else {
+                break;
+            }
+        }
+    }
+
     /**
      * Get the current Table Style
      *
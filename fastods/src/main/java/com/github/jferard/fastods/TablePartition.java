@@ -0,0 +1,189 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only writer for a reserved range of rows of a table, see
+ * {@link Table#reservePartition(int)}. Each partition is filled by one thread, and several
+ * partitions of a table may be filled concurrently: a partition has its own rows, its own
+ * XMLUtil and its own memos, and the styles are registered in the styles container, that is
+ * synchronized.
+ * <p>
+ * The blocks of rows of the first partition that is not closed are given to the file writer
+ * (or to the spool of the table) as soon as they are written. The blocks of the next partitions
+ * are kept until the previous partitions are closed: the rows are written in order.
+ * <p>
+ * The rows that were not written when the partition is closed are empty rows. The cells can't
+ * span over several rows.
+ *
+ * @author J. Férard
+ */
+public class TablePartition extends TableStreamWriter {
+    private final TablePartitions partitions;
+    private final int firstRowIndex;
+    private final int endRowIndex;
+    private final List<CharSequence> pendingBlocks;
+    private int rowIndex;
+    private boolean closed;
+
+    /**
+     * @param partitions    the partitions of the table
+     * @param appender      the appender of the table
+     * @param xmlUtil       an util, for this partition only
+     * @param row           an empty row of the table, that will be reused
+     * @param previousRow   another empty row of the table, that will be reused
+     * @param firstRowIndex the index of the first row of the partition
+     * @param endRowIndex   the index of the first row after the partition
+     */
+    TablePartition(final TablePartitions partitions, final TableAppender appender,
+                   final XMLUtil xmlUtil, final TableRowImpl row, final TableRowImpl previousRow,
+                   final int firstRowIndex, final int endRowIndex) {
+        super(null, appender, xmlUtil, row, previousRow);
+        this.partitions = partitions;
+        this.firstRowIndex = firstRowIndex;
+        this.endRowIndex = endRowIndex;
+        this.pendingBlocks = new ArrayList<CharSequence>();
+        this.rowIndex = firstRowIndex;
+        this.closed = false;
+    }
+
+    /**
+     * @return the index of the first row of the partition
+     */
+    public int getFirstRowIndex() {
+        return this.firstRowIndex;
+    }
+
+    /**
+     * @return the index of the first row after the partition
+     */
+    public int getEndRowIndex() {
+        return this.endRowIndex;
+    }
+
+    /**
+     * @return the index of the next row
+     */
+    public int getRowIndex() {
+        return this.rowIndex;
+    }
+
+    /**
+     * Begin a new row with the default row style
+     *
+     * @throws IllegalStateException if the partition is full or closed
+     */
+    @Override
+    public void beginRow() {
+        if (this.rowIndex >= this.endRowIndex) {
+            throw new IllegalStateException(
+                    "The partition is full (rows " + this.firstRowIndex + " to " +
+                            (this.endRowIndex - 1) + ")");
+        }
+        super.beginRow();
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        super.endRow();
+        this.rowIndex++;
+    }
+
+    /**
+     * Leave some rows empty
+     *
+     * @param n the number of rows
+     * @throws IllegalArgumentException if n &lt; 0 or if there is not enough rows left
+     * @throws IOException              if an I/O error occurs
+     */
+    @Override
+    public void skipRows(final int n) throws IOException {
+        if (n > this.endRowIndex - this.rowIndex) {
+            throw new IllegalArgumentException(
+                    "Can't skip " + n + " rows: only " + (this.endRowIndex - this.rowIndex) +
+                            " rows left");
+        }
+        super.skipRows(n);
+        this.rowIndex += n;
+    }
+
+    /**
+     * Write the pending rows, fill the partition with empty rows and mark it as complete. The
+     * partition can't be used after this call. This method is idempotent.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        if (this.isInRow()) {
+            this.endRow();
+        }
+        this.skipRows(this.endRowIndex - this.rowIndex);
+        this.flush();
+        this.closed = true;
+        this.partitions.close(this);
+    }
+
+    /**
+     * @return true if the partition was closed
+     */
+    boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    void handOff(final CharSequence rows) throws IOException {
+        this.partitions.handOff(this, rows);
+    }
+
+    /**
+     * Keep a block until the previous partitions are closed. Called by the partitions, under
+     * lock.
+     *
+     * @param rows the XML of the rows
+     */
+    void keep(final CharSequence rows) {
+        this.pendingBlocks.add(rows);
+    }
+
+    /**
+     * Called by the partitions, under lock.
+     *
+     * @return the blocks that were kept, and forget them.
+     */
+    List<CharSequence> takePendingBlocks() {
+        final List<CharSequence> blocks = new ArrayList<CharSequence>(this.pendingBlocks);
+        this.pendingBlocks.clear();
+        return blocks;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.Spool;
+import com.github.jferard.fastods.util.XMLUtilFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The partitions of a table, in row order. The blocks of rows are written to the file writer
+ * (or to the spool of the table) in row order: the blocks of the first partition that is not
+ * closed are written as soon as they are handed off, the blocks of the next partitions are kept
+ * by the partitions until the previous partitions are closed.
+ * <p>
+ * The methods are synchronized: the partitions are filled by several threads. The lock is taken
+ * once per block of rows, not once per row.
+ *
+ * @author J. Férard
+ */
+class TablePartitions {
+    private final NamedOdsFileWriter observer;
+    private final Spool spool;
+    private final TableAppender appender;
+    private final XMLUtilFactory xmlUtilFactory;
+    private final Deque<TablePartition> openPartitions;
+    private int endRowIndex;
+
+    /**
+     * @param observer       the file writer, or null if the table is spooled
+     * @param spool          the spool of the table, or null if the table has a file writer
+     * @param appender       the appender of the table
+     * @param xmlUtilFactory the factory of the XMLUtils of the partitions
+     * @param firstRowIndex  the index of the first row of the first partition
+     */
+    TablePartitions(final NamedOdsFileWriter observer, final Spool spool,
+                    final TableAppender appender, final XMLUtilFactory xmlUtilFactory,
+                    final int firstRowIndex) {
+        this.observer = observer;
+        this.spool = spool;
+        this.appender = appender;
+        this.xmlUtilFactory = xmlUtilFactory;
+        this.openPartitions = new ArrayDeque<TablePartition>();
+        this.endRowIndex = firstRowIndex;
+    }
+
+    /**
+     * @return the index of the first row after the last partition
+     */
+    synchronized int getEndRowIndex() {
+        return this.endRowIndex;
+    }
+
+    /**
+     * Add a partition after the last one.
+     *
+     * @param partition the partition
+     */
+    synchronized void add(final TablePartition partition) {
+        assert partition.getFirstRowIndex() == this.endRowIndex;
+        this.openPartitions.addLast(partition);
+        this.endRowIndex = partition.getEndRowIndex();
+    }
+
+    /**
+     * Write a block of rows if the partition is the first one, else keep it.
+     *
+     * @param partition the partition
+     * @param rows      the XML of the rows
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void handOff(final TablePartition partition, final CharSequence rows)
+            throws IOException {
+        if (this.openPartitions.peekFirst() == partition) {
+            this.write(rows);
+        } else {
+            partition.keep(rows);
+        }
+    }
+
+    /**
+     * Write the blocks of the partitions that follow the closed partitions.
+     *
+     * @param partition the partition that was closed
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void close(final TablePartition partition) throws IOException {
+        assert partition.isClosed();
+        this.xmlUtilFactory.release(partition.getXMLUtil());
+        while (!this.openPartitions.isEmpty() && this.openPartitions.peekFirst().isClosed()) {
+            this.openPartitions.removeFirst();
+            final TablePartition first = this.openPartitions.peekFirst();
+            if (first != null) {
+                for (final CharSequence rows : first.takePendingBlocks()) {
+                    this.write(rows);
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if a partition is not closed
+     */
+    synchronized void checkClosed() throws IOException {
+        final TablePartition first = this.openPartitions.peekFirst();
+        if (first != null) {
+            throw new IOException(
+                    "The partition that begins at row " + first.getFirstRowIndex() +
+                            " was not closed");
+        }
+    }
+
+    private void write(final CharSequence rows) throws IOException {
+        if (this.observer == null) {
+            this.appender.appendStreamedRows(this.spool, rows);
+        } else {
+            this.observer.update(new StreamedRowsFlusher(this.appender, rows));
+        }
+    }
+}
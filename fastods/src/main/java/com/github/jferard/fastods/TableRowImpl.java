@@ -24,12 +24,10 @@
 
 package com.github.jferard.fastods;
 
-import com.github.jferard.fastods.attribute.CellType;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableRowStyle;
-import com.github.jferard.fastods.util.FastFullList;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
 import com.github.jferard.fastods.util.Validation;
 import com.github.jferard.fastods.util.XMLUtil;
@@ -69,8 +67,9 @@ public class TableRowImpl implements TableRow {
     private final StylesContainer stylesContainer;
     private final IntegerRepresentationCache cache;
     private final XMLUtil xmlUtil;
-    private final FastFullList<WritableTableCell> cells;
+    private final TableCellStore cells;
     private final boolean libreOfficeMode;
+    private final ChildCellStyleMemo childCellStyleMemo;
     private DataStyles dataStyles;
     private TableRowStyle rowStyle;
     private TableCellStyle defaultCellStyle;
@@ -92,6 +91,64 @@ public class TableRowImpl implements TableRow {
                  final StylesContainer stylesContainer, final DataStyles dataStyles,
                  final boolean libreOfficeMode, final Table parentTable, final int rowIndex,
                  final int columnCapacity, final ValidationsContainer validationsContainer) {
+        this(cache, xmlUtil, stylesContainer, dataStyles, libreOfficeMode, parentTable, rowIndex,
+                columnCapacity, validationsContainer, new ChildCellStyleMemo(),
+                new CellStyleRegistry());
+    }
+
+    /**
+     * Create a new TableRow
+     *
+     * @param cache                an util
+     * @param xmlUtil              an util
+     * @param stylesContainer      the styles container
+     * @param dataStyles           the data styles
+     * @param libreOfficeMode      try to get full compatibility with LO if true
+     * @param parentTable          the parent table
+     * @param rowIndex             the index of this row
+     * @param columnCapacity       the max column
+     * @param validationsContainer the container for validations
+     * @param childCellStyleMemo   the memo of the implicit child styles, shared by the rows of
+     *                             the table
+     * @param styleRegistry        the registry of the cell styles, shared by the rows of the
+     *                             table
+     */
+    TableRowImpl(final IntegerRepresentationCache cache, final XMLUtil xmlUtil,
+                 final StylesContainer stylesContainer, final DataStyles dataStyles,
+                 final boolean libreOfficeMode, final Table parentTable, final int rowIndex,
+                 final int columnCapacity, final ValidationsContainer validationsContainer,
+                 final ChildCellStyleMemo childCellStyleMemo,
+                 final CellStyleRegistry styleRegistry) {
+        this(cache, xmlUtil, stylesContainer, dataStyles, libreOfficeMode, parentTable, rowIndex,
+                columnCapacity, validationsContainer, childCellStyleMemo, styleRegistry,
+                new RetainedBytes());
+    }
+
+    /**
+     * Create a new TableRow
+     *
+     * @param cache                an util
+     * @param xmlUtil              an util
+     * @param stylesContainer      the styles container
+     * @param dataStyles           the data styles
+     * @param libreOfficeMode      try to get full compatibility with LO if true
+     * @param parentTable          the parent table
+     * @param rowIndex             the index of this row
+     * @param columnCapacity       the max column
+     * @param validationsContainer the container for validations
+     * @param childCellStyleMemo   the memo of the implicit child styles, shared by the rows of
+     *                             the table
+     * @param styleRegistry        the registry of the cell styles, shared by the rows of the
+     *                             table
+     * @param retainedBytes        the estimate of the bytes retained by the rows of the table
+     */
+    TableRowImpl(final IntegerRepresentationCache cache, final XMLUtil xmlUtil,
+                 final StylesContainer stylesContainer, final DataStyles dataStyles,
+                 final boolean libreOfficeMode, final Table parentTable, final int rowIndex,
+                 final int columnCapacity, final ValidationsContainer validationsContainer,
+                 final ChildCellStyleMemo childCellStyleMemo,
+                 final CellStyleRegistry styleRegistry, final RetainedBytes retainedBytes) {
+        this.childCellStyleMemo = childCellStyleMemo;
         this.cache = cache;
         this.stylesContainer = stylesContainer;
         this.xmlUtil = xmlUtil;
@@ -101,7 +158,7 @@ public class TableRowImpl implements TableRow {
         this.rowIndex = rowIndex;
         this.validationsContainer = validationsContainer;
         this.rowStyle = TableRowStyle.DEFAULT_TABLE_ROW_STYLE;
-        this.cells = FastFullList.newListWithCapacity(columnCapacity);
+        this.cells = new TableCellStore(columnCapacity, styleRegistry, retainedBytes);
     }
 
     /**
@@ -114,7 +171,23 @@ public class TableRowImpl implements TableRow {
      */
     public void appendXMLToTable(final XMLUtil util, final Appendable appendable)
             throws IOException {
-        this.appendRowOpenTag(util, appendable);
+        this.appendXMLToTable(util, appendable, 1);
+    }
+
+    /**
+     * Write the XML dataStyles for this object, repeated a given number of times.<br>
+     * This is used while writing the ODS file.
+     *
+     * @param util         a util for XML writing
+     * @param appendable   where to write the XML
+     * @param rowsRepeated the number of identical consecutive rows, see
+     *                     {@link #isRepetitionOf(TableRowImpl)}
+     * @throws IOException If an I/O error occurs
+     */
+    public void appendXMLToTable(final XMLUtil util, final Appendable appendable,
+                                 final int rowsRepeated)
+            throws IOException {
+        this.appendRowOpenTag(util, appendable, rowsRepeated);
 
         final int size = this.cells.usedSize();
         if (size == 0) { // relaxNG validation : oneOrMore cells
@@ -122,23 +195,39 @@ public class TableRowImpl implements TableRow {
         } else {
             int nullFieldCounter = 0;
             for (int c = 0; c < size; c++) {
-                final WritableTableCell cell = this.cells.get(c);
-                if (this.hasNoValue(cell)) {
-                    nullFieldCounter++;
-                    continue;
+                final WritableTableCell customCell = this.cells.getCustomCell(c);
+                if (customCell == null) {
+                    if (!this.cells.hasValue(c)) {
+                        nullFieldCounter++;
+                        continue;
+                    }
+                    this.insertBlankCells(util, appendable, nullFieldCounter);
+                    nullFieldCounter = 0;
+                    final int columnsRepeated = this.countRepeatedCells(c, size);
+                    this.appendStoredCell(util, appendable, c, columnsRepeated);
+                    c += columnsRepeated - 1;
+                } else {
+                    if (!customCell.hasValue()) {
+                        nullFieldCounter++;
+                        continue;
+                    }
+                    this.insertBlankCells(util, appendable, nullFieldCounter);
+                    nullFieldCounter = 0;
+                    customCell.appendXMLToTableRow(util, appendable);
                 }
-                this.insertBlankCells(util, appendable, nullFieldCounter);
-                nullFieldCounter = 0;
-                cell.appendXMLToTableRow(util, appendable);
             }
             this.insertBlankCells(util, appendable, nullFieldCounter); // relaxNG
         }
         appendable.append("</table:table-row>");
     }
 
-    private void appendRowOpenTag(final XMLUtil util, final Appendable appendable)
+    private void appendRowOpenTag(final XMLUtil util, final Appendable appendable,
+                                  final int rowsRepeated)
             throws IOException {
         appendable.append("<table:table-row");
+        if (rowsRepeated > 1) {
+            util.appendAttribute(appendable, "table:number-rows-repeated", rowsRepeated);
+        }
         if (this.rowStyle != null) {
             util.appendEAttribute(appendable, "table:style-name", this.rowStyle.getName());
         }
@@ -168,8 +257,65 @@ public class TableRowImpl implements TableRow {
         appendable.append("/>");
     }
 
-    private boolean hasNoValue(final TableCell cell) {
-        return cell == null || !cell.hasValue();
+    /**
+     * @param c    the index of a stored cell with a value
+     * @param size the used size
+     * @return the number of consecutive identical cells, starting at c
+     */
+    private int countRepeatedCells(final int c, final int size) {
+        int end = c + 1;
+        while (end < size && this.cells.getCustomCell(end) == null &&
+                this.cells.isRepetition(c, end)) {
+            end++;
+        }
+        if (end > c + 1 && this.libreOfficeMode && this.cells.getStyle(c) == null) {
+            // the default style is written, and depends on the column
+            final TableCellStyle defaultStyle = this.findDefaultCellStyle(c);
+            int sameDefault = c + 1;
+            while (sameDefault < end && this.findDefaultCellStyle(sameDefault) == defaultStyle) {
+                sameDefault++;
+            }
+            end = sameDefault;
+        }
+        return end - c;
+    }
+
+    private void appendStoredCell(final XMLUtil util, final Appendable appendable,
+                                  final int c, final int columnsRepeated) throws IOException {
+        final TableCellStyle defaultStyle;
+        if (this.libreOfficeMode && this.cells.getStyle(c) == null) {
+            // looks for a parent style to set
+            defaultStyle = this.findDefaultCellStyle(c);
+        } else {
+            defaultStyle = null;
+        }
+        this.cells.appendXMLToTableRow(util, appendable, c, this.cache, defaultStyle,
+                columnsRepeated);
+    }
+
+    /**
+     * Reset this row to an empty row with the default style, in order to reuse it.
+     */
+    void clear() {
+        this.cells.clear();
+        this.rowStyle = TableRowStyle.DEFAULT_TABLE_ROW_STYLE;
+        this.defaultCellStyle = null;
+        this.customValueByAttribute = null;
+    }
+
+    /**
+     * Two identical consecutive rows may be written as one row with a
+     * table:number-rows-repeated attribute.
+     *
+     * @param other the previous row
+     * @return true if this row has the same styles and the same cells as the other row, and
+     * no merged, annotated or custom cell.
+     */
+    public boolean isRepetitionOf(final TableRowImpl other) {
+        return this.parentTable == other.parentTable && this.rowStyle == other.rowStyle &&
+                this.defaultCellStyle == other.defaultCellStyle &&
+                this.customValueByAttribute == null && other.customValueByAttribute == null &&
+                this.cells.isRepetitionOf(other.cells);
     }
 
     /**
@@ -263,18 +409,19 @@ public class TableRowImpl implements TableRow {
     /**
      * Get the cell at given index. If the cell was not created before, then it is created by
      * this method. This may update the value of `getCurRowSize`.
+     * The returned cell is a new view on the row's cell store.
      *
      * @param colIndex the index of the cell in the row
      * @return a cell
      */
     public TableCell getOrCreateCell(final int colIndex) {
-        WritableTableCell cell = this.cells.get(colIndex);
-        if (cell == null) {
-            cell = new TableCellImpl(this.cache, this.xmlUtil, this.stylesContainer,
-                    this.dataStyles, this.libreOfficeMode, this, colIndex);
-            this.cells.set(colIndex, cell);
+        final WritableTableCell customCell = this.cells.getCustomCell(colIndex);
+        if (customCell != null) {
+            return customCell;
         }
-        return cell;
+        return new TableCellImpl(this.cache, this.xmlUtil, this.stylesContainer,
+                this.dataStyles, this.libreOfficeMode, this, colIndex, this.cells, colIndex,
+                this.childCellStyleMemo);
     }
 
     /**
@@ -284,7 +431,7 @@ public class TableRowImpl implements TableRow {
      * @param cell     the cell
      */
     public void set(final int colIndex, final WritableTableCell cell) {
-        this.cells.set(colIndex, cell);
+        this.cells.setCustomCell(colIndex, cell);
     }
 
     @Override
@@ -304,13 +451,23 @@ public class TableRowImpl implements TableRow {
         return this.cells.usedSize();
     }
 
+    /**
+     * @return the estimated number of bytes retained by this row and its cells
+     */
+    public long getEstimatedRetainedBytes() {
+        return this.cells.getEstimatedBytes();
+    }
+
     /**
      * @param colIndex the index to look for
      * @return true if the cell at the colIndex is covered by a span
      */
     public boolean isCovered(final int colIndex) {
-        final TableCell cell = this.cells.get(colIndex);
-        return cell != null && cell.isCovered();
+        final WritableTableCell customCell = this.cells.getCustomCell(colIndex);
+        if (customCell == null) {
+            return this.cells.isCovered(colIndex);
+        }
+        return customCell.isCovered();
     }
 
     /**
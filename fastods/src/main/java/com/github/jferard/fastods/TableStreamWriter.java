@@ -0,0 +1,318 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.style.TableRowStyle;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * An append-only writer for the rows of a table of a named document. The rows are not stored in
+ * the table model: each row is written as XML when it ends, and the XML is given to the file
+ * writer by blocks.
+ * <p>
+ * The values are set on two rows that are reused, hence no object is created for a cell. The
+ * styles are registered as usual: if the styles are frozen, the styles must have been
+ * registered before.
+ * <p>
+ * The rows of the model that were created before the stream writer are flushed when the stream
+ * writer is created (e.g. header rows). After that, the rows of the table can't be accessed.
+ * The pending rows are flushed when the table ends.
+ *
+ * @author J. Férard
+ */
+public class TableStreamWriter {
+    private static final int BLOCK_SIZE = 32 * 1024;
+    private static final int DEFAULT_COLUMN_CAPACITY = 32;
+
+    private final NamedOdsFileWriter observer;
+    private final TableAppender appender;
+    private final XMLUtil xmlUtil;
+    private TableRowImpl row;
+    private TableRowImpl previousRow;
+    private TableCell[] cells;
+    private TableCell[] previousCells;
+    private int rowsRepeated;
+    private int columnIndex;
+    private boolean inRow;
+    private StringBuilder block;
+
+    /**
+     * @param observer    the file writer
+     * @param appender    the appender of the table
+     * @param xmlUtil     an util
+     * @param row         an empty row of the table, that will be reused
+     * @param previousRow another empty row of the table, that will be reused
+     */
+    TableStreamWriter(final NamedOdsFileWriter observer, final TableAppender appender,
+                      final XMLUtil xmlUtil, final TableRowImpl row,
+                      final TableRowImpl previousRow) {
+        this.observer = observer;
+        this.appender = appender;
+        this.xmlUtil = xmlUtil;
+        this.row = row;
+        this.previousRow = previousRow;
+        this.cells = new TableCell[DEFAULT_COLUMN_CAPACITY];
+        this.previousCells = new TableCell[DEFAULT_COLUMN_CAPACITY];
+        this.rowsRepeated = 0;
+        this.columnIndex = 0;
+        this.inRow = false;
+        this.block = new StringBuilder(BLOCK_SIZE);
+    }
+
+    /**
+     * Begin a new row with the default row style
+     */
+    public void beginRow() {
+        this.checkNotInRow();
+        this.inRow = true;
+        this.columnIndex = 0;
+    }
+
+    /**
+     * Begin a new row
+     *
+     * @param style the style of the row
+     */
+    public void beginRow(final TableRowStyle style) {
+        this.beginRow();
+        this.row.setRowStyle(style);
+    }
+
+    /**
+     * Write a float value in the next cell
+     *
+     * @param value the value
+     */
+    public void writeDouble(final double value) {
+        this.nextCell().setFloatValue(value);
+    }
+
+    /**
+     * Write a float value in the next cell
+     *
+     * @param value the value
+     * @param style the style of the cell
+     */
+    public void writeDouble(final double value, final TableCellStyle style) {
+        final TableCell cell = this.nextCell();
+        cell.setFloatValue(value);
+        cell.setStyle(style);
+    }
+
+    /**
+     * Write a string value in the next cell
+     *
+     * @param value the value
+     */
+    public void writeString(final String value) {
+        this.nextCell().setStringValue(value);
+    }
+
+    /**
+     * Write a string value in the next cell
+     *
+     * @param value the value
+     * @param style the style of the cell
+     */
+    public void writeString(final String value, final TableCellStyle style) {
+        final TableCell cell = this.nextCell();
+        cell.setStringValue(value);
+        cell.setStyle(style);
+    }
+
+    /**
+     * Write a date value in the next cell
+     *
+     * @param value the value
+     */
+    public void writeDate(final Date value) {
+        this.nextCell().setDateValue(value);
+    }
+
+    /**
+     * Write a date value in the next cell
+     *
+     * @param value the value
+     * @param style the style of the cell
+     */
+    public void writeDate(final Date value, final TableCellStyle style) {
+        final TableCell cell = this.nextCell();
+        cell.setDateValue(value);
+        cell.setStyle(style);
+    }
+
+    /**
+     * Leave some cells empty
+     *
+     * @param n the number of cells
+     * @throws IllegalArgumentException if n &lt; 0
+     */
+    public void skip(final int n) {
+        this.checkInRow();
+        if (n < 0) {
+            throw new IllegalArgumentException("Can't skip a negative number of cells");
+        }
+        this.columnIndex += n;
+    }
+
+    /**
+     * End the current row. The row is written if it is not a repetition of the previous row.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void endRow() throws IOException {
+        this.checkInRow();
+        this.inRow = false;
+        if (this.rowsRepeated > 0 && this.row.isRepetitionOf(this.previousRow)) {
+            this.rowsRepeated++;
+        } else {
+            this.appendPreviousRow();
+            this.swapRows();
+            this.rowsRepeated = 1;
+        }
+        this.row.clear();
+    }
+
+    /**
+     * Give the written rows to the file writer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        if (this.inRow) {
+            this.endRow();
+        }
+        this.appendPreviousRow();
+        this.flushBlock();
+    }
+
+    /**
+     * Leave some rows empty
+     *
+     * @param n the number of rows
+     * @throws IllegalArgumentException if n &lt; 0
+     * @throws IOException              if an I/O error occurs
+     */
+    public void skipRows(final int n) throws IOException {
+        this.checkNotInRow();
+        if (n < 0) {
+            throw new IllegalArgumentException("Can't skip a negative number of rows");
+        }
+        if (n == 0) {
+            return;
+        }
+        this.appendPreviousRow();
+        this.row.appendXMLToTable(this.xmlUtil, this.block, n); // the row is empty here
+        if (this.block.length() >= BLOCK_SIZE) {
+            this.flushBlock();
+        }
+    }
+
+    private TableCell nextCell() {
+        this.checkInRow();
+        final int c = this.columnIndex;
+        if (c >= this.cells.length) {
+            final int capacity = Math.max(this.cells.length * 2, c + 1);
+            this.cells = Arrays.copyOf(this.cells, capacity);
+            this.previousCells = Arrays.copyOf(this.previousCells, capacity);
+        }
+        TableCell cell = this.cells[c];
+        if (cell == null) {
+            cell = this.row.getOrCreateCell(c);
+            this.cells[c] = cell;
+        }
+        this.columnIndex++;
+        return cell;
+    }
+
+    private void swapRows() {
+        final TableRowImpl tempRow = this.row;
+        this.row = this.previousRow;
+        this.previousRow = tempRow;
+        final TableCell[] tempCells = this.cells;
+        this.cells = this.previousCells;
+        this.previousCells = tempCells;
+    }
+
+    private void appendPreviousRow() throws IOException {
+        if (this.rowsRepeated == 0) {
+            return;
+        }
+        this.previousRow.appendXMLToTable(this.xmlUtil, this.block, this.rowsRepeated);
+        this.rowsRepeated = 0;
+        if (this.block.length() >= BLOCK_SIZE) {
+            this.flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (this.block.length() == 0) {
+            return;
+        }
+        this.handOff(this.block);
+        this.block = new StringBuilder(BLOCK_SIZE);
+    }
+
+    /**
+     * Give a block of rows to the file writer.
+     *
+     * @param rows the XML of the rows
+     * @throws IOException if an I/O error occurs
+     */
+    void handOff(final CharSequence rows) throws IOException {
+        this.observer.update(new StreamedRowsFlusher(this.appender, rows));
+    }
+
+    /**
+     * @return the XMLUtil of this writer
+     */
+    XMLUtil getXMLUtil() {
+        return this.xmlUtil;
+    }
+
+    /**
+     * @return true if a row was begun and not ended
+     */
+    boolean isInRow() {
+        return this.inRow;
+    }
+
+    private void checkInRow() {
+        if (!this.inRow) {
+            throw new IllegalStateException("No row was begun");
+        }
+    }
+
+    private void checkNotInRow() {
+        if (this.inRow) {
+            throw new IllegalStateException("The previous row was not ended");
+        }
+    }
+}
@@ -32,7 +32,8 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Like style container.
+ * Like style container. The methods are synchronized, because the tables of a document may be
+ * filled concurrently.
  */
 public class ValidationsContainer {
     private final Map<String, Validation> validationByName;
@@ -49,14 +50,14 @@ public class ValidationsContainer {
      *
      * @param validation the validation to add
      */
-    public void addValidation(final Validation validation) {
+    public synchronized void addValidation(final Validation validation) {
         this.validationByName.put(validation.getName(), validation);
     }
 
     /**
      * @return the validations of this table
      */
-    public Collection<Validation> getValidations() {
+    public synchronized Collection<Validation> getValidations() {
         return this.validationByName.values();
     }
 }
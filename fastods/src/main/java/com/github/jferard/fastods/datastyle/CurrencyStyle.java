@@ -99,8 +99,9 @@ public class CurrencyStyle implements DataStyle {
             throws IOException {
         appendable.append("<number:currency-symbol");
         // this.appendLocaleAttributes(util, appendable);
-        appendable.append(">").append(util.escapeXMLContent(this.currencySymbol))
-                .append("</number:currency-symbol>");
+        appendable.append(">");
+        util.appendEContent(appendable, this.currencySymbol);
+        appendable.append("</number:currency-symbol>");
     }
 
     @Override
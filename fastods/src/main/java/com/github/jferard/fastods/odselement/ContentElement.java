@@ -24,6 +24,7 @@
 
 package com.github.jferard.fastods.odselement;
 
+import com.github.jferard.fastods.RowsRenderer;
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.ValidationsContainer;
 import com.github.jferard.fastods.attribute.CellType;
@@ -32,13 +33,18 @@ import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.ref.PositionUtil;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.util.AutoFilter;
+import com.github.jferard.fastods.util.FileSpool;
+import com.github.jferard.fastods.util.HeapBudget;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
 import com.github.jferard.fastods.util.PilotTable;
 import com.github.jferard.fastods.util.UniqueList;
 import com.github.jferard.fastods.util.Validation;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -81,6 +87,12 @@ public class ContentElement implements OdsElement {
     private final Map<String, String> additionalNamespaceByPrefix;
     private List<AutoFilter> autoFilters;
     private List<PilotTable> pilotTables;
+    private RowsRenderer rowsRenderer;
+    private HeapBudget spillBudget;
+    private File spillDirectory;
+    private WriterMetrics writerMetrics;
+    private long tableMemoryBudget;
+    private XMLUtilFactory xmlUtilFactory;
 
     /**
      * @param positionUtil                an util object for positions (e.g. "A1")
@@ -141,7 +153,11 @@ public class ContentElement implements OdsElement {
         if (table == null) {
             table = Table.create(this, this.positionUtil, this.cache, this.xmlUtil, name,
                     rowCapacity, columnCapacity, this.stylesContainer, this.format,
-                    this.libreOfficeMode, this.validationsContainer);
+                    this.libreOfficeMode, this.validationsContainer, this.rowsRenderer);
+            this.setXMLUtilFactoryIfNeeded(table);
+            this.setSpoolIfNeeded(table);
+            this.setWriterMetricsIfNeeded(table);
+            this.setMemoryBudgetIfNeeded(table);
             this.tables.add(table);
         }
         return table;
@@ -169,10 +185,83 @@ public class ContentElement implements OdsElement {
      * @return the newly created table
      */
     public Table createTable(final String name, final int rowCapacity, final int columnCapacity) {
-        return Table
+        final Table table = Table
                 .create(this, this.positionUtil, this.cache, this.xmlUtil, name, rowCapacity,
                         columnCapacity, this.stylesContainer, this.format, this.libreOfficeMode,
-                        this.validationsContainer);
+                        this.validationsContainer, this.rowsRenderer);
+        this.setXMLUtilFactoryIfNeeded(table);
+        this.setSpoolIfNeeded(table);
+        this.setWriterMetricsIfNeeded(table);
+        this.setMemoryBudgetIfNeeded(table);
+        return table;
+    }
+
+    private void setXMLUtilFactoryIfNeeded(final Table table) {
+        if (this.xmlUtilFactory != null) {
+            table.setXMLUtilFactory(this.xmlUtilFactory);
+        }
+    }
+
+    private void setSpoolIfNeeded(final Table table) {
+        if (this.spillBudget != null) {
+            table.setSpool(FileSpool.create(this.spillBudget, this.spillDirectory));
+            table.setHeapBudget(this.spillBudget);
+        }
+    }
+
+    private void setWriterMetricsIfNeeded(final Table table) {
+        if (this.writerMetrics != null) {
+            table.setWriterMetrics(this.writerMetrics);
+        }
+    }
+
+    private void setMemoryBudgetIfNeeded(final Table table) {
+        if (this.tableMemoryBudget > 0) {
+            table.setMemoryBudget(this.tableMemoryBudget);
+        }
+    }
+
+    /**
+     * @param rowsRenderer the renderer for the rows of the new tables, or null to render the
+     *                     rows on the current thread
+     */
+    public void setRowsRenderer(final RowsRenderer rowsRenderer) {
+        this.rowsRenderer = rowsRenderer;
+    }
+
+    /**
+     * Spool the rows of the new tables, and spill the spools to temp files when the budget is
+     * exceeded. For anonymous documents only.
+     *
+     * @param spillBudget    the budget shared by the spools, or null to keep the rows in the model
+     * @param spillDirectory the directory of the temp files, or null for the default temp dir
+     */
+    public void setSpillBudget(final HeapBudget spillBudget, final File spillDirectory) {
+        this.spillBudget = spillBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * @param writerMetrics the listener for the metrics of the new tables, or null
+     */
+    public void setWriterMetrics(final WriterMetrics writerMetrics) {
+        this.writerMetrics = writerMetrics;
+    }
+
+    /**
+     * @param tableMemoryBudget the max number of bytes retained by the rows of each new table,
+     *                          or 0 to flush the rows by blocks of fixed size only
+     */
+    public void setTableMemoryBudget(final long tableMemoryBudget) {
+        this.tableMemoryBudget = tableMemoryBudget;
+    }
+
+    /**
+     * @param xmlUtilFactory the factory of the XMLUtils of the threads that write the rows of
+     *                       the new tables, or null for the default escaper settings
+     */
+    public void setXMLUtilFactory(final XMLUtilFactory xmlUtilFactory) {
+        this.xmlUtilFactory = xmlUtilFactory;
     }
 
     /**
@@ -28,6 +28,7 @@ import com.github.jferard.fastods.FinalizeFlusher;
 import com.github.jferard.fastods.ImmutableElementsFlusher;
 import com.github.jferard.fastods.NamedOdsFileWriter;
 import com.github.jferard.fastods.PrepareContentFlusher;
+import com.github.jferard.fastods.RowsRenderer;
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.attribute.CellType;
 import com.github.jferard.fastods.datastyle.DataStyle;
@@ -44,11 +45,15 @@ import com.github.jferard.fastods.style.PageStyle;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.util.AutoFilter;
 import com.github.jferard.fastods.util.Container;
+import com.github.jferard.fastods.util.HeapBudget;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
 import com.github.jferard.fastods.util.PilotTable;
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -158,6 +163,8 @@ public class OdsElements implements StylesContainer {
     private final StylesElement stylesElement;
     private final Set<OdsElement> extraElements;
     private NamedOdsFileWriter observer;
+    private WriterMetrics writerMetrics;
+    private XMLUtilFactory xmlUtilFactory;
 
     /**
      * Create a new instance from elements
@@ -364,6 +371,56 @@ public class OdsElements implements StylesContainer {
         return add;
     }
 
+    /**
+     * Render the blocks of rows of the new tables on a pool.
+     *
+     * @param rowsRenderer the renderer, or null to render the rows on the current thread
+     */
+    public void setRowsRenderer(final RowsRenderer rowsRenderer) {
+        this.contentElement.setRowsRenderer(rowsRenderer);
+    }
+
+    /**
+     * Spool the rows of the new tables, and spill the spools to temp files when the budget is
+     * exceeded.
+     *
+     * @param spillBudget    the budget shared by the spools, or null to keep the rows in the model
+     * @param spillDirectory the directory of the temp files, or null for the default temp dir
+     */
+    public void setSpillBudget(final HeapBudget spillBudget, final File spillDirectory) {
+        this.contentElement.setSpillBudget(spillBudget, spillDirectory);
+    }
+
+    /**
+     * Flush (or spool) the rows of the new tables when their estimated size exceeds a budget.
+     *
+     * @param tableMemoryBudget the max number of bytes retained by the rows of a table, or 0
+     *                          to flush the rows by blocks of fixed size only
+     */
+    public void setTableMemoryBudget(final long tableMemoryBudget) {
+        this.contentElement.setTableMemoryBudget(tableMemoryBudget);
+    }
+
+    /**
+     * Report the metrics of the new tables and, once the document is written, the counters of
+     * the caches of the escapers of the XMLUtil factory.
+     *
+     * @param writerMetrics the listener, or null to disable the metrics
+     */
+    public void setWriterMetrics(final WriterMetrics writerMetrics) {
+        this.writerMetrics = writerMetrics;
+        this.contentElement.setWriterMetrics(writerMetrics);
+    }
+
+    /**
+     * @param xmlUtilFactory the factory of the XMLUtils of the threads that write the rows of
+     *                       the new tables, or null for the default escaper settings
+     */
+    public void setXMLUtilFactory(final XMLUtilFactory xmlUtilFactory) {
+        this.xmlUtilFactory = xmlUtilFactory;
+        this.contentElement.setXMLUtilFactory(xmlUtilFactory);
+    }
+
     public Table createTable(final String name, final int rowCapacity, final int columnCapacity) {
         return this.contentElement.createTable(name, rowCapacity, columnCapacity);
     }
@@ -606,6 +663,11 @@ public class OdsElements implements StylesContainer {
             this.logger.log(Level.FINEST, "Writing ods element: {0} to zip file", element);
             element.write(xmlUtil, writer);
         }
+        if (this.writerMetrics != null && this.xmlUtilFactory != null) {
+            // the extra elements are the last ones of the document
+            this.writerMetrics.escaperCacheStats(this.xmlUtilFactory.getHitCount(),
+                    this.xmlUtilFactory.getMissCount());
+        }
     }
 
     /**
@@ -49,6 +49,12 @@ import java.util.logging.Logger;
 
 /**
  * content.xml/office:document-content
+ * <p>
+ * The public methods are synchronized: the tables of a document may be filled concurrently (see
+ * {@link com.github.jferard.fastods.Table#setSpool(com.github.jferard.fastods.util.Spool)}), as
+ * the partitions of a table (see
+ * {@link com.github.jferard.fastods.Table#reservePartition(int)}), and those tables and
+ * partitions register their styles here.
  *
  * @author Julien Férard
  * @author Martin Schulz
@@ -89,7 +95,8 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public TableCellStyle addChildCellStyle(final TableCellStyle style, final DataStyle dataStyle) {
+    public synchronized TableCellStyle addChildCellStyle(final TableCellStyle style,
+                                                         final DataStyle dataStyle) {
         final ChildCellStyleKey childKey = new ChildCellStyleKey(style, dataStyle);
         TableCellStyle anonymousStyle = this.anonymousStyleByChildCellStyle.get(childKey);
         if (anonymousStyle == null) {
@@ -121,7 +128,8 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public boolean addContentFontFaceContainerStyle(final FontFaceContainerStyle ffcStyle) {
+    public synchronized boolean addContentFontFaceContainerStyle(
+            final FontFaceContainerStyle ffcStyle) {
         final FontFace fontFace = ffcStyle.getFontFace();
         if (fontFace != null) {
             this.fontFaces.add(fontFace);
@@ -130,7 +138,8 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public boolean addStylesFontFaceContainerStyle(final FontFaceContainerStyle ffcStyle) {
+    public synchronized boolean addStylesFontFaceContainerStyle(
+            final FontFaceContainerStyle ffcStyle) {
         final FontFace fontFace = ffcStyle.getFontFace();
         if (fontFace != null) {
             this.fontFaces.add(fontFace);
@@ -139,7 +148,7 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public boolean addDataStyle(final DataStyle dataStyle) {
+    public synchronized boolean addDataStyle(final DataStyle dataStyle) {
         if (dataStyle.isHidden()) {
             return this.dataStylesContainer
                     .add(dataStyle.getName(), Dest.CONTENT_AUTOMATIC_STYLES, dataStyle);
@@ -150,12 +159,12 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public void setDataStylesMode(final Mode mode) {
+    public synchronized void setDataStylesMode(final Mode mode) {
         this.dataStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addMasterPageStyle(final MasterPageStyle masterPageStyle) {
+    public synchronized boolean addMasterPageStyle(final MasterPageStyle masterPageStyle) {
         if (this.masterPageStylesContainer.add(masterPageStyle.getName(), masterPageStyle)) {
             masterPageStyle.addEmbeddedStyles(this);
             return true;
@@ -165,12 +174,12 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public void setMasterPageStyleMode(final Mode mode) {
+    public synchronized void setMasterPageStyleMode(final Mode mode) {
         this.masterPageStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addNewDataStyleFromCellStyle(final TableCellStyle style) {
+    public synchronized boolean addNewDataStyleFromCellStyle(final TableCellStyle style) {
         final DataStyle dataStyle = style.getDataStyle();
         if (dataStyle == null) {
             return false;
@@ -180,35 +189,35 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public void setPageLayoutStyleMode(final Mode mode) {
+    public synchronized void setPageLayoutStyleMode(final Mode mode) {
         this.pageLayoutStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addPageLayoutStyle(final PageLayoutStyle pageLayoutStyle) {
+    public synchronized boolean addPageLayoutStyle(final PageLayoutStyle pageLayoutStyle) {
         return this.pageLayoutStylesContainer.add(pageLayoutStyle.getName(), pageLayoutStyle);
     }
 
     @Override
-    public void setPageStyleMode(final Mode mode) {
+    public synchronized void setPageStyleMode(final Mode mode) {
         this.setMasterPageStyleMode(mode);
         this.setPageLayoutStyleMode(mode);
     }
 
     @Override
-    public boolean addPageStyle(final PageStyle ps) {
+    public synchronized boolean addPageStyle(final PageStyle ps) {
         boolean ret = this.addMasterPageStyle(ps.getMasterPageStyle());
         ret = this.addPageLayoutStyle(ps.getPageLayoutStyle()) && ret;
         return ret;
     }
 
     @Override
-    public void setObjectStyleMode(final Mode mode) {
+    public synchronized void setObjectStyleMode(final Mode mode) {
         this.objectStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addContentStyle(final ObjectStyle objectStyle) {
+    public synchronized boolean addContentStyle(final ObjectStyle objectStyle) {
         if (objectStyle.isHidden()) {
             return this.objectStylesContainer
                     .add(objectStyle.getKey(), Dest.CONTENT_AUTOMATIC_STYLES, objectStyle);
@@ -219,7 +228,7 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public boolean addStylesStyle(final ObjectStyle objectStyle) {
+    public synchronized boolean addStylesStyle(final ObjectStyle objectStyle) {
         if (objectStyle.isHidden()) {
             return this.objectStylesContainer
                     .add(objectStyle.getKey(), Dest.STYLES_AUTOMATIC_STYLES, objectStyle);
@@ -232,7 +241,7 @@ public class StylesContainerImpl implements StylesContainer {
     /**
      * Enable debug mode
      */
-    public void debug() {
+    public synchronized void debug() {
         this.objectStylesContainer.debug();
         this.dataStylesContainer.debug();
         this.masterPageStylesContainer.debug();
@@ -242,7 +251,7 @@ public class StylesContainerImpl implements StylesContainer {
     /**
      * Freeze the container: no more add is allowed
      */
-    public void freeze() {
+    public synchronized void freeze() {
         this.objectStylesContainer.freeze();
         this.dataStylesContainer.freeze();
         this.masterPageStylesContainer.freeze();
@@ -252,7 +261,7 @@ public class StylesContainerImpl implements StylesContainer {
     /**
      * @return a "double boolean"
      */
-    public HasFooterHeader hasFooterHeader() {
+    public synchronized HasFooterHeader hasFooterHeader() {
         boolean hasHeader = false;
         boolean hasFooter = false;
 
@@ -280,7 +289,8 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if the styles can't be written
      */
-    public void writeContentAutomaticStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeContentAutomaticStyles(final XMLUtil util,
+                                                         final Appendable appendable)
             throws IOException {
         final Iterable<ObjectStyle> styles =
                 this.objectStylesContainer.getValues(Dest.CONTENT_AUTOMATIC_STYLES);
@@ -298,7 +308,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if the styles can't be written
      */
-    public void writeHiddenDataStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeHiddenDataStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         for (final DataStyle dataStyle : this.dataStylesContainer
                 .getValues(Dest.CONTENT_AUTOMATIC_STYLES)) {
@@ -315,7 +325,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writePageLayoutStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writePageLayoutStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         for (final PageLayoutStyle ps : this.pageLayoutStylesContainer.getValues()) {
             assert ps.isHidden();
@@ -331,7 +341,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeMasterPageStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeMasterPageStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         for (final MasterPageStyle ps : this.masterPageStylesContainer.getValues()) {
             ps.appendXMLToMasterStyle(util, appendable);
@@ -345,7 +355,8 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeStylesAutomaticStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeStylesAutomaticStyles(final XMLUtil util,
+                                                        final Appendable appendable)
             throws IOException {
         final Iterable<ObjectStyle> styles =
                 this.objectStylesContainer.getValues(Dest.STYLES_AUTOMATIC_STYLES);
@@ -363,7 +374,8 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeStylesCommonStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeStylesCommonStyles(final XMLUtil util,
+                                                     final Appendable appendable)
             throws IOException {
         final Iterable<ObjectStyle> styles =
                 this.objectStylesContainer.getValues(Dest.STYLES_COMMON_STYLES);
@@ -382,7 +394,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeVisibleDataStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeVisibleDataStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         final Iterable<DataStyle> dataStyles =
                 this.dataStylesContainer.getValues(Dest.STYLES_COMMON_STYLES);
@@ -399,7 +411,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable where to write
      * @throws IOException if the font face declarations were not written
      */
-    public void writeFontFaceDecls(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeFontFaceDecls(final XMLUtil util, final Appendable appendable)
             throws IOException {
         appendable.append("<office:font-face-decls>");
         for (final FontFace fontFace : this.fontFaces) {
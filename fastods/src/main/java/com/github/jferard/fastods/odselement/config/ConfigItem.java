@@ -63,7 +63,7 @@ public class ConfigItem implements ConfigBlock {
         util.appendEAttribute(appendable, "config:name", this.name);
         util.appendEAttribute(appendable, "config:type", this.type);
         appendable.append(">");
-        appendable.append(util.escapeXMLContent(this.value));
+        util.appendEContent(appendable, this.value);
         appendable.append("</config:config-item>");
     }
 
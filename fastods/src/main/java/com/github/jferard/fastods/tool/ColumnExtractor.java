@@ -0,0 +1,315 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.CellValue;
+import com.github.jferard.fastods.FastOdsException;
+import com.github.jferard.fastods.TableCellWalker;
+import com.github.jferard.fastods.ToCellValueConverter;
+import com.github.jferard.fastods.attribute.CellType;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Date;
+
+/**
+ * Writes the value of a result set column to the current cell of a walker. The extractor is
+ * chosen once per column, from the SQL type: standard types are read with a primitive getter and
+ * written straight to the cell, without any {@code CellValue} wrapper.
+ *
+ * @author J. Férard
+ */
+abstract class ColumnExtractor {
+    /**
+     * @param sqlType   the SQL type of the column (see {@link Types})
+     * @param cellType  a hint for the cell type, or null
+     * @param converter the converter for the other types
+     * @param nullValue the value for SQL NULLs
+     * @return the extractor for this column
+     */
+    static ColumnExtractor create(final int sqlType, final CellType cellType,
+                                  final ToCellValueConverter converter,
+                                  final CellValue nullValue) {
+        if (cellType != null) {
+            return new ObjectExtractor(nullValue, converter, cellType);
+        }
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return new IntExtractor(nullValue);
+            case Types.BIGINT:
+                return new LongExtractor(nullValue);
+            case Types.REAL:
+                return new FloatExtractor(nullValue);
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new DoubleExtractor(nullValue);
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return new BigDecimalExtractor(nullValue);
+            case Types.BOOLEAN:
+                return new BooleanExtractor(nullValue);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringExtractor(nullValue);
+            case Types.DATE:
+                return new DateExtractor(nullValue);
+            case Types.TIME:
+                return new TimeExtractor(nullValue);
+            case Types.TIMESTAMP:
+                return new TimestampExtractor(nullValue);
+            default: // BIT, LOBs, intervals, ...
+                return new ObjectExtractor(nullValue, converter, null);
+        }
+    }
+
+    private final CellValue nullValue;
+
+    /**
+     * @param nullValue the value for SQL NULLs
+     */
+    ColumnExtractor(final CellValue nullValue) {
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * Write the value to the current cell, the walker does not move.
+     *
+     * @param rs          the result set
+     * @param columnIndex the index of the column (starting at 1)
+     * @param walker      the walker
+     * @throws SQLException     if a database access error occurs
+     * @throws FastOdsException if the value can't be converted
+     */
+    abstract void extract(ResultSet rs, int columnIndex, TableCellWalker walker)
+            throws SQLException, FastOdsException;
+
+    /**
+     * @param walker the walker
+     */
+    void setNullValue(final TableCellWalker walker) {
+        walker.setCellValue(this.nullValue);
+    }
+
+    private static class IntExtractor extends ColumnExtractor {
+        IntExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final int value = rs.getInt(columnIndex);
+            if (rs.wasNull()) {
+                this.setNullValue(walker);
+            } else {
+                walker.setFloatValue(value);
+            }
+        }
+    }
+
+    private static class LongExtractor extends ColumnExtractor {
+        LongExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final long value = rs.getLong(columnIndex);
+            if (rs.wasNull()) {
+                this.setNullValue(walker);
+            } else {
+                walker.setFloatValue(value);
+            }
+        }
+    }
+
+    private static class FloatExtractor extends ColumnExtractor {
+        FloatExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final float value = rs.getFloat(columnIndex);
+            if (rs.wasNull()) {
+                this.setNullValue(walker);
+            } else {
+                walker.setFloatValue(value);
+            }
+        }
+    }
+
+    private static class DoubleExtractor extends ColumnExtractor {
+        DoubleExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final double value = rs.getDouble(columnIndex);
+            if (rs.wasNull()) {
+                this.setNullValue(walker);
+            } else {
+                walker.setFloatValue(value);
+            }
+        }
+    }
+
+    /**
+     * A double would lose the scale and the precision of the decimal.
+     */
+    private static class BigDecimalExtractor extends ColumnExtractor {
+        BigDecimalExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final BigDecimal value = rs.getBigDecimal(columnIndex);
+            if (value == null) {
+                this.setNullValue(walker);
+            } else {
+                walker.setFloatValue(value);
+            }
+        }
+    }
+
+    private static class BooleanExtractor extends ColumnExtractor {
+        BooleanExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final boolean value = rs.getBoolean(columnIndex);
+            if (rs.wasNull()) {
+                this.setNullValue(walker);
+            } else {
+                walker.setBooleanValue(value);
+            }
+        }
+    }
+
+    private static class StringExtractor extends ColumnExtractor {
+        StringExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final String value = rs.getString(columnIndex);
+            if (value == null) {
+                this.setNullValue(walker);
+            } else {
+                walker.setStringValue(value);
+            }
+        }
+    }
+
+    private static class DateExtractor extends ColumnExtractor {
+        DateExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            this.setDateValue(walker, rs.getDate(columnIndex));
+        }
+
+        void setDateValue(final TableCellWalker walker, final Date value) {
+            if (value == null) {
+                this.setNullValue(walker);
+            } else {
+                walker.setDateValue(value);
+            }
+        }
+    }
+
+    private static class TimeExtractor extends DateExtractor {
+        TimeExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            this.setDateValue(walker, rs.getTime(columnIndex));
+        }
+    }
+
+    private static class TimestampExtractor extends DateExtractor {
+        TimestampExtractor(final CellValue nullValue) {
+            super(nullValue);
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            this.setDateValue(walker, rs.getTimestamp(columnIndex));
+        }
+    }
+
+    /**
+     * The fallback: {@code getObject} and a converter.
+     */
+    private static class ObjectExtractor extends ColumnExtractor {
+        private final ToCellValueConverter converter;
+        private final CellType cellType;
+
+        ObjectExtractor(final CellValue nullValue, final ToCellValueConverter converter,
+                        final CellType cellType) {
+            super(nullValue);
+            this.converter = converter;
+            this.cellType = cellType;
+        }
+
+        @Override
+        void extract(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException, FastOdsException {
+            final Object object = rs.getObject(columnIndex);
+            if (object == null) {
+                this.setNullValue(walker);
+            } else if (this.cellType == null) {
+                walker.setCellValue(this.converter.from(object));
+            } else {
+                walker.setCellValue(this.converter.from(this.cellType, object));
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.CellValue;
+import com.github.jferard.fastods.OdsDocument;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableCellWalker;
+import com.github.jferard.fastods.ToCellValueConverter;
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A tool to export databases. The tables are fetched in parallel, each on its own connection,
+ * and the sheets are written in metadata order by the exporting thread. The rows of a table are
+ * buffered until the exporting thread writes the table: the number of buffered rows of all the
+ * tables is capped (see RowPermits).
+ * <p>
+ * Usage:
+ * <pre><code>
+ *     ConcurrentDatabaseExporter.builder(dataSource).threads(4).fetchSize(1000).build()
+ *             .exportDatabase(document);
+ * </code></pre>
+ *
+ * @author J. Férard
+ */
+public class ConcurrentDatabaseExporter {
+    private static final int BLOCK_SIZE = 256;
+
+    /**
+     * @param dataSource the data source, should be a pool of connections
+     * @return a builder
+     */
+    public static ConcurrentDatabaseExporterBuilder builder(final DataSource dataSource) {
+        return new ConcurrentDatabaseExporterBuilder(dataSource);
+    }
+
+    private final DataSource dataSource;
+    private final int threads;
+    private final int fetchSize;
+    private final int maxRowsInFlight;
+    private final DatabaseExportProgress progress;
+    private final ToCellValueConverter converter;
+    private final TableCellStyle headerStyle;
+    private final boolean autoFilter;
+    private final CellValue nullValue;
+
+    /**
+     * @param dataSource      the data source
+     * @param threads         the number of tables fetched in parallel
+     * @param fetchSize       the fetch size hint, 0 to ignore
+     * @param maxRowsInFlight the max number of rows buffered
+     * @param progress        the progress listener, or null
+     * @param converter       a converter SQL to OpenDocument
+     * @param headerStyle     a style for header, null if none
+     * @param autoFilter      set an auto filter if true
+     * @param nullValue       the default value for NULL
+     */
+    public ConcurrentDatabaseExporter(final DataSource dataSource, final int threads,
+                                      final int fetchSize, final int maxRowsInFlight,
+                                      final DatabaseExportProgress progress,
+                                      final ToCellValueConverter converter,
+                                      final TableCellStyle headerStyle, final boolean autoFilter,
+                                      final CellValue nullValue) {
+        this.dataSource = dataSource;
+        this.threads = threads;
+        this.fetchSize = fetchSize;
+        this.maxRowsInFlight = maxRowsInFlight;
+        this.progress = progress;
+        this.converter = converter;
+        this.headerStyle = headerStyle;
+        this.autoFilter = autoFilter;
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * Create a sheet per table, and write the data.
+     *
+     * @param document the document
+     * @throws SQLException if there is a SQL exception
+     * @throws IOException  if there is an I/O exception
+     */
+    public void exportDatabase(final OdsDocument document) throws SQLException, IOException {
+        final List<String> tableNames;
+        final Connection connection = this.dataSource.getConnection();
+        try {
+            tableNames = DatabaseExporter.getTableNames(connection);
+        } finally {
+            connection.close();
+        }
+        if (this.progress != null) {
+            this.progress.tablesListed(tableNames);
+        }
+
+        final int blockSize = Math.min(BLOCK_SIZE, this.maxRowsInFlight);
+        final RowPermits permits = new RowPermits(this.maxRowsInFlight);
+        final ExecutorService executor = this.createExecutor();
+        try {
+            final List<TableRowsFetcher> fetchers =
+                    new ArrayList<TableRowsFetcher>(tableNames.size());
+            for (final String tableName : tableNames) {
+                final TableRowsFetcher fetcher =
+                        new TableRowsFetcher(this.dataSource, tableName, this.fetchSize,
+                                blockSize, permits, this.progress);
+                fetchers.add(fetcher);
+                executor.execute(fetcher); // tasks are started in metadata order
+            }
+            for (final TableRowsFetcher fetcher : fetchers) {
+                this.writeTable(document, fetcher);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+            private int count = 0;
+
+            @Override
+            public synchronized Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "fastods-export-" + this.count++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private void writeTable(final OdsDocument document, final TableRowsFetcher fetcher)
+            throws SQLException, IOException {
+        final String tableName = fetcher.getTableName();
+        final List<String> columnLabels = fetcher.takeColumnLabels();
+        final int columnCount = columnLabels.size();
+        final Table table = document.addTable(tableName);
+        final TableCellWalker walker = table.getWalker();
+        final int r1 = walker.rowIndex();
+        final int c1 = walker.colIndex();
+        for (final String label : columnLabels) {
+            walker.setStringValue(label);
+            if (this.headerStyle != null) {
+                walker.setStyle(this.headerStyle);
+            }
+            walker.next();
+        }
+
+        int rowCount = 0;
+        List<Object[]> block = fetcher.takeBlock();
+        while (block != null) {
+            for (final Object[] row : block) {
+                walker.nextRow();
+                walker.to(c1);
+                for (final Object object : row) {
+                    if (object == null) {
+                        walker.setCellValue(this.nullValue);
+                    } else {
+                        walker.setCellValue(this.converter.from(object));
+                    }
+                    walker.next();
+                }
+            }
+            rowCount += block.size();
+            fetcher.release(block);
+            block = fetcher.takeBlock();
+        }
+        if (rowCount == 0) { // no data row
+            walker.nextRow();
+            walker.to(c1);
+            for (int j = 0; j < columnCount; j++) {
+                walker.setStringValue("");
+                walker.next();
+            }
+        }
+        if (this.autoFilter) {
+            table.addAutoFilter(tableName, r1, c1, walker.rowIndex(), c1 + columnCount - 1);
+        }
+        walker.nextRow();
+        if (this.progress != null) {
+            this.progress.tableWritten(tableName, rowCount);
+        }
+    }
+}
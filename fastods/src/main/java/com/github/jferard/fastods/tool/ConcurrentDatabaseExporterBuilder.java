@@ -0,0 +1,218 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.CellValue;
+import com.github.jferard.fastods.StringValue;
+import com.github.jferard.fastods.TimeValue;
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import javax.sql.DataSource;
+import java.nio.charset.Charset;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * A builder for a ConcurrentDatabaseExporter
+ *
+ * @author J. Férard
+ */
+public class ConcurrentDatabaseExporterBuilder {
+    private final DataSource dataSource;
+    private int threads;
+    private int fetchSize;
+    private int maxRowsInFlight;
+    private DatabaseExportProgress progress;
+    private SQLToCellValueConverter.IntervalConverter converter;
+    private String currency;
+    private Charset charset;
+    private TableCellStyle headerStyle;
+    private boolean autoFilter;
+    private CellValue nullValue;
+
+    /**
+     * @param dataSource the data source
+     */
+    public ConcurrentDatabaseExporterBuilder(final DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.fetchSize = 0;
+        this.maxRowsInFlight = 64 * 1024;
+        this.progress = null;
+        this.currency = NumberFormat.getCurrencyInstance(Locale.US).getCurrency().getSymbol();
+        this.charset = Charset.forName("US-ASCII");
+        this.headerStyle = ResultSetDataWrapperBuilder.HEADER_STYLE;
+        this.autoFilter = true;
+        this.nullValue = new StringValue("<NULL>");
+        this.converter = new SQLToCellValueConverter.IntervalConverter() {
+            @Override
+            public TimeValue castToInterval(final Object o) {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Set the number of tables fetched in parallel. Each one uses a connection.
+     *
+     * @param threads the number of threads
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder threads(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be > 0");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Set the fetch size hint of the statements
+     *
+     * @param fetchSize the number of rows, 0 to ignore
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder fetchSize(final int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size must be >= 0");
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Set the max number of rows buffered by the fetchers of all the tables, to bound memory.
+     * The fetchers are blocked when the cap is reached, except the fetcher of the table being
+     * written, that may buffer one block.
+     *
+     * @param maxRowsInFlight the max number of rows
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder maxRowsInFlight(final int maxRowsInFlight) {
+        if (maxRowsInFlight <= 0) {
+            throw new IllegalArgumentException("Max rows in flight must be > 0");
+        }
+        this.maxRowsInFlight = maxRowsInFlight;
+        return this;
+    }
+
+    /**
+     * Set a progress listener
+     *
+     * @param progress the listener
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder progress(final DatabaseExportProgress progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    /**
+     * Set a header style
+     *
+     * @param headerStyle the cell style for the header
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder headerStyle(final TableCellStyle headerStyle) {
+        this.headerStyle = headerStyle;
+        return this;
+    }
+
+    /**
+     * Remove the default header style
+     *
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder noHeaderStyle() {
+        this.headerStyle = null;
+        return this;
+    }
+
+    /**
+     * Remove the auto filter
+     *
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder noAutoFilter() {
+        this.autoFilter = false;
+        return this;
+    }
+
+    /**
+     * Set a value for SQL NULLs.
+     *
+     * @param nullValue the null value
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder nullValue(final CellValue nullValue) {
+        this.nullValue = nullValue;
+        return this;
+    }
+
+    /**
+     * Set the currency
+     *
+     * @param currency the currency
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder currency(final String currency) {
+        this.currency = currency;
+        return this;
+    }
+
+    /**
+     * Set the charset for byte values
+     *
+     * @param charset the charset
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder charset(final Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    /**
+     * JDBC misses some way to handle intervals. If the tables contain intervals, one must
+     * provide a custom converter.
+     *
+     * @param converter the converter for Interval
+     * @return this for fluent style
+     */
+    public ConcurrentDatabaseExporterBuilder converter(
+            final SQLToCellValueConverter.IntervalConverter converter) {
+        this.converter = converter;
+        return this;
+    }
+
+    /**
+     * @return the exporter
+     */
+    public ConcurrentDatabaseExporter build() {
+        final SQLToCellValueConverter sqlToCellValueConverter =
+                SQLToCellValueConverter.create(this.converter, this.currency, this.charset);
+        return new ConcurrentDatabaseExporter(this.dataSource, this.threads, this.fetchSize,
+                this.maxRowsInFlight, this.progress, sqlToCellValueConverter, this.headerStyle,
+                this.autoFilter, this.nullValue);
+    }
+}
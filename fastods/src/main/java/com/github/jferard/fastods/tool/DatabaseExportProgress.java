@@ -0,0 +1,57 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import java.util.List;
+
+/**
+ * A listener for the progress of a {@link ConcurrentDatabaseExporter}. The methods may be called
+ * by different threads.
+ *
+ * @author J. Férard
+ */
+public interface DatabaseExportProgress {
+    /**
+     * Called by the exporting thread, before the fetch
+     *
+     * @param tableNames the names of the tables, in metadata order
+     */
+    void tablesListed(List<String> tableNames);
+
+    /**
+     * Called by a fetcher thread when the rows of a table are fetched
+     *
+     * @param tableName the name of the table
+     * @param rowCount  the number of rows
+     */
+    void tableFetched(String tableName, int rowCount);
+
+    /**
+     * Called by the exporting thread when the rows of a table are written to the document
+     *
+     * @param tableName the name of the table
+     * @param rowCount  the number of rows
+     */
+    void tableWritten(String tableName, int rowCount);
+}
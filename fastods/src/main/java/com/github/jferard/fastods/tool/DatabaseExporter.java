@@ -43,7 +43,8 @@ import java.util.Locale;
 import java.util.logging.Logger;
 
 /**
- * A tool to export databases.
+ * A tool to export databases. See {@link ConcurrentDatabaseExporter} to fetch the tables in
+ * parallel.
  */
 public class DatabaseExporter {
     /** Do not instantiate */
@@ -105,13 +106,7 @@ public class DatabaseExporter {
 
     public static void exportDatabase(final Connection conn, final OdsDocument document)
             throws SQLException, IOException {
-        final DatabaseMetaData metaData = conn.getMetaData();
-        final ResultSet rs = metaData.getTables(null, "", null, null);
-        final List<String> tableNames = new ArrayList<String>();
-        while (rs.next()) {
-            tableNames.add(rs.getString(3));
-        }
-
+        final List<String> tableNames = DatabaseExporter.getTableNames(conn);
         final Statement statement = conn.createStatement();
         for (final String tableName : tableNames) {
             final ResultSet tableRs = statement
@@ -122,4 +117,19 @@ public class DatabaseExporter {
             table.getWalker().addData(wrapper);
         }
     }
+
+    /**
+     * @param conn the connection
+     * @return the names of the tables, in metadata order
+     * @throws SQLException if there is a SQL exception
+     */
+    static List<String> getTableNames(final Connection conn) throws SQLException {
+        final DatabaseMetaData metaData = conn.getMetaData();
+        final ResultSet rs = metaData.getTables(null, "", null, null);
+        final List<String> tableNames = new ArrayList<String>();
+        while (rs.next()) {
+            tableNames.add(rs.getString(3));
+        }
+        return tableNames;
+    }
 }
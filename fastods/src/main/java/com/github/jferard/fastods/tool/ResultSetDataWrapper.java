@@ -43,7 +43,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * A wrapper for a result set.
+ * A wrapper for a result set. The values of the standard SQL types are read with the primitive
+ * getters of the result set and written directly to the cells.
  *
  * @author Julien Férard
  */
@@ -76,6 +77,7 @@ public final class ResultSetDataWrapper implements DataWrapper {
     private final ResultSet resultSet;
     private final Map<Integer, CellType> cellTypeByColIndex;
     private final CellValue nullValue;
+    private final int fetchSize;
 
 
     /**
@@ -94,6 +96,28 @@ public final class ResultSetDataWrapper implements DataWrapper {
                                 final TableCellStyle headCellStyle, final boolean autoFilter,
                                 final Map<Integer, CellType> cellTypeByColIndex,
                                 final CellValue nullValue, final int max) {
+        this(logger, converter, rangeName, rs, headCellStyle, autoFilter, cellTypeByColIndex,
+                nullValue, max, 0);
+    }
+
+    /**
+     * @param logger             a logger
+     * @param converter          a converter SQL to OpenDocument
+     * @param rangeName          the name of the range
+     * @param rs                 the result cell
+     * @param headCellStyle      a style for header, null if none
+     * @param autoFilter         set an auto filter if true
+     * @param cellTypeByColIndex a hint for cell types
+     * @param nullValue          the default value for NULL
+     * @param max                the maximum number of rows, -1 for unlimited
+     * @param fetchSize          a hint for the number of rows fetched from the database, 0 to
+     *                           keep the driver default
+     */
+    public ResultSetDataWrapper(final Logger logger, final ToCellValueConverter converter,
+                                final String rangeName, final ResultSet rs,
+                                final TableCellStyle headCellStyle, final boolean autoFilter,
+                                final Map<Integer, CellType> cellTypeByColIndex,
+                                final CellValue nullValue, final int max, final int fetchSize) {
         this.logger = logger;
         this.converter = converter;
         this.rangeName = rangeName;
@@ -103,6 +127,7 @@ public final class ResultSetDataWrapper implements DataWrapper {
         this.cellTypeByColIndex = cellTypeByColIndex;
         this.nullValue = nullValue;
         this.max = max;
+        this.fetchSize = fetchSize;
     }
 
     @Override
@@ -117,12 +142,16 @@ public final class ResultSetDataWrapper implements DataWrapper {
                 final int columnCount = metadata.getColumnCount();
 
                 this.writeFirstLineDataTo(walker, metadata);
+                final ColumnExtractor[] extractors = this.getExtractors(metadata);
+                if (this.fetchSize > 0) {
+                    this.resultSet.setFetchSize(this.fetchSize);
+                }
                 if (this.resultSet.next()) {
                     do {
                         if (this.max == -1 || ++rowCount <= this.max) {
                             walker.nextRow();
                             walker.to(c1);
-                            this.writeDataLineTo(walker, columnCount);
+                            this.writeDataLineTo(walker, extractors);
                         }
                     } while (this.resultSet.next());
                 }
@@ -171,15 +200,21 @@ public final class ResultSetDataWrapper implements DataWrapper {
     }
 
     /**
-     * @return the values of the current column
+     * @param metadata the result set metadata
+     * @return one extractor per column
      * @throws SQLException if a database access error occurs
      */
-    private List<Object> getColumnValues(final int columnCount) throws SQLException {
-        final List<Object> values = new ArrayList<Object>(columnCount);
-        for (int i = 0; i < columnCount; i++) {
-            values.add(this.resultSet.getObject(i + 1));
+    private ColumnExtractor[] getExtractors(final ResultSetMetaData metadata)
+            throws SQLException {
+        final int columnCount = metadata.getColumnCount();
+        final ColumnExtractor[] extractors = new ColumnExtractor[columnCount];
+        for (int j = 0; j < columnCount; j++) {
+            final CellType cellType =
+                    this.cellTypeByColIndex == null ? null : this.cellTypeByColIndex.get(j);
+            extractors[j] = ColumnExtractor.create(metadata.getColumnType(j + 1), cellType,
+                    this.converter, this.nullValue);
         }
-        return values;
+        return extractors;
     }
 
     private void writeFirstLineDataTo(final TableCellWalker walker,
@@ -196,23 +231,11 @@ public final class ResultSetDataWrapper implements DataWrapper {
         }
     }
 
-    private void writeDataLineTo(final TableCellWalker walker, final int columnCount)
+    private void writeDataLineTo(final TableCellWalker walker,
+                                 final ColumnExtractor[] extractors)
             throws SQLException, FastOdsException {
-        final List<Object> columnValues = this.getColumnValues(columnCount);
-        for (int j = 0; j <= columnCount - 1; j++) {
-            final Object object = columnValues.get(j);
-            if (object == null) {
-                walker.setCellValue(this.nullValue);
-            } else if (this.cellTypeByColIndex != null) {
-                final CellType cellType = this.cellTypeByColIndex.get(j);
-                if (cellType != null) {
-                    walker.setCellValue(this.converter.from(cellType, object));
-                } else {
-                    walker.setCellValue(this.converter.from(object));
-                }
-            } else {
-                walker.setCellValue(this.converter.from(object));
-            }
+        for (int j = 0; j < extractors.length; j++) {
+            extractors[j].extract(this.resultSet, j + 1, walker);
             walker.next();
         }
     }
@@ -45,7 +45,7 @@ import java.util.logging.Logger;
  * @author J. Férard
  */
 public class ResultSetDataWrapperBuilder {
-    private static final TableCellStyle HEADER_STYLE =
+    static final TableCellStyle HEADER_STYLE =
             TableCellStyle.builder("rs-data-wrapper").backgroundColor(SimpleColor.GRAY64)
                     .fontWeightBold().build();
 
@@ -60,6 +60,7 @@ public class ResultSetDataWrapperBuilder {
     private boolean autoFilter;
     private int max;
     private CellValue nullValue;
+    private int fetchSize;
 
 
     /**
@@ -73,6 +74,7 @@ public class ResultSetDataWrapperBuilder {
         this.headerStyle = HEADER_STYLE;
         this.autoFilter = true;
         this.max = -1;
+        this.fetchSize = 0;
         this.cellTypeByIndex = new HashMap<Integer, CellType>();
         this.currency = NumberFormat.getCurrencyInstance(Locale.US).getCurrency().getSymbol();
         this.charset = Charset.forName("US-ASCII");
@@ -128,6 +130,20 @@ public class ResultSetDataWrapperBuilder {
         return this;
     }
 
+    /**
+     * Set the fetch size hint of the result set
+     *
+     * @param fetchSize the number of rows, 0 to ignore
+     * @return this for fluent style
+     */
+    public ResultSetDataWrapperBuilder fetchSize(final int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size must be >= 0");
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
     /**
      * Remove the auto filter
      *
@@ -206,6 +222,6 @@ public class ResultSetDataWrapperBuilder {
                 this.cellTypeByIndex.isEmpty() ? null : this.cellTypeByIndex;
         return new ResultSetDataWrapper(this.logger, sqlToCellValueConverter, this.rangeName,
                 this.rs, this.headerStyle, this.autoFilter, cellTypeByIndexOrNull, this.nullValue,
-                this.max);
+                this.max, this.fetchSize);
     }
 }
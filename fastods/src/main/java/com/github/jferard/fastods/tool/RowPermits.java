@@ -0,0 +1,114 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The permits of the rows buffered by the fetchers of a ConcurrentDatabaseExporter. A fetcher
+ * takes permits before it queues a block of rows, and the exporting thread gives them back once
+ * the block is written. The cap is global: the small tables can't buffer all their rows while
+ * the exporting thread writes a large table.
+ * <p>
+ * The fetcher of the table being written may exceed the cap if it has no row in flight: it
+ * would otherwise wait for the permits held by the rows of the next tables, that are written
+ * after it. Hence, there are at most maxRows + one block of rows in flight.
+ *
+ * @author J. Férard
+ */
+class RowPermits {
+    private final int maxRows;
+    private final Map<TableRowsFetcher, Integer> rowsByFetcher;
+    private int rowsInFlight;
+    private TableRowsFetcher currentFetcher;
+
+    /**
+     * @param maxRows the max number of rows in flight
+     */
+    RowPermits(final int maxRows) {
+        this.maxRows = maxRows;
+        this.rowsByFetcher = new IdentityHashMap<TableRowsFetcher, Integer>();
+        this.rowsInFlight = 0;
+        this.currentFetcher = null;
+    }
+
+    /**
+     * Wait for the permits of a block.
+     *
+     * @param fetcher the fetcher
+     * @param rows    the number of rows of the block
+     * @throws InterruptedException if the fetcher is interrupted
+     */
+    public synchronized void acquire(final TableRowsFetcher fetcher, final int rows)
+            throws InterruptedException {
+        while (this.rowsInFlight + rows > this.maxRows &&
+                (fetcher != this.currentFetcher || this.rowsOf(fetcher) > 0)) {
+            this.wait();
+        }
+        this.rowsInFlight += rows;
+        this.rowsByFetcher.put(fetcher, this.rowsOf(fetcher) + rows);
+    }
+
+    /**
+     * Give back the permits of a block that was written.
+     *
+     * @param fetcher the fetcher
+     * @param rows    the number of rows of the block
+     */
+    public synchronized void release(final TableRowsFetcher fetcher, final int rows) {
+        this.rowsInFlight -= rows;
+        final int fetcherRows = this.rowsOf(fetcher) - rows;
+        if (fetcherRows == 0) {
+            this.rowsByFetcher.remove(fetcher);
+        } else {
+            this.rowsByFetcher.put(fetcher, fetcherRows);
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * @param fetcher the fetcher of the table being written
+     */
+    public synchronized void setCurrentFetcher(final TableRowsFetcher fetcher) {
+        this.currentFetcher = fetcher;
+        this.notifyAll();
+    }
+
+    /**
+     * @return the number of rows in flight
+     */
+    public synchronized int getRowsInFlight() {
+        return this.rowsInFlight;
+    }
+
+    private int rowsOf(final TableRowsFetcher fetcher) {
+        final Integer rows = this.rowsByFetcher.get(fetcher);
+        if (rows == null) {
+            return 0;
+        }
+        return rows;
+    }
+}
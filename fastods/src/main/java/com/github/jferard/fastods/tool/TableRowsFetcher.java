@@ -0,0 +1,212 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A task that fetches the rows of a table on its own connection, and buffers the rows in a
+ * queue. The number of buffered rows is bounded by the permits shared by the fetchers of the
+ * export. The rows are taken by the exporting thread, that gives the permits back once the rows
+ * are written.
+ *
+ * @author J. Férard
+ */
+class TableRowsFetcher implements Runnable {
+    /**
+     * The end of the rows
+     */
+    private static final List<Object[]> END = new ArrayList<Object[]>(0);
+
+    private final DataSource dataSource;
+    private final String tableName;
+    private final int fetchSize;
+    private final int blockSize;
+    private final RowPermits permits;
+    private final DatabaseExportProgress progress;
+    private final BlockingQueue<List<Object[]>> blocks;
+    private List<String> columnLabels;
+    private Throwable exception;
+
+    /**
+     * @param dataSource the data source
+     * @param tableName  the name of the table
+     * @param fetchSize  the fetch size hint, 0 to ignore
+     * @param blockSize  the number of rows in a block
+     * @param permits    the permits shared by the fetchers
+     * @param progress   the progress listener, or null
+     */
+    TableRowsFetcher(final DataSource dataSource, final String tableName, final int fetchSize,
+                     final int blockSize, final RowPermits permits,
+                     final DatabaseExportProgress progress) {
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.fetchSize = fetchSize;
+        this.blockSize = blockSize;
+        this.permits = permits;
+        this.progress = progress;
+        this.blocks = new LinkedBlockingQueue<List<Object[]>>();
+    }
+
+    @Override
+    public void run() {
+        try {
+            this.fetch();
+        } catch (final InterruptedException e) {
+            // the export was cancelled
+            Thread.currentThread().interrupt();
+            this.exception = e;
+        } catch (final Throwable t) {
+            // the exporting thread would wait forever for END
+            this.exception = t;
+        }
+        this.blocks.add(END);
+    }
+
+    private void fetch() throws SQLException, InterruptedException {
+        final Connection connection = this.dataSource.getConnection();
+        try {
+            final Statement statement = connection.createStatement();
+            try {
+                if (this.fetchSize > 0) {
+                    statement.setFetchSize(this.fetchSize);
+                }
+                final ResultSet rs = statement.executeQuery("SELECT * FROM " + this.tableName);
+                try {
+                    this.fetch(rs);
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void fetch(final ResultSet rs) throws SQLException, InterruptedException {
+        final ResultSetMetaData metaData = rs.getMetaData();
+        final int columnCount = metaData.getColumnCount();
+        final List<String> labels = new ArrayList<String>(columnCount);
+        for (int j = 0; j < columnCount; j++) {
+            labels.add(metaData.getColumnLabel(j + 1));
+        }
+        this.columnLabels = labels;
+        this.blocks.add(new ArrayList<Object[]>(0)); // publish the labels
+
+        int rowCount = 0;
+        List<Object[]> block = new ArrayList<Object[]>(this.blockSize);
+        while (rs.next()) {
+            final Object[] row = new Object[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                row[j] = rs.getObject(j + 1);
+            }
+            block.add(row);
+            rowCount++;
+            if (block.size() == this.blockSize) {
+                this.putBlock(block);
+                block = new ArrayList<Object[]>(this.blockSize);
+            }
+        }
+        if (!block.isEmpty()) {
+            this.putBlock(block);
+        }
+        if (this.progress != null) {
+            this.progress.tableFetched(this.tableName, rowCount);
+        }
+    }
+
+    private void putBlock(final List<Object[]> block) throws InterruptedException {
+        this.permits.acquire(this, block.size());
+        this.blocks.add(block);
+    }
+
+    /**
+     * @return the name of the table
+     */
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    /**
+     * Wait for the labels of the columns. Must be called once, before the rows are taken: the
+     * table becomes the table being written.
+     *
+     * @return the labels of the columns
+     * @throws IOException  if the exporting thread is interrupted
+     * @throws SQLException if the rows can't be fetched
+     */
+    public List<String> takeColumnLabels() throws IOException, SQLException {
+        this.permits.setCurrentFetcher(this);
+        this.takeBlock();
+        return this.columnLabels;
+    }
+
+    /**
+     * Wait for a block of rows.
+     *
+     * @return the next block of rows, or null if there is no more row
+     * @throws IOException  if the exporting thread is interrupted
+     * @throws SQLException if the rows can't be fetched
+     */
+    public List<Object[]> takeBlock() throws IOException, SQLException {
+        final List<Object[]> block;
+        try {
+            block = this.blocks.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        if (block == END) {
+            if (this.exception instanceof SQLException) {
+                throw (SQLException) this.exception;
+            } else if (this.exception != null) {
+                throw new IOException("Can't fetch the rows of " + this.tableName,
+                        this.exception);
+            }
+            return null;
+        }
+        return block;
+    }
+
+    /**
+     * Give back the permits of a block, once it is written.
+     *
+     * @param block the block
+     */
+    public void release(final List<Object[]> block) {
+        this.permits.release(this, block.size());
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded single-producer/single-consumer ring buffer. No lock is used: the producer owns the
+ * tail index, the consumer owns the head index, and the indices are published through volatile
+ * fields.
+ * <p>
+ * {@link #put(Object)} and {@link #awaitNotEmpty()} spin for a while, then park until the other
+ * side signals. The non blocking methods of the Queue interface are available, but at most one
+ * thread may add elements and at most one thread may remove elements at the same time.
+ *
+ * @param <E> the type of the elements
+ * @author J. Férard
+ */
+public class BoundedHandoffQueue<E> extends AbstractQueue<E> {
+    /**
+     * The number of busy spins before yielding
+     */
+    private static final int SPIN_TRIES = 64;
+
+    /**
+     * The number of yields before parking
+     */
+    private static final int YIELD_TRIES = 16;
+
+    /**
+     * Create a new queue
+     *
+     * @param capacity the min capacity, will be rounded to the next power of two
+     * @param <F>      the type of the elements
+     * @return the queue
+     */
+    public static <F> BoundedHandoffQueue<F> create(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be > 0");
+        }
+        final int powerOfTwo = Integer.highestOneBit(capacity);
+        final int roundedCapacity = powerOfTwo == capacity ? capacity : powerOfTwo << 1;
+        return new BoundedHandoffQueue<F>(roundedCapacity);
+    }
+
+    private final Object[] buffer;
+    private final int mask;
+    private volatile long head;
+    private volatile long tail;
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param capacity the capacity, a power of two
+     */
+    BoundedHandoffQueue(final int capacity) {
+        this.buffer = new Object[capacity];
+        this.mask = capacity - 1;
+        this.head = 0;
+        this.tail = 0;
+    }
+
+    /**
+     * @return the capacity of the queue
+     */
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    @Override
+    public boolean offer(final E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        final long t = this.tail;
+        if (t - this.head >= this.buffer.length) {
+            return false;
+        }
+        this.buffer[(int) t & this.mask] = e;
+        this.tail = t + 1; // publish
+        final Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Add an element, waiting for a free slot if the queue is full.
+     *
+     * @param e the element
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public void put(final E e) throws InterruptedException {
+        int tries = 0;
+        while (!this.offer(e)) {
+            if (tries < SPIN_TRIES) {
+                tries++;
+            } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                tries++;
+                Thread.yield();
+            } else {
+                this.waitingProducer = Thread.currentThread();
+                if (this.isFull()) { // check again, the consumer may have missed the producer
+                    LockSupport.park(this);
+                }
+                this.waitingProducer = null;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final long h = this.head;
+        if (h >= this.tail) {
+            return null;
+        }
+        final int index = (int) h & this.mask;
+        final E e = (E) this.buffer[index];
+        this.buffer[index] = null;
+        this.head = h + 1; // publish
+        final Thread producer = this.waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        return e;
+    }
+
+    /**
+     * Wait until the queue is not empty.
+     *
+     * @throws InterruptedException if the consumer is interrupted while waiting
+     */
+    public void awaitNotEmpty() throws InterruptedException {
+        int tries = 0;
+        while (this.isEmpty()) {
+            if (tries < SPIN_TRIES) {
+                tries++;
+            } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                tries++;
+                Thread.yield();
+            } else {
+                this.waitingConsumer = Thread.currentThread();
+                if (this.isEmpty()) { // check again, the producer may have missed the consumer
+                    LockSupport.park(this);
+                }
+                this.waitingConsumer = null;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        final long h = this.head;
+        if (h >= this.tail) {
+            return null;
+        }
+        return (E) this.buffer[(int) h & this.mask];
+    }
+
+    @Override
+    public int size() {
+        final long h = this.head;
+        return (int) (this.tail - h);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.head >= this.tail;
+    }
+
+    /**
+     * @return true if there is no free slot
+     */
+    public boolean isFull() {
+        return this.tail - this.head >= this.buffer.length;
+    }
+
+    /**
+     * A weakly consistent iterator: it should only be used when the queue is not modified.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final long start = this.head;
+        final long end = this.tail;
+        return new Iterator<E>() {
+            private long i = start;
+
+            @Override
+            public boolean hasNext() {
+                return this.i < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (this.i >= end) {
+                    throw new NoSuchElementException();
+                }
+                final BoundedHandoffQueue<E> queue = BoundedHandoffQueue.this;
+                final E e = (E) queue.buffer[(int) this.i & queue.mask];
+                this.i++;
+                return e;
+            }
+        };
+    }
+}
@@ -24,8 +24,7 @@
 
 package com.github.jferard.fastods.util;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * The FastOdsXMLEscaper class is an utility class to escape XML special chars.
@@ -34,8 +33,25 @@ import java.util.Map;
  */
 public class FastOdsXMLEscaper implements XMLEscaper {
     private static final int BUFFER_SIZE = 65536;
+    /**
+     * The default max number of entries of each cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 8192;
+    /**
+     * The max length of a value to escape that is looked up in the caches: the short values are
+     * likely to be repeated (codes, labels...).
+     */
+    public static final int CACHED_VALUE_MAX_LENGTH = 64;
     private static final char[][] CHAR_SUBSTITUTES_IN_ATTRIBUTE;
     private static final char[][] CHAR_SUBSTITUTES_IN_CONTENT;
+    private static final String[] STRING_SUBSTITUTES_IN_ATTRIBUTE;
+    private static final String[] STRING_SUBSTITUTES_IN_CONTENT;
+
+    /**
+     * All the special chars are below 64: bit c is set if char c has a substitute.
+     */
+    private static final long SPECIAL_CHARS_IN_ATTRIBUTE_MASK;
+    private static final long SPECIAL_CHARS_IN_CONTENT_MASK;
 
     /**
      * @return an xml escaper with the default buffer size (65536 bytes)
@@ -44,6 +60,15 @@ public class FastOdsXMLEscaper implements XMLEscaper {
         return new FastOdsXMLEscaper(FastOdsXMLEscaper.BUFFER_SIZE);
     }
 
+    /**
+     * @param cacheSize the max number of entries of each cache (attributes and contents), 0 to
+     *                  disable the caches.
+     * @return an xml escaper with the default buffer size (65536 bytes)
+     */
+    public static FastOdsXMLEscaper create(final int cacheSize) {
+        return new FastOdsXMLEscaper(FastOdsXMLEscaper.BUFFER_SIZE, cacheSize);
+    }
+
     static {
         final char[] REPLACEMENT_CHAR = "\\uFFFD".toCharArray();
         CHAR_SUBSTITUTES_IN_ATTRIBUTE =
@@ -71,10 +96,71 @@ public class FastOdsXMLEscaper implements XMLEscaper {
                         "&amp;".toCharArray(), null, null, null, null, null, null, null, null, null,
                         null, null, null, null, null, null, null, null, null, null, null, null,
                         "&lt;".toCharArray(), null, "&gt;".toCharArray()};
+        STRING_SUBSTITUTES_IN_ATTRIBUTE = toStrings(CHAR_SUBSTITUTES_IN_ATTRIBUTE);
+        STRING_SUBSTITUTES_IN_CONTENT = toStrings(CHAR_SUBSTITUTES_IN_CONTENT);
+        SPECIAL_CHARS_IN_ATTRIBUTE_MASK = toMask(CHAR_SUBSTITUTES_IN_ATTRIBUTE);
+        SPECIAL_CHARS_IN_CONTENT_MASK = toMask(CHAR_SUBSTITUTES_IN_CONTENT);
     }
 
-    private final Map<String, String> attrCacheMap;
-    private final Map<String, String> contentCacheMap;
+    private static String[] toStrings(final char[][] charSubstitutes) {
+        final String[] stringSubstitutes = new String[charSubstitutes.length];
+        for (int i = 0; i < charSubstitutes.length; i++) {
+            if (charSubstitutes[i] != null) {
+                stringSubstitutes[i] = new String(charSubstitutes[i]);
+            }
+        }
+        return stringSubstitutes;
+    }
+
+    private static long toMask(final char[][] charSubstitutes) {
+        long mask = 0;
+        for (int i = 0; i < charSubstitutes.length; i++) {
+            if (charSubstitutes[i] != null) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask the mask of special chars
+     * @param c    the char
+     * @return 1 if c is special, 0 otherwise. No branch: (c - 64) &gt;&gt; 31 is -1 if c &lt; 64,
+     * 0 otherwise.
+     */
+    private static int special(final long mask, final char c) {
+        return (int) (mask >>> c) & ((c - 64) >> 31) & 1;
+    }
+
+    /**
+     * @param s    the string
+     * @param mask the mask of special chars
+     * @return the index of the first special char, or the length of s
+     */
+    private static int indexOfSpecialChar(final String s, final long mask) {
+        final int length = s.length();
+        int i = 0;
+        // four chars at a time: a single test for "needs no escaping"
+        final int fourCharsEnd = length - 3;
+        while (i < fourCharsEnd) {
+            if ((special(mask, s.charAt(i)) | special(mask, s.charAt(i + 1)) |
+                    special(mask, s.charAt(i + 2)) | special(mask, s.charAt(i + 3))) != 0) {
+                break;
+            }
+            i += 4;
+        }
+        while (i < length) {
+            if (special(mask, s.charAt(i)) != 0) {
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private final StringCache attrCache;
+    private final StringCache contentCache;
+    private final int bufferSize;
     private char[] buffer;
 
     /**
@@ -83,24 +169,60 @@ public class FastOdsXMLEscaper implements XMLEscaper {
      * @param bufferSize the buffer size
      */
     public FastOdsXMLEscaper(final int bufferSize) {
-        this.attrCacheMap = new HashMap<String, String>();
-        this.contentCacheMap = new HashMap<String, String>();
+        this(bufferSize, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates an xml escaper with a specified buffer size and cache size
+     *
+     * @param bufferSize the buffer size
+     * @param cacheSize  the max number of entries of each cache, 0 to disable the caches.
+     */
+    public FastOdsXMLEscaper(final int bufferSize, final int cacheSize) {
+        this.attrCache = StringCache.create(cacheSize);
+        this.contentCache = StringCache.create(cacheSize);
+        this.bufferSize = bufferSize;
         this.buffer = new char[bufferSize];
     }
 
+    /**
+     * The escaper is not thread safe: each thread needs its own escaper.
+     *
+     * @return a new escaper with the same buffer size and cache size as this one
+     */
+    public FastOdsXMLEscaper newEscaper() {
+        return new FastOdsXMLEscaper(this.bufferSize, this.attrCache.getMaxSize());
+    }
+
+    /**
+     * @return the cache for escaped attributes, e.g. to read the counters
+     */
+    public StringCache getAttributeCache() {
+        return this.attrCache;
+    }
+
+    /**
+     * @return the cache for escaped contents, e.g. to read the counters
+     */
+    public StringCache getContentCache() {
+        return this.contentCache;
+    }
+
     @Override
     public String escapeXMLAttribute(final String s) {
         if (s == null) {
             return null;
+        } else if (!this.attrCache.isEnabled()) {
+            return this.getEscapedString(s, CHAR_SUBSTITUTES_IN_ATTRIBUTE);
         }
 
-        final String cached = this.attrCacheMap.get(s);
+        final String cached = this.attrCache.get(s);
         if (cached != null) {
             return cached;
         }
 
         final String escaped = this.getEscapedString(s, CHAR_SUBSTITUTES_IN_ATTRIBUTE);
-        this.attrCacheMap.put(s, escaped);
+        this.attrCache.put(s, escaped);
         return escaped;
     }
 
@@ -179,19 +301,79 @@ public class FastOdsXMLEscaper implements XMLEscaper {
         return new String(this.buffer, 0, previousDestIndex);
     }
 
+    @Override
+    public void appendEscapedXMLAttribute(final Appendable appendable, final String s)
+            throws IOException {
+        this.appendEscapedString(appendable, s, SPECIAL_CHARS_IN_ATTRIBUTE_MASK,
+                STRING_SUBSTITUTES_IN_ATTRIBUTE, this.attrCache, CHAR_SUBSTITUTES_IN_ATTRIBUTE);
+    }
+
+    @Override
+    public void appendEscapedXMLContent(final Appendable appendable, final String s)
+            throws IOException {
+        this.appendEscapedString(appendable, s, SPECIAL_CHARS_IN_CONTENT_MASK,
+                STRING_SUBSTITUTES_IN_CONTENT, this.contentCache, CHAR_SUBSTITUTES_IN_CONTENT);
+    }
+
+    /**
+     * Append the runs of regular chars and the substitutes of the special chars. A short value
+     * that needs escaping is escaped once and then taken from the cache, if the cache is enabled.
+     */
+    private void appendEscapedString(final Appendable appendable, final String s,
+                                     final long mask, final String[] substitutes,
+                                     final StringCache cache, final char[][] charSubstitutes)
+            throws IOException {
+        if (s == null) {
+            appendable.append((CharSequence) null);
+            return;
+        }
+        final int length = s.length();
+        int i = indexOfSpecialChar(s, mask);
+        if (i == length) { // the most frequent case
+            appendable.append(s);
+            return;
+        }
+        if (length <= CACHED_VALUE_MAX_LENGTH && cache.isEnabled()) {
+            String escaped = cache.get(s);
+            if (escaped == null) {
+                escaped = this.getEscapedString(s, charSubstitutes);
+                cache.put(s, escaped);
+            }
+            appendable.append(escaped);
+            return;
+        }
+        int runStart = 0;
+        while (i < length) {
+            final char c = s.charAt(i);
+            if (special(mask, c) != 0) {
+                if (runStart < i) {
+                    appendable.append(s, runStart, i);
+                }
+                appendable.append(substitutes[c]);
+                runStart = i + 1;
+            }
+            i++;
+        }
+        if (runStart < length) {
+            appendable.append(s, runStart, length);
+        }
+    }
+
     @Override
     public String escapeXMLContent(final String s) {
         if (s == null) {
             return null;
+        } else if (!this.contentCache.isEnabled()) {
+            return this.getEscapedString(s, CHAR_SUBSTITUTES_IN_CONTENT);
         }
 
-        final String cached = this.contentCacheMap.get(s);
+        final String cached = this.contentCache.get(s);
         if (cached != null) {
             return cached;
         }
 
         final String escaped = this.getEscapedString(s, CHAR_SUBSTITUTES_IN_CONTENT);
-        this.contentCacheMap.put(s, escaped);
+        this.contentCache.put(s, escaped);
         return escaped;
     }
 }
@@ -0,0 +1,232 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * A spool that keeps the data in the heap until a threshold is reached, then spills the data to a
+ * temp file. The temp file is deleted when the spool is closed.
+ * <p>
+ * The spools of a document may share a {@link HeapBudget}: a spool reports the chars it holds
+ * every few kilobytes, and spills its chars when the shared budget is exceeded.
+ * <p>
+ * The chars are written to the file by chunks. Once a spool has spilled, it spills every chunk
+ * and its buffer is replaced by a buffer of the size of a chunk: a spool that has spilled never
+ * holds more than two chunks in the heap.
+ *
+ * @author J. Férard
+ */
+public class FileSpool implements Spool {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int REPORT_SIZE = 4 * 1024;
+
+    /**
+     * @param threshold the number of chars kept in the heap before a spill
+     * @return a new spool, the temp file will be created in the default temp dir
+     */
+    public static FileSpool create(final int threshold) {
+        return FileSpool.create(threshold, null);
+    }
+
+    /**
+     * @param threshold the number of chars kept in the heap before a spill
+     * @param directory the directory of the temp file, or null for the default temp dir
+     * @return a new spool
+     */
+    public static FileSpool create(final int threshold, final File directory) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be > 0");
+        }
+        return new FileSpool(threshold, directory, null);
+    }
+
+    /**
+     * @param budget    the budget shared by the spools of the document
+     * @param directory the directory of the temp file, or null for the default temp dir
+     * @return a new spool
+     */
+    public static FileSpool create(final HeapBudget budget, final File directory) {
+        final int threshold =
+                (int) Math.max(1, Math.min(budget.getMaxBytes() / 2, Integer.MAX_VALUE - 8));
+        return new FileSpool(threshold, directory, budget);
+    }
+
+    private int threshold;
+    private final File directory;
+    private final HeapBudget budget;
+    private StringBuilder buffer;
+    private char[] chunk;
+    private int reportedLength;
+    private File file;
+    private Writer writer;
+
+    /**
+     * @param threshold the number of chars kept in the heap before a spill
+     * @param directory the directory of the temp file, or null for the default temp dir
+     * @param budget    the shared budget or null
+     */
+    FileSpool(final int threshold, final File directory, final HeapBudget budget) {
+        this.threshold = threshold;
+        this.directory = directory;
+        this.budget = budget;
+        this.buffer = new StringBuilder();
+        this.chunk = null;
+        this.reportedLength = 0;
+        this.file = null;
+        this.writer = null;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        this.buffer.append(csq);
+        this.spillIfNeeded();
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        this.buffer.append(csq, start, end);
+        this.spillIfNeeded();
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        this.buffer.append(c);
+        this.spillIfNeeded();
+        return this;
+    }
+
+    private void spillIfNeeded() throws IOException {
+        final int length = this.buffer.length();
+        if (length >= this.threshold) {
+            this.spill();
+        } else if (this.budget != null && length - this.reportedLength >= REPORT_SIZE) {
+            final boolean exceeded = this.budget.take(2L * (length - this.reportedLength));
+            this.reportedLength = length;
+            if (exceeded) {
+                this.spill();
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        if (this.writer == null) {
+            if (this.file == null) {
+                this.file = File.createTempFile("fastods", ".spool", this.directory);
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(this.file, true), CharsetUtil.UTF_8_NAME));
+        }
+        if (this.chunk == null) {
+            this.chunk = new char[CHUNK_SIZE];
+        }
+        final int length = this.buffer.length();
+        for (int start = 0; start < length; start += CHUNK_SIZE) {
+            final int end = Math.min(length, start + CHUNK_SIZE);
+            this.buffer.getChars(start, end, this.chunk, 0);
+            this.writer.write(this.chunk, 0, end - start);
+        }
+        this.clearBuffer();
+        this.threshold = Math.min(this.threshold, CHUNK_SIZE);
+    }
+
+    /**
+     * Empty the buffer and release its part of the budget. setLength(0) would keep the backing
+     * array, that may be as large as the budget.
+     */
+    private void clearBuffer() {
+        if (this.buffer.capacity() > CHUNK_SIZE) {
+            this.buffer = new StringBuilder(CHUNK_SIZE);
+        } else {
+            this.buffer.setLength(0);
+        }
+        if (this.budget != null) {
+            this.budget.release(2L * this.reportedLength);
+        }
+        this.reportedLength = 0;
+    }
+
+    /**
+     * @return true if the data was spilled to a temp file
+     */
+    public boolean isSpilled() {
+        return this.file != null;
+    }
+
+    @Override
+    public void transferTo(final Appendable appendable) throws IOException {
+        if (this.file == null) {
+            appendable.append(this.buffer);
+            return;
+        }
+
+        if (this.buffer.length() > 0) {
+            this.spill();
+        }
+        if (this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+        }
+        final Reader reader =
+                new InputStreamReader(new FileInputStream(this.file), CharsetUtil.UTF_8_NAME);
+        try {
+            final char[] chars = new char[CHUNK_SIZE];
+            int count = reader.read(chars);
+            while (count != -1) {
+                appendable.append(CharBuffer.wrap(chars, 0, count));
+                count = reader.read(chars);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.clearBuffer();
+        this.chunk = null;
+        if (this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+        }
+        if (this.file != null) {
+            if (!this.file.delete()) {
+                this.file.deleteOnExit();
+            }
+            this.file = null;
+        }
+    }
+}
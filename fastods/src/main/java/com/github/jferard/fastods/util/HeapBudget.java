@@ -0,0 +1,87 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A heap budget shared by the spools and the spooled tables of a document. The spools report
+ * the chars they hold in the heap (two bytes per char) and spill their chars to a temp file when
+ * the budget is exceeded. The tables report the estimated bytes of the rows they retain and
+ * spool their rows when the budget is exceeded.
+ *
+ * @author J. Férard
+ */
+public class HeapBudget {
+    /**
+     * @param maxBytes the max number of bytes held by the spools and the rows
+     * @return a new budget
+     */
+    public static HeapBudget create(final long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Budget must be > 0");
+        }
+        return new HeapBudget(maxBytes);
+    }
+
+    private final long maxBytes;
+    private final AtomicLong usedBytes;
+
+    /**
+     * @param maxBytes the max number of bytes held by the spools and the rows
+     */
+    HeapBudget(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.usedBytes = new AtomicLong();
+    }
+
+    /**
+     * @param bytes the number of bytes now held by a spool or a table
+     * @return true if the budget is exceeded
+     */
+    public boolean take(final long bytes) {
+        return this.usedBytes.addAndGet(bytes) > this.maxBytes;
+    }
+
+    /**
+     * @param bytes the number of bytes released by a spool or a table
+     */
+    public void release(final long bytes) {
+        this.usedBytes.addAndGet(-bytes);
+    }
+
+    /**
+     * @return the max number of bytes
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * @return the number of bytes held by the spools and the rows
+     */
+    public long getUsedBytes() {
+        return this.usedBytes.get();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+
+/**
+ * A spool in the heap.
+ *
+ * @author J. Férard
+ */
+public class HeapSpool implements Spool {
+    /**
+     * @return a new spool
+     */
+    public static HeapSpool create() {
+        return new HeapSpool(new StringBuilder());
+    }
+
+    private final StringBuilder sb;
+
+    /**
+     * @param sb the buffer
+     */
+    HeapSpool(final StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) {
+        this.sb.append(csq);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) {
+        this.sb.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) {
+        this.sb.append(c);
+        return this;
+    }
+
+    @Override
+    public void transferTo(final Appendable appendable) throws IOException {
+        appendable.append(this.sb);
+    }
+
+    @Override
+    public void close() {
+        this.sb.setLength(0);
+        this.sb.trimToSize();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+
+/**
+ * An encoder for the office:date-value and office:time-value attributes (XML Schema Part 2,
+ * 3.2.7 dateTime, 3.2.9 date and 3.2.6 duration). The digits are computed from the epoch
+ * millis or days and appended one by one: there is no Date, Calendar or intermediate String.
+ * All methods are static and thread safe.
+ * <p>
+ * The java.time values (epoch days and local millis) use the proleptic Gregorian calendar, as
+ * in java.time. The epoch millis of a Date or a Calendar use the Julian calendar before
+ * 1582-10-15 and a year of era, as SimpleDateFormat with the default GregorianCalendar does.
+ *
+ * @author J. Férard
+ */
+public final class ISO8601Encoder {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final long GREGORIAN_CUTOVER_EPOCH_DAY = -141427; // 1582-10-15
+    private static final long JULIAN_DAY_OF_1970 = 2440588;
+
+    private ISO8601Encoder() {
+    }
+
+    /**
+     * Append an UTC date time: "yyyy-MM-ddTHH:mm:ss.SSSZ". Before 1582-10-15, the date is a
+     * Julian date. The year is a year of era: 1 BC is "0001".
+     *
+     * @param appendable  the destination
+     * @param epochMillis the milliseconds since the epoch
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendDateTime(final Appendable appendable, final long epochMillis)
+            throws IOException {
+        final long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        if (epochDay < GREGORIAN_CUTOVER_EPOCH_DAY) {
+            appendJulianDate(appendable, epochDay);
+        } else {
+            appendLocalDate(appendable, epochDay);
+        }
+        appendable.append('T');
+        appendTime(appendable, millisOfDay / 1000);
+        appendable.append('.');
+        append3Digits(appendable, millisOfDay % 1000);
+        appendable.append('Z');
+    }
+
+    /**
+     * Append a date time without time zone: "yyyy-MM-ddTHH:mm:ss[.SSS]". The milliseconds are
+     * written only if they are not zero.
+     *
+     * @param appendable  the destination
+     * @param localMillis the milliseconds since 1970-01-01T00:00:00 (local time)
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendLocalDateTime(final Appendable appendable, final long localMillis)
+            throws IOException {
+        final long epochDay = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+        appendLocalDate(appendable, epochDay);
+        appendable.append('T');
+        appendTime(appendable, millisOfDay / 1000);
+        final int millis = millisOfDay % 1000;
+        if (millis != 0) {
+            appendable.append('.');
+            append3Digits(appendable, millis);
+        }
+    }
+
+    /**
+     * Append a date: "yyyy-MM-dd". See H. Hinnant, chrono-Compatible Low-Level Date Algorithms,
+     * civil_from_days.
+     *
+     * @param appendable the destination
+     * @param epochDay   the number of days since 1970-01-01
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendLocalDate(final Appendable appendable, final long epochDay)
+            throws IOException {
+        final long z = epochDay + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(z, DAYS_PER_ERA);
+        final int doe = (int) (z - era * DAYS_PER_ERA); // [0, 146096]
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365; // [0, 399]
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100); // [0, 365]
+        final int mp = (5 * doy + 2) / 153; // [0, 11], March = 0
+        final int day = doy - (153 * mp + 2) / 5 + 1;
+        final int month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        appendYear(appendable, year);
+        appendable.append('-');
+        append2Digits(appendable, month);
+        appendable.append('-');
+        append2Digits(appendable, day);
+    }
+
+    /**
+     * Append a duration: "[-]PTs[.SSS]S", or "P0Y" for a zero duration. The fraction of second
+     * has at least one digit and no trailing zero.
+     *
+     * @param appendable the destination
+     * @param millis     the duration in milliseconds
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendDuration(final Appendable appendable, final long millis)
+            throws IOException {
+        if (millis == 0) {
+            appendable.append("P0Y");
+            return;
+        }
+        final long seconds;
+        int fraction;
+        if (millis < 0) {
+            appendable.append('-');
+            seconds = -(millis / 1000); // no overflow, even for Long.MIN_VALUE
+            fraction = (int) -(millis % 1000);
+        } else {
+            seconds = millis / 1000;
+            fraction = (int) (millis % 1000);
+        }
+        appendable.append("PT");
+        appendPositiveLong(appendable, seconds);
+        appendable.append('.');
+        if (fraction == 0) {
+            appendable.append('0');
+        } else {
+            appendable.append((char) ('0' + fraction / 100));
+            fraction %= 100;
+            if (fraction != 0) {
+                appendable.append((char) ('0' + fraction / 10));
+                fraction %= 10;
+                if (fraction != 0) {
+                    appendable.append((char) ('0' + fraction));
+                }
+            }
+        }
+        appendable.append('S');
+    }
+
+    /**
+     * See E. G. Richards, Calendars, in Explanatory Supplement to the Astronomical Almanac.
+     */
+    private static void appendJulianDate(final Appendable appendable, final long epochDay)
+            throws IOException {
+        final long c = epochDay + JULIAN_DAY_OF_1970 + 32082;
+        final long d = Math.floorDiv(4 * c + 3, 1461);
+        final int e = (int) (c - Math.floorDiv(1461 * d, 4)); // [0, 365]
+        final int m = (5 * e + 2) / 153; // [0, 11], March = 0
+        final int day = e - (153 * m + 2) / 5 + 1;
+        final int month = m < 10 ? m + 3 : m - 9;
+        final long year = d - 4800 + m / 10;
+
+        appendYear(appendable, year <= 0 ? 1 - year : year);
+        appendable.append('-');
+        append2Digits(appendable, month);
+        appendable.append('-');
+        append2Digits(appendable, day);
+    }
+
+    private static void appendTime(final Appendable appendable, final int secondOfDay)
+            throws IOException {
+        append2Digits(appendable, secondOfDay / 3600);
+        appendable.append(':');
+        append2Digits(appendable, secondOfDay / 60 % 60);
+        appendable.append(':');
+        append2Digits(appendable, secondOfDay % 60);
+    }
+
+    private static void appendYear(final Appendable appendable, final long year)
+            throws IOException {
+        final long absYear;
+        if (year < 0) {
+            appendable.append('-');
+            absYear = -year;
+        } else {
+            absYear = year;
+        }
+        if (absYear < 10000) {
+            final int y = (int) absYear;
+            append2Digits(appendable, y / 100);
+            append2Digits(appendable, y % 100);
+        } else {
+            appendPositiveLong(appendable, absYear);
+        }
+    }
+
+    private static void appendPositiveLong(final Appendable appendable, final long value)
+            throws IOException {
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            appendable.append((char) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    private static void append3Digits(final Appendable appendable, final int value)
+            throws IOException {
+        appendable.append((char) ('0' + value / 100));
+        append2Digits(appendable, value % 100);
+    }
+
+    private static void append2Digits(final Appendable appendable, final int value)
+            throws IOException {
+        appendable.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -50,6 +50,14 @@ public class IntegerRepresentationCache {
         this.ints = new String[2 * maxInt];
     }
 
+    /**
+     * @param value the value
+     * @return true if the representation of the value is cached
+     */
+    public boolean contains(final int value) {
+        return -this.maxInt <= value && value < this.maxInt;
+    }
+
     /**
      * @param value the value to convert to String
      * @return the same value as a String
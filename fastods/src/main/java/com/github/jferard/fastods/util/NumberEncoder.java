@@ -0,0 +1,173 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+
+/**
+ * An encoder for the office:value attribute. The digits of longs and doubles are appended one
+ * by one, without an intermediate String.
+ * <p>
+ * A double between 10^-3 and 10^7 is written with the fewest fraction digits that parse back
+ * to the same double, as long as the digits fit in 53 bits (|v| &lt; 2^53 / 10^k): "1.5",
+ * "0.1", "10.0". This is the output of Double.toString in this range, and covers the usual
+ * values (amounts, measures, integers). The other values (very small or large values, values
+ * that need 17 significant digits, NaN, infinities) fall back to Double.toString, hence keep
+ * the computerized scientific notation: "1.0E7", "1.0E-4".
+ *
+ * @author J. Férard
+ */
+public final class NumberEncoder {
+    private static final double TWO_POW_53 = 9007199254740992.0;
+    private static final double MIN_PLAIN = 1e-3;
+    private static final double MAX_PLAIN = 1e7;
+    private static final int MAX_FRACTION_DIGITS = 17;
+    private static final double[] POW10 = new double[MAX_FRACTION_DIGITS + 1];
+    private static final long[] LONG_POW10 = new long[19];
+
+    static {
+        long p = 1;
+        for (int i = 0; i < LONG_POW10.length; i++) {
+            LONG_POW10[i] = p;
+            if (i < POW10.length) {
+                POW10[i] = p; // exact: 10^k < 2^53 * 2^k
+            }
+            p *= 10;
+        }
+    }
+
+    private NumberEncoder() {
+    }
+
+    /**
+     * Append the digits of a long
+     *
+     * @param appendable the destination
+     * @param value      the value
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendLong(final Appendable appendable, final long value)
+            throws IOException {
+        if (value < 0) {
+            appendable.append('-');
+            if (value == Long.MIN_VALUE) {
+                appendable.append("9223372036854775808");
+                return;
+            }
+            appendPositiveLong(appendable, -value, 1);
+        } else {
+            appendPositiveLong(appendable, value, 1);
+        }
+    }
+
+    /**
+     * Append the shortest digits of a double.
+     *
+     * @param appendable the destination
+     * @param value      the value
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendDouble(final Appendable appendable, final double value)
+            throws IOException {
+        if (value == 0) {
+            appendable.append(1 / value < 0 ? "-0.0" : "0.0");
+            return;
+        }
+        final double abs = Math.abs(value);
+        if (abs >= MIN_PLAIN && abs < MAX_PLAIN) {
+            for (int k = 0; k <= MAX_FRACTION_DIGITS; k++) {
+                final double scaled = abs * POW10[k];
+                if (scaled >= TWO_POW_53) {
+                    break;
+                }
+                final long m = NumberEncoder.findMantissa(abs, scaled, k);
+                if (m != -1) {
+                    if (value < 0) {
+                        appendable.append('-');
+                    }
+                    NumberEncoder.appendDecimal(appendable, m, k);
+                    return;
+                }
+            }
+        }
+        appendable.append(Double.toString(value));
+    }
+
+    /**
+     * @param abs    the value
+     * @param scaled abs * 10^k
+     * @param k      the number of fraction digits
+     * @return m such that m / 10^k parses to abs, or -1
+     */
+    private static long findMantissa(final double abs, final double scaled, final int k) {
+        final long m = Math.round(scaled);
+        // m &lt; 2^53 and 10^k are exact, hence the division is correctly rounded, as the
+        // parsing of "m * 10^-k" is.
+        if (m / POW10[k] == abs) {
+            return m;
+        }
+        // the rounding of abs * 10^k may hide the good candidate
+        if ((m - 1) / POW10[k] == abs) {
+            return m - 1;
+        }
+        if ((m + 1) / POW10[k] == abs) {
+            return m + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Append m * 10^-k, with at least one fraction digit
+     */
+    private static void appendDecimal(final Appendable appendable, final long m, final int k)
+            throws IOException {
+        if (k == 0) {
+            appendPositiveLong(appendable, m, 1);
+            appendable.append(".0");
+        } else {
+            final long p = LONG_POW10[k];
+            appendPositiveLong(appendable, m / p, 1);
+            appendable.append('.');
+            appendPositiveLong(appendable, m % p, k);
+        }
+    }
+
+    /**
+     * @param appendable the destination
+     * @param value      a positive value
+     * @param minDigits  the min number of digits (left padding with zeroes)
+     * @throws IOException if an I/O error occurs
+     */
+    private static void appendPositiveLong(final Appendable appendable, final long value,
+                                           final int minDigits) throws IOException {
+        int digits = minDigits;
+        while (digits < LONG_POW10.length && value >= LONG_POW10[digits]) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            appendable.append((char) ('0' + value / LONG_POW10[i] % 10));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A full list (see {@link FastFullList}) stored in fixed size pages. The pages that were
+ * released are dropped, hence the memory used is bounded by the number of pages between the
+ * last released page and the last element, not by the size of the list. Indices remain absolute.
+ * <p>
+ * The blank element is null.
+ *
+ * @param <E> type of the elements
+ * @author J. Férard
+ */
+public class PagedFullList<E> {
+    private static final int DEFAULT_DIRECTORY_CAPACITY = 4;
+
+    private final int pageSize;
+    private final int firstPageCapacity;
+    /**
+     * directory[i] is the page number releasedPages + i
+     */
+    private Object[][] directory;
+    private int releasedPages;
+    private int size;
+
+    /**
+     * @param pageSize          the size of a page, &gt; 0
+     * @param firstPageCapacity the initial capacity of a page. The page grows until pageSize.
+     */
+    public PagedFullList(final int pageSize, final int firstPageCapacity) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be > 0");
+        }
+        this.pageSize = pageSize;
+        this.firstPageCapacity = Math.max(1, Math.min(firstPageCapacity, pageSize));
+        this.directory = new Object[DEFAULT_DIRECTORY_CAPACITY][];
+        this.releasedPages = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @return the size really used, that is the index of the last non null element + 1.
+     * Released elements are counted.
+     */
+    public int usedSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the index of the first element that was not released
+     */
+    public int releasedSize() {
+        return this.releasedPages * this.pageSize;
+    }
+
+    /**
+     * @param index the index
+     * @return true if the element at this index was released
+     */
+    public boolean isReleased(final int index) {
+        return index < this.releasedSize();
+    }
+
+    /**
+     * Set an element
+     *
+     * @param index   the index
+     * @param element the element
+     * @throws IllegalStateException if the index was released
+     */
+    public void set(final int index, final E element) {
+        this.checkNotReleased(index);
+        if (index >= this.size) {
+            if (element == null) {
+                return;
+            }
+            this.size = index + 1;
+        }
+        final int offset = index % this.pageSize;
+        final Object[] page = this.securePage(index / this.pageSize, offset);
+        page[offset] = element;
+        if (element == null && index == this.size - 1) {
+            this.removeTrail();
+        }
+    }
+
+    private void checkNotReleased(final int index) {
+        if (this.isReleased(index)) {
+            throw new IllegalStateException(
+                    "Element " + index + " was released (first available index is " +
+                            this.releasedSize() + ")");
+        }
+    }
+
+    private Object[] securePage(final int pageNumber, final int offset) {
+        final int d = pageNumber - this.releasedPages;
+        if (d >= this.directory.length) {
+            this.directory = Arrays.copyOf(this.directory, Math.max(d + 1,
+                    this.directory.length * 2));
+        }
+        Object[] page = this.directory[d];
+        if (page == null) {
+            page = new Object[this.firstPageCapacity];
+            this.directory[d] = page;
+        }
+        if (offset >= page.length) {
+            page = Arrays.copyOf(page, Math.min(this.pageSize,
+                    Math.max(offset + 1, page.length * 2)));
+            this.directory[d] = page;
+        }
+        return page;
+    }
+
+    /**
+     * post condition: this.get(this.size-1) != null
+     */
+    private void removeTrail() {
+        int last = this.size - 2;
+        final int first = this.releasedSize();
+        while (last >= first && this.get(last) == null) {
+            last--;
+        }
+        this.size = last + 1;
+    }
+
+    /**
+     * @param index the index
+     * @return the element at the index
+     * @throws IllegalStateException if the index was released
+     */
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        this.checkNotReleased(index);
+        if (index >= this.size) {
+            return null;
+        }
+        final Object[] page = this.directory[index / this.pageSize - this.releasedPages];
+        final int offset = index % this.pageSize;
+        if (page == null || offset >= page.length) {
+            return null;
+        }
+        return (E) page[offset];
+    }
+
+    /**
+     * @param fromIndex starting index
+     * @param toIndex   last index + 1
+     * @return a copy of the elements, blank elements included.
+     * @throws IllegalStateException if fromIndex was released
+     */
+    public List<E> subList(final int fromIndex, final int toIndex) {
+        final List<E> elements = new ArrayList<E>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            elements.add(this.get(i));
+        }
+        return elements;
+    }
+
+    /**
+     * Drop all the pages before the page of a given index. The elements of those pages are not
+     * available anymore.
+     *
+     * @param toIndex the first index to keep
+     */
+    public void releaseUntil(final int toIndex) {
+        final int pageCount = toIndex / this.pageSize - this.releasedPages;
+        if (pageCount <= 0) {
+            return;
+        }
+        final int kept = Math.max(0, this.directory.length - pageCount);
+        System.arraycopy(this.directory, Math.min(pageCount, this.directory.length),
+                this.directory, 0, kept);
+        Arrays.fill(this.directory, kept, this.directory.length, null);
+        this.releasedPages += pageCount;
+        if (this.size < this.releasedSize()) {
+            this.size = this.releasedSize();
+        }
+    }
+
+    /**
+     * Drop all the pages before the page of a given index, and remove the elements before this
+     * index from this page. The used size is unchanged. The removed elements of this page are not
+     * released: they are blank (null).
+     *
+     * @param toIndex the first index to keep
+     */
+    public void releaseAndClearUntil(final int toIndex) {
+        this.releaseUntil(toIndex);
+        final int d = toIndex / this.pageSize - this.releasedPages;
+        if (d < 0 || d >= this.directory.length || this.directory[d] == null) {
+            return;
+        }
+        final Object[] page = this.directory[d];
+        Arrays.fill(page, 0, Math.min(toIndex % this.pageSize, page.length), null);
+    }
+}
@@ -0,0 +1,657 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A zip output stream that deflates the entries in parallel, pigz-style.
+ * <p>
+ * The bytes of a deflated entry are split in fixed size blocks. Every block is deflated by a
+ * task of an executor: the block is primed with the last 32 KiB of the previous block as a
+ * dictionary, and ended with a SYNC_FLUSH (the last block is finished). The compressed blocks
+ * are written in order, hence the concatenation is a single valid deflate stream. The CRC32 of
+ * the entry is the combination of the CRC32 of the blocks.
+ * <p>
+ * The zip file is a standard zip file (with data descriptors and Zip64 extensions if needed).
+ * This class extends ZipOutputStream only to be a drop-in replacement: none of the
+ * ZipOutputStream/DeflaterOutputStream machinery is used.
+ *
+ * @author J. Férard
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+    /**
+     * The default size of a block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int EXT_SIG = 0x08074b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOC_SIG = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int VERSION_20 = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int FLAG_UTF8 = 0x800;
+
+    /**
+     * Combine two CRC32, see zlib crc32_combine.
+     *
+     * @param crc1 the CRC32 of the first sequence
+     * @param crc2 the CRC32 of the second sequence
+     * @param len2 the length of the second sequence
+     * @return the CRC32 of the concatenation
+     */
+    static long crc32Combine(final long crc1, final long crc2, final long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        final long[] even = new long[32];
+        final long[] odd = new long[32];
+
+        // put operator for one zero bit in odd
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd); // two zero bits
+        gf2MatrixSquare(odd, even); // four zero bits
+
+        long crc = crc1;
+        long len = len2;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            len >>= 1;
+            if (len == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            len >>= 1;
+        } while (len != 0);
+        return crc ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(final long[] mat, final long vec) {
+        long sum = 0;
+        long v = vec;
+        int i = 0;
+        while (v != 0) {
+            if ((v & 1) != 0) {
+                sum ^= mat[i];
+            }
+            v >>= 1;
+            i++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(final long[] square, final long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
+    /**
+     * @param time the time in millis
+     * @return the MS-DOS date and time
+     */
+    private static long toDosTime(final long time) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        final int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21) |
+                (calendar.get(Calendar.DAY_OF_MONTH) << 16) |
+                (calendar.get(Calendar.HOUR_OF_DAY) << 11) |
+                (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    /**
+     * A compressed block
+     */
+    private static class DeflatedBlock {
+        private final byte[] data;
+        private final int length;
+        private final long crc;
+        private final int uncompressedLength;
+
+        DeflatedBlock(final byte[] data, final int length, final long crc,
+                      final int uncompressedLength) {
+            this.data = data;
+            this.length = length;
+            this.crc = crc;
+            this.uncompressedLength = uncompressedLength;
+        }
+    }
+
+    /**
+     * The task that deflates a block
+     */
+    private static class DeflateTask implements Callable<DeflatedBlock> {
+        private final int level;
+        private final byte[] dictionary;
+        private final int dictionaryLength;
+        private final byte[] block;
+        private final int length;
+        private final boolean last;
+
+        DeflateTask(final int level, final byte[] dictionary, final int dictionaryLength,
+                    final byte[] block, final int length, final boolean last) {
+            this.level = level;
+            this.dictionary = dictionary;
+            this.dictionaryLength = dictionaryLength;
+            this.block = block;
+            this.length = length;
+            this.last = last;
+        }
+
+        @Override
+        public DeflatedBlock call() {
+            final CRC32 crc32 = new CRC32();
+            crc32.update(this.block, 0, this.length);
+
+            final Deflater deflater = new Deflater(this.level, true);
+            try {
+                if (this.dictionary != null) {
+                    deflater.setDictionary(this.dictionary,
+                            this.dictionary.length - this.dictionaryLength,
+                            this.dictionaryLength);
+                }
+                deflater.setInput(this.block, 0, this.length);
+                byte[] out = new byte[this.length + (this.length >> 6) + 64];
+                int outLength = 0;
+                if (this.last) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        if (outLength == out.length) {
+                            out = Arrays.copyOf(out, out.length * 2);
+                        }
+                        outLength += deflater.deflate(out, outLength, out.length - outLength);
+                    }
+                } else {
+                    int n;
+                    do {
+                        if (outLength == out.length) {
+                            out = Arrays.copyOf(out, out.length * 2);
+                        }
+                        n = deflater.deflate(out, outLength, out.length - outLength,
+                                Deflater.SYNC_FLUSH);
+                        outLength += n;
+                    } while (outLength == out.length);
+                }
+                return new DeflatedBlock(out, outLength, crc32.getValue(), this.length);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * An entry and its position, for the central directory
+     */
+    private static class EntryInfo {
+        private final byte[] name;
+        private final int method;
+        private final int flags;
+        private final long dosTime;
+        private final long offset;
+        private long crc;
+        private long compressedSize;
+        private long size;
+
+        EntryInfo(final byte[] name, final int method, final int flags, final long dosTime,
+                  final long offset) {
+            this.name = name;
+            this.method = method;
+            this.flags = flags;
+            this.dosTime = dosTime;
+            this.offset = offset;
+        }
+
+        boolean isZip64() {
+            return this.size >= ZIP64_MAGIC || this.compressedSize >= ZIP64_MAGIC ||
+                    this.offset >= ZIP64_MAGIC;
+        }
+    }
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final boolean shutdownExecutor;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+    private final List<EntryInfo> entries;
+    private final Deque<Future<DeflatedBlock>> pendingBlocks;
+    private final byte[] header;
+    private int level;
+    private byte[] comment;
+    private long written;
+    private EntryInfo current;
+    private ZipEntry currentZipEntry;
+    private byte[] block;
+    private int blockLength;
+    private byte[] previousBlock;
+    private int previousBlockLength;
+    private CRC32 storedCrc;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Create a new stream
+     *
+     * @param out               the destination
+     * @param executor          the executor that deflates the blocks
+     * @param shutdownExecutor  true if the executor is owned by this stream
+     * @param maxBlocksInFlight the max number of blocks submitted and not written yet
+     * @param blockSize         the size of a block
+     */
+    public ParallelZipOutputStream(final OutputStream out, final ExecutorService executor,
+                                   final boolean shutdownExecutor, final int maxBlocksInFlight,
+                                   final int blockSize) {
+        super(out);
+        this.def.end(); // the deflater of the ZipOutputStream is never used
+        if (blockSize <= 0 || maxBlocksInFlight <= 0) {
+            throw new IllegalArgumentException("Block size and blocks in flight must be > 0");
+        }
+        this.out = out;
+        this.executor = executor;
+        this.shutdownExecutor = shutdownExecutor;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.blockSize = blockSize;
+        this.level = Deflater.DEFAULT_COMPRESSION;
+        this.entries = new ArrayList<EntryInfo>();
+        this.pendingBlocks = new ArrayDeque<Future<DeflatedBlock>>();
+        this.header = new byte[64];
+        this.written = 0;
+    }
+
+    @Override
+    public void setLevel(final int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        this.level = level;
+    }
+
+    @Override
+    public void setMethod(final int method) {
+        if (method != DEFLATED) {
+            throw new IllegalArgumentException("Default method must be DEFLATED");
+        }
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.comment = comment == null ? null : comment.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry e) throws IOException {
+        this.ensureOpen();
+        if (this.current != null) {
+            this.closeEntry();
+        }
+        final int method = e.getMethod() == STORED ? STORED : DEFLATED;
+        final long time = e.getTime() == -1 ? System.currentTimeMillis() : e.getTime();
+        final byte[] name = e.getName().getBytes(StandardCharsets.UTF_8);
+        final int flags = method == STORED ? FLAG_UTF8 : FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        final EntryInfo entry =
+                new EntryInfo(name, method, flags, toDosTime(time), this.written);
+
+        final boolean zip64;
+        if (method == STORED) {
+            if (e.getSize() == -1 || e.getCrc() == -1) {
+                throw new ZipException("STORED entry missing size or crc");
+            }
+            entry.size = e.getSize();
+            entry.compressedSize = e.getSize();
+            entry.crc = e.getCrc();
+            zip64 = entry.size >= ZIP64_MAGIC;
+            this.storedCrc = new CRC32();
+        } else {
+            zip64 = false;
+            this.block = new byte[this.blockSize];
+            this.blockLength = 0;
+            this.previousBlock = null;
+        }
+
+        this.writeInt(LOC_SIG);
+        this.writeShort(zip64 ? VERSION_ZIP64 : VERSION_20);
+        this.writeShort(flags);
+        this.writeShort(method);
+        this.writeInt(entry.dosTime);
+        if (method == STORED) {
+            this.writeInt(entry.crc);
+            this.writeInt(zip64 ? ZIP64_MAGIC : entry.compressedSize);
+            this.writeInt(zip64 ? ZIP64_MAGIC : entry.size);
+        } else {
+            this.writeInt(0);
+            this.writeInt(0);
+            this.writeInt(0);
+        }
+        this.writeShort(name.length);
+        this.writeShort(zip64 ? 20 : 0);
+        this.writeBytes(name, 0, name.length);
+        if (zip64) {
+            this.writeShort(ZIP64_EXTRA_ID);
+            this.writeShort(16);
+            this.writeLong(entry.size);
+            this.writeLong(entry.compressedSize);
+        }
+        entry.compressedSize = method == STORED ? entry.compressedSize : 0;
+        entry.size = method == STORED ? entry.size : 0;
+        this.current = entry;
+        this.currentZipEntry = e;
+        this.entries.add(entry);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.ensureOpen();
+        if (this.current == null) {
+            throw new ZipException("no current ZIP entry");
+        }
+        if (this.current.method == STORED) {
+            this.storedCrc.update(b, off, len);
+            this.writeBytes(b, off, len);
+            return;
+        }
+        int o = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int n = Math.min(remaining, this.blockSize - this.blockLength);
+            System.arraycopy(b, o, this.block, this.blockLength, n);
+            this.blockLength += n;
+            o += n;
+            remaining -= n;
+            if (this.blockLength == this.blockSize) {
+                this.submitBlock(false);
+            }
+        }
+    }
+
+    private void submitBlock(final boolean last) throws IOException {
+        // only the last block is partial: the previous block is always full
+        final int dictionaryLength =
+                this.previousBlock == null ? 0 : Math.min(DICTIONARY_SIZE,
+                        this.previousBlockLength);
+        final DeflateTask task = new DeflateTask(this.level, this.previousBlock,
+                dictionaryLength, this.block, this.blockLength, last);
+        this.pendingBlocks.add(this.executor.submit(task));
+        this.previousBlock = this.block;
+        this.previousBlockLength = this.blockLength;
+        if (!last) {
+            this.block = new byte[this.blockSize];
+        }
+        this.blockLength = 0;
+        while (this.pendingBlocks.size() > this.maxBlocksInFlight) {
+            this.writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        final Future<DeflatedBlock> future = this.pendingBlocks.removeFirst();
+        final DeflatedBlock deflatedBlock;
+        try {
+            deflatedBlock = future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (final ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        this.writeBytes(deflatedBlock.data, 0, deflatedBlock.length);
+        final EntryInfo entry = this.current;
+        entry.crc = crc32Combine(entry.crc, deflatedBlock.crc, deflatedBlock.uncompressedLength);
+        entry.size += deflatedBlock.uncompressedLength;
+        entry.compressedSize += deflatedBlock.length;
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.ensureOpen();
+        final EntryInfo entry = this.current;
+        if (entry == null) {
+            return;
+        }
+        if (entry.method == STORED) {
+            if (this.storedCrc.getValue() != entry.crc) {
+                throw new ZipException("invalid entry crc-32 for " +
+                        new String(entry.name, StandardCharsets.UTF_8));
+            }
+        } else {
+            this.submitBlock(true);
+            while (!this.pendingBlocks.isEmpty()) {
+                this.writeNextBlock();
+            }
+            this.block = null;
+            this.previousBlock = null;
+
+            this.writeInt(EXT_SIG);
+            this.writeInt(entry.crc);
+            if (entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC) {
+                this.writeLong(entry.compressedSize);
+                this.writeLong(entry.size);
+            } else {
+                this.writeInt(entry.compressedSize);
+                this.writeInt(entry.size);
+            }
+            // as ZipOutputStream does, give the sizes and crc back to the caller
+            this.currentZipEntry.setSize(entry.size);
+            this.currentZipEntry.setCompressedSize(entry.compressedSize);
+            this.currentZipEntry.setCrc(entry.crc);
+        }
+        this.current = null;
+        this.currentZipEntry = null;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.ensureOpen();
+        if (this.finished) {
+            return;
+        }
+        if (this.current != null) {
+            this.closeEntry();
+        }
+        final long cenOffset = this.written;
+        for (final EntryInfo entry : this.entries) {
+            this.writeCEN(entry);
+        }
+        final long cenSize = this.written - cenOffset;
+        final int count = this.entries.size();
+        final boolean zip64 =
+                count >= ZIP64_MAGIC_COUNT || cenOffset >= ZIP64_MAGIC || cenSize >= ZIP64_MAGIC;
+        if (zip64) {
+            final long zip64EndOffset = this.written;
+            this.writeInt(ZIP64_END_SIG);
+            this.writeLong(44);
+            this.writeShort(VERSION_ZIP64);
+            this.writeShort(VERSION_ZIP64);
+            this.writeInt(0);
+            this.writeInt(0);
+            this.writeLong(count);
+            this.writeLong(count);
+            this.writeLong(cenSize);
+            this.writeLong(cenOffset);
+            this.writeInt(ZIP64_LOC_SIG);
+            this.writeInt(0);
+            this.writeLong(zip64EndOffset);
+            this.writeInt(1);
+        }
+        this.writeInt(END_SIG);
+        this.writeShort(0);
+        this.writeShort(0);
+        this.writeShort(zip64 ? ZIP64_MAGIC_COUNT : count);
+        this.writeShort(zip64 ? ZIP64_MAGIC_COUNT : count);
+        this.writeInt(zip64 ? ZIP64_MAGIC : cenSize);
+        this.writeInt(zip64 ? ZIP64_MAGIC : cenOffset);
+        if (this.comment == null) {
+            this.writeShort(0);
+        } else {
+            this.writeShort(this.comment.length);
+            this.writeBytes(this.comment, 0, this.comment.length);
+        }
+        this.finished = true;
+    }
+
+    private void writeCEN(final EntryInfo entry) throws IOException {
+        final boolean sizeZip64 = entry.size >= ZIP64_MAGIC;
+        final boolean compressedSizeZip64 = entry.compressedSize >= ZIP64_MAGIC;
+        final boolean offsetZip64 = entry.offset >= ZIP64_MAGIC;
+        int extraLength = 0;
+        if (sizeZip64) {
+            extraLength += 8;
+        }
+        if (compressedSizeZip64) {
+            extraLength += 8;
+        }
+        if (offsetZip64) {
+            extraLength += 8;
+        }
+        final int version = entry.isZip64() ? VERSION_ZIP64 : VERSION_20;
+        this.writeInt(CEN_SIG);
+        this.writeShort(version); // made by
+        this.writeShort(version); // needed to extract
+        this.writeShort(entry.flags);
+        this.writeShort(entry.method);
+        this.writeInt(entry.dosTime);
+        this.writeInt(entry.crc);
+        this.writeInt(compressedSizeZip64 ? ZIP64_MAGIC : entry.compressedSize);
+        this.writeInt(sizeZip64 ? ZIP64_MAGIC : entry.size);
+        this.writeShort(entry.name.length);
+        this.writeShort(extraLength == 0 ? 0 : extraLength + 4);
+        this.writeShort(0); // comment
+        this.writeShort(0); // disk number
+        this.writeShort(0); // internal attributes
+        this.writeInt(0); // external attributes
+        this.writeInt(offsetZip64 ? ZIP64_MAGIC : entry.offset);
+        this.writeBytes(entry.name, 0, entry.name.length);
+        if (extraLength > 0) {
+            this.writeShort(ZIP64_EXTRA_ID);
+            this.writeShort(extraLength);
+            if (sizeZip64) {
+                this.writeLong(entry.size);
+            }
+            if (compressedSizeZip64) {
+                this.writeLong(entry.compressedSize);
+            }
+            if (offsetZip64) {
+                this.writeLong(entry.offset);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            this.finish();
+            this.out.close();
+        } finally {
+            this.closed = true;
+            for (final Future<DeflatedBlock> future : this.pendingBlocks) {
+                future.cancel(true);
+            }
+            if (this.shutdownExecutor) {
+                this.executor.shutdown();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void writeShort(final int v) throws IOException {
+        this.header[0] = (byte) v;
+        this.header[1] = (byte) (v >>> 8);
+        this.writeBytes(this.header, 0, 2);
+    }
+
+    private void writeInt(final long v) throws IOException {
+        this.header[0] = (byte) v;
+        this.header[1] = (byte) (v >>> 8);
+        this.header[2] = (byte) (v >>> 16);
+        this.header[3] = (byte) (v >>> 24);
+        this.writeBytes(this.header, 0, 4);
+    }
+
+    private void writeLong(final long v) throws IOException {
+        this.writeInt(v & 0xFFFFFFFFL);
+        this.writeInt(v >>> 32);
+    }
+
+    private void writeBytes(final byte[] b, final int off, final int len) throws IOException {
+        this.out.write(b, off, len);
+        this.written += len;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A spool is a private destination for the XML of a table. The XML is written at any time
+ * (usually by a filler thread), and transferred at once to the final destination when the
+ * document is saved.
+ *
+ * @author J. Férard
+ */
+public interface Spool extends Appendable, Closeable {
+    /**
+     * Append the content of the spool to the appendable.
+     *
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    void transferTo(Appendable appendable) throws IOException;
+}
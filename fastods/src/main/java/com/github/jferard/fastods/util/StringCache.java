@@ -0,0 +1,151 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A size-bounded cache of strings. When the cache is full, the least recently used entry is
+ * evicted. A cache of size 0 is disabled: nothing is stored and every lookup is a miss.
+ * <p>
+ * The hit, miss and eviction counters help to tune the size of the cache.
+ * <p>
+ * This class is not thread safe: the map is access-ordered, hence even a lookup modifies it.
+ * Each thread must have its own cache.
+ *
+ * @author J. Férard
+ */
+public class StringCache {
+    /**
+     * @param maxSize the max number of entries, 0 to disable the cache
+     * @return a new cache
+     */
+    public static StringCache create(final int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size must be >= 0");
+        }
+        return new StringCache(maxSize);
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<String, String> valueByKey;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * @param maxSize the max number of entries
+     */
+    StringCache(final int maxSize) {
+        this.maxSize = maxSize;
+        if (maxSize == 0) {
+            this.valueByKey = null;
+        } else {
+            this.valueByKey = new LinkedHashMap<String, String>(16, 0.75f, true);
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value, or null
+     */
+    public String get(final String key) {
+        if (this.valueByKey != null) {
+            final String value = this.valueByKey.get(key);
+            if (value != null) {
+                this.hitCount++;
+                return value;
+            }
+        }
+        this.missCount++;
+        return null;
+    }
+
+    /**
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(final String key, final String value) {
+        if (this.valueByKey != null) {
+            this.valueByKey.put(key, value);
+            if (this.valueByKey.size() > this.maxSize) { // evict the least recently used entry
+                final Iterator<String> iterator = this.valueByKey.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+                this.evictionCount++;
+            }
+        }
+    }
+
+    /**
+     * @return false if the cache is disabled
+     */
+    public boolean isEnabled() {
+        return this.valueByKey != null;
+    }
+
+    /**
+     * @return the max number of entries
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * @return the current number of entries
+     */
+    public int size() {
+        return this.valueByKey == null ? 0 : this.valueByKey.size();
+    }
+
+    /**
+     * @return the number of successful lookups
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return the number of failed lookups
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * @return the number of entries that were evicted
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "StringCache[size=" + this.size() + "/" + this.maxSize + ", hits=" +
+                this.hitCount + ", misses=" + this.missCount + ", evictions=" +
+                this.evictionCount + "]";
+    }
+}
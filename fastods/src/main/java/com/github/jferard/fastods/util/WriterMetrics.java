@@ -0,0 +1,85 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+/**
+ * A listener for the metrics of the write pipeline: zip entries, flushers, tables, queue of
+ * the writer adapter and caches of the XML escaper. The metrics are disabled by default (the
+ * listener is null).
+ * <p>
+ * The callbacks are invoked on the threads of the pipeline: the zip entries and the flushers
+ * on the thread that writes the file (the consumer thread of a writer adapter), the tables
+ * and the queue depth on the thread that fills the document. An implementation must be thread
+ * safe and fast.
+ *
+ * @author Julien Férard
+ */
+public interface WriterMetrics {
+    /**
+     * A zip entry was closed.
+     *
+     * @param name           the name of the entry
+     * @param size           the number of uncompressed bytes, or -1 if unknown
+     * @param compressedSize the number of compressed bytes, or -1 if unknown
+     * @param nanos          the time between putNextEntry and closeEntry
+     */
+    void entryWritten(String name, long size, long compressedSize, long nanos);
+
+    /**
+     * A flusher was executed by the writer.
+     *
+     * @param flusherType the simple name of the class of the flusher
+     * @param nanos       the time spent in flushInto
+     */
+    void flusherExecuted(String flusherType, long nanos);
+
+    /**
+     * A table was written (named writer) or appended to the content (anonymous writer).
+     *
+     * @param name      the name of the table
+     * @param rowCount  the number of rows
+     * @param cellCount the number of cells
+     * @param nanos     the time between the creation of the table and the end of the write
+     */
+    void tableWritten(String name, int rowCount, long cellCount, long nanos);
+
+    /**
+     * A flusher was added to the queue of a writer adapter.
+     *
+     * @param depth    the number of flushers in the queue
+     * @param capacity the capacity of the queue
+     */
+    void queueDepth(int depth, int capacity);
+
+    /**
+     * The document was written: the counters of the caches of the XML escapers. The caches are
+     * looked up for the style names and for the short cell values that contain special chars;
+     * the values without special chars are written as is and are not counted.
+     *
+     * @param hitCount  the number of hits (attribute and content caches)
+     * @param missCount the number of misses (attribute and content caches)
+     */
+    void escaperCacheStats(long hitCount, long missCount);
+}
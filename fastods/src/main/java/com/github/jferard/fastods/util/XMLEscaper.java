@@ -24,6 +24,8 @@
 
 package com.github.jferard.fastods.util;
 
+import java.io.IOException;
+
 /**
  * @author Julien Férard
  */
@@ -39,4 +41,22 @@ public interface XMLEscaper {
      * @return the string escaped as a content (text node)
      */
     String escapeXMLContent(final String s);
+
+    /**
+     * Escape a string as an attribute and append it, without intermediate string.
+     *
+     * @param appendable the destination
+     * @param s          the input string
+     * @throws IOException if an I/O error occurs
+     */
+    void appendEscapedXMLAttribute(Appendable appendable, String s) throws IOException;
+
+    /**
+     * Escape a string as a content (text node) and append it, without intermediate string.
+     *
+     * @param appendable the destination
+     * @param s          the input string
+     * @throws IOException if an I/O error occurs
+     */
+    void appendEscapedXMLContent(Appendable appendable, String s) throws IOException;
 }
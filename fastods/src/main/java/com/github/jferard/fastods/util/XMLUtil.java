@@ -54,6 +54,14 @@ public class XMLUtil {
         return new XMLUtil(escaper);
     }
 
+    /**
+     * @param escaper the escaper, e.g. a FastOdsXMLEscaper with a custom cache size.
+     * @return a new xml util
+     */
+    public static XMLUtil create(final XMLEscaper escaper) {
+        return new XMLUtil(escaper);
+    }
+
     private final XMLEscaper escaper;
 
     /**
@@ -78,8 +86,9 @@ public class XMLUtil {
      */
     public void appendEAttribute(final Appendable appendable, final CharSequence attrName,
                                  final String attrRawValue) throws IOException {
-        appendable.append(' ').append(attrName).append("=\"")
-                .append(this.escaper.escapeXMLAttribute(attrRawValue)).append('"');
+        appendable.append(' ').append(attrName).append("=\"");
+        this.escaper.appendEscapedXMLAttribute(appendable, attrRawValue);
+        appendable.append('"');
     }
 
     /**
@@ -163,6 +172,18 @@ public class XMLUtil {
         appendable.append('"');
     }
 
+    /**
+     * Escape then append a content (text node)
+     *
+     * @param appendable the destination
+     * @param content    the raw content
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendEContent(final Appendable appendable, final String content)
+            throws IOException {
+        this.escaper.appendEscapedXMLContent(appendable, content);
+    }
+
     /**
      * Append a content inside a tag
      *
@@ -173,9 +194,9 @@ public class XMLUtil {
      */
     public void appendTag(final Appendable appendable, final CharSequence tagName,
                           final String content) throws IOException {
-        appendable.append('<').append(tagName).append('>')
-                .append(this.escaper.escapeXMLContent(content)).append("</").append(tagName)
-                .append('>');
+        appendable.append('<').append(tagName).append('>');
+        this.escaper.appendEscapedXMLContent(appendable, content);
+        appendable.append("</").append(tagName).append('>');
     }
 
     /**
@@ -0,0 +1,130 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A factory of XMLUtils for the threads that write XML beside the thread of the document: the
+ * workers of a renderer, the spooled tables and the partitions of a table. The escaper is not
+ * thread safe, hence each XMLUtil has its own escaper, with the settings of the escaper of the
+ * document (buffer size and cache size).
+ * <p>
+ * The factory sums the counters of the caches of every escaper, including the escaper of the
+ * document, for the metrics. The caches are looked up for the style names and for the short
+ * cell values that need escaping (see {@link FastOdsXMLEscaper#CACHED_VALUE_MAX_LENGTH}). The
+ * counters of a released XMLUtil are kept, and the XMLUtil is forgotten. The counters should be
+ * read once the threads are done.
+ *
+ * @author J. Férard
+ */
+public class XMLUtilFactory {
+    /**
+     * @return a factory of XMLUtils with the default escaper
+     */
+    public static XMLUtilFactory create() {
+        return XMLUtilFactory.create(FastOdsXMLEscaper.create());
+    }
+
+    /**
+     * @param escaper the escaper of the document. A custom subclass is not copied: the new
+     *                escapers are FastOdsXMLEscapers with the same settings.
+     * @return a factory of XMLUtils
+     */
+    public static XMLUtilFactory create(final FastOdsXMLEscaper escaper) {
+        return new XMLUtilFactory(escaper);
+    }
+
+    private final FastOdsXMLEscaper documentEscaper;
+    private final Map<XMLUtil, FastOdsXMLEscaper> escaperByXMLUtil;
+    private long releasedHitCount;
+    private long releasedMissCount;
+
+    /**
+     * @param documentEscaper the escaper of the document
+     */
+    XMLUtilFactory(final FastOdsXMLEscaper documentEscaper) {
+        this.documentEscaper = documentEscaper;
+        this.escaperByXMLUtil = new IdentityHashMap<XMLUtil, FastOdsXMLEscaper>();
+        this.releasedHitCount = 0;
+        this.releasedMissCount = 0;
+    }
+
+    /**
+     * @return a new XMLUtil, with its own escaper
+     */
+    public synchronized XMLUtil newXMLUtil() {
+        final FastOdsXMLEscaper escaper = this.documentEscaper.newEscaper();
+        final XMLUtil xmlUtil = XMLUtil.create(escaper);
+        this.escaperByXMLUtil.put(xmlUtil, escaper);
+        return xmlUtil;
+    }
+
+    /**
+     * Keep the counters of the escaper of a XMLUtil that won't be used anymore, and forget it.
+     *
+     * @param xmlUtil the XMLUtil, created by this factory
+     */
+    public synchronized void release(final XMLUtil xmlUtil) {
+        final FastOdsXMLEscaper escaper = this.escaperByXMLUtil.remove(xmlUtil);
+        if (escaper != null) {
+            this.releasedHitCount += XMLUtilFactory.hitCountOf(escaper);
+            this.releasedMissCount += XMLUtilFactory.missCountOf(escaper);
+        }
+    }
+
+    /**
+     * @return the number of successful lookups in the caches of the escapers
+     */
+    public synchronized long getHitCount() {
+        long hitCount = this.releasedHitCount + XMLUtilFactory.hitCountOf(this.documentEscaper);
+        for (final FastOdsXMLEscaper escaper : this.escaperByXMLUtil.values()) {
+            hitCount += XMLUtilFactory.hitCountOf(escaper);
+        }
+        return hitCount;
+    }
+
+    /**
+     * @return the number of failed lookups in the caches of the escapers
+     */
+    public synchronized long getMissCount() {
+        long missCount = this.releasedMissCount + XMLUtilFactory.missCountOf(this.documentEscaper);
+        for (final FastOdsXMLEscaper escaper : this.escaperByXMLUtil.values()) {
+            missCount += XMLUtilFactory.missCountOf(escaper);
+        }
+        return missCount;
+    }
+
+    private static long hitCountOf(final FastOdsXMLEscaper escaper) {
+        return escaper.getAttributeCache().getHitCount() +
+                escaper.getContentCache().getHitCount();
+    }
+
+    private static long missCountOf(final FastOdsXMLEscaper escaper) {
+        return escaper.getAttributeCache().getMissCount() +
+                escaper.getContentCache().getMissCount();
+    }
+}
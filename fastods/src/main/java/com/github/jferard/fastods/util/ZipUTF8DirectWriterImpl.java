@@ -0,0 +1,359 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import com.github.jferard.fastods.odselement.ManifestElement;
+import com.github.jferard.fastods.odselement.OdsEntry;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A ZipUTF8Writer that encodes the chars in UTF-8 into its own byte buffer, and writes the
+ * buffer to the zip stream, that is to the deflater. There is no Writer and no CharsetEncoder.
+ * <p>
+ * Most of the chars of an ODS file are ASCII chars: they are copied to the buffer in a tight
+ * loop. A malformed surrogate is replaced by '?', as the JDK encoder does.
+ *
+ * @author J. Férard
+ */
+public class ZipUTF8DirectWriterImpl implements ZipUTF8Writer {
+    /**
+     * The minimal size of the buffer: a supplementary char needs four bytes
+     */
+    static final int MIN_BUFFER_SIZE = 4;
+    private static final int NO_NEXT_CHAR = -1;
+
+    private final ZipOutputStream zipStream;
+    private final ManifestElement manifestElement;
+    private final XMLUtil xmlUtil;
+    private final byte[] buffer;
+    /**
+     * A buffer for String chars
+     */
+    private final char[] chars;
+    private int position;
+    /**
+     * A high surrogate that was appended alone, or 0.
+     */
+    private char pendingHighSurrogate;
+    private final WriterMetrics metrics;
+    private ZipEntry currentEntry;
+    private long entryStart;
+
+    /**
+     * Create a new writer. Do not use directly. Use a builder if you want to avoid mistakes
+     *
+     * @param xmlUtil         the xml util
+     * @param zipStream       the zip stream
+     * @param bufferSize      the size of the byte buffer
+     * @param manifestElement the manifest element
+     */
+    ZipUTF8DirectWriterImpl(final XMLUtil xmlUtil, final ZipOutputStream zipStream,
+                            final int bufferSize, final ManifestElement manifestElement) {
+        this(xmlUtil, zipStream, bufferSize, manifestElement, null);
+    }
+
+    /**
+     * Create a new writer. Do not use directly. Use a builder if you want to avoid mistakes
+     *
+     * @param xmlUtil         the xml util
+     * @param zipStream       the zip stream
+     * @param bufferSize      the size of the byte buffer
+     * @param manifestElement the manifest element
+     * @param metrics         the listener for the metrics of the entries, or null
+     */
+    ZipUTF8DirectWriterImpl(final XMLUtil xmlUtil, final ZipOutputStream zipStream,
+                            final int bufferSize, final ManifestElement manifestElement,
+                            final WriterMetrics metrics) {
+        this.metrics = metrics;
+        this.currentEntry = null;
+        this.zipStream = zipStream;
+        this.manifestElement = manifestElement;
+        this.xmlUtil = xmlUtil;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+        this.chars = new char[this.buffer.length];
+        this.position = 0;
+        this.pendingHighSurrogate = 0;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        if (c < 0x80 && this.pendingHighSurrogate == 0) {
+            if (this.position == this.buffer.length) {
+                this.flushBuffer();
+            }
+            this.buffer[this.position++] = (byte) c;
+        } else {
+            this.appendNonASCII(c, NO_NEXT_CHAR);
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        if (csq == null) {
+            return this.append("null");
+        }
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        if (csq == null) {
+            return this.append("null", start, end);
+        }
+        if (csq instanceof String) {
+            // a bulk copy is faster than charAt
+            final String str = (String) csq;
+            int i = start;
+            while (i < end) {
+                final int n = Math.min(end - i, this.chars.length);
+                str.getChars(i, i + n, this.chars, 0);
+                this.appendChars(n);
+                i += n;
+            }
+        } else {
+            this.appendCharSequence(csq, start, end);
+        }
+        return this;
+    }
+
+    /**
+     * Append the first chars of this.chars
+     *
+     * @param n the number of chars
+     * @throws IOException if the buffer can't be flushed
+     */
+    private void appendChars(final int n) throws IOException {
+        final char[] cs = this.chars;
+        final byte[] buf = this.buffer;
+        int i = 0;
+        while (i < n) {
+            if (this.pendingHighSurrogate == 0) {
+                // ASCII fast path
+                final int runEnd = Math.min(n, i + buf.length - this.position);
+                int pos = this.position;
+                while (i < runEnd) {
+                    final char c = cs[i];
+                    if (c >= 0x80) {
+                        break;
+                    }
+                    buf[pos++] = (byte) c;
+                    i++;
+                }
+                this.position = pos;
+                if (i == n) {
+                    break;
+                }
+                if (i == runEnd) { // the buffer is full
+                    this.flushBuffer();
+                    continue;
+                }
+            }
+            final int next = i + 1 < n ? cs[i + 1] : NO_NEXT_CHAR;
+            i += 1 + this.appendNonASCII(cs[i], next);
+        }
+    }
+
+    private void appendCharSequence(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        final byte[] buf = this.buffer;
+        int i = start;
+        while (i < end) {
+            if (this.pendingHighSurrogate == 0) {
+                // ASCII fast path
+                final int runEnd = Math.min(end, i + buf.length - this.position);
+                int pos = this.position;
+                while (i < runEnd) {
+                    final char c = csq.charAt(i);
+                    if (c >= 0x80) {
+                        break;
+                    }
+                    buf[pos++] = (byte) c;
+                    i++;
+                }
+                this.position = pos;
+                if (i == end) {
+                    break;
+                }
+                if (i == runEnd) { // the buffer is full
+                    this.flushBuffer();
+                    continue;
+                }
+            }
+            final int next = i + 1 < end ? csq.charAt(i + 1) : NO_NEXT_CHAR;
+            i += 1 + this.appendNonASCII(csq.charAt(i), next);
+        }
+    }
+
+    /**
+     * Append a char that is not ASCII or follows a high surrogate.
+     *
+     * @param c    the char
+     * @param next the next char, or NO_NEXT_CHAR if c is the last char of the sequence
+     * @return 1 if the next char was consumed, 0 otherwise
+     * @throws IOException if the buffer can't be flushed
+     */
+    private int appendNonASCII(final char c, final int next) throws IOException {
+        if (this.buffer.length - this.position < MIN_BUFFER_SIZE) {
+            this.flushBuffer();
+        }
+        if (this.pendingHighSurrogate != 0) {
+            final char high = this.pendingHighSurrogate;
+            this.pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                this.putCodePoint(Character.toCodePoint(high, c));
+                return 0;
+            }
+            this.buffer[this.position++] = '?';
+            return this.appendNonASCII(c, next); // c is still to encode
+        }
+
+        if (c < 0x80) {
+            this.buffer[this.position++] = (byte) c;
+        } else if (c < 0x800) {
+            this.buffer[this.position++] = (byte) (0xC0 | (c >> 6));
+            this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            if (next == NO_NEXT_CHAR) { // the low surrogate may come with the next append
+                this.pendingHighSurrogate = c;
+            } else if (Character.isLowSurrogate((char) next)) {
+                this.putCodePoint(Character.toCodePoint(c, (char) next));
+                return 1;
+            } else {
+                this.buffer[this.position++] = '?';
+            }
+        } else if (Character.isLowSurrogate(c)) {
+            this.buffer[this.position++] = '?';
+        } else {
+            this.buffer[this.position++] = (byte) (0xE0 | (c >> 12));
+            this.buffer[this.position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return 0;
+    }
+
+    private void putCodePoint(final int codePoint) {
+        this.buffer[this.position++] = (byte) (0xF0 | (codePoint >> 18));
+        this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    /**
+     * Write the buffer to the zip stream. A pending high surrogate is kept.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void flushBuffer() throws IOException {
+        if (this.position > 0) {
+            this.zipStream.write(this.buffer, 0, this.position);
+            this.position = 0;
+        }
+    }
+
+    /**
+     * Write the buffer to the zip stream. A pending high surrogate is replaced by '?'.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void flushBufferAndSurrogate() throws IOException {
+        if (this.pendingHighSurrogate != 0) {
+            this.pendingHighSurrogate = 0;
+            if (this.position == this.buffer.length) {
+                this.flushBuffer();
+            }
+            this.buffer[this.position++] = '?';
+        }
+        this.flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flushBufferAndSurrogate();
+        this.zipStream.close();
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.flushBufferAndSurrogate();
+        this.zipStream.closeEntry();
+        if (this.currentEntry != null) {
+            final ZipEntry e = this.currentEntry;
+            this.currentEntry = null;
+            this.metrics.entryWritten(e.getName(), e.getSize(), e.getCompressedSize(),
+                    System.nanoTime() - this.entryStart);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.manifestElement.write(this.xmlUtil, this);
+        this.flushBufferAndSurrogate();
+        this.zipStream.finish();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.flushBuffer();
+        this.zipStream.flush();
+    }
+
+    @Override
+    public void putAndRegisterNextEntry(final OdsEntry entry) throws IOException {
+        this.registerEntry(entry);
+        this.putNextEntry(entry);
+    }
+
+    @Override
+    public void registerEntry(final OdsEntry entry) {
+        this.manifestElement.add(entry);
+    }
+
+    @Override
+    public void putNextEntry(final OdsEntry entry) throws IOException {
+        this.flushBufferAndSurrogate();
+        final ZipEntry e = entry.asZipEntry();
+        this.zipStream.putNextEntry(e);
+        if (this.metrics != null) {
+            this.currentEntry = e;
+            this.entryStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.zipStream.setComment(comment);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        this.flushBufferAndSurrogate();
+        this.zipStream.write(bytes);
+    }
+}
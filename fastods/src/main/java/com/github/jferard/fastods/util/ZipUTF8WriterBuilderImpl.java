@@ -32,6 +32,9 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.Deflater;
 import java.util.zip.ZipOutputStream;
 
@@ -43,11 +46,17 @@ import java.util.zip.ZipOutputStream;
 public class ZipUTF8WriterBuilderImpl implements ZipUTF8WriterBuilder {
     private static final int DEFAULT_BUFFER = -1;
     private static final int NO_BUFFER = -2;
+    private static final int DEFAULT_DIRECT_BUFFER_SIZE = 16 * 1024;
     private final XMLUtil xmlUtil;
 
     private int level;
     private int writerBufferSize;
     private int zipBufferSize;
+    private boolean directEncoder;
+    private int deflateThreads;
+    private ExecutorService deflateExecutor;
+    private int deflateBlockSize;
+    private WriterMetrics metrics;
 
     /**
      * Create a new builder
@@ -56,6 +65,11 @@ public class ZipUTF8WriterBuilderImpl implements ZipUTF8WriterBuilder {
         this.level = Deflater.BEST_SPEED;
         this.writerBufferSize = ZipUTF8WriterBuilderImpl.DEFAULT_BUFFER;
         this.zipBufferSize = ZipUTF8WriterBuilderImpl.DEFAULT_BUFFER;
+        this.directEncoder = true;
+        this.deflateThreads = 0;
+        this.deflateExecutor = null;
+        this.deflateBlockSize = ParallelZipOutputStream.DEFAULT_BLOCK_SIZE;
+        this.metrics = null;
         this.xmlUtil = XMLUtil.create();
     }
 
@@ -73,9 +87,13 @@ public class ZipUTF8WriterBuilderImpl implements ZipUTF8WriterBuilder {
                 bufferedOut = new BufferedOutputStream(out, this.zipBufferSize);
                 break;
         }
-        final ZipOutputStream zipOut = new ZipOutputStream(bufferedOut);
+        final ZipOutputStream zipOut = this.createZipOutputStream(bufferedOut);
         zipOut.setMethod(ZipOutputStream.DEFLATED);
         zipOut.setLevel(this.level);
+        if (this.directEncoder) {
+            return new ZipUTF8DirectWriterImpl(this.xmlUtil, zipOut, this.getDirectBufferSize(),
+                    ManifestElement.create(), this.metrics);
+        }
         final Writer writer = new OutputStreamWriter(zipOut, StandardCharsets.UTF_8);
         final Writer bufferedWriter;
         switch (this.writerBufferSize) {
@@ -90,7 +108,114 @@ public class ZipUTF8WriterBuilderImpl implements ZipUTF8WriterBuilder {
                 break;
         }
         return new ZipUTF8WriterImpl(this.xmlUtil, zipOut, bufferedWriter,
-                ManifestElement.create());
+                ManifestElement.create(), this.metrics);
+    }
+
+    private ZipOutputStream createZipOutputStream(final OutputStream bufferedOut) {
+        if (this.deflateThreads == 0) {
+            return new ZipOutputStream(bufferedOut);
+        }
+        final ExecutorService executor;
+        final boolean shutdownExecutor;
+        if (this.deflateExecutor == null) {
+            executor = Executors.newFixedThreadPool(this.deflateThreads, new ThreadFactory() {
+                private int count = 0;
+
+                @Override
+                public synchronized Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "fastods-deflate-" + this.count++);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            shutdownExecutor = true;
+        } else {
+            executor = this.deflateExecutor;
+            shutdownExecutor = false;
+        }
+        return new ParallelZipOutputStream(bufferedOut, executor, shutdownExecutor,
+                2 * this.deflateThreads, this.deflateBlockSize);
+    }
+
+    private int getDirectBufferSize() {
+        switch (this.writerBufferSize) {
+            case NO_BUFFER:
+                return ZipUTF8DirectWriterImpl.MIN_BUFFER_SIZE;
+            case DEFAULT_BUFFER:
+                return DEFAULT_DIRECT_BUFFER_SIZE;
+            default:
+                return this.writerBufferSize;
+        }
+    }
+
+    /**
+     * Use the JDK chain BufferedWriter &rarr; OutputStreamWriter (UTF-8) instead of the
+     * direct UTF-8 encoder of {@link ZipUTF8DirectWriterImpl}.
+     *
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilderImpl writerChain() {
+        this.directEncoder = false;
+        return this;
+    }
+
+    /**
+     * Deflate the entries in parallel, on a new pool of threads. The pool is shut down when the
+     * writer is closed.
+     *
+     * @param threads the number of threads
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilderImpl parallelDeflate(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.deflateThreads = threads;
+        this.deflateExecutor = null;
+        return this;
+    }
+
+    /**
+     * Deflate the entries in parallel, on a given executor. The executor is not shut down by
+     * the writer.
+     *
+     * @param executor    the executor
+     * @param parallelism the number of threads of the executor that may be used
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilderImpl parallelDeflate(final ExecutorService executor,
+                                                    final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.deflateThreads = parallelism;
+        this.deflateExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Set the size of the blocks for the parallel deflate.
+     *
+     * @param size the size of a block
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilderImpl deflateBlockSize(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.deflateBlockSize = size;
+        return this;
+    }
+
+    /**
+     * Report the sizes and the write time of every entry.
+     *
+     * @param metrics the listener, or null to disable the metrics
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilderImpl metrics(final WriterMetrics metrics) {
+        this.metrics = metrics;
+        return this;
     }
 
     /**
@@ -105,7 +230,7 @@ public class ZipUTF8WriterBuilderImpl implements ZipUTF8WriterBuilder {
     }
 
     /**
-     * Set the buffer size for the writer to 0
+     * Set the buffer size for the writer to 0 (the direct encoder keeps a minimal buffer)
      *
      * @return this for fluent style
      */
@@ -125,7 +250,8 @@ public class ZipUTF8WriterBuilderImpl implements ZipUTF8WriterBuilder {
     }
 
     /**
-     * Set the buffer size for the writer
+     * Set the buffer size for the writer. For the direct encoder, this is the size of the byte
+     * buffer.
      *
      * @param size the size of the buffer
      * @return this for fluent style
@@ -48,6 +48,9 @@ public class ZipUTF8WriterImpl implements ZipUTF8Writer {
     private final Writer writer;
     private final ManifestElement manifestElement;
     private final XMLUtil xmlUtil;
+    private final WriterMetrics metrics;
+    private ZipEntry currentEntry;
+    private long entryStart;
 
     /**
      * Create a new writer. Do not use directly. Use a builder if you want to avoid mistakes
@@ -59,10 +62,26 @@ public class ZipUTF8WriterImpl implements ZipUTF8Writer {
      */
     ZipUTF8WriterImpl(final XMLUtil xmlUtil, final ZipOutputStream zipStream, final Writer writer,
                       final ManifestElement manifestElement) {
+        this(xmlUtil, zipStream, writer, manifestElement, null);
+    }
+
+    /**
+     * Create a new writer. Do not use directly. Use a builder if you want to avoid mistakes
+     *
+     * @param xmlUtil         the xml util
+     * @param zipStream       the zip stream
+     * @param writer          the utf-8 writer
+     * @param manifestElement the manifest element
+     * @param metrics         the listener for the metrics of the entries, or null
+     */
+    ZipUTF8WriterImpl(final XMLUtil xmlUtil, final ZipOutputStream zipStream, final Writer writer,
+                      final ManifestElement manifestElement, final WriterMetrics metrics) {
         this.zipStream = zipStream;
         this.writer = writer;
         this.manifestElement = manifestElement;
         this.xmlUtil = xmlUtil;
+        this.metrics = metrics;
+        this.currentEntry = null;
     }
 
     @Override
@@ -91,6 +110,12 @@ public class ZipUTF8WriterImpl implements ZipUTF8Writer {
     public void closeEntry() throws IOException {
         this.writer.flush();
         this.zipStream.closeEntry();
+        if (this.currentEntry != null) {
+            final ZipEntry e = this.currentEntry;
+            this.currentEntry = null;
+            this.metrics.entryWritten(e.getName(), e.getSize(), e.getCompressedSize(),
+                    System.nanoTime() - this.entryStart);
+        }
     }
 
     @Override
@@ -119,6 +144,10 @@ public class ZipUTF8WriterImpl implements ZipUTF8Writer {
     public void putNextEntry(final OdsEntry entry) throws IOException {
         final ZipEntry e = entry.asZipEntry();
         this.zipStream.putNextEntry(e);
+        if (this.metrics != null) {
+            this.currentEntry = e;
+            this.entryStart = System.nanoTime();
+        }
     }
 
     @Override
@@ -0,0 +1,164 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.testlib.Bench;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A producer sends flushers to an OdsFileWriterAdapter, a consumer thread flushes them into a
+ * slow writer. The result is the time spent by the producer.
+ *
+ * @author J. Férard
+ */
+public class BenchWriterAdapter extends Bench {
+    /**
+     * Busy wait: sleep is not precise enough
+     *
+     * @param nanos the duration
+     */
+    private static void work(final long nanos) {
+        final long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            // busy
+        }
+    }
+
+    /**
+     * A writer that takes some time for every flusher
+     */
+    private static class SlowWriter implements NamedOdsFileWriter {
+        private final long nanosPerFlusher;
+
+        SlowWriter(final long nanosPerFlusher) {
+            this.nanosPerFlusher = nanosPerFlusher;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public NamedOdsDocument document() {
+            return null;
+        }
+
+        @Override
+        public void save() {
+        }
+
+        @Override
+        public void update(final OdsAsyncFlusher flusher) {
+            work(this.nanosPerFlusher);
+        }
+    }
+
+    /**
+     * A flusher
+     */
+    private static class NoOpFlusher implements OdsAsyncFlusher {
+        private final boolean end;
+
+        NoOpFlusher(final boolean end) {
+            this.end = end;
+        }
+
+        @Override
+        public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) {
+        }
+
+        @Override
+        public boolean isEnd() {
+            return this.end;
+        }
+    }
+
+    private final Logger logger;
+    private final int capacity;
+    private final long producerNanos;
+    private final long consumerNanos;
+
+    /**
+     * @param logger        the logger
+     * @param capacity      the capacity of the adapter queue
+     * @param flusherCount  the number of flushers
+     * @param producerNanos the time to produce a flusher
+     * @param consumerNanos the time to consume a flusher
+     */
+    public BenchWriterAdapter(final Logger logger, final int capacity, final int flusherCount,
+                              final long producerNanos, final long consumerNanos) {
+        super(logger, "WriterAdapter-" + capacity, flusherCount, 1);
+        this.logger = logger;
+        this.capacity = capacity;
+        this.producerNanos = producerNanos;
+        this.consumerNanos = consumerNanos;
+    }
+
+    @Override
+    public long test() throws IOException {
+        final OdsFileWriterAdapter adapter = OdsFileWriterAdapter
+                .create(this.logger, new SlowWriter(this.consumerNanos), this.capacity);
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (adapter.isNotStopped()) {
+                        adapter.waitForData();
+                        adapter.flushAdaptee();
+                    }
+                    adapter.flushAdaptee();
+                } catch (final IOException e) {
+                    BenchWriterAdapter.this.logger.log(Level.SEVERE, "", e);
+                }
+            }
+        };
+        consumer.start();
+
+        final long t1 = System.currentTimeMillis();
+        final int count = this.getRowCount();
+        final OdsAsyncFlusher flusher = new NoOpFlusher(false);
+        for (int i = 0; i < count; i++) {
+            work(this.producerNanos);
+            adapter.update(flusher);
+        }
+        adapter.update(new NoOpFlusher(true));
+        final long t2 = System.currentTimeMillis();
+        try {
+            consumer.join();
+        } catch (final InterruptedException e) {
+            throw new IOException(e);
+        }
+        final long t3 = System.currentTimeMillis();
+        this.logger.info(
+                "Capacity " + this.capacity + ": " + count + " flushers, producer " + (t2 - t1) +
+                        " ms (" + (count / Math.max(1, t2 - t1)) + " flushers/ms), total " +
+                        (t3 - t1) + " ms");
+        return t2 - t1;
+    }
+}
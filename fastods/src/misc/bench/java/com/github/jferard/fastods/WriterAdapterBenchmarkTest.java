@@ -0,0 +1,87 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.testlib.Bench;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Producer throughput of the OdsFileWriterAdapter with a slow consumer, for several queue
+ * capacities. A bounded queue ties the producer to the speed of the consumer (backpressure), a
+ * queue larger than the number of flushers lets the producer run at full speed.
+ * <p>
+ * mvn -P bench test -Dtest=WriterAdapterBenchmarkTest
+ *
+ * @author J. Férard
+ */
+public class WriterAdapterBenchmarkTest {
+    private static final int FLUSHER_COUNT = 20000;
+    private static final int TIMES = 10;
+
+    private Logger logger;
+
+    @Before
+    public final void setUp() {
+        this.logger = Logger.getLogger("Benchmark");
+    }
+
+    @Test
+    public void testSlowConsumer() throws IOException {
+        // the consumer is 4 times slower than the producer
+        this.test(5000, 20000);
+    }
+
+    @Test
+    public void testBalanced() throws IOException {
+        this.test(10000, 10000);
+    }
+
+    private void test(final long producerNanos, final long consumerNanos) throws IOException {
+        final List<Bench> benches = Arrays.<Bench>asList(
+                new BenchWriterAdapter(this.logger, 1, FLUSHER_COUNT, producerNanos,
+                        consumerNanos),
+                new BenchWriterAdapter(this.logger, 32, FLUSHER_COUNT, producerNanos,
+                        consumerNanos),
+                new BenchWriterAdapter(this.logger, 1024, FLUSHER_COUNT, producerNanos,
+                        consumerNanos),
+                new BenchWriterAdapter(this.logger, 32768, FLUSHER_COUNT, producerNanos,
+                        consumerNanos));
+
+        for (int i = 0; i < TIMES; i++) {
+            for (final Bench bench : benches) {
+                bench.iteration();
+            }
+        }
+
+        for (final Bench bench : benches) {
+            this.logger.info(bench.getWithoutWarmUp().toString());
+        }
+    }
+}
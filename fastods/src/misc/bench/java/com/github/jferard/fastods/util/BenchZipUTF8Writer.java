@@ -0,0 +1,97 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import com.github.jferard.fastods.odselement.StandardOdsEntry;
+import com.github.jferard.fastods.testlib.Bench;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+/**
+ * Write a large content.xml-like stream with a given ZipUTF8Writer. The output is discarded.
+ *
+ * @author J. Férard
+ */
+public class BenchZipUTF8Writer extends Bench {
+    private final Logger logger;
+    private final ZipUTF8WriterBuilderImpl builder;
+
+    /**
+     * @param logger   the logger
+     * @param name     the name of the bench
+     * @param builder  the builder of the writer to test
+     * @param rowCount the number of rows
+     * @param colCount the number of columns
+     */
+    public BenchZipUTF8Writer(final Logger logger, final String name,
+                              final ZipUTF8WriterBuilderImpl builder, final int rowCount,
+                              final int colCount) {
+        super(logger, name, rowCount, colCount);
+        this.logger = logger;
+        this.builder = builder;
+    }
+
+    @Override
+    public long test() throws IOException {
+        final long t1 = System.currentTimeMillis();
+        final ZipUTF8Writer writer = this.builder.build(new NullOutputStream());
+        writer.putAndRegisterNextEntry(new StandardOdsEntry("content.xml", "text/xml", null));
+        for (int r = 0; r < this.getRowCount(); r++) {
+            writer.append("<table:table-row table:style-name=\"ro1\">");
+            for (int c = 0; c < this.getColCount(); c++) {
+                if (c % 5 == 0) {
+                    writer.append("<table:table-cell office:value-type=\"string\" " +
+                            "office:string-value=\"Café n°").append(String.valueOf(r))
+                            .append("\"/>");
+                } else {
+                    writer.append("<table:table-cell office:value-type=\"float\" " +
+                            "office:value=\"").append(String.valueOf(this.getRandom().nextInt()))
+                            .append("\"/>");
+                }
+            }
+            writer.append("</table:table-row>");
+        }
+        writer.closeEntry();
+        writer.finish();
+        writer.close();
+        final long t2 = System.currentTimeMillis();
+        this.logger.info(this.getRowCount() + " rows written in " + (t2 - t1) + " ms");
+        return t2 - t1;
+    }
+
+    /**
+     * Discard the bytes
+     */
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import com.github.jferard.fastods.testlib.Bench;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Compare the direct UTF-8 encoder to the JDK writer chain.
+ * <p>
+ * mvn -P bench test -Dtest=ZipUTF8WriterBenchmarkTest
+ *
+ * @author J. Férard
+ */
+public class ZipUTF8WriterBenchmarkTest {
+    private static final int COL_COUNT = 20;
+    private static final int ROW_COUNT = 100000;
+    private static final int TIMES = 10;
+
+    private Logger logger;
+
+    @Before
+    public final void setUp() {
+        this.logger = Logger.getLogger("Benchmark");
+    }
+
+    @Test
+    public void test1() throws IOException {
+        this.test(ROW_COUNT, COL_COUNT, TIMES);
+    }
+
+    @Test
+    public void test2() throws IOException {
+        this.test(5 * ROW_COUNT, COL_COUNT, TIMES);
+    }
+
+    private void test(final int rowCount, final int colCount, final int times)
+            throws IOException {
+        final List<Bench> benches = Arrays.<Bench>asList(
+                new BenchZipUTF8Writer(this.logger, "Direct encoder",
+                        new ZipUTF8WriterBuilderImpl(), rowCount, colCount),
+                new BenchZipUTF8Writer(this.logger, "Writer chain",
+                        new ZipUTF8WriterBuilderImpl().writerChain(), rowCount, colCount));
+
+        for (int i = 0; i < times; i++) {
+            for (final Bench bench : benches) {
+                bench.iteration();
+            }
+        }
+
+        for (final Bench bench : benches) {
+            this.logger.info(bench.getWithoutWarmUp().toString());
+        }
+    }
+}
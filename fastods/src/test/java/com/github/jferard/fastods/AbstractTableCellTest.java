@@ -32,7 +32,14 @@ import org.junit.function.ThrowingRunnable;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 public class AbstractTableCellTest {
     @Test
@@ -62,6 +69,65 @@ public class AbstractTableCellTest {
         }
     }
 
+    @Test
+    public void testDefaultJavaTimeSetters() {
+        final List<Object> values = new ArrayList<Object>();
+        final WritableTableCell cell = new AbstractTableCell() {
+            @Override
+            public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setDateValue(final Date date) {
+                values.add(date);
+            }
+
+            @Override
+            public void setTimeValue(final long timeInMillis) {
+                values.add(timeInMillis);
+            }
+        };
+        cell.setDateValue(LocalDate.of(1970, 1, 2));
+        cell.setDateValue(LocalDateTime.of(1970, 1, 1, 0, 0, 1));
+        cell.setDateValue(Instant.ofEpochMilli(1234567891011L));
+        cell.setTimeValue(Duration.ofMinutes(1));
+        Assert.assertEquals(Arrays.<Object>asList(new Date(86400000L), new Date(1000L),
+                new Date(1234567891011L), 60000L), values);
+    }
+
+    @Test
+    public void testDefaultPrimitiveSetters() {
+        final List<Object> values = new ArrayList<Object>();
+        final WritableTableCell cell = new AbstractTableCell() {
+            @Override
+            public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setCurrencyValue(final Number value, final String currency) {
+                values.add(value);
+                values.add(currency);
+            }
+
+            @Override
+            public void setFloatValue(final Number value) {
+                values.add(value);
+            }
+
+            @Override
+            public void setPercentageValue(final Number value) {
+                values.add(value);
+            }
+        };
+        cell.setCurrencyValue(1.5, "EUR");
+        cell.setFloatValue(2.5);
+        cell.setFloatValue(3L);
+        cell.setPercentageValue(0.75);
+        Assert.assertEquals(Arrays.<Object>asList(1.5, "EUR", 2.5, 3L, 0.75), values);
+    }
+
     @Test
     public void testHasValue() {
         final WritableTableCell cell = new AbstractTableCell() {
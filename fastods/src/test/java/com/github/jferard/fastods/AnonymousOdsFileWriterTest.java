@@ -32,6 +32,8 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableRowStyle;
 import com.github.jferard.fastods.style.TableStyle;
+import com.github.jferard.fastods.util.FileSpool;
+import com.github.jferard.fastods.util.HeapSpool;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilderImpl;
@@ -66,6 +68,9 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -560,4 +565,80 @@ public class AnonymousOdsFileWriterTest {
 
         PowerMock.verifyAll();
     }
+
+    @Test
+    public final void testSpooledTables() throws Exception {
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+        final OdsDocument document = writer.document();
+        final Table table1 = document.addTable("t1");
+        table1.setSpool(HeapSpool.create());
+        final Table table2 = document.addTable("t2");
+        table2.setSpool(FileSpool.create(1024));
+        final TableCellStyle style = TableCellStyle.builder("s").fontWeightBold().build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> future1 = executor.submit(() -> {
+                for (int r = 0; r < 10000; r++) {
+                    final TableCell cell = table1.getRow(r).getOrCreateCell(0);
+                    cell.setFloatValue(r);
+                    cell.setStyle(style);
+                }
+                return null;
+            });
+            final Future<?> future2 = executor.submit(() -> {
+                for (int r = 0; r < 10000; r++) {
+                    final TableCell cell = table2.getRow(r).getOrCreateCell(0);
+                    cell.setStringValue("v" + r);
+                    cell.setStyle(style);
+                }
+                return null;
+            });
+            future1.get();
+            future2.get();
+        } finally {
+            executor.shutdown();
+        }
+        writer.save(this.os);
+
+        final String content = this.getEntry("content.xml");
+        final int t1Index = content.indexOf("table:name=\"t1\"");
+        final int t2Index = content.indexOf("table:name=\"t2\"");
+        Assert.assertTrue(0 < t1Index && t1Index < t2Index);
+        Assert.assertTrue(content.indexOf("office:value=\"9999\"") < t2Index);
+        Assert.assertTrue(content.indexOf("office:string-value=\"v0\"") > t2Index);
+        Assert.assertTrue(content.indexOf("office:string-value=\"v9999\"") > t2Index);
+        Assert.assertEquals(20000, this.count(content, "<table:table-row"));
+        Assert.assertTrue(this.getEntry("styles.xml").contains("style:name=\"s\""));
+    }
+
+    private String getEntry(final String name) throws IOException {
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(this.os.toByteArray()));
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            if (entry.getName().equals(name)) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buf = new byte[4096];
+                int count = zis.read(buf);
+                while (count != -1) {
+                    out.write(buf, 0, count);
+                    count = zis.read(buf);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+            entry = zis.getNextEntry();
+        }
+        throw new AssertionError(name);
+    }
+
+    private int count(final String text, final String pattern) {
+        int count = 0;
+        int index = text.indexOf(pattern);
+        while (index != -1) {
+            count++;
+            index = text.indexOf(pattern, index + 1);
+        }
+        return count;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+
+public class CellStyleRegistryTest {
+    private CellStyleRegistry registry;
+    private XMLUtil util;
+
+    @Before
+    public void setUp() {
+        this.registry = new CellStyleRegistry();
+        this.util = XMLUtil.create();
+    }
+
+    @Test
+    public void testNull() {
+        Assert.assertEquals(0, this.registry.getId(null));
+        Assert.assertNull(this.registry.getStyle(0));
+        Assert.assertEquals(0, this.registry.size());
+    }
+
+    @Test
+    public void testDenseIds() {
+        final TableCellStyle[] styles = new TableCellStyle[100];
+        for (int i = 0; i < styles.length; i++) {
+            styles[i] = TableCellStyle.builder("s" + i).build();
+            Assert.assertEquals(i + 1, this.registry.getId(styles[i]));
+        }
+        for (int i = 0; i < styles.length; i++) {
+            Assert.assertEquals(i + 1, this.registry.getId(styles[i]));
+            Assert.assertSame(styles[i], this.registry.getStyle(i + 1));
+        }
+        Assert.assertEquals(100, this.registry.size());
+    }
+
+    @Test
+    public void testSameNameDistinctStyles() {
+        final TableCellStyle s1 = TableCellStyle.builder("s").build();
+        final TableCellStyle s2 = TableCellStyle.builder("s").build();
+        Assert.assertEquals(1, this.registry.getId(s1));
+        Assert.assertEquals(2, this.registry.getId(s2));
+    }
+
+    @Test
+    public void testAppendStyleNameAttribute() throws IOException {
+        final int id = this.registry.getId(TableCellStyle.builder("ce1").build());
+        final StringBuilder sb = new StringBuilder();
+        this.registry.appendStyleNameAttribute(this.util, sb, id);
+        this.registry.appendStyleNameAttribute(this.util, sb, id);
+        Assert.assertEquals(" table:style-name=\"ce1\" table:style-name=\"ce1\"",
+                sb.toString());
+    }
+
+    @Test
+    public void testFragmentsAfterGrowth() throws IOException {
+        for (int i = 1; i <= 100; i++) {
+            Assert.assertEquals(i, this.registry.getId(TableCellStyle.builder("s" + i).build()));
+        }
+        this.registry.buildFragments(this.util);
+        final StringBuilder sb = new StringBuilder();
+        this.registry.appendStyleNameAttribute(null, sb, 1);
+        this.registry.appendStyleNameAttribute(null, sb, 100);
+        Assert.assertEquals(" table:style-name=\"s1\" table:style-name=\"s100\"",
+                sb.toString());
+    }
+
+    @Test
+    public void testBuildFragments() throws IOException {
+        final XMLUtil util = PowerMock.createMock(XMLUtil.class);
+        final TableCellStyle style = TableCellStyle.builder("ce1").build();
+        PowerMock.resetAll();
+        EasyMock.expect(util.escapeXMLAttribute("ce1")).andReturn("ce1");
+
+        PowerMock.replayAll();
+        final int id = this.registry.getId(style);
+        this.registry.buildFragments(util);
+        this.registry.buildFragments(util);
+        final StringBuilder sb = new StringBuilder();
+        this.registry.appendStyleNameAttribute(util, sb, id);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(" table:style-name=\"ce1\"", sb.toString());
+    }
+}
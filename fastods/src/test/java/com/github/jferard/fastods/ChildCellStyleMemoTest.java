@@ -0,0 +1,75 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.style.TableCellStyle;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+public class ChildCellStyleMemoTest {
+    private ChildCellStyleMemo memo;
+    private TableCellStyle base;
+    private TableCellStyle child;
+    private DataStyle dataStyle;
+
+    @Before
+    public void setUp() {
+        this.memo = new ChildCellStyleMemo();
+        this.base = TableCellStyle.builder("base").build();
+        this.child = TableCellStyle.builder("child").build();
+        final DataStyles ds = DataStylesBuilder.create(Locale.US).build();
+        this.dataStyle = ds.getDateDataStyle();
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertNull(this.memo.get(0, CellType.DATE, this.base, this.dataStyle));
+        Assert.assertNull(this.memo.get(10000, CellType.DATE, this.base, this.dataStyle));
+    }
+
+    @Test
+    public void testPutGet() {
+        this.memo.put(3, CellType.DATE, this.base, this.dataStyle, this.child);
+        Assert.assertSame(this.child, this.memo.get(3, CellType.DATE, this.base, this.dataStyle));
+        Assert.assertNull(this.memo.get(2, CellType.DATE, this.base, this.dataStyle));
+        Assert.assertNull(this.memo.get(3, CellType.FLOAT, this.base, this.dataStyle));
+        Assert.assertNull(this.memo.get(3, CellType.DATE, this.child, this.dataStyle));
+        Assert.assertNull(this.memo.get(3, CellType.DATE, this.base, null));
+    }
+
+    @Test
+    public void testReplaceAndGrow() {
+        this.memo.put(1000, CellType.DATE, this.base, this.dataStyle, this.base);
+        this.memo.put(1000, CellType.DATE, this.base, this.dataStyle, this.child);
+        Assert.assertSame(this.child,
+                this.memo.get(1000, CellType.DATE, this.base, this.dataStyle));
+    }
+}
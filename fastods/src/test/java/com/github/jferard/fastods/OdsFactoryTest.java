@@ -27,7 +27,10 @@ package com.github.jferard.fastods;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.datastyle.DataStylesBuilder;
 import com.github.jferard.fastods.odselement.MetaElement;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.FastOdsXMLEscaper;
 import com.github.jferard.fastods.util.FileOpen;
+import com.github.jferard.fastods.util.WriterMetrics;
 import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.After;
@@ -36,11 +39,24 @@ import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 /**
  * Created by jferard on 09/05/17.
@@ -90,6 +106,345 @@ public class OdsFactoryTest {
         factory.createWriter();
     }
 
+    @Test
+    public void createFactoryBuilderWithEscaper() throws Exception {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(2);
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .xmlEscaper(escaper).build();
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        final Table table = writer.document().addTable("t");
+        final TableCellWalker walker = table.getWalker();
+        for (int i = 0; i < 10; i++) {
+            walker.setStringValue("v" + i % 5);
+            walker.nextRow();
+        }
+        writer.save(new ByteArrayOutputStream());
+
+        // cell values are streamed to the writer and do not fill the cache
+        Assert.assertTrue(escaper.getAttributeCache().size() <= 2);
+        Assert.assertTrue(escaper.getContentCache().size() <= 2);
+    }
+
+    @Test
+    public void createFactoryBuilderWithWriterMetrics() throws Exception {
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .writerMetrics(metrics).build();
+
+        PowerMock.resetAll();
+        metrics.entryWritten(EasyMock.anyString(), EasyMock.anyLong(), EasyMock.anyLong(),
+                EasyMock.anyLong());
+        EasyMock.expectLastCall().atLeastOnce();
+        metrics.tableWritten(EasyMock.eq("t"), EasyMock.eq(10), EasyMock.eq(20L),
+                EasyMock.anyLong());
+        metrics.escaperCacheStats(EasyMock.anyLong(), EasyMock.anyLong());
+
+        PowerMock.replayAll();
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        this.fillTable(writer.document().addTable("t"));
+        writer.save(new ByteArrayOutputStream());
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void createFactoryBuilderWithWriterMetricsNamed() throws Exception {
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .writerMetrics(metrics).build();
+
+        PowerMock.resetAll();
+        metrics.entryWritten(EasyMock.anyString(), EasyMock.anyLong(), EasyMock.anyLong(),
+                EasyMock.anyLong());
+        EasyMock.expectLastCall().atLeastOnce();
+        metrics.flusherExecuted(EasyMock.anyString(), EasyMock.anyLong());
+        EasyMock.expectLastCall().atLeastOnce();
+        metrics.tableWritten(EasyMock.eq("t"), EasyMock.eq(10), EasyMock.eq(20L),
+                EasyMock.anyLong());
+        metrics.escaperCacheStats(EasyMock.anyLong(), EasyMock.anyLong());
+
+        PowerMock.replayAll();
+        final NamedOdsFileWriter writer = factory.createWriter(this.file);
+        this.fillTable(writer.document().addTable("t"));
+        writer.save();
+        writer.close();
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void createFactoryBuilderWithTableMemoryBudget() throws Exception {
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .tableMemoryBudget(64 * 1024).build();
+        final NamedOdsFileWriter writer = factory.createWriter(this.file);
+        final Table table = writer.document().addTable("t");
+        final TableCellWalker walker = table.getWalker();
+        long maxRetainedBytes = 0;
+        for (int r = 0; r < 1000; r++) {
+            if (r > 0) {
+                walker.nextRow();
+            }
+            for (int c = 0; c < 100; c++) {
+                walker.setStringValue("value" + r + "/" + c);
+                walker.next();
+            }
+            maxRetainedBytes = Math.max(maxRetainedBytes, table.estimatedRetainedBytes());
+        }
+        writer.save();
+        writer.close();
+
+        Assert.assertTrue(maxRetainedBytes > 0);
+        Assert.assertTrue(maxRetainedBytes < 2 * 64 * 1024);
+        final String content = this.readContent();
+        Assert.assertTrue(content.contains("\"value0/0\""));
+        Assert.assertTrue(content.contains("\"value999/99\""));
+    }
+
+    @Test
+    public void createWriterWithPartitions() throws Exception {
+        final OdsFactory factory = OdsFactory
+                .create(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US);
+        final NamedOdsFileWriter writer = factory.createWriter(this.file);
+        final Table table = writer.document().addTable("t");
+        table.getRow(0).getOrCreateCell(0).setStringValue("header");
+        final List<TablePartition> partitions = new ArrayList<TablePartition>();
+        for (int i = 0; i < 4; i++) {
+            partitions.add(table.reservePartition(250));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final TablePartition partition : partitions) {
+            futures.add(executor.submit(() -> {
+                for (int r = partition.getFirstRowIndex(); r < partition.getEndRowIndex();
+                     r++) {
+                    partition.beginRow();
+                    partition.writeString("value" + r);
+                    partition.writeDouble(r, TableCellStyle.DEFAULT_CELL_STYLE);
+                    partition.endRow();
+                }
+                partition.close();
+                return null;
+            }));
+        }
+        for (final Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assert.assertEquals(1001, table.getRowCount());
+        writer.save();
+        writer.close();
+
+        final String content = this.readContent();
+        int from = content.indexOf("\"header\"");
+        Assert.assertTrue(from >= 0);
+        for (int r = 1; r <= 1000; r++) {
+            final int index = content.indexOf("\"value" + r + "\"", from);
+            Assert.assertTrue("Row " + r, index > from);
+            from = index;
+        }
+        Assert.assertTrue(content.indexOf("</table:table>", from) > from);
+    }
+
+    private String readContent() throws IOException {
+        final ZipFile zipFile = new ZipFile(this.file);
+        try {
+            final InputStream in = zipFile.getInputStream(zipFile.getEntry("content.xml"));
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int count = in.read(buffer);
+            while (count != -1) {
+                out.write(buffer, 0, count);
+                count = in.read(buffer);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void createFactoryBuilderWithBadTableMemoryBudget() {
+        final OdsFactoryBuilder builder = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US);
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> builder.tableMemoryBudget(0));
+    }
+
+    private void fillTable(final Table table) throws IOException {
+        final TableCellWalker walker = table.getWalker();
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                walker.nextRow();
+            }
+            walker.setStringValue("v" + i % 5);
+            walker.next();
+            walker.setFloatValue(i);
+        }
+    }
+
+    @Test
+    public void createFactoryBuilderParallelRowsRendering() throws Exception {
+        final RowsRenderer renderer = RowsRenderer.create(3);
+        try {
+            final String expected = this.getContent(OdsFactory
+                    .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                    .build());
+            final String actual = this.getContent(OdsFactory
+                    .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                    .rowsRenderer(renderer).build());
+            Assert.assertEquals(expected, actual);
+        } finally {
+            renderer.close();
+        }
+    }
+
+    private String getContent(final OdsFactory factory) throws IOException {
+        final File file = File.createTempFile("fastods", ".ods");
+        file.deleteOnExit();
+        final NamedOdsFileWriter writer = factory.createWriter(file);
+        final NamedOdsDocument document = writer.document();
+        final TableCellStyle style = TableCellStyle.builder("s").fontWeightBold().build();
+        for (int t = 0; t < 2; t++) {
+            final Table table = document.addTable("t" + t);
+            final TableCellWalker walker = table.getWalker();
+            for (int r = 0; r < 20000; r++) {
+                walker.setFloatValue(r);
+                walker.next();
+                walker.setStringValue("v&" + r % 7);
+                walker.setStyle(style);
+                walker.nextRow();
+            }
+        }
+        writer.save();
+        writer.close();
+
+        final ZipFile zipFile = new ZipFile(file);
+        try {
+            final InputStream is = zipFile.getInputStream(zipFile.getEntry("content.xml"));
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n = is.read(buffer);
+            while (n != -1) {
+                out.write(buffer, 0, n);
+                n = is.read(buffer);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void createFactoryBuilderNoEscapeCache() throws Exception {
+        final WriterMetrics metrics = PowerMock.createNiceMock(WriterMetrics.class);
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .noEscapeCache().writerMetrics(metrics).build();
+
+        PowerMock.resetAll();
+        metrics.escaperCacheStats(0L, 0L);
+
+        PowerMock.replayAll();
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        this.fillTableWithStrings(writer.document().addTable("t"));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(out.size() > 0);
+    }
+
+    @Test
+    public void createFactoryBuilderEscapeCache() throws Exception {
+        final WriterMetrics metrics = PowerMock.createNiceMock(WriterMetrics.class);
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .escapeCacheSize(16).writerMetrics(metrics).build();
+        final Capture<Long> hitCount = Capture.newInstance();
+
+        PowerMock.resetAll();
+        metrics.escaperCacheStats(EasyMock.captureLong(hitCount), EasyMock.anyLong());
+
+        PowerMock.replayAll();
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        this.fillTableWithStrings(writer.document().addTable("t"));
+        writer.save(new ByteArrayOutputStream());
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(hitCount.getValue() >= 9);
+    }
+
+    private void fillTableWithStrings(final Table table) throws IOException {
+        for (int r = 0; r < 10; r++) {
+            final TableRowImpl row = table.getRow(r);
+            row.getOrCreateCell(0).setStringValue("a&b");
+            row.getOrCreateCell(1).setFloatValue(r); // no repeated rows
+        }
+    }
+
+    @Test
+    public void createFactoryBuilderSpillToDisk() throws Exception {
+        final File dir = File.createTempFile("fastods", "");
+        Assert.assertTrue(dir.delete() && dir.mkdir());
+        try {
+            final String expected = this.getAnonymousContent(OdsFactory
+                    .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                    .build());
+            final String actual = this.getAnonymousContent(OdsFactory
+                    .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                    .spillToDisk(64 * 1024, dir).build());
+            Assert.assertEquals(expected, actual);
+            Assert.assertEquals(0, dir.list().length);
+        } finally {
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void createFactoryBuilderBadSpillBudget() {
+        final OdsFactoryBuilder builder = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US);
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.spillToDisk(0));
+    }
+
+    private String getAnonymousContent(final OdsFactory factory) throws IOException {
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        final OdsDocument document = writer.document();
+        for (int t = 0; t < 2; t++) {
+            final Table table = document.addTable("t" + t);
+            final TableCellWalker walker = table.getWalker();
+            for (int r = 0; r < 20000; r++) {
+                walker.setFloatValue(r);
+                walker.next();
+                walker.setStringValue("v&" + r % 7);
+                // a new style is collected after the first blocks were spilled
+                walker.setStyle(TableCellStyle.builder("s" + r / 5000).fontWeightBold().build());
+                walker.nextRow();
+            }
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ZipEntry entry = zis.getNextEntry();
+        while (!entry.getName().equals("content.xml")) {
+            entry = zis.getNextEntry();
+        }
+        final ByteArrayOutputStream contentOut = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n = zis.read(buffer);
+        while (n != -1) {
+            contentOut.write(buffer, 0, n);
+            n = zis.read(buffer);
+        }
+        return new String(contentOut.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     @Test
     public void createWriter() throws Exception {
         PowerMock.resetAll();
@@ -24,8 +24,10 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.WriterMetrics;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -62,4 +64,26 @@ public class OdsFileDirectWriterTest {
 
         PowerMock.verifyAll();
     }
+
+    @Test
+    public final void testMetrics() throws IOException {
+        final XMLUtil util = XMLUtil.create();
+        final ZipUTF8Writer w = PowerMock.createMock(ZipUTF8Writer.class);
+        final Logger logger = PowerMock.createMock(Logger.class);
+        final NamedOdsDocument document = PowerMock.createMock(NamedOdsDocument.class);
+        final OdsAsyncFlusher flusher = PowerMock.createMock(OdsAsyncFlusher.class);
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+
+        PowerMock.resetAll();
+        flusher.flushInto(util, w);
+        metrics.flusherExecuted(EasyMock.eq(flusher.getClass().getSimpleName()),
+                EasyMock.geq(0L));
+
+        PowerMock.replayAll();
+        final OdsFileDirectWriter writer =
+                new OdsFileDirectWriter(logger, util, document, w, metrics);
+        writer.update(flusher);
+
+        PowerMock.verifyAll();
+    }
 }
\ No newline at end of file
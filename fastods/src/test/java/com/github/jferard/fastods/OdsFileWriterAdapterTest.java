@@ -30,10 +30,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
+import com.github.jferard.fastods.util.BoundedHandoffQueue;
+import com.github.jferard.fastods.util.WriterMetrics;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.logging.Logger;
 
 /**
@@ -43,7 +45,7 @@ public class OdsFileWriterAdapterTest {
     private NamedOdsFileWriter w;
     private OdsAsyncFlusher f;
     private OdsFileWriterAdapter wa;
-    private Queue<OdsAsyncFlusher> flushers;
+    private BoundedHandoffQueue<OdsAsyncFlusher> flushers;
     private NamedOdsDocument d;
     private Logger logger;
 
@@ -51,7 +53,7 @@ public class OdsFileWriterAdapterTest {
     public void setUp() {
         this.w = PowerMock.createMock(NamedOdsFileWriter.class);
         this.f = PowerMock.createMock(OdsAsyncFlusher.class);
-        this.flushers = new LinkedList<OdsAsyncFlusher>();
+        this.flushers = BoundedHandoffQueue.create(4);
         this.logger = PowerMock.createMock(Logger.class);
         this.wa = new OdsFileWriterAdapter(this.logger, this.w, this.flushers);
         this.d = PowerMock.createMock(NamedOdsDocument.class);
@@ -108,7 +110,27 @@ public class OdsFileWriterAdapterTest {
         this.wa.update(this.f);
 
         PowerMock.verifyAll();
-        Assert.assertEquals(Collections.singletonList(this.f), this.flushers);
+        Assert.assertEquals(Collections.singletonList(this.f),
+                new ArrayList<OdsAsyncFlusher>(this.flushers));
+    }
+
+    @Test
+    public void testUpdateMetrics() {
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+        final OdsFileWriterAdapter adapter =
+                OdsFileWriterAdapter.create(this.logger, this.w, 4, metrics);
+
+        PowerMock.resetAll();
+        metrics.queueDepth(1, 4);
+        metrics.queueDepth(2, 4);
+        this.logger.fine(EasyMock.anyString());
+        EasyMock.expectLastCall().times(2);
+
+        PowerMock.replayAll();
+        adapter.update(this.f);
+        adapter.update(this.f);
+
+        PowerMock.verifyAll();
     }
 
     @Test
@@ -318,4 +340,73 @@ public class OdsFileWriterAdapterTest {
         this.wa.waitForData();
         PowerMock.verifyAll();
     }
+
+    @Test
+    public void testCreateWithCapacity() {
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        final OdsFileWriterAdapter odsFileWriterAdapter =
+                OdsFileWriterAdapter.create(this.logger, this.w, 2);
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(odsFileWriterAdapter.isNotStopped());
+    }
+
+    @Test
+    public void testUpdateBlocksWhenFull() throws Exception {
+        final BoundedHandoffQueue<OdsAsyncFlusher> queue = BoundedHandoffQueue.create(1);
+        final OdsFileWriterAdapter wal = new OdsFileWriterAdapter(this.logger, this.w, queue);
+        final OdsAsyncFlusher fl = this.f;
+        final FinalizeFlusher ff = PowerMock.createMock(FinalizeFlusher.class);
+        final Thread producer = new Thread() {
+            @Override
+            public void run() {
+                wal.update(fl);
+                wal.update(ff);
+            }
+        };
+
+        PowerMock.resetAll();
+        this.logger.fine(EasyMock.anyString());
+        EasyMock.expectLastCall().anyTimes();
+        this.w.update(fl);
+        EasyMock.expect(fl.isEnd()).andReturn(false);
+        this.w.update(ff);
+        EasyMock.expect(ff.isEnd()).andReturn(true);
+
+        PowerMock.replayAll();
+        producer.start();
+        while (queue.isEmpty()) {
+            Thread.yield();
+        }
+        Thread.sleep(50);
+        Assert.assertTrue(producer.isAlive()); // the queue is full
+        Assert.assertEquals(1, queue.size());
+        while (wal.isNotStopped()) {
+            wal.waitForData();
+            wal.flushAdaptee();
+        }
+        producer.join();
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testWaitForDataWhenStopped() throws Exception {
+        final FinalizeFlusher ff = PowerMock.createMock(FinalizeFlusher.class);
+        this.flushers.add(ff);
+
+        PowerMock.resetAll();
+        this.logger.fine(EasyMock.anyString());
+        EasyMock.expect(ff.isEnd()).andReturn(true);
+        this.w.update(ff);
+
+        PowerMock.replayAll();
+        this.wa.flushAdaptee();
+        this.wa.waitForData(); // does not block
+
+        PowerMock.verifyAll();
+        Assert.assertFalse(this.wa.isNotStopped());
+    }
 }
\ No newline at end of file
@@ -85,6 +85,7 @@ public class PreprocessedRowsFlusherTest {
         final List<TableRowImpl> rows = Arrays.asList(r1, r2);
 
         PowerMock.resetAll();
+        EasyMock.expect(r2.isRepetitionOf(r1)).andReturn(false);
         r1.appendXMLToTable(EasyMock.eq(this.util), EasyMock.anyObject(StringBuilder.class));
         r2.appendXMLToTable(EasyMock.eq(this.util), EasyMock.anyObject(StringBuilder.class));
         EasyMock.expect(this.w.append(EasyMock.anyObject(StringBuilder.class))).andReturn(this.sb);
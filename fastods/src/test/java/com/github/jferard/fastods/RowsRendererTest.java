@@ -0,0 +1,142 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class RowsRendererTest {
+    private ExecutorService executor;
+    private XMLUtil util;
+    private ZipUTF8Writer w;
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newSingleThreadExecutor();
+        this.util = XMLUtil.create();
+        this.w = PowerMock.createMock(ZipUTF8Writer.class);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Test
+    public void testRender() throws IOException {
+        final TableRowImpl row = PowerMock.createMock(TableRowImpl.class);
+        final List<TableRowImpl> rows = Arrays.asList(row, null);
+        final Capture<CharSequence> capture = Capture.newInstance();
+
+        PowerMock.resetAll();
+        row.appendXMLToTable(EasyMock.isA(XMLUtil.class), EasyMock.isA(StringBuilder.class));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            ((StringBuilder) EasyMock.getCurrentArguments()[1]).append("<row/>");
+            return null;
+        });
+        EasyMock.expect(this.w.append(EasyMock.capture(capture))).andReturn(this.w);
+
+        PowerMock.replayAll();
+        final RowsRenderer renderer = RowsRenderer.create(this.executor, 1);
+        final RenderedRowsFlusher flusher = renderer.submit(rows, XMLUtilFactory.create());
+        flusher.flushInto(this.util, this.w);
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(flusher.isDone());
+        Assert.assertFalse(flusher.isEnd());
+        Assert.assertEquals("<row/><row />", capture.getValue().toString());
+        Assert.assertEquals(1, renderer.getMaxBlocksInFlight());
+    }
+
+    @Test
+    public void testRenderError() throws IOException {
+        final TableRowImpl row = PowerMock.createMock(TableRowImpl.class);
+        final List<TableRowImpl> rows = Arrays.asList(row);
+
+        PowerMock.resetAll();
+        row.appendXMLToTable(EasyMock.isA(XMLUtil.class), EasyMock.isA(StringBuilder.class));
+        EasyMock.expectLastCall().andThrow(new IOException("err"));
+
+        PowerMock.replayAll();
+        final RenderedRowsFlusher flusher =
+                RowsRenderer.create(this.executor, 1).submit(rows, XMLUtilFactory.create());
+        Assert.assertThrows(IOException.class, () -> flusher.flushInto(this.util, this.w));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testWorkerXMLUtil() throws Exception {
+        final XMLUtilFactory factory1 = PowerMock.createMock(XMLUtilFactory.class);
+        final XMLUtilFactory factory2 = PowerMock.createMock(XMLUtilFactory.class);
+        final XMLUtil util1 = XMLUtil.create();
+        final XMLUtil util2 = XMLUtil.create();
+        final List<TableRowImpl> rows = Arrays.asList(null, null);
+
+        PowerMock.resetAll();
+        EasyMock.expect(factory1.newXMLUtil()).andReturn(util1);
+        factory1.release(util1);
+        EasyMock.expect(factory2.newXMLUtil()).andReturn(util2);
+
+        PowerMock.replayAll();
+        final RowsRenderer renderer = RowsRenderer.create(this.executor, 1);
+        renderer.submit(rows, factory1);
+        this.executor.submit(() -> null).get(); // the worker is idle
+        renderer.submit(rows, factory1);
+        renderer.submit(rows, factory2);
+        this.executor.submit(() -> null).get();
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testOwnedPool() {
+        final RowsRenderer renderer = RowsRenderer.create(2);
+        Assert.assertEquals(4, renderer.getMaxBlocksInFlight());
+        renderer.close();
+        RowsRenderer.create(this.executor, 2).close();
+        Assert.assertFalse(this.executor.isShutdown());
+    }
+
+    @Test
+    public void testBadArguments() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> RowsRenderer.create(0));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> RowsRenderer.create(this.executor, 0));
+    }
+}
@@ -440,6 +440,65 @@ public class TableAppenderTest {
                 "</table:table>", sb.toString());
     }
 
+    @Test
+    public final void testAppendRepeatedRows() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final FastFullList<TableColumnImpl> emptyFullList =
+                FastFullList.<TableColumnImpl>builder().build();
+        final TableRowStyle rowStyle = TableRowStyle.builder("tr").build();
+        final CellStyleRegistry registry = new CellStyleRegistry();
+        final TableRowImpl tr0 = this.newTR(rowStyle, registry, "a");
+        final TableRowImpl tr1 = this.newTR(rowStyle, registry, "a");
+        final TableRowImpl tr2 = this.newTR(rowStyle, registry, "a");
+        final TableRowImpl tr4 = this.newTR(rowStyle, registry, "a");
+        final TableRowImpl tr5 = this.newTR(rowStyle, registry, "b");
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.tm.getName()).andReturn("tb");
+        EasyMock.expect(this.tm.getStyleName()).andReturn("tb-style");
+        EasyMock.expect(this.tm.getPrintRanges()).andReturn(Collections.<String>emptyList());
+        EasyMock.expect(this.tm.getCustomValueByAttribute()).andReturn(null);
+        EasyMock.expect(this.tm.getProtection()).andReturn(null);
+        EasyMock.expect(this.tm.getColumns()).andReturn(emptyFullList);
+        EasyMock.expect(this.tm.getShapes()).andReturn(Collections.<Shape>emptyList());
+        EasyMock.expect(this.tm.getForms()).andReturn(
+                Collections.<XMLConvertible>emptyList());
+        EasyMock.expect(this.tm.getHeaderRowsCount()).andReturn(0);
+        EasyMock.expect(this.tm.getTableRow(0)).andReturn(tr0);
+        EasyMock.expect(this.tm.getTableRow(1)).andReturn(tr1);
+        EasyMock.expect(this.tm.getTableRow(2)).andReturn(tr2);
+        EasyMock.expect(this.tm.getTableRow(3)).andReturn(null);
+        EasyMock.expect(this.tm.getTableRow(4)).andReturn(tr4);
+        EasyMock.expect(this.tm.getTableRow(5)).andReturn(tr5);
+        EasyMock.expect(this.tm.getTableRowsUsedSize()).andReturn(6);
+        EasyMock.expect(this.tm.getColumnCapacity()).andReturn(100);
+
+        PowerMock.replayAll();
+        this.tableAppender.appendXMLToContentEntry(this.xmlUtil, sb);
+
+        PowerMock.verifyAll();
+        DomTester.assertEquals("<table:table table:name=\"tb\" " +
+                "table:style-name=\"tb-style\" " +
+                "table:print=\"false\">" +
+                "<table:table-column table:style-name=\"co1\" " +
+                "table:number-columns-repeated=\"100\" " +
+                "table:default-cell-style-name=\"Default\"/>" +
+                "<table:table-row table:number-rows-repeated=\"3\" table:style-name=\"tr\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"a\" " +
+                "table:number-columns-repeated=\"2\"/>" +
+                "</table:table-row>" +
+                "<table:table-row table:style-name=\"ro1\"><table:table-cell/></table:table-row>" +
+                "<table:table-row table:style-name=\"tr\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"a\" " +
+                "table:number-columns-repeated=\"2\"/>" +
+                "</table:table-row>" +
+                "<table:table-row table:style-name=\"tr\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"b\" " +
+                "table:number-columns-repeated=\"2\"/>" +
+                "</table:table-row>" +
+                "</table:table>", sb.toString());
+    }
+
     @Test
     public final void testAppendRemainingRowsWithHeader() throws IOException {
         final StringBuilder sb = new StringBuilder();
@@ -712,4 +771,16 @@ public class TableAppenderTest {
         tr.setRowStyle(TableRowStyle.builder(styleName).build());
         return tr;
     }
+
+    private TableRowImpl newTR(final TableRowStyle rowStyle, final CellStyleRegistry registry,
+                               final String value) {
+        final TableRowImpl tr =
+                new TableRowImpl(null, this.xmlUtil, this.stylesContainer, null, false, null,
+                        this.rowIndex, 10, null, new ChildCellStyleMemo(), registry);
+        this.rowIndex++;
+        tr.setRowStyle(rowStyle);
+        tr.getOrCreateCell(0).setStringValue(value);
+        tr.getOrCreateCell(1).setStringValue(value);
+        return tr;
+    }
 }
@@ -0,0 +1,294 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.IntegerRepresentationCache;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+
+public class TableCellStoreTest {
+    private TableCellStore store;
+    private XMLUtil util;
+    private IntegerRepresentationCache cache;
+
+    @Before
+    public void setUp() {
+        this.store = new TableCellStore(2);
+        this.util = XMLUtil.create();
+        this.cache = IntegerRepresentationCache.create();
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertEquals(0, this.store.usedSize());
+        Assert.assertEquals(TableCellStore.ABSENT, this.store.getKind(5));
+        Assert.assertNull(this.store.getType(5));
+        Assert.assertNull(this.store.getStyle(5));
+        Assert.assertNull(this.store.getColdCell(5));
+        Assert.assertNull(this.store.getCustomCell(5));
+        Assert.assertFalse(this.store.hasValue(5));
+        Assert.assertFalse(this.store.isCovered(5));
+    }
+
+    @Test
+    public void testCreateGrows() {
+        this.store.create(10);
+        Assert.assertEquals(11, this.store.usedSize());
+        Assert.assertEquals(TableCellStore.NO_VALUE, this.store.getKind(10));
+        Assert.assertEquals(TableCellStore.ABSENT, this.store.getKind(9));
+        Assert.assertFalse(this.store.hasValue(10));
+
+        this.store.create(3);
+        Assert.assertEquals(11, this.store.usedSize());
+        Assert.assertEquals(TableCellStore.NO_VALUE, this.store.getKind(3));
+    }
+
+    @Test
+    public void testEstimatedBytes() {
+        final RetainedBytes retainedBytes = new RetainedBytes();
+        final TableCellStore store =
+                new TableCellStore(2, new CellStyleRegistry(), retainedBytes);
+        Assert.assertEquals(RetainedBytes.ROW_BYTES, retainedBytes.get());
+
+        store.setNumericValue(0, CellType.FLOAT, TableCellStore.INT, 12);
+        final long slotsBytes = retainedBytes.get();
+        Assert.assertEquals(RetainedBytes.ROW_BYTES + 3 * RetainedBytes.ARRAY_BYTES +
+                2 * RetainedBytes.SLOT_BYTES, slotsBytes);
+
+        store.setStringValue(1, CellType.STRING, "abc");
+        final long stringsBytes = slotsBytes + RetainedBytes.ARRAY_BYTES +
+                2 * RetainedBytes.REFERENCE_BYTES;
+        Assert.assertEquals(stringsBytes + RetainedBytes.STRING_BYTES + 6, retainedBytes.get());
+        store.setStringValue(1, CellType.STRING, "abcd");
+        Assert.assertEquals(stringsBytes + RetainedBytes.STRING_BYTES + 8, retainedBytes.get());
+
+        store.setColdCell(0, TableColdCell.create(this.util));
+        Assert.assertEquals(stringsBytes + RetainedBytes.STRING_BYTES + 8 +
+                        RetainedBytes.ARRAY_BYTES + 2 * RetainedBytes.REFERENCE_BYTES +
+                        RetainedBytes.COLD_CELL_BYTES, retainedBytes.get());
+
+        store.clear();
+        Assert.assertEquals(stringsBytes + RetainedBytes.ARRAY_BYTES +
+                2 * RetainedBytes.REFERENCE_BYTES, retainedBytes.get());
+        Assert.assertEquals(retainedBytes.get(), store.getEstimatedBytes());
+    }
+
+    @Test
+    public void testInt() throws IOException {
+        this.store.setNumericValue(0, CellType.FLOAT, TableCellStore.INT, 12);
+        Assert.assertTrue(this.store.hasValue(0));
+        Assert.assertEquals(CellType.FLOAT, this.store.getType(0));
+        this.assertXMLEquals("<table:table-cell office:value-type=\"float\" office:value=\"12\"/>",
+                0, null);
+    }
+
+    @Test
+    public void testFloat() throws IOException {
+        this.store.setNumericValue(0, CellType.PERCENTAGE, TableCellStore.FLOAT,
+                Float.floatToRawIntBits(0.5f));
+        this.assertXMLEquals(
+                "<table:table-cell office:value-type=\"percentage\" office:value=\"0.5\"/>", 0,
+                null);
+    }
+
+    @Test
+    public void testBoolean() throws IOException {
+        this.store.setNumericValue(0, CellType.BOOLEAN, TableCellStore.BOOLEAN, 1);
+        this.store.setNumericValue(1, CellType.BOOLEAN, TableCellStore.BOOLEAN, 0);
+        this.assertXMLEquals("<table:table-cell office:value-type=\"boolean\" " +
+                "office:boolean-value=\"true\"/>", 0, null);
+        this.assertXMLEquals("<table:table-cell office:value-type=\"boolean\" " +
+                "office:boolean-value=\"false\"/>", 1, null);
+    }
+
+    @Test
+    public void testDate() throws IOException {
+        this.store.setNumericValue(0, CellType.DATE, TableCellStore.DATE, 1234567891011L);
+        this.assertXMLEquals("<table:table-cell office:value-type=\"date\" " +
+                "office:date-value=\"2009-02-13T23:31:31.011Z\"/>", 0, null);
+    }
+
+    @Test
+    public void testString() throws IOException {
+        this.store.setStringValue(3, CellType.STRING, "a<b");
+        this.store.setStringValue(1, CellType.STRING, "");
+        this.store.setStringValue(2, CellType.STRING, null);
+        Assert.assertEquals(TableCellStore.STRING, this.store.getKind(3));
+        Assert.assertEquals(TableCellStore.EMPTY, this.store.getKind(1));
+        Assert.assertTrue(this.store.hasValue(1));
+        Assert.assertFalse(this.store.hasValue(2));
+        this.assertXMLEquals("<table:table-cell office:value-type=\"string\" " +
+                "office:string-value=\"a&lt;b\"/>", 3, null);
+        this.assertXMLEquals("<table:table-cell office:value-type=\"string\" " +
+                "office:string-value=\"\"/>", 1, null);
+    }
+
+    @Test
+    public void testOverwriteStringWithNumber() throws IOException {
+        this.store.setStringValue(0, CellType.STRING, "a");
+        this.store.setNumericValue(0, CellType.FLOAT, TableCellStore.INT, 1);
+        this.assertXMLEquals("<table:table-cell office:value-type=\"float\" office:value=\"1\"/>",
+                0, null);
+    }
+
+    @Test
+    public void testSharedStyleRegistry() throws IOException {
+        final CellStyleRegistry registry = new CellStyleRegistry();
+        final TableCellStore store1 = new TableCellStore(2, registry);
+        final TableCellStore store2 = new TableCellStore(2, registry);
+        final TableCellStyle style = TableCellStyle.builder("ce1").build();
+        store1.setStyle(0, style);
+        store2.setStyle(1, style);
+        store2.setStyle(0, null);
+        Assert.assertSame(style, store1.getStyle(0));
+        Assert.assertSame(style, store2.getStyle(1));
+        Assert.assertNull(store2.getStyle(0));
+        Assert.assertEquals(1, registry.size());
+
+        final StringBuilder sb = new StringBuilder();
+        store2.appendXMLToTableRow(this.util, sb, 1, this.cache, null);
+        store2.appendXMLToTableRow(this.util, sb, 0, this.cache,
+                TableCellStyle.DEFAULT_CELL_STYLE);
+        Assert.assertEquals("<table:table-cell table:style-name=\"ce1\"/>" +
+                "<table:table-cell table:style-name=\"Default\"/>", sb.toString());
+    }
+
+    @Test
+    public void testRepetition() throws IOException {
+        final CellStyleRegistry registry = new CellStyleRegistry();
+        final TableCellStore store1 = new TableCellStore(2, registry);
+        final TableCellStore store2 = new TableCellStore(2, registry);
+        store1.setStringValue(0, CellType.STRING, "a");
+        store1.setStringValue(1, CellType.STRING, "a");
+        store1.setStringValue(2, CellType.STRING, "b");
+        store2.setStringValue(0, CellType.STRING, "a");
+        store2.setStringValue(1, CellType.STRING, "a");
+        store2.setStringValue(2, CellType.STRING, "b");
+        Assert.assertTrue(store1.isRepetition(0, 1));
+        Assert.assertFalse(store1.isRepetition(1, 2));
+        Assert.assertFalse(store1.isRepetition(2, 3));
+        Assert.assertTrue(store2.isRepetitionOf(store1));
+
+        store2.setStyle(2, TableCellStyle.builder("ce1").build());
+        Assert.assertFalse(store2.isRepetitionOf(store1));
+        store1.setCustomCell(1, PowerMock.createMock(WritableTableCell.class));
+        Assert.assertFalse(store1.isRepetition(0, 1));
+
+        final StringBuilder sb = new StringBuilder();
+        store2.appendXMLToTableRow(this.util, sb, 0, this.cache, null, 2);
+        Assert.assertEquals("<table:table-cell office:value-type=\"string\" " +
+                "office:string-value=\"a\" table:number-columns-repeated=\"2\"/>",
+                sb.toString());
+    }
+
+    @Test
+    public void testClear() {
+        this.store.setStringValue(0, CellType.STRING, "a");
+        this.store.setStyle(1, TableCellStyle.builder("ce1").build());
+        this.store.clear();
+        Assert.assertEquals(0, this.store.usedSize());
+        Assert.assertFalse(this.store.hasValue(0));
+        this.store.create(1);
+        Assert.assertNull(this.store.getStyle(1));
+    }
+
+    @Test
+    public void testVoid() throws IOException {
+        this.store.setStringValue(0, CellType.VOID, "");
+        Assert.assertTrue(this.store.hasValue(0));
+        this.assertXMLEquals("<table:table-cell/>", 0, null);
+    }
+
+    @Test
+    public void testStyles() throws IOException {
+        final TableCellStyle a = TableCellStyle.builder("a").build();
+        final TableCellStyle b = TableCellStyle.builder("b").build();
+        this.store.setStyle(0, a);
+        this.store.setStyle(1, b);
+        this.store.setStyle(2, a);
+        this.store.setStringValue(3, CellType.STRING, "c");
+        Assert.assertSame(a, this.store.getStyle(0));
+        Assert.assertSame(b, this.store.getStyle(1));
+        Assert.assertSame(a, this.store.getStyle(2));
+        Assert.assertNull(this.store.getStyle(3));
+
+        this.store.setStyle(0, null);
+        Assert.assertNull(this.store.getStyle(0));
+        this.assertXMLEquals("<table:table-cell table:style-name=\"b\" " +
+                "office:value-type=\"string\" office:string-value=\"c\"/>", 3, b);
+    }
+
+    @Test
+    public void testColdCell() throws IOException {
+        final TableColdCell coldCell = PowerMock.createMock(TableColdCell.class);
+        final StringBuilder sb = new StringBuilder();
+        PowerMock.resetAll();
+        EasyMock.expect(coldCell.isCovered()).andReturn(true).times(2);
+        coldCell.appendXMLToTable(this.util, sb);
+
+        PowerMock.replayAll();
+        this.store.setColdCell(1, coldCell);
+        Assert.assertTrue(this.store.hasValue(1));
+        Assert.assertTrue(this.store.isCovered(1));
+        Assert.assertSame(coldCell, this.store.getColdCell(1));
+        this.store.appendXMLToTableRow(this.util, sb, 1, this.cache, null);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals("<table:covered-table-cell", sb.toString());
+    }
+
+    @Test
+    public void testCustomCell() {
+        final WritableTableCell cell = PowerMock.createMock(WritableTableCell.class);
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        this.store.create(0);
+        this.store.setCustomCell(4, cell);
+        Assert.assertEquals(5, this.store.usedSize());
+        Assert.assertSame(cell, this.store.getCustomCell(4));
+
+        this.store.setCustomCell(4, null);
+
+        PowerMock.verifyAll();
+        Assert.assertNull(this.store.getCustomCell(4));
+        Assert.assertEquals(1, this.store.usedSize());
+    }
+
+    private void assertXMLEquals(final String expected, final int index,
+                                 final TableCellStyle defaultStyle) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.store.appendXMLToTableRow(this.util, sb, index, this.cache, defaultStyle);
+        Assert.assertEquals(expected, sb.toString());
+    }
+}
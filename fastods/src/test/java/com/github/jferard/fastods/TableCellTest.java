@@ -23,6 +23,7 @@
  */
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.attribute.CellType;
 import com.github.jferard.fastods.attribute.SimpleLength;
 import com.github.jferard.fastods.datastyle.BooleanStyle;
 import com.github.jferard.fastods.datastyle.BooleanStyleBuilder;
@@ -52,6 +53,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Locale;
 
@@ -248,6 +253,97 @@ public class TableCellTest {
                         "office:date-value=\"2009-02-13T23:31:31.011Z\"/>");
     }
 
+    @Test
+    public final void testImplicitDataStyleMemo() {
+        final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
+        final DataStyle dateDataStyle = this.ds.getDateDataStyle();
+        final ChildCellStyleMemo memo = new ChildCellStyleMemo();
+        final IntegerRepresentationCache cache = IntegerRepresentationCache.create();
+        final TableCellImpl cell1 = new TableCellImpl(cache, this.xmlUtil, this.stc, this.ds,
+                false, this.row, COLUMN_INDEX, new TableCellStore(1), 0, memo);
+        final TableCellImpl cell2 = new TableCellImpl(cache, this.xmlUtil, this.stc, this.ds,
+                false, this.row, COLUMN_INDEX, new TableCellStore(1), 0, memo);
+
+        PowerMock.resetAll();
+        this.playAddDataStyle(cs, dateDataStyle);
+        EasyMock.expect(this.table.findDefaultCellStyle(COLUMN_INDEX)).andReturn(cs);
+
+        PowerMock.replayAll();
+        cell1.setDateValue(LocalDate.of(2000, 1, 1));
+        cell2.setDateValue(LocalDate.of(2000, 1, 2));
+
+        PowerMock.verifyAll();
+        Assert.assertSame(this.tcs, memo.get(COLUMN_INDEX, CellType.DATE, cs, dateDataStyle));
+    }
+
+    @Test
+    public final void testLocalDate() throws IOException {
+        final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
+        final DataStyle dateDataStyle = this.ds.getDateDataStyle();
+
+        PowerMock.resetAll();
+        this.playAddDataStyle(cs, dateDataStyle);
+
+        PowerMock.replayAll();
+        this.cell.setDateValue(LocalDate.of(2009, 2, 13));
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"date\" " +
+                        "office:date-value=\"2009-02-13\"/>");
+    }
+
+    @Test
+    public final void testLocalDateTime() throws IOException {
+        final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
+        final DataStyle dateDataStyle = this.ds.getDateDataStyle();
+
+        PowerMock.resetAll();
+        this.playAddDataStyle(cs, dateDataStyle);
+
+        PowerMock.replayAll();
+        this.cell.setDateValue(LocalDateTime.of(2009, 2, 13, 23, 31, 31, 11000000));
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"date\" " +
+                        "office:date-value=\"2009-02-13T23:31:31.011\"/>");
+    }
+
+    @Test
+    public final void testInstant() throws IOException {
+        final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
+        final DataStyle dateDataStyle = this.ds.getDateDataStyle();
+
+        PowerMock.resetAll();
+        this.playAddDataStyle(cs, dateDataStyle);
+
+        PowerMock.replayAll();
+        this.cell.setDateValue(Instant.ofEpochMilli(TIME_IN_MILLIS));
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"date\" " +
+                        "office:date-value=\"2009-02-13T23:31:31.011Z\"/>");
+    }
+
+    @Test
+    public final void testDuration() throws IOException {
+        final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
+        final DataStyle timeDataStyle = this.ds.getTimeDataStyle();
+
+        PowerMock.resetAll();
+        this.playAddDataStyle(cs, timeDataStyle);
+
+        PowerMock.replayAll();
+        this.cell.setTimeValue(Duration.ofHours(3000).plusMillis(10));
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"time\" " +
+                        "office:time-value=\"PT10800000.01S\"/>");
+    }
+
     @Test
     public final void testFloatNumberDataStyle() throws IOException {
         this.playAndReplayFloatFS();
@@ -362,6 +458,30 @@ public class TableCellTest {
                         "office:value=\"999\"/>");
     }
 
+    @Test
+    public final void testFloatLong() throws IOException {
+        PowerMock.resetAll();
+        this.cell.setFloatValue(-12345678901234L);
+
+        PowerMock.replayAll();
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell office:value-type=\"float\" " +
+                        "office:value=\"-12345678901234\"/>");
+    }
+
+    @Test
+    public final void testFloatBigInt() throws IOException {
+        PowerMock.resetAll();
+        this.cell.setFloatValue(Integer.MIN_VALUE);
+
+        PowerMock.replayAll();
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell office:value-type=\"float\" " +
+                        "office:value=\"-2147483648\"/>");
+    }
+
     @Test
     public final void testTime() throws IOException {
         final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
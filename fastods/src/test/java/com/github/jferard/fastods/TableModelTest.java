@@ -36,9 +36,12 @@ import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableStyle;
 import com.github.jferard.fastods.testlib.DomTester;
 import com.github.jferard.fastods.util.FastFullList;
+import com.github.jferard.fastods.util.HeapBudget;
+import com.github.jferard.fastods.util.HeapSpool;
 import com.github.jferard.fastods.util.IntegerRepresentationCache;
 import com.github.jferard.fastods.util.Protection;
 import com.github.jferard.fastods.util.SVGRectangle;
+import com.github.jferard.fastods.util.Spool;
 import com.github.jferard.fastods.util.XMLUtil;
 import org.apache.jena.ext.com.google.common.collect.ImmutableMap;
 import org.easymock.EasyMock;
@@ -53,6 +56,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.Locale;
 
 public class TableModelTest {
@@ -376,6 +381,125 @@ public class TableModelTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testStreamWriterAnonymous() {
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        Assert.assertThrows(IOException.class,
+                () -> this.model.getStreamWriter(this.table, this.appender));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testStreamWriter() throws IOException {
+        final NamedOdsFileWriter o = PowerMock.createStrictMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(StreamedRowsFlusher.class));
+        o.update(EasyMock.isA(StreamedRowsFlusher.class));
+        o.update(EasyMock.isA(EndTableFlusher.class));
+
+        PowerMock.replayAll();
+        this.model.addObserver(o);
+        this.model.getRow(this.table, this.appender, 0);
+        final TableStreamWriter streamWriter = this.model.getStreamWriter(this.table,
+                this.appender);
+        Assert.assertSame(streamWriter, this.model.getStreamWriter(this.table, this.appender));
+        Assert.assertThrows(IOException.class,
+                () -> this.model.getRow(this.table, this.appender, 1));
+        streamWriter.beginRow();
+        streamWriter.writeString("a");
+        streamWriter.endRow();
+        this.model.asyncFlushEndTable(this.appender);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testFlushedRowsAreReleased() throws IOException {
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(PreprocessedRowsFlusher.class));
+
+        PowerMock.replayAll();
+        this.model.addObserver(o);
+        this.model.getRow(this.table, this.appender, 0);
+        this.model.getRow(this.table, this.appender, 1);
+        this.model.getRow(this.table, this.appender, 2);
+        final TableRowImpl row = this.model.getRow(this.table, this.appender, 3);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(4, this.model.getRowCount());
+        Assert.assertSame(row, this.model.getRow(this.table, this.appender, 3));
+        Assert.assertThrows(IOException.class,
+                () -> this.model.getRow(this.table, this.appender, 1));
+    }
+
+    @Test
+    public void testMemoryBudget() throws IOException {
+        final TableModel model = new TableModel(new PositionUtil(new TableNameUtil()),
+                IntegerRepresentationCache.create(), this.xmlUtil, this.stc, this.ds, false,
+                "mytable", 10, 100, this.ce, 1024, new ValidationsContainer());
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(PreprocessedRowsFlusher.class));
+        EasyMock.expectLastCall().times(10, 100);
+
+        PowerMock.replayAll();
+        model.setMemoryBudget(10000);
+        model.addObserver(o);
+        for (int r = 0; r < 100; r++) {
+            final TableRowImpl row = model.getRow(this.table, this.appender, r);
+            for (int c = 0; c < 20; c++) {
+                row.getOrCreateCell(c).setStringValue("value" + c);
+            }
+            // one row may be added after the budget is exceeded
+            Assert.assertTrue(model.getEstimatedRetainedBytes() <=
+                    10000 + row.getEstimatedRetainedBytes());
+        }
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(model.getEstimatedRetainedBytes() > 0);
+        Assert.assertThrows(IOException.class, () -> model.getRow(this.table, this.appender, 1));
+    }
+
+    @Test
+    public void testBadMemoryBudget() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.model.setMemoryBudget(-1));
+    }
+
+    @Test
+    public void testRenderedRows() throws IOException {
+        final NamedOdsFileWriter o = PowerMock.createStrictMock(NamedOdsFileWriter.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(RenderedRowsFlusher.class));
+        o.update(EasyMock.isA(RenderedRowsFlusher.class));
+        o.update(EasyMock.isA(EndTableFlusher.class));
+
+        PowerMock.replayAll();
+        try {
+            this.model.setRowsRenderer(RowsRenderer.create(executor, 1));
+            this.model.addObserver(o);
+            for (int r = 0; r < 5; r++) {
+                this.model.getRow(this.table, this.appender, r);
+            }
+            this.model.asyncFlushEndTable(this.appender);
+        } finally {
+            executor.shutdown();
+        }
+
+        PowerMock.verifyAll();
+    }
+
     @Test
     public final void testFindDefaultCellStyle() {
         PowerMock.resetAll();
@@ -518,4 +642,154 @@ public class TableModelTest {
         Assert.assertEquals(3, this.model.getHeaderRowsCount());
         Assert.assertEquals(1, this.model.getHeaderColumnsCount());
     }
+
+    @Test
+    public void testSpoolNamed() {
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        this.model.addObserver(o);
+        Assert.assertThrows(IllegalStateException.class,
+                () -> this.model.setSpool(HeapSpool.create()));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testSpoolWithRows() throws IOException {
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        this.model.getRow(this.table, this.appender, 0);
+        Assert.assertThrows(IllegalStateException.class,
+                () -> this.model.setSpool(HeapSpool.create()));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testSpool() throws IOException {
+        final Spool spool = HeapSpool.create();
+
+        PowerMock.resetAll();
+        this.appender.appendRowsBlock(EasyMock.isA(XMLUtil.class), EasyMock.eq(spool),
+                EasyMock.eq(0), EasyMock.eq(2));
+        this.appender.appendRowsBlock(EasyMock.isA(XMLUtil.class), EasyMock.eq(spool),
+                EasyMock.eq(2), EasyMock.eq(4));
+        this.appender.appendRemainingRowsFrom(EasyMock.isA(XMLUtil.class), EasyMock.eq(spool),
+                EasyMock.eq(4));
+
+        PowerMock.replayAll();
+        this.model.setSpool(spool);
+        for (int r = 0; r < 5; r++) {
+            this.model.getRow(this.table, this.appender, r);
+        }
+        Assert.assertThrows(IOException.class,
+                () -> this.model.getRow(this.table, this.appender, 0));
+        spool.append("<spooled/>");
+        final StringBuilder sb = new StringBuilder();
+        this.model.appendXMLContent(this.appender, this.xmlUtil, sb);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals("<spooled/>", sb.toString());
+    }
+
+    @Test
+    public void testHeapBudget() throws IOException {
+        final TableModel model = new TableModel(new PositionUtil(new TableNameUtil()),
+                IntegerRepresentationCache.create(), this.xmlUtil, this.stc, this.ds, false,
+                "mytable", 10, 100, this.ce, 1024, new ValidationsContainer());
+        final Spool spool = HeapSpool.create();
+        final HeapBudget budget = HeapBudget.create(20000);
+
+        PowerMock.resetAll();
+        this.appender.appendRowsBlock(EasyMock.isA(XMLUtil.class), EasyMock.eq(spool),
+                EasyMock.anyInt(), EasyMock.anyInt());
+        EasyMock.expectLastCall().times(5, 100);
+        this.appender.appendRemainingRowsFrom(EasyMock.isA(XMLUtil.class), EasyMock.eq(spool),
+                EasyMock.anyInt());
+
+        PowerMock.replayAll();
+        model.setSpool(spool);
+        model.setHeapBudget(budget);
+        for (int r = 0; r < 100; r++) {
+            final TableRowImpl row = model.getRow(this.table, this.appender, r);
+            for (int c = 0; c < 20; c++) {
+                row.getOrCreateCell(c).setStringValue("value" + c);
+            }
+            Assert.assertTrue(budget.getUsedBytes() <= model.getEstimatedRetainedBytes());
+        }
+        model.appendXMLContent(this.appender, this.xmlUtil, new StringBuilder());
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testPartitionAnonymous() {
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        Assert.assertThrows(IOException.class,
+                () -> this.model.reservePartition(this.table, this.appender, 10));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> this.model.reservePartition(this.table, this.appender, 0));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testPartitions() throws IOException {
+        final NamedOdsFileWriter o = PowerMock.createStrictMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(StreamedRowsFlusher.class));
+        o.update(EasyMock.isA(StreamedRowsFlusher.class));
+        o.update(EasyMock.isA(StreamedRowsFlusher.class));
+        o.update(EasyMock.isA(EndTableFlusher.class));
+
+        PowerMock.replayAll();
+        this.model.addObserver(o);
+        this.model.getRow(this.table, this.appender, 0);
+        final TablePartition p1 = this.model.reservePartition(this.table, this.appender, 2);
+        final TablePartition p2 = this.model.reservePartition(this.table, this.appender, 3);
+        Assert.assertEquals(1, p1.getFirstRowIndex());
+        Assert.assertEquals(3, p2.getFirstRowIndex());
+        Assert.assertEquals(6, this.model.getRowCount());
+        Assert.assertThrows(IOException.class,
+                () -> this.model.getRow(this.table, this.appender, 1));
+        Assert.assertThrows(IOException.class,
+                () -> this.model.getStreamWriter(this.table, this.appender));
+        p2.beginRow();
+        p2.writeString("b");
+        p2.close();
+        Assert.assertThrows(IOException.class, () -> this.model.asyncFlushEndTable(this.appender));
+        p1.close();
+        this.model.asyncFlushEndTable(this.appender);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testPartitionSpool() throws IOException {
+        final Spool spool = HeapSpool.create();
+
+        PowerMock.resetAll();
+        this.appender.appendRowsBlock(EasyMock.isA(XMLUtil.class), EasyMock.eq(spool),
+                EasyMock.eq(0), EasyMock.eq(0));
+        this.appender.appendStreamedRows(EasyMock.eq(spool), EasyMock.isA(CharSequence.class));
+        this.appender.appendPostamble(spool);
+
+        PowerMock.replayAll();
+        this.model.setSpool(spool);
+        final TablePartition partition =
+                this.model.reservePartition(this.table, this.appender, 1);
+        partition.beginRow();
+        partition.writeString("a");
+        partition.close();
+        final StringBuilder sb = new StringBuilder();
+        this.model.appendXMLContent(this.appender, this.xmlUtil, sb);
+
+        PowerMock.verifyAll();
+    }
 }
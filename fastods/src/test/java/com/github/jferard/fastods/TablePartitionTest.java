@@ -0,0 +1,253 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.odselement.StylesContainerImpl;
+import com.github.jferard.fastods.odselement.UnregisteredOdsEntry;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.testlib.ZipUTF8WriterMockHandler;
+import com.github.jferard.fastods.util.HeapSpool;
+import com.github.jferard.fastods.util.IntegerRepresentationCache;
+import com.github.jferard.fastods.util.Spool;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilFactory;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+public class TablePartitionTest {
+    private ZipUTF8WriterMockHandler handler;
+    private UnregisteredOdsEntry entry;
+    private NamedOdsFileWriter observer;
+    private TableAppender appender;
+    private Table table;
+    private StylesContainer stylesContainer;
+    private DataStyles dataStyles;
+    private XMLUtilFactory xmlUtilFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        final Constructor<?> constructor =
+                StylesContainerImpl.class.getDeclaredConstructor(Logger.class);
+        constructor.setAccessible(true);
+        this.stylesContainer = (StylesContainer) constructor.newInstance(Logger.getLogger(""));
+        this.handler = ZipUTF8WriterMockHandler.create();
+        final ZipUTF8Writer writer = this.handler.getInstance(ZipUTF8Writer.class);
+        this.entry = new UnregisteredOdsEntry("content.xml");
+        writer.putNextEntry(this.entry);
+        this.observer =
+                new OdsFileDirectWriter(Logger.getLogger(""), XMLUtil.create(), null, writer);
+        this.table = PowerMock.createMock(Table.class);
+        this.appender = new TableAppender(PowerMock.createMock(TableModel.class));
+        this.dataStyles = DataStylesBuilder.create(Locale.US).build();
+        this.xmlUtilFactory = XMLUtilFactory.create();
+        PowerMock.resetAll();
+    }
+
+    @Test
+    public void testRowsInOrder() throws IOException {
+        final TablePartitions partitions =
+                new TablePartitions(this.observer, null, this.appender, this.xmlUtilFactory,
+                        0);
+        final TablePartition p1 = this.newPartition(partitions, 0, 2);
+        final TablePartition p2 = this.newPartition(partitions, 2, 3);
+
+        PowerMock.replayAll();
+        Assert.assertEquals(3, partitions.getEndRowIndex());
+        p2.beginRow();
+        p2.writeString("b");
+        p2.close();
+        Assert.assertEquals("", this.handler.getEntryAsString(this.entry.toString()));
+
+        p1.beginRow();
+        p1.writeString("a");
+        p1.endRow();
+        p1.beginRow();
+        p1.writeString("a");
+        p1.close();
+        partitions.checkClosed();
+
+        PowerMock.verifyAll();
+        Assert.assertEquals("<table:table-row table:number-rows-repeated=\"2\" " +
+                        "table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"a\"/></table:table-row>" +
+                        "<table:table-row table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"b\"/></table:table-row>",
+                this.handler.getEntryAsString(this.entry.toString()));
+    }
+
+    @Test
+    public void testEmptyRows() throws IOException {
+        final TablePartitions partitions =
+                new TablePartitions(this.observer, null, this.appender, this.xmlUtilFactory,
+                        0);
+        final TablePartition p1 = this.newPartition(partitions, 0, 5);
+
+        PowerMock.replayAll();
+        p1.skipRows(2);
+        p1.beginRow();
+        p1.writeString("a");
+        Assert.assertEquals(2, p1.getRowIndex());
+        p1.close();
+        p1.close();
+        Assert.assertThrows(IllegalStateException.class, p1::beginRow);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals("<table:table-row table:number-rows-repeated=\"2\" " +
+                        "table:style-name=\"ro1\"><table:table-cell/></table:table-row>" +
+                        "<table:table-row table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"a\"/></table:table-row>" +
+                        "<table:table-row table:number-rows-repeated=\"2\" " +
+                        "table:style-name=\"ro1\"><table:table-cell/></table:table-row>",
+                this.handler.getEntryAsString(this.entry.toString()));
+    }
+
+    @Test
+    public void testFull() throws IOException {
+        final TablePartitions partitions =
+                new TablePartitions(this.observer, null, this.appender, this.xmlUtilFactory,
+                        10);
+        final TablePartition p1 = this.newPartition(partitions, 10, 11);
+
+        PowerMock.replayAll();
+        Assert.assertEquals(10, p1.getFirstRowIndex());
+        Assert.assertEquals(11, p1.getEndRowIndex());
+        Assert.assertThrows(IllegalArgumentException.class, () -> p1.skipRows(2));
+        p1.beginRow();
+        p1.endRow();
+        Assert.assertThrows(IllegalStateException.class, p1::beginRow);
+        Assert.assertThrows(IOException.class, partitions::checkClosed);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testSpool() throws IOException {
+        final Spool spool = HeapSpool.create();
+        final TablePartitions partitions =
+                new TablePartitions(null, spool, this.appender, this.xmlUtilFactory, 0);
+        final TablePartition p1 = this.newPartition(partitions, 0, 1);
+
+        PowerMock.replayAll();
+        p1.beginRow();
+        p1.writeDouble(1.0, TableCellStyle.DEFAULT_CELL_STYLE);
+        p1.close();
+
+        PowerMock.verifyAll();
+        final StringBuilder sb = new StringBuilder();
+        spool.transferTo(sb);
+        Assert.assertEquals("<table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell table:style-name=\"Default\" office:value-type=\"float\" " +
+                "office:value=\"1.0\"/></table:table-row>", sb.toString());
+    }
+
+    @Test
+    public void testConcurrentFill() throws Exception {
+        final int partitionCount = 8;
+        final int rowsByPartition = 500;
+        final TablePartitions partitions =
+                new TablePartitions(this.observer, null, this.appender, this.xmlUtilFactory,
+                        0);
+        final List<TablePartition> ps = new ArrayList<TablePartition>();
+        for (int i = 0; i < partitionCount; i++) {
+            ps.add(this.newPartition(partitions, i * rowsByPartition,
+                    (i + 1) * rowsByPartition));
+        }
+
+        PowerMock.replayAll();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = partitionCount - 1; i >= 0; i--) { // last partitions first
+            final TablePartition partition = ps.get(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int r = partition.getFirstRowIndex(); r < partition.getEndRowIndex();
+                     r++) {
+                    partition.beginRow();
+                    partition.writeString("r" + r);
+                    partition.writeDouble(r);
+                    partition.endRow();
+                }
+                partition.close();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (final Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        partitions.checkClosed();
+
+        PowerMock.verifyAll();
+        final String xml = this.handler.getEntryAsString(this.entry.toString());
+        int from = 0;
+        for (int r = 0; r < partitionCount * rowsByPartition; r++) {
+            final int index = xml.indexOf("office:string-value=\"r" + r + "\"", from);
+            Assert.assertTrue("Row " + r, index >= from);
+            from = index;
+        }
+    }
+
+    private TablePartition newPartition(final TablePartitions partitions,
+                                        final int firstRowIndex, final int endRowIndex) {
+        final XMLUtil xmlUtil = this.xmlUtilFactory.newXMLUtil();
+        final ChildCellStyleMemo memo = new ChildCellStyleMemo();
+        final CellStyleRegistry registry = new CellStyleRegistry();
+        final TablePartition partition = new TablePartition(partitions, this.appender, xmlUtil,
+                this.newRow(xmlUtil, memo, registry), this.newRow(xmlUtil, memo, registry),
+                firstRowIndex, endRowIndex);
+        partitions.add(partition);
+        return partition;
+    }
+
+    private TableRowImpl newRow(final XMLUtil xmlUtil, final ChildCellStyleMemo memo,
+                                final CellStyleRegistry registry) {
+        return new TableRowImpl(IntegerRepresentationCache.create(), xmlUtil,
+                this.stylesContainer, this.dataStyles, false, this.table, 1, 10, null, memo,
+                registry);
+    }
+}
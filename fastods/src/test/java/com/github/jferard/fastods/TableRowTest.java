@@ -227,6 +227,94 @@ public class TableRowTest {
                         "office:string-value=\"a\"/>" + "</table:table-row>");
     }
 
+    @Test
+    public final void testRepeatedCells() throws IOException {
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        this.row.getOrCreateCell(0).setStringValue("a");
+        this.row.getOrCreateCell(1).setStringValue("a");
+        this.row.getOrCreateCell(2).setStringValue("a");
+        this.row.getOrCreateCell(3).setFloatValue(1);
+        this.row.getOrCreateCell(4).setFloatValue(1);
+        this.row.getOrCreateCell(6).setFloatValue(1);
+
+        PowerMock.verifyAll();
+        this.assertTableXMLEquals(
+                "<table:table-row table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"a\" table:number-columns-repeated=\"3\"/>" +
+                        "<table:table-cell office:value-type=\"float\" office:value=\"1\" " +
+                        "table:number-columns-repeated=\"2\"/>" +
+                        "<table:table-cell/>" +
+                        "<table:table-cell office:value-type=\"float\" office:value=\"1\"/>" +
+                        "</table:table-row>");
+    }
+
+    @Test
+    public final void testRepeatedCellsLibreOfficeMode() throws IOException {
+        final TableCellStyle cs = TableCellStyle.builder("cs").build();
+        final TableRowImpl loRow =
+                new TableRowImpl(IntegerRepresentationCache.create(), this.xmlUtil, this.stc,
+                        this.ds, true, this.table, 10, 100, this.vc);
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.table.findDefaultCellStyle(0)).andReturn(cs).anyTimes();
+        EasyMock.expect(this.table.findDefaultCellStyle(1)).andReturn(cs).anyTimes();
+        EasyMock.expect(this.table.findDefaultCellStyle(2)).andReturn(this.tcs).anyTimes();
+
+        PowerMock.replayAll();
+        loRow.getOrCreateCell(0).setStringValue("a");
+        loRow.getOrCreateCell(1).setStringValue("a");
+        loRow.getOrCreateCell(2).setStringValue("a");
+        final StringBuilder sb = new StringBuilder();
+        loRow.appendXMLToTable(this.xmlUtil, sb);
+
+        PowerMock.verifyAll();
+        DomTester.assertEquals(
+                "<table:table-row table:style-name=\"ro1\">" +
+                        "<table:table-cell table:style-name=\"cs\" " +
+                        "office:value-type=\"string\" office:string-value=\"a\" " +
+                        "table:number-columns-repeated=\"2\"/>" +
+                        "<table:table-cell table:style-name=\"---\" " +
+                        "office:value-type=\"string\" office:string-value=\"a\"/>" +
+                        "</table:table-row>", sb.toString());
+    }
+
+    @Test
+    public final void testRepeatedRow() throws IOException {
+        final CellStyleRegistry registry = new CellStyleRegistry();
+        final TableRowImpl row1 = this.newRow(registry);
+        final TableRowImpl row2 = this.newRow(registry);
+        final TableRowImpl row3 = this.newRow(registry);
+        final TableRowImpl row4 = this.newRow(registry);
+
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        row1.getOrCreateCell(0).setStringValue("a");
+        row2.getOrCreateCell(0).setStringValue("a");
+        row3.getOrCreateCell(0).setStringValue("b");
+        row4.getOrCreateCell(0).setStringValue("a");
+        row1.setRowAttribute("attr", "value");
+        final StringBuilder sb = new StringBuilder();
+        row2.appendXMLToTable(this.xmlUtil, sb, 2);
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(row4.isRepetitionOf(row2));
+        Assert.assertFalse(row2.isRepetitionOf(row1));
+        Assert.assertFalse(row3.isRepetitionOf(row2));
+        DomTester.assertEquals(
+                "<table:table-row table:number-rows-repeated=\"2\" table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"a\"/>" +
+                        "</table:table-row>", sb.toString());
+    }
+
+    private TableRowImpl newRow(final CellStyleRegistry registry) {
+        return new TableRowImpl(IntegerRepresentationCache.create(), this.xmlUtil, this.stc,
+                this.ds, false, this.table, 10, 100, this.vc, new ChildCellStyleMemo(),
+                registry);
+    }
+
     @Test
     public final void testAppendRowOpenTag() throws IOException {
         PowerMock.resetAll();
@@ -0,0 +1,200 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.odselement.StylesContainerImpl;
+import com.github.jferard.fastods.odselement.UnregisteredOdsEntry;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.style.TableRowStyle;
+import com.github.jferard.fastods.testlib.DomTester;
+import com.github.jferard.fastods.testlib.ZipUTF8WriterMockHandler;
+import com.github.jferard.fastods.util.IntegerRepresentationCache;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.Date;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+public class TableStreamWriterTest {
+    private ZipUTF8WriterMockHandler handler;
+    private UnregisteredOdsEntry entry;
+    private XMLUtil xmlUtil;
+    private TableStreamWriter streamWriter;
+    private Table table;
+    private StylesContainer stylesContainer;
+
+    @Before
+    public void setUp() throws Exception {
+        final Constructor<?> constructor =
+                StylesContainerImpl.class.getDeclaredConstructor(Logger.class);
+        constructor.setAccessible(true);
+        this.stylesContainer = (StylesContainer) constructor.newInstance(Logger.getLogger(""));
+        this.xmlUtil = XMLUtil.create();
+        this.handler = ZipUTF8WriterMockHandler.create();
+        final ZipUTF8Writer writer = this.handler.getInstance(ZipUTF8Writer.class);
+        this.entry = new UnregisteredOdsEntry("content.xml");
+        writer.putNextEntry(this.entry);
+        final NamedOdsFileWriter observer =
+                new OdsFileDirectWriter(Logger.getLogger(""), this.xmlUtil, null, writer);
+        this.table = PowerMock.createMock(Table.class);
+        final TableAppender appender =
+                new TableAppender(PowerMock.createMock(TableModel.class));
+        final DataStyles dataStyles = DataStylesBuilder.create(Locale.US).build();
+        final ChildCellStyleMemo memo = new ChildCellStyleMemo();
+        final CellStyleRegistry registry = new CellStyleRegistry();
+        this.streamWriter = new TableStreamWriter(observer, appender, this.xmlUtil,
+                this.newRow(dataStyles, memo, registry), this.newRow(dataStyles, memo, registry));
+        PowerMock.resetAll();
+    }
+
+    private TableRowImpl newRow(final DataStyles dataStyles, final ChildCellStyleMemo memo,
+                                final CellStyleRegistry registry) {
+        return new TableRowImpl(IntegerRepresentationCache.create(), this.xmlUtil,
+                this.stylesContainer, dataStyles, false, this.table, 1, 10, null, memo,
+                registry);
+    }
+
+    @Test
+    public void testRows() throws IOException {
+        final TableRowStyle rowStyle = TableRowStyle.builder("tr").build();
+        final TableCellStyle cellStyle = TableCellStyle.builder("ce1").build();
+
+        PowerMock.replayAll();
+        this.streamWriter.beginRow(rowStyle);
+        this.streamWriter.writeString("a");
+        this.streamWriter.skip(2);
+        this.streamWriter.writeDouble(1.5, cellStyle);
+        this.streamWriter.endRow();
+        for (int i = 0; i < 3; i++) {
+            this.streamWriter.beginRow();
+            this.streamWriter.writeDouble(10);
+            this.streamWriter.writeDouble(10);
+            this.streamWriter.endRow();
+        }
+        this.streamWriter.beginRow();
+        this.streamWriter.writeString("b", cellStyle);
+        this.streamWriter.flush();
+
+        PowerMock.verifyAll();
+        DomTester.assertEquals("<table:table-row table:style-name=\"tr\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"a\"/>" +
+                        "<table:table-cell table:number-columns-repeated=\"2\"/>" +
+                        "<table:table-cell table:style-name=\"ce1\" " +
+                        "office:value-type=\"float\" office:value=\"1.5\"/>" +
+                        "</table:table-row>" +
+                        "<table:table-row table:number-rows-repeated=\"3\" " +
+                        "table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"float\" office:value=\"10.0\" " +
+                        "table:number-columns-repeated=\"2\"/>" +
+                        "</table:table-row>" +
+                        "<table:table-row table:style-name=\"ro1\">" +
+                        "<table:table-cell table:style-name=\"ce1\" " +
+                        "office:value-type=\"string\" office:string-value=\"b\"/>" +
+                        "</table:table-row>",
+                this.handler.getEntryAsString(this.entry.toString()));
+    }
+
+    @Test
+    public void testDate() throws IOException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.table.findDefaultCellStyle(0))
+                .andReturn(TableCellStyle.DEFAULT_CELL_STYLE).anyTimes();
+
+        PowerMock.replayAll();
+        for (int i = 0; i < 2; i++) {
+            this.streamWriter.beginRow();
+            this.streamWriter.writeDate(new Date(86400000L * (i + 1)));
+            this.streamWriter.endRow();
+        }
+        this.streamWriter.flush();
+
+        PowerMock.verifyAll();
+        final String xml = this.handler.getEntryAsString(this.entry.toString());
+        Assert.assertTrue(xml.contains("office:date-value=\"1970-01-02T"));
+        Assert.assertTrue(xml.contains("office:date-value=\"1970-01-03T"));
+        Assert.assertTrue(xml.contains("table:style-name=\"Default-_-"));
+    }
+
+    @Test
+    public void testNoRow() {
+        PowerMock.replayAll();
+        Assert.assertThrows(IllegalStateException.class, () -> this.streamWriter.writeString("a"));
+        Assert.assertThrows(IllegalStateException.class, () -> this.streamWriter.endRow());
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testRowNotEnded() {
+        PowerMock.replayAll();
+        this.streamWriter.beginRow();
+        Assert.assertThrows(IllegalStateException.class, () -> this.streamWriter.beginRow());
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.streamWriter.skip(-1));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testSkipRows() throws IOException {
+        PowerMock.replayAll();
+        this.streamWriter.beginRow();
+        this.streamWriter.writeString("a");
+        this.streamWriter.endRow();
+        this.streamWriter.skipRows(0);
+        this.streamWriter.skipRows(3);
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.streamWriter.skipRows(-1));
+        this.streamWriter.flush();
+
+        PowerMock.verifyAll();
+        DomTester.assertEquals("<table:table-row table:style-name=\"ro1\">" +
+                        "<table:table-cell office:value-type=\"string\" " +
+                        "office:string-value=\"a\"/>" +
+                        "</table:table-row>" +
+                        "<table:table-row table:number-rows-repeated=\"3\" " +
+                        "table:style-name=\"ro1\"><table:table-cell/></table:table-row>",
+                this.handler.getEntryAsString(this.entry.toString()));
+    }
+
+    @Test
+    public void testEmptyFlush() throws IOException {
+        PowerMock.replayAll();
+        this.streamWriter.flush();
+
+        PowerMock.verifyAll();
+        Assert.assertEquals("", this.handler.getEntryAsString(this.entry.toString()));
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.FastOdsException;
+import com.github.jferard.fastods.ObjectToCellValueConverter;
+import com.github.jferard.fastods.PercentageValue;
+import com.github.jferard.fastods.StringValue;
+import com.github.jferard.fastods.TableCellWalker;
+import com.github.jferard.fastods.ToCellValueConverter;
+import com.github.jferard.fastods.attribute.CellType;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+public class ColumnExtractorTest {
+    private static final StringValue NULL_VALUE = new StringValue("<NULL>");
+
+    private ResultSet rs;
+    private TableCellWalker walker;
+    private ToCellValueConverter converter;
+
+    @Before
+    public void setUp() {
+        this.rs = PowerMock.createMock(ResultSet.class);
+        this.walker = PowerMock.createMock(TableCellWalker.class);
+        this.converter = new ObjectToCellValueConverter("USD");
+    }
+
+    @Test
+    public void testInt() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getInt(1)).andReturn(10);
+        EasyMock.expect(this.rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(10);
+        EasyMock.expect(this.rs.getInt(1)).andReturn(0);
+        EasyMock.expect(this.rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.INTEGER);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testLong() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getLong(1)).andReturn(10L);
+        EasyMock.expect(this.rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(10L);
+        EasyMock.expect(this.rs.getLong(1)).andReturn(0L);
+        EasyMock.expect(this.rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.BIGINT);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testFloat() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getFloat(1)).andReturn(1.5f);
+        EasyMock.expect(this.rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(1.5f);
+        EasyMock.expect(this.rs.getFloat(1)).andReturn(0.0f);
+        EasyMock.expect(this.rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.REAL);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testDouble() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getDouble(1)).andReturn(1.5);
+        EasyMock.expect(this.rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(1.5);
+        EasyMock.expect(this.rs.getDouble(1)).andReturn(0.0);
+        EasyMock.expect(this.rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.DOUBLE);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testBigDecimal() throws SQLException, FastOdsException {
+        final BigDecimal value = new BigDecimal("1.50");
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getBigDecimal(1)).andReturn(value);
+        this.walker.setFloatValue(value);
+        EasyMock.expect(this.rs.getBigDecimal(1)).andReturn(null);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.DECIMAL);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testBoolean() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getBoolean(1)).andReturn(true);
+        EasyMock.expect(this.rs.wasNull()).andReturn(false);
+        this.walker.setBooleanValue(true);
+        EasyMock.expect(this.rs.getBoolean(1)).andReturn(false);
+        EasyMock.expect(this.rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.BOOLEAN);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testString() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getString(1)).andReturn("a");
+        this.walker.setStringValue("a");
+        EasyMock.expect(this.rs.getString(1)).andReturn(null);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.VARCHAR);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testDate() throws SQLException, FastOdsException {
+        final Date date = new Date(86400000L);
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getDate(1)).andReturn(date);
+        this.walker.setDateValue(date);
+        EasyMock.expect(this.rs.getDate(1)).andReturn(null);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.DATE);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testTime() throws SQLException, FastOdsException {
+        final Time time = new Time(3600000L);
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getTime(1)).andReturn(time);
+        this.walker.setDateValue(time);
+        EasyMock.expect(this.rs.getTime(1)).andReturn(null);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.TIME);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testTimestamp() throws SQLException, FastOdsException {
+        final Timestamp timestamp = new Timestamp(86400123L);
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getTimestamp(1)).andReturn(timestamp);
+        this.walker.setDateValue(timestamp);
+        EasyMock.expect(this.rs.getTimestamp(1)).andReturn(null);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.TIMESTAMP);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testOther() throws SQLException, FastOdsException {
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getObject(1)).andReturn(new byte[]{'a'});
+        this.walker.setCellValue(EasyMock.isA(StringValue.class));
+        EasyMock.expect(this.rs.getObject(1)).andReturn(null);
+        this.walker.setCellValue(NULL_VALUE);
+
+        PowerMock.replayAll();
+        this.extractTwice(Types.OTHER);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testHint() throws SQLException, FastOdsException {
+        final ColumnExtractor extractor = ColumnExtractor
+                .create(Types.DOUBLE, CellType.PERCENTAGE, this.converter, NULL_VALUE);
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.rs.getObject(1)).andReturn(0.5);
+        this.walker.setCellValue(PercentageValue.from(0.5));
+
+        PowerMock.replayAll();
+        extractor.extract(this.rs, 1, this.walker);
+
+        PowerMock.verifyAll();
+    }
+
+    private void extractTwice(final int sqlType) throws SQLException, FastOdsException {
+        final ColumnExtractor extractor =
+                ColumnExtractor.create(sqlType, null, this.converter, NULL_VALUE);
+        extractor.extract(this.rs, 1, this.walker);
+        extractor.extract(this.rs, 1, this.walker);
+    }
+}
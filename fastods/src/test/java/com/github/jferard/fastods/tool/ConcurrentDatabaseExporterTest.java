@@ -0,0 +1,258 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.OdsFactory;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ConcurrentDatabaseExporterTest {
+    private DataSource source;
+    private Map<String, ResultSet> rsByQuery;
+
+    @Before
+    public void setUp() {
+        this.source = PowerMock.createMock(DataSource.class);
+        this.rsByQuery = new HashMap<String, ResultSet>();
+    }
+
+    @Test
+    public void testBadBuilder() {
+        final ConcurrentDatabaseExporterBuilder builder =
+                ConcurrentDatabaseExporter.builder(this.source);
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.threads(0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.fetchSize(-1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.maxRowsInFlight(0));
+    }
+
+    @Test
+    public void testExportDatabase() throws SQLException, IOException {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final DatabaseExportProgress progress = new DatabaseExportProgress() {
+            @Override
+            public void tablesListed(final List<String> tableNames) {
+                events.add("listed " + tableNames);
+            }
+
+            @Override
+            public void tableFetched(final String tableName, final int rowCount) {
+                events.add("fetched " + tableName + " " + rowCount);
+            }
+
+            @Override
+            public void tableWritten(final String tableName, final int rowCount) {
+                events.add("written " + tableName + " " + rowCount);
+            }
+        };
+
+        PowerMock.resetAll();
+        final Connection connection = this.newMetaDataConnection("t1", "t2", "t3");
+        this.rsByQuery.put("SELECT * FROM t1", this.newResultSet(new String[]{"a", "b"},
+                new Object[][]{{1, "x"}, {2, null}, {3, "z"}}));
+        this.rsByQuery.put("SELECT * FROM t2",
+                this.newResultSet(new String[]{"c"}, new Object[][]{{"u"}, {"v"}}));
+        this.rsByQuery.put("SELECT * FROM t3",
+                this.newResultSet(new String[]{"d"}, new Object[][]{}));
+        EasyMock.expect(this.source.getConnection()).andReturn(connection)
+                .andReturn(this.newFetchConnection()).andReturn(this.newFetchConnection())
+                .andReturn(this.newFetchConnection());
+
+        PowerMock.replayAll();
+        final AnonymousOdsFileWriter writer =
+                OdsFactory.create(Logger.getLogger("export"), Locale.US).createWriter();
+        ConcurrentDatabaseExporter.builder(this.source).threads(2).fetchSize(100)
+                .maxRowsInFlight(1).progress(progress).build()
+                .exportDatabase(writer.document());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+
+        PowerMock.verifyAll();
+        final String content = this.getContent(out);
+        final int t1Index = content.indexOf("table:name=\"t1\"");
+        final int t2Index = content.indexOf("table:name=\"t2\"");
+        final int t3Index = content.indexOf("table:name=\"t3\"");
+        Assert.assertTrue(0 < t1Index && t1Index < t2Index && t2Index < t3Index);
+        Assert.assertTrue(content.indexOf("office:value=\"3\"") < t2Index);
+        Assert.assertTrue(content.indexOf("office:string-value=\"&lt;NULL&gt;\"") < t2Index);
+        Assert.assertTrue(content.indexOf("office:string-value=\"v\"") > t2Index);
+        Assert.assertTrue(content.indexOf("office:string-value=\"d\"") > t3Index);
+
+        Assert.assertEquals("listed [t1, t2, t3]", events.get(0));
+        Assert.assertEquals(Arrays.asList("written t1 3", "written t2 2", "written t3 0"),
+                this.filter(events, "written"));
+        Assert.assertEquals(3, this.filter(events, "fetched").size());
+    }
+
+    @Test
+    public void testExportDatabaseError() throws SQLException {
+        final Connection fetchConnection = PowerMock.createMock(Connection.class);
+        final Statement statement = PowerMock.createMock(Statement.class);
+
+        PowerMock.resetAll();
+        final Connection connection = this.newMetaDataConnection("t1");
+        EasyMock.expect(this.source.getConnection()).andReturn(connection)
+                .andReturn(fetchConnection);
+        EasyMock.expect(fetchConnection.createStatement()).andReturn(statement);
+        EasyMock.expect(statement.executeQuery("SELECT * FROM t1"))
+                .andThrow(new SQLException("boom"));
+        statement.close();
+        fetchConnection.close();
+
+        PowerMock.replayAll();
+        final AnonymousOdsFileWriter writer =
+                OdsFactory.create(Logger.getLogger("export"), Locale.US).createWriter();
+        final ConcurrentDatabaseExporter exporter =
+                ConcurrentDatabaseExporter.builder(this.source).threads(1).build();
+        Assert.assertThrows("boom", SQLException.class,
+                () -> exporter.exportDatabase(writer.document()));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testExportDatabaseRuntimeError() throws SQLException {
+        final Connection fetchConnection = PowerMock.createMock(Connection.class);
+        final Statement statement = PowerMock.createMock(Statement.class);
+
+        PowerMock.resetAll();
+        final Connection connection = this.newMetaDataConnection("t1");
+        EasyMock.expect(this.source.getConnection()).andReturn(connection)
+                .andReturn(fetchConnection);
+        EasyMock.expect(fetchConnection.createStatement()).andReturn(statement);
+        EasyMock.expect(statement.executeQuery("SELECT * FROM t1"))
+                .andThrow(new IllegalStateException("boom"));
+        statement.close();
+        fetchConnection.close();
+
+        PowerMock.replayAll();
+        final AnonymousOdsFileWriter writer =
+                OdsFactory.create(Logger.getLogger("export"), Locale.US).createWriter();
+        final ConcurrentDatabaseExporter exporter =
+                ConcurrentDatabaseExporter.builder(this.source).threads(1).build();
+        final IOException e = Assert.assertThrows(IOException.class,
+                () -> exporter.exportDatabase(writer.document()));
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+
+        PowerMock.verifyAll();
+    }
+
+    private Connection newMetaDataConnection(final String... tableNames) throws SQLException {
+        final Connection connection = PowerMock.createMock(Connection.class);
+        final DatabaseMetaData metaData = PowerMock.createMock(DatabaseMetaData.class);
+        final ResultSet rs = PowerMock.createMock(ResultSet.class);
+        EasyMock.expect(connection.getMetaData()).andReturn(metaData);
+        EasyMock.expect(metaData.getTables(null, "", null, null)).andReturn(rs);
+        for (final String tableName : tableNames) {
+            EasyMock.expect(rs.next()).andReturn(true);
+            EasyMock.expect(rs.getString(3)).andReturn(tableName);
+        }
+        EasyMock.expect(rs.next()).andReturn(false);
+        connection.close();
+        return connection;
+    }
+
+    private Connection newFetchConnection() throws SQLException {
+        final Connection connection = PowerMock.createMock(Connection.class);
+        final Statement statement = PowerMock.createMock(Statement.class);
+        EasyMock.expect(connection.createStatement()).andReturn(statement);
+        statement.setFetchSize(100);
+        EasyMock.expect(statement.executeQuery(EasyMock.anyString())).andAnswer(
+                () -> this.rsByQuery.get((String) EasyMock.getCurrentArguments()[0]));
+        statement.close();
+        connection.close();
+        return connection;
+    }
+
+    private ResultSet newResultSet(final String[] labels, final Object[][] rows)
+            throws SQLException {
+        final ResultSet rs = PowerMock.createMock(ResultSet.class);
+        final ResultSetMetaData metaData = PowerMock.createMock(ResultSetMetaData.class);
+        EasyMock.expect(rs.getMetaData()).andReturn(metaData);
+        EasyMock.expect(metaData.getColumnCount()).andReturn(labels.length);
+        for (int j = 0; j < labels.length; j++) {
+            EasyMock.expect(metaData.getColumnLabel(j + 1)).andReturn(labels[j]);
+        }
+        for (final Object[] row : rows) {
+            EasyMock.expect(rs.next()).andReturn(true);
+            for (int j = 0; j < row.length; j++) {
+                EasyMock.expect(rs.getObject(j + 1)).andReturn(row[j]);
+            }
+        }
+        EasyMock.expect(rs.next()).andReturn(false);
+        rs.close();
+        return rs;
+    }
+
+    private List<String> filter(final List<String> events, final String prefix) {
+        final List<String> filtered = new ArrayList<String>();
+        for (final String event : events) {
+            if (event.startsWith(prefix)) {
+                filtered.add(event);
+            }
+        }
+        return filtered;
+    }
+
+    private String getContent(final ByteArrayOutputStream out) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ZipEntry entry = zis.getNextEntry();
+        while (!entry.getName().equals("content.xml")) {
+            entry = zis.getNextEntry();
+        }
+        final ByteArrayOutputStream contentOut = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n = zis.read(buffer);
+        while (n != -1) {
+            contentOut.write(buffer, 0, n);
+            n = zis.read(buffer);
+        }
+        return new String(contentOut.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -49,6 +49,7 @@ import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -334,6 +335,67 @@ public class ResultSetDataWrapperTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public final void testTypedColumns() throws SQLException, IOException {
+        final ResultSet rs = PowerMock.createMock(ResultSet.class);
+        final ResultSetMetaData metaData = PowerMock.createMock(ResultSetMetaData.class);
+        final ResultSetDataWrapper wrapper =
+                ResultSetDataWrapper.builder("range", rs).logger(this.logger).headerStyle(this.tcls)
+                        .fetchSize(500).noAutoFilter().build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.walker.rowIndex()).andReturn(0);
+        EasyMock.expect(this.walker.colIndex()).andReturn(0);
+        EasyMock.expect(rs.getMetaData()).andReturn(metaData);
+        EasyMock.expect(metaData.getColumnCount()).andReturn(2).anyTimes();
+        EasyMock.expect(metaData.getColumnLabel(1)).andReturn("number");
+        EasyMock.expect(metaData.getColumnLabel(2)).andReturn("word");
+        EasyMock.expect(metaData.getColumnType(1)).andReturn(Types.INTEGER);
+        EasyMock.expect(metaData.getColumnType(2)).andReturn(Types.VARCHAR);
+        rs.setFetchSize(500);
+
+        // header
+        this.walker.setStringValue("number");
+        this.walker.setStyle(this.tcls);
+        this.walker.next();
+        this.walker.setStringValue("word");
+        this.walker.setStyle(this.tcls);
+        this.walker.next();
+
+        // data row
+        EasyMock.expect(rs.next()).andReturn(true);
+        this.walker.nextRow();
+        this.walker.to(0);
+        EasyMock.expect(rs.getInt(1)).andReturn(7);
+        EasyMock.expect(rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(7);
+        this.walker.next();
+        EasyMock.expect(rs.getString(2)).andReturn(null);
+        this.walker.setCellValue(new StringValue("<NULL>"));
+        this.walker.next();
+        EasyMock.expect(rs.next()).andReturn(false);
+        this.walker.nextRow();
+        this.walker.to(0);
+        this.walker.setStringValue("");
+        this.walker.next();
+        this.walker.setStringValue("");
+        this.walker.next();
+        this.walker.nextRow();
+
+        PowerMock.replayAll();
+        wrapper.addToTable(this.walker);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testBadFetchSize() {
+        final ResultSet rs = PowerMock.createMock(ResultSet.class);
+        final ResultSetDataWrapperBuilder builder = ResultSetDataWrapper.builder("range", rs);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.fetchSize(-1));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public final void testWrapperWithColumnHints()
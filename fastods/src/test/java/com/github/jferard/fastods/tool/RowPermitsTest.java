@@ -0,0 +1,100 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RowPermitsTest {
+    private RowPermits permits;
+    private TableRowsFetcher fetcher1;
+    private TableRowsFetcher fetcher2;
+
+    @Before
+    public void setUp() {
+        this.permits = new RowPermits(10);
+        this.fetcher1 = new TableRowsFetcher(null, "t1", 0, 5, this.permits, null);
+        this.fetcher2 = new TableRowsFetcher(null, "t2", 0, 5, this.permits, null);
+    }
+
+    @Test
+    public void testGlobalCap() throws InterruptedException {
+        this.permits.setCurrentFetcher(this.fetcher1);
+        this.permits.acquire(this.fetcher2, 6);
+        final Thread thread = this.acquireInThread(this.fetcher2, 6);
+        thread.join(100);
+        Assert.assertTrue(thread.isAlive());
+        Assert.assertEquals(6, this.permits.getRowsInFlight());
+
+        this.permits.release(this.fetcher2, 6);
+        thread.join(5000);
+        Assert.assertFalse(thread.isAlive());
+        Assert.assertEquals(6, this.permits.getRowsInFlight());
+    }
+
+    @Test
+    public void testCurrentFetcher() throws InterruptedException {
+        this.permits.acquire(this.fetcher2, 10);
+        this.permits.setCurrentFetcher(this.fetcher1);
+        // the rows of the next table must not block the table being written
+        this.permits.acquire(this.fetcher1, 5);
+        Assert.assertEquals(15, this.permits.getRowsInFlight());
+
+        final Thread thread = this.acquireInThread(this.fetcher1, 5);
+        thread.join(100);
+        Assert.assertTrue(thread.isAlive());
+
+        this.permits.release(this.fetcher1, 5);
+        thread.join(5000);
+        Assert.assertFalse(thread.isAlive());
+        Assert.assertEquals(15, this.permits.getRowsInFlight());
+    }
+
+    @Test
+    public void testBecomesCurrent() throws InterruptedException {
+        this.permits.acquire(this.fetcher1, 10);
+        final Thread thread = this.acquireInThread(this.fetcher2, 5);
+        thread.join(100);
+        Assert.assertTrue(thread.isAlive());
+
+        this.permits.setCurrentFetcher(this.fetcher2);
+        thread.join(5000);
+        Assert.assertFalse(thread.isAlive());
+        Assert.assertEquals(15, this.permits.getRowsInFlight());
+    }
+
+    private Thread acquireInThread(final TableRowsFetcher fetcher, final int rows) {
+        final Thread thread = new Thread(() -> {
+            try {
+                this.permits.acquire(fetcher, rows);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoundedHandoffQueueTest {
+    @Test
+    public void testCapacity() {
+        Assert.assertEquals(1, BoundedHandoffQueue.create(1).capacity());
+        Assert.assertEquals(4, BoundedHandoffQueue.create(3).capacity());
+        Assert.assertEquals(16, BoundedHandoffQueue.create(16).capacity());
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> BoundedHandoffQueue.create(0));
+    }
+
+    @Test
+    public void testOfferPoll() {
+        final BoundedHandoffQueue<String> queue = BoundedHandoffQueue.create(2);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.peek());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.offer("a"));
+        Assert.assertTrue(queue.offer("b"));
+        Assert.assertTrue(queue.isFull());
+        Assert.assertFalse(queue.offer("c"));
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(Arrays.asList("a", "b"), new ArrayList<String>(queue));
+        Assert.assertEquals("a", queue.peek());
+        Assert.assertEquals("a", queue.poll());
+        Assert.assertTrue(queue.offer("c"));
+        Assert.assertEquals("b", queue.poll());
+        Assert.assertEquals("c", queue.poll());
+        Assert.assertNull(queue.poll());
+        Assert.assertThrows(NullPointerException.class, () -> queue.offer(null));
+        Assert.assertThrows(NoSuchElementException.class, () -> queue.iterator().next());
+    }
+
+    @Test
+    public void testProducerConsumer() throws InterruptedException {
+        final int count = 100000;
+        final BoundedHandoffQueue<Integer> queue = BoundedHandoffQueue.create(4);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        queue.put(i);
+                    }
+                } catch (final Throwable e) {
+                    error.set(e);
+                }
+            }
+        };
+        producer.start();
+        final List<Integer> received = new ArrayList<Integer>(count);
+        while (received.size() < count) {
+            queue.awaitNotEmpty();
+            Integer i = queue.poll();
+            while (i != null) {
+                received.add(i);
+                i = queue.poll();
+            }
+        }
+        producer.join();
+        Assert.assertNull(error.get());
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, received.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testInterruptPut() throws InterruptedException {
+        final BoundedHandoffQueue<String> queue = BoundedHandoffQueue.create(1);
+        queue.offer("a");
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.put("b");
+                } catch (final Throwable e) {
+                    error.set(e);
+                }
+            }
+        };
+        producer.start();
+        Thread.sleep(50);
+        producer.interrupt();
+        producer.join();
+        Assert.assertTrue(error.get() instanceof InterruptedException);
+        Assert.assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testInterruptAwait() throws InterruptedException {
+        final BoundedHandoffQueue<String> queue = BoundedHandoffQueue.create(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.awaitNotEmpty();
+                } catch (final Throwable e) {
+                    error.set(e);
+                }
+            }
+        };
+        consumer.start();
+        Thread.sleep(50);
+        consumer.interrupt();
+        consumer.join();
+        Assert.assertTrue(error.get() instanceof InterruptedException);
+    }
+}
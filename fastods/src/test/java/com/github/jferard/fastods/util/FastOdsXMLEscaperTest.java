@@ -27,6 +27,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+
 public class FastOdsXMLEscaperTest {
     private XMLEscaper escaper;
 
@@ -167,11 +169,110 @@ public class FastOdsXMLEscaperTest {
         this.assertEqualsToContentEscaped("'abcde", "'abcde");
     }
 
+    @Test
+    public final void testAppendNullString() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.escaper.appendEscapedXMLAttribute(sb, null);
+        this.escaper.appendEscapedXMLContent(sb, null);
+        Assert.assertEquals("nullnull", sb.toString());
+    }
+
+    @Test
+    public final void testAppendAllChars() throws IOException {
+        for (char c = 0; c < 256; c++) {
+            for (final String s : new String[]{String.valueOf(c), "abc" + c, "abcdefg" + c + "h",
+                    c + "abcdefgh" + c}) {
+                this.assertEqualsToAttrEscaped(this.escaper.escapeXMLAttribute(s), s);
+                this.assertEqualsToContentEscaped(this.escaper.escapeXMLContent(s), s);
+            }
+        }
+    }
+
+    @Test
+    public final void testCacheCounters() {
+        final FastOdsXMLEscaper escaper = new FastOdsXMLEscaper(124, 1);
+        Assert.assertEquals("&lt;", escaper.escapeXMLAttribute("<"));
+        Assert.assertEquals("&lt;", escaper.escapeXMLAttribute("<"));
+        Assert.assertEquals("&gt;", escaper.escapeXMLAttribute(">"));
+        Assert.assertEquals("&lt;", escaper.escapeXMLAttribute("<"));
+        final StringCache cache = escaper.getAttributeCache();
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        Assert.assertEquals(0, escaper.getContentCache().getMissCount());
+    }
+
+    @Test
+    public final void testNoCache() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(0);
+        Assert.assertEquals("&amp;", escaper.escapeXMLContent("&"));
+        Assert.assertEquals("&amp;", escaper.escapeXMLContent("&"));
+        final StringCache cache = escaper.getContentCache();
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public final void testAppendCache() throws IOException {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(8);
+        final StringBuilder sb = new StringBuilder();
+        escaper.appendEscapedXMLAttribute(sb, "a&b");
+        escaper.appendEscapedXMLAttribute(sb, "a&b");
+        escaper.appendEscapedXMLAttribute(sb, "ab");
+        Assert.assertEquals("a&amp;ba&amp;bab", sb.toString());
+        final StringCache cache = escaper.getAttributeCache();
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0, escaper.getContentCache().getMissCount());
+    }
+
+    @Test
+    public final void testAppendLongValue() throws IOException {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(8);
+        final StringBuilder sb = new StringBuilder();
+        final StringBuilder longValue = new StringBuilder("<");
+        for (int i = 0; i < FastOdsXMLEscaper.CACHED_VALUE_MAX_LENGTH; i++) {
+            longValue.append('a');
+        }
+        escaper.appendEscapedXMLContent(sb, longValue.toString());
+        escaper.appendEscapedXMLContent(sb, longValue.toString());
+        Assert.assertEquals(2 * (longValue.length() + 3), sb.length());
+        Assert.assertEquals(0, escaper.getContentCache().getMissCount());
+    }
+
+    @Test
+    public final void testAppendNoCache() throws IOException {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(0);
+        final StringBuilder sb = new StringBuilder();
+        escaper.appendEscapedXMLContent(sb, "a&b");
+        escaper.appendEscapedXMLContent(sb, "a&b");
+        Assert.assertEquals("a&amp;ba&amp;b", sb.toString());
+        final StringCache cache = escaper.getContentCache();
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
     private void assertEqualsToAttrEscaped(final String expected, final String actualToEscape) {
         Assert.assertEquals(expected, this.escaper.escapeXMLAttribute(actualToEscape));
+        final StringBuilder sb = new StringBuilder();
+        try {
+            this.escaper.appendEscapedXMLAttribute(sb, actualToEscape);
+        } catch (final IOException e) {
+            throw new AssertionError(e);
+        }
+        Assert.assertEquals(expected, sb.toString());
     }
 
     private void assertEqualsToContentEscaped(final String expected, final String actualToEscape) {
         Assert.assertEquals(expected, this.escaper.escapeXMLContent(actualToEscape));
+        final StringBuilder sb = new StringBuilder();
+        try {
+            this.escaper.appendEscapedXMLContent(sb, actualToEscape);
+        } catch (final IOException e) {
+            throw new AssertionError(e);
+        }
+        Assert.assertEquals(expected, sb.toString());
     }
 }
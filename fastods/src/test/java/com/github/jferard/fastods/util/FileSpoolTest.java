@@ -0,0 +1,143 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+public class FileSpoolTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public final void testBadThreshold() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> FileSpool.create(0));
+    }
+
+    @Test
+    public final void testHeap() throws IOException {
+        final File dir = this.folder.newFolder();
+        final FileSpool spool = FileSpool.create(100, dir);
+        spool.append("abc").append("-def-", 1, 4).append('g');
+
+        final StringBuilder sb = new StringBuilder();
+        spool.transferTo(sb);
+        Assert.assertFalse(spool.isSpilled());
+        Assert.assertEquals("abcdefg", sb.toString());
+        Assert.assertEquals(0, dir.list().length);
+        spool.close();
+    }
+
+    @Test
+    public final void testSpill() throws IOException {
+        final File dir = this.folder.newFolder();
+        final FileSpool spool = FileSpool.create(4, dir);
+        spool.append("abc").append("-déf-", 1, 4).append('g').append("€");
+        Assert.assertTrue(spool.isSpilled());
+        Assert.assertEquals(1, dir.list().length);
+
+        final StringBuilder sb = new StringBuilder();
+        spool.transferTo(sb);
+        Assert.assertEquals("abcdéfg€", sb.toString());
+
+        spool.append("h");
+        final StringBuilder sb2 = new StringBuilder();
+        spool.transferTo(sb2);
+        Assert.assertEquals("abcdéfg€h", sb2.toString());
+
+        spool.close();
+        Assert.assertEquals(0, dir.list().length);
+    }
+
+    @Test
+    public final void testLongSpill() throws IOException {
+        final FileSpool spool = FileSpool.create(1000, this.folder.newFolder());
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            final String s = "<row>" + i + "</row>";
+            spool.append(s);
+            expected.append(s);
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        spool.transferTo(sb);
+        spool.close();
+        Assert.assertEquals(expected.toString(), sb.toString());
+    }
+
+    @Test
+    public final void testBudget() throws IOException {
+        final File dir = this.folder.newFolder();
+        final HeapBudget budget = HeapBudget.create(32 * 1024);
+        final FileSpool spool1 = FileSpool.create(budget, dir);
+        final FileSpool spool2 = FileSpool.create(budget, dir);
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10 * 1024; i++) {
+            spool1.append('a');
+            expected.append('a');
+        }
+        Assert.assertFalse(spool1.isSpilled());
+        Assert.assertEquals(16 * 1024, budget.getUsedBytes());
+        for (int i = 0; i < 12 * 1024; i++) {
+            spool2.append('b');
+        }
+        Assert.assertFalse(spool1.isSpilled());
+        Assert.assertTrue(spool2.isSpilled());
+
+        final StringBuilder sb = new StringBuilder();
+        spool1.transferTo(sb);
+        Assert.assertEquals(expected.toString(), sb.toString());
+        spool1.close();
+        spool2.close();
+        Assert.assertEquals(0, budget.getUsedBytes());
+        Assert.assertEquals(0, dir.list().length);
+    }
+
+    @Test
+    public final void testSpillByChunks() throws IOException {
+        final File dir = this.folder.newFolder();
+        final HeapBudget budget = HeapBudget.create(256 * 1024);
+        final FileSpool spool = FileSpool.create(budget, dir);
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 300 * 1024; i++) {
+            final char c = (char) ('a' + i % 26);
+            spool.append(c);
+            expected.append(c);
+        }
+        Assert.assertTrue(spool.isSpilled());
+        // the spool keeps less than a chunk once it has spilled
+        Assert.assertTrue(budget.getUsedBytes() < 2 * 64 * 1024);
+
+        final StringBuilder sb = new StringBuilder();
+        spool.transferTo(sb);
+        Assert.assertEquals(expected.toString(), sb.toString());
+        spool.close();
+        Assert.assertEquals(0, budget.getUsedBytes());
+    }
+}
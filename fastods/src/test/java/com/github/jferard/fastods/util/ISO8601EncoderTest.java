@@ -0,0 +1,154 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class ISO8601EncoderTest {
+    @Test
+    public void testDateTime() throws IOException {
+        Assert.assertEquals("1970-01-01T00:00:00.000Z", this.dateTime(0));
+        Assert.assertEquals("2009-02-13T23:31:31.011Z", this.dateTime(1234567891011L));
+        Assert.assertEquals("1969-12-31T23:59:59.999Z", this.dateTime(-1));
+    }
+
+    @Test
+    public void testDateTimeLikeSimpleDateFormat() throws IOException {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            // 1900 - 2100
+            final long millis = (long) ((random.nextDouble() * 200 - 70) * 365.25 * 86400000);
+            Assert.assertEquals(format.format(new Date(millis)), this.dateTime(millis));
+        }
+    }
+
+    @Test
+    public void testDateTimeBeforeGregorianCutover() throws IOException {
+        Assert.assertEquals("1582-10-15T00:00:00.000Z", this.dateTime(-12219292800000L));
+        Assert.assertEquals("1582-10-04T23:59:59.999Z", this.dateTime(-12219292800001L));
+        Assert.assertEquals("0001-01-01T00:00:00.000Z", this.dateTime(-62135769600000L));
+        Assert.assertEquals("0001-12-31T23:59:59.999Z", this.dateTime(-62135769600001L));
+    }
+
+    @Test
+    public void testOldDateTimeLikeSimpleDateFormat() throws IOException {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            // -4000 - 2000
+            final long millis = (long) ((random.nextDouble() * 6000 - 5970) * 365.25 * 86400000);
+            Assert.assertEquals(format.format(new Date(millis)), this.dateTime(millis));
+        }
+    }
+
+    @Test
+    public void testLocalDate() throws IOException {
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            final long epochDay = random.nextInt(10000000) - 5000000;
+            final StringBuilder sb = new StringBuilder();
+            ISO8601Encoder.appendLocalDate(sb, epochDay);
+            final LocalDate date = LocalDate.ofEpochDay(epochDay);
+            final int year = date.getYear();
+            Assert.assertEquals(String.format("%s%04d-%02d-%02d", year < 0 ? "-" : "",
+                    Math.abs(year), date.getMonthValue(), date.getDayOfMonth()), sb.toString());
+        }
+        Assert.assertEquals("0000-03-01", this.localDate(LocalDate.of(0, 3, 1)));
+        Assert.assertEquals("-0001-12-31", this.localDate(LocalDate.of(-1, 12, 31)));
+        Assert.assertEquals("2000-02-29", this.localDate(LocalDate.of(2000, 2, 29)));
+        Assert.assertEquals("12345-06-07", this.localDate(LocalDate.of(12345, 6, 7)));
+    }
+
+    @Test
+    public void testLocalDateTime() throws IOException {
+        Assert.assertEquals("2009-02-13T23:31:31",
+                this.localDateTime(LocalDateTime.of(2009, 2, 13, 23, 31, 31)));
+        Assert.assertEquals("2009-02-13T23:31:31.010",
+                this.localDateTime(LocalDateTime.of(2009, 2, 13, 23, 31, 31, 10000000)));
+        Assert.assertEquals("1900-01-01T00:00:00",
+                this.localDateTime(LocalDateTime.of(1900, 1, 1, 0, 0)));
+    }
+
+    @Test
+    public void testDuration() throws IOException {
+        Assert.assertEquals("P0Y", this.duration(0));
+        Assert.assertEquals("PT0.999S", this.duration(999));
+        Assert.assertEquals("PT1.0S", this.duration(1000));
+        Assert.assertEquals("PT0.05S", this.duration(50));
+        Assert.assertEquals("PT0.001S", this.duration(1));
+        Assert.assertEquals("PT123.456S", this.duration(123456));
+        Assert.assertEquals("-PT987.654S", this.duration(-987654));
+        Assert.assertEquals("PT100000000.0S", this.duration(100000000000L));
+        Assert.assertEquals("-PT9223372036854775.808S", this.duration(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testDurationLikeFormatTimeInterval() throws IOException {
+        final XMLUtil util = XMLUtil.create();
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            final long millis = random.nextInt(1000000000);
+            Assert.assertEquals(util.formatTimeInterval(0, 0, 0, 0, 0, (double) millis / 1000),
+                    this.duration(millis));
+        }
+    }
+
+    private String dateTime(final long millis) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        ISO8601Encoder.appendDateTime(sb, millis);
+        return sb.toString();
+    }
+
+    private String localDate(final LocalDate date) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        ISO8601Encoder.appendLocalDate(sb, date.toEpochDay());
+        return sb.toString();
+    }
+
+    private String localDateTime(final LocalDateTime dateTime) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        ISO8601Encoder.appendLocalDateTime(sb,
+                dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1000000);
+        return sb.toString();
+    }
+
+    private String duration(final long millis) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        ISO8601Encoder.appendDuration(sb, millis);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class NumberEncoderTest {
+    @Test
+    public void testLong() throws IOException {
+        Assert.assertEquals("0", this.longToString(0));
+        Assert.assertEquals("-1", this.longToString(-1));
+        Assert.assertEquals("1000000", this.longToString(1000000));
+        Assert.assertEquals("9223372036854775807", this.longToString(Long.MAX_VALUE));
+        Assert.assertEquals("-9223372036854775808", this.longToString(Long.MIN_VALUE));
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            final long value = random.nextLong() >> random.nextInt(64);
+            Assert.assertEquals(Long.toString(value), this.longToString(value));
+        }
+    }
+
+    @Test
+    public void testDouble() throws IOException {
+        Assert.assertEquals("0.0", this.doubleToString(0.0));
+        Assert.assertEquals("-0.0", this.doubleToString(-0.0));
+        Assert.assertEquals("10.0", this.doubleToString(10.0));
+        Assert.assertEquals("0.1", this.doubleToString(0.1));
+        Assert.assertEquals("-10.999", this.doubleToString(-10.999));
+        Assert.assertEquals("0.30000000000000004", this.doubleToString(0.1 + 0.2));
+        Assert.assertEquals("0.001", this.doubleToString(0.001));
+        Assert.assertEquals("9999999.5", this.doubleToString(9999999.5));
+        Assert.assertEquals("1.0E7", this.doubleToString(1e7));
+        Assert.assertEquals("-1.23456789E8", this.doubleToString(-123456789.0));
+        Assert.assertEquals("9.007199254740991E15", this.doubleToString(9007199254740991.0));
+        Assert.assertEquals("1.0E-4", this.doubleToString(0.0001));
+        Assert.assertEquals("1.0E20", this.doubleToString(1e20));
+        Assert.assertEquals("NaN", this.doubleToString(Double.NaN));
+        Assert.assertEquals("-Infinity", this.doubleToString(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testDoubleLikeToString() throws IOException {
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            final double value = Math.round(random.nextGaussian() * 1e10) / 100.0;
+            Assert.assertEquals(Double.toString(value), this.doubleToString(value));
+        }
+    }
+
+    @Test
+    public void testDoubleRoundTrip() throws IOException {
+        final Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            final double value = random.nextDouble() * Math.pow(10, random.nextInt(30) - 10);
+            final String s = this.doubleToString(value);
+            Assert.assertEquals(s, value, Double.parseDouble(s), 0.0);
+            Assert.assertTrue(s, s.length() <= Double.toString(value).length() + 10);
+        }
+    }
+
+    private String longToString(final long value) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        NumberEncoder.appendLong(sb, value);
+        return sb.toString();
+    }
+
+    private String doubleToString(final double value) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        NumberEncoder.appendDouble(sb, value);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class PagedFullListTest {
+    @Test
+    public final void testSetAndGet() {
+        final PagedFullList<String> pl = new PagedFullList<String>(4, 2);
+
+        Assert.assertEquals(0, pl.usedSize());
+        Assert.assertNull(pl.get(100));
+
+        pl.set(100, "a");
+        pl.set(3, "b");
+        Assert.assertEquals(101, pl.usedSize());
+        Assert.assertEquals("a", pl.get(100));
+        Assert.assertEquals("b", pl.get(3));
+        Assert.assertNull(pl.get(2));
+        Assert.assertNull(pl.get(99));
+
+        pl.set(1000, null);
+        Assert.assertEquals(101, pl.usedSize());
+    }
+
+    @Test
+    public final void testRemoveTrail() {
+        final PagedFullList<String> pl = new PagedFullList<String>(4, 4);
+        for (int i = 0; i < 10; i++) {
+            pl.set(i, "x");
+            Assert.assertEquals(i + 1, pl.usedSize());
+        }
+        pl.set(8, null);
+        pl.set(9, null);
+        Assert.assertEquals(8, pl.usedSize());
+    }
+
+    @Test
+    public final void testSubList() {
+        final PagedFullList<String> pl = new PagedFullList<String>(2, 2);
+        pl.set(1, "a");
+        pl.set(2, "b");
+        Assert.assertEquals(Arrays.asList(null, "a", "b", null), pl.subList(0, 4));
+    }
+
+    @Test
+    public final void testRelease() {
+        final PagedFullList<String> pl = new PagedFullList<String>(4, 4);
+        for (int i = 0; i < 20; i++) {
+            pl.set(i, "x" + i);
+        }
+        pl.releaseUntil(9);
+        Assert.assertEquals(8, pl.releasedSize());
+        Assert.assertTrue(pl.isReleased(7));
+        Assert.assertFalse(pl.isReleased(8));
+        Assert.assertEquals(20, pl.usedSize());
+        Assert.assertEquals("x8", pl.get(8));
+        Assert.assertEquals("x19", pl.get(19));
+        Assert.assertThrows(IllegalStateException.class, () -> pl.get(7));
+        Assert.assertThrows(IllegalStateException.class, () -> pl.set(0, "y"));
+
+        pl.set(30, "x30");
+        Assert.assertEquals("x30", pl.get(30));
+
+        pl.releaseUntil(8); // nothing to do
+        Assert.assertEquals(8, pl.releasedSize());
+        pl.releaseUntil(100);
+        Assert.assertEquals(100, pl.releasedSize());
+        Assert.assertEquals(100, pl.usedSize());
+        pl.set(101, "x101");
+        Assert.assertEquals("x101", pl.get(101));
+        Assert.assertEquals(102, pl.usedSize());
+    }
+
+    @Test
+    public final void testReleaseAndClear() {
+        final PagedFullList<String> pl = new PagedFullList<String>(4, 4);
+        for (int i = 0; i < 10; i++) {
+            pl.set(i, "x" + i);
+        }
+        pl.releaseAndClearUntil(6);
+        Assert.assertEquals(4, pl.releasedSize());
+        Assert.assertEquals(10, pl.usedSize());
+        Assert.assertNull(pl.get(4));
+        Assert.assertNull(pl.get(5));
+        Assert.assertEquals("x6", pl.get(6));
+        Assert.assertEquals("x9", pl.get(9));
+
+        pl.releaseAndClearUntil(8);
+        Assert.assertEquals(8, pl.releasedSize());
+        Assert.assertEquals("x8", pl.get(8));
+        pl.releaseAndClearUntil(30);
+        Assert.assertEquals(28, pl.releasedSize());
+        Assert.assertEquals(28, pl.usedSize());
+    }
+
+    @Test
+    public final void testBadPageSize() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new PagedFullList<String>(0, 10));
+    }
+}
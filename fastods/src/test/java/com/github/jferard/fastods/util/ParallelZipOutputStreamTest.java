@@ -0,0 +1,209 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+public class ParallelZipOutputStreamTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Test
+    public void testCrc32Combine() {
+        final byte[] bytes = "some text that will be split in two parts"
+                .getBytes(StandardCharsets.UTF_8);
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        final CRC32 crc1 = new CRC32();
+        crc1.update(bytes, 0, 10);
+        final CRC32 crc2 = new CRC32();
+        crc2.update(bytes, 10, bytes.length - 10);
+        Assert.assertEquals(crc.getValue(), ParallelZipOutputStream
+                .crc32Combine(crc1.getValue(), crc2.getValue(), bytes.length - 10));
+        Assert.assertEquals(crc1.getValue(),
+                ParallelZipOutputStream.crc32Combine(crc1.getValue(), 0, 0));
+    }
+
+    @Test
+    public void testDeflatedEntries() throws IOException {
+        final byte[] data = this.getData(100000);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParallelZipOutputStream zipOut =
+                new ParallelZipOutputStream(out, this.executor, false, 2, 1024);
+        zipOut.setLevel(1);
+        zipOut.putNextEntry(new ZipEntry("content.xml"));
+        zipOut.write(data, 0, 5);
+        zipOut.write(data[5]);
+        zipOut.write(data, 6, data.length - 6);
+        zipOut.putNextEntry(new ZipEntry("empty"));
+        zipOut.putNextEntry(new ZipEntry("été.xml"));
+        zipOut.write(data, 0, 10);
+        zipOut.close();
+
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals("content.xml", zis.getNextEntry().getName());
+        Assert.assertArrayEquals(data, this.readAll(zis));
+        Assert.assertEquals("empty", zis.getNextEntry().getName());
+        Assert.assertEquals(0, this.readAll(zis).length);
+        Assert.assertEquals("été.xml", zis.getNextEntry().getName());
+        Assert.assertEquals(10, this.readAll(zis).length);
+        Assert.assertNull(zis.getNextEntry());
+        Assert.assertTrue(out.size() < data.length / 2);
+    }
+
+    @Test
+    public void testCentralDirectory() throws IOException {
+        final byte[] data = this.getData(50000);
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final File file = File.createTempFile("fastods", ".zip");
+        file.deleteOnExit();
+        final ParallelZipOutputStream zipOut = new ParallelZipOutputStream(
+                new FileOutputStream(file), this.executor, false, 4, 4096);
+        final ZipEntry storedEntry = new ZipEntry("mimetype");
+        storedEntry.setMethod(ZipEntry.STORED);
+        storedEntry.setSize(data.length);
+        storedEntry.setCrc(crc.getValue());
+        zipOut.putNextEntry(storedEntry);
+        zipOut.write(data, 0, data.length);
+        zipOut.putNextEntry(new ZipEntry("content.xml"));
+        zipOut.write(data, 0, data.length);
+        zipOut.setComment("a comment");
+        zipOut.close();
+
+        final ZipFile zipFile = new ZipFile(file);
+        try {
+            Assert.assertEquals(2, zipFile.size());
+            Assert.assertEquals("a comment", zipFile.getComment());
+            final ZipEntry mimetype = zipFile.getEntry("mimetype");
+            Assert.assertEquals(ZipEntry.STORED, mimetype.getMethod());
+            Assert.assertEquals(data.length, mimetype.getCompressedSize());
+            Assert.assertArrayEquals(data, this.readAll(zipFile.getInputStream(mimetype)));
+            final ZipEntry content = zipFile.getEntry("content.xml");
+            Assert.assertEquals(ZipEntry.DEFLATED, content.getMethod());
+            Assert.assertEquals(crc.getValue(), content.getCrc());
+            Assert.assertEquals(data.length, content.getSize());
+            Assert.assertArrayEquals(data, this.readAll(zipFile.getInputStream(content)));
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void testStoredEntryWithoutCrc() throws IOException {
+        final ParallelZipOutputStream zipOut = new ParallelZipOutputStream(
+                new ByteArrayOutputStream(), this.executor, false, 4, 4096);
+        final ZipEntry storedEntry = new ZipEntry("mimetype");
+        storedEntry.setMethod(ZipEntry.STORED);
+        zipOut.putNextEntry(storedEntry);
+    }
+
+    @Test(expected = ZipException.class)
+    public void testStoredEntryWrongCrc() throws IOException {
+        final ParallelZipOutputStream zipOut = new ParallelZipOutputStream(
+                new ByteArrayOutputStream(), this.executor, false, 4, 4096);
+        final ZipEntry storedEntry = new ZipEntry("mimetype");
+        storedEntry.setMethod(ZipEntry.STORED);
+        storedEntry.setSize(1);
+        storedEntry.setCrc(0);
+        zipOut.putNextEntry(storedEntry);
+        zipOut.write('a');
+        zipOut.closeEntry();
+    }
+
+    @Test(expected = ZipException.class)
+    public void testWriteWithoutEntry() throws IOException {
+        final ParallelZipOutputStream zipOut = new ParallelZipOutputStream(
+                new ByteArrayOutputStream(), this.executor, false, 4, 4096);
+        zipOut.write('a');
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadBlockSize() {
+        new ParallelZipOutputStream(new ByteArrayOutputStream(), this.executor, false, 4, 0);
+    }
+
+    @Test
+    public void testOwnedExecutorIsShutDown() throws IOException {
+        final ExecutorService ownedExecutor = Executors.newSingleThreadExecutor();
+        final ParallelZipOutputStream zipOut = new ParallelZipOutputStream(
+                new ByteArrayOutputStream(), ownedExecutor, true, 1, 16);
+        zipOut.putNextEntry(new ZipEntry("a"));
+        zipOut.write(this.getData(100), 0, 100);
+        zipOut.close();
+        zipOut.close();
+        Assert.assertTrue(ownedExecutor.isShutdown());
+        Assert.assertFalse(this.executor.isShutdown());
+    }
+
+    private byte[] getData(final int size) {
+        final Random random = new Random(42);
+        final String[] words = {"<table:table-cell ", "office:value-type=\"float\" ",
+                "office:value=\"", "\"/>", "<text:p>", "</text:p>", "é", "€"};
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < size) {
+            sb.append(words[random.nextInt(words.length)]).append(random.nextInt(100));
+        }
+        return sb.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] readAll(final InputStream is) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int n = is.read(buffer);
+        while (n != -1) {
+            bytes.write(buffer, 0, n);
+            n = is.read(buffer);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringCacheTest {
+    @Test
+    public final void testLRU() {
+        final StringCache cache = StringCache.create(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        Assert.assertEquals("A", cache.get("a")); // b is now the eldest
+        cache.put("c", "C");
+
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("A", cache.get("a"));
+        Assert.assertEquals("C", cache.get("c"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(3, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals("StringCache[size=2/2, hits=3, misses=1, evictions=1]",
+                cache.toString());
+    }
+
+    @Test
+    public final void testDisabled() {
+        final StringCache cache = StringCache.create(0);
+        cache.put("a", "A");
+
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getMaxSize());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public final void testNegativeSize() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> StringCache.create(-1));
+    }
+}
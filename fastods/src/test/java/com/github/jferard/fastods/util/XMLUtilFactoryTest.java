@@ -0,0 +1,83 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class XMLUtilFactoryTest {
+    @Test
+    public void testSettings() throws IOException {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(0);
+        final XMLUtilFactory factory = XMLUtilFactory.create(escaper);
+        final XMLUtil xmlUtil = factory.newXMLUtil();
+        final StringBuilder sb = new StringBuilder();
+        xmlUtil.appendEAttribute(sb, "a", "<b>");
+        Assert.assertEquals(" a=\"&lt;b&gt;\"", sb.toString());
+        Assert.assertEquals(0, factory.getHitCount()); // no cache
+    }
+
+    @Test
+    public void testCounters() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(10);
+        final XMLUtilFactory factory = XMLUtilFactory.create(escaper);
+        escaper.escapeXMLAttribute("a&b");
+        final XMLUtil xmlUtil1 = factory.newXMLUtil();
+        final XMLUtil xmlUtil2 = factory.newXMLUtil();
+        Assert.assertEquals("a&amp;b", xmlUtil1.escapeXMLAttribute("a&b"));
+        xmlUtil1.escapeXMLAttribute("a&b");
+        xmlUtil2.escapeXMLAttribute("a&b");
+        Assert.assertEquals(1, factory.getHitCount());
+        Assert.assertEquals(3, factory.getMissCount());
+
+        factory.release(xmlUtil1);
+        factory.release(xmlUtil1);
+        Assert.assertEquals(1, factory.getHitCount());
+        Assert.assertEquals(3, factory.getMissCount());
+    }
+
+    @Test
+    public void testCountersOfAppendedValues() throws IOException {
+        final XMLUtilFactory factory = XMLUtilFactory.create(FastOdsXMLEscaper.create(10));
+        final XMLUtil xmlUtil = factory.newXMLUtil();
+        final StringBuilder sb = new StringBuilder();
+        xmlUtil.appendEAttribute(sb, "office:string-value", "a&b");
+        xmlUtil.appendEAttribute(sb, "office:string-value", "a&b");
+        xmlUtil.appendEAttribute(sb, "office:string-value", "ab"); // not counted
+        factory.release(xmlUtil);
+        Assert.assertEquals(1, factory.getHitCount());
+        Assert.assertEquals(1, factory.getMissCount());
+    }
+
+    @Test
+    public void testNewEscaper() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create(10).newEscaper();
+        Assert.assertEquals(10, escaper.getAttributeCache().getMaxSize());
+        Assert.assertEquals(10, escaper.getContentCache().getMaxSize());
+    }
+}
@@ -83,6 +83,18 @@ public class XMLUtilTest {
         Assert.assertEquals("<tag>content</tag>", this.sb.toString());
     }
 
+    @Test
+    public void testAppendEscapedTag() throws IOException {
+        this.xu.appendTag(this.sb, "tag", "a<b");
+        Assert.assertEquals("<tag>a&lt;b</tag>", this.sb.toString());
+    }
+
+    @Test
+    public void testAppendEContent() throws IOException {
+        this.xu.appendEContent(this.sb, "a&b'\"");
+        Assert.assertEquals("a&amp;b'\"", this.sb.toString());
+    }
+
     @Test
     public void testEscapeContent() {
         Assert.assertEquals("j&amp;v", this.xu.escapeXMLContent("j&v"));
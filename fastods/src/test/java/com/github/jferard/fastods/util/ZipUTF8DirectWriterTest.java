@@ -0,0 +1,151 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2023 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import com.github.jferard.fastods.odselement.ManifestElement;
+import com.github.jferard.fastods.odselement.StandardOdsEntry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class ZipUTF8DirectWriterTest {
+    private static final String TEXT = "ascii é ß € 😀 end";
+
+    private ByteArrayOutputStream out;
+
+    @Before
+    public void setUp() {
+        this.out = new ByteArrayOutputStream();
+    }
+
+    @Test
+    public final void testASCII() throws IOException {
+        final ZipUTF8Writer writer = this.createWriter(1024);
+        writer.append("<table:table-cell/>");
+        writer.append('c');
+        this.assertContent(writer, "<table:table-cell/>c");
+    }
+
+    @Test
+    public final void testNonASCII() throws IOException {
+        final ZipUTF8Writer writer = this.createWriter(1024);
+        writer.append(TEXT);
+        this.assertContent(writer, TEXT);
+    }
+
+    @Test
+    public final void testSmallBuffer() throws IOException {
+        final ZipUTF8Writer writer = this.createWriter(1);
+        for (int i = 0; i < 10; i++) {
+            writer.append(TEXT);
+        }
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.append(TEXT);
+        }
+        this.assertContent(writer, expected.toString());
+    }
+
+    @Test
+    public final void testSubSequence() throws IOException {
+        final ZipUTF8Writer writer = this.createWriter(5);
+        writer.append(new StringBuilder(TEXT), 6, 14);
+        this.assertContent(writer, TEXT.substring(6, 14));
+    }
+
+    @Test
+    public final void testSplitSurrogatePair() throws IOException {
+        final ZipUTF8Writer writer = this.createWriter(16);
+        writer.append("a\uD83D");
+        writer.append("\uDE00b");
+        writer.append('\uD83D');
+        writer.append('\uDE00');
+        this.assertContent(writer, "a😀b😀");
+    }
+
+    @Test
+    public final void testMalformedSurrogates() throws IOException {
+        final ZipUTF8Writer writer = this.createWriter(16);
+        writer.append("a\uDE00b\uD83Dc\uD83D😀");
+        writer.append('\uD83D');
+        writer.append('é');
+        writer.append('\uD83D');
+        this.assertContent(writer, "a?b?c?😀?é?");
+    }
+
+    @Test
+    public final void testSameAsWriterChain() throws IOException {
+        final ZipUTF8Writer writer = new ZipUTF8WriterBuilderImpl().build(this.out);
+        final ByteArrayOutputStream chainOut = new ByteArrayOutputStream();
+        final ZipUTF8Writer chainWriter =
+                new ZipUTF8WriterBuilderImpl().writerChain().build(chainOut);
+        for (final ZipUTF8Writer w : new ZipUTF8Writer[]{writer, chainWriter}) {
+            w.putAndRegisterNextEntry(new StandardOdsEntry("content.xml", null, null));
+            for (int i = 0; i < 1000; i++) {
+                w.append("<table:table-cell office:value=\"").append(String.valueOf(i))
+                        .append("\">").append(TEXT).append("</table:table-cell>");
+            }
+            w.closeEntry();
+            w.finish();
+            w.close();
+        }
+        Assert.assertArrayEquals(chainOut.toByteArray(), this.out.toByteArray());
+    }
+
+    private ZipUTF8Writer createWriter(final int bufferSize) throws IOException {
+        final ZipUTF8Writer writer =
+                new ZipUTF8DirectWriterImpl(XMLUtil.create(), new ZipOutputStream(this.out),
+                        bufferSize, ManifestElement.create());
+        writer.putNextEntry(new StandardOdsEntry("entry", null, null));
+        return writer;
+    }
+
+    private void assertContent(final ZipUTF8Writer writer, final String expected)
+            throws IOException {
+        writer.closeEntry();
+        writer.close();
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(this.out.toByteArray()));
+        final ZipEntry entry = zis.getNextEntry();
+        Assert.assertEquals("entry", entry.getName());
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buf = new byte[1024];
+        int n = zis.read(buf);
+        while (n != -1) {
+            content.write(buf, 0, n);
+            n = zis.read(buf);
+        }
+        Assert.assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                content.toByteArray());
+    }
+}
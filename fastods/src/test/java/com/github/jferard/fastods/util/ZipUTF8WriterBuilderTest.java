@@ -25,6 +25,7 @@ package com.github.jferard.fastods.util;
 
 import com.github.jferard.fastods.odselement.OdsEntry;
 import com.github.jferard.fastods.odselement.StandardOdsEntry;
+import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +36,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipInputStream;
 
 public class ZipUTF8WriterBuilderTest {
@@ -112,6 +115,115 @@ public class ZipUTF8WriterBuilderTest {
         Assert.assertEquals(ZipUTF8WriterBuilderTest.C_SIZE, this.out.size());
     }
 
+    @Test
+    public final void testWriterChain() throws IOException {
+        final ZipUTF8Writer writer = this.builder.writerChain().build(this.out);
+        Assert.assertTrue(writer instanceof ZipUTF8WriterImpl);
+        writer.putAndRegisterNextEntry(this.getManifestEntry());
+        writer.append('c');
+        writer.close();
+        this.checkZipFile();
+        Assert.assertEquals(ZipUTF8WriterBuilderTest.C_SIZE, this.out.size());
+    }
+
+    @Test
+    public final void testParallelDeflate() throws IOException {
+        final ZipUTF8Writer writer =
+                this.builder.parallelDeflate(2).deflateBlockSize(16).build(this.out);
+        writer.putAndRegisterNextEntry(this.getManifestEntry());
+        writer.append(
+                "some long text that can be zipped some long text that can be zipped some long " +
+                        "text that can be zipped some long text that can be zipped ");
+        writer.close();
+        this.checkZipFile();
+    }
+
+    @Test
+    public final void testParallelDeflateExecutor() throws IOException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ZipUTF8Writer writer =
+                    this.builder.parallelDeflate(executor, 1).build(this.out);
+            writer.putAndRegisterNextEntry(this.getManifestEntry());
+            writer.append('c');
+            writer.close();
+            this.checkZipFile();
+            Assert.assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testMetrics() throws IOException {
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+
+        PowerMock.resetAll();
+        metrics.entryWritten(EasyMock.eq("me"), EasyMock.eq(1L), EasyMock.eq(3L),
+                EasyMock.geq(0L));
+
+        PowerMock.replayAll();
+        final ZipUTF8Writer writer = this.builder.metrics(metrics).build(this.out);
+        writer.putAndRegisterNextEntry(this.getManifestEntry());
+        writer.append('c');
+        writer.closeEntry();
+        writer.close();
+
+        PowerMock.verifyAll();
+        this.checkZipFile();
+    }
+
+    @Test
+    public final void testMetricsWriterChain() throws IOException {
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+
+        PowerMock.resetAll();
+        metrics.entryWritten(EasyMock.eq("me"), EasyMock.eq(1L), EasyMock.eq(3L),
+                EasyMock.geq(0L));
+
+        PowerMock.replayAll();
+        final ZipUTF8Writer writer =
+                this.builder.writerChain().metrics(metrics).build(this.out);
+        writer.putAndRegisterNextEntry(this.getManifestEntry());
+        writer.append('c');
+        writer.closeEntry();
+        writer.close();
+
+        PowerMock.verifyAll();
+        this.checkZipFile();
+    }
+
+    @Test
+    public final void testMetricsParallelDeflate() throws IOException {
+        final WriterMetrics metrics = PowerMock.createMock(WriterMetrics.class);
+
+        PowerMock.resetAll();
+        metrics.entryWritten(EasyMock.eq("me"), EasyMock.eq(1L), EasyMock.eq(3L),
+                EasyMock.geq(0L));
+
+        PowerMock.replayAll();
+        final ZipUTF8Writer writer =
+                this.builder.parallelDeflate(1).metrics(metrics).build(this.out);
+        writer.putAndRegisterNextEntry(this.getManifestEntry());
+        writer.append('c');
+        writer.closeEntry();
+        writer.close();
+
+        PowerMock.verifyAll();
+        this.checkZipFile();
+    }
+
+    @Test
+    public final void testBadParallelDeflate() {
+        final ZipUTF8WriterBuilderImpl finalBuilder = this.builder;
+        Assert.assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+            @Override
+            public void run() {
+                finalBuilder.parallelDeflate(0);
+            }
+        });
+    }
+
     @Test
     public final void testImplicitDefault() throws IOException {
         final ZipUTF8Writer writer =